@@ -0,0 +1,281 @@
+/**
+ * Crash-safe file replacement. Content is written to a temporary file next to the target, forced to disk through
+ * its FileChannel and then renamed over the target, so a crash leaves either the old file or the new one, never a
+ * truncated one. Writes can be coalesced: within the commit window only the newest content for each target is
+ * forced and renamed, and all targets committed together share one batch. Writes to the same target are staged one at
+ * a time, so the content staged last is always the content committed last.
+ * @author Four Musketeers
+ */
+package com.narration;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+public class AtomicFileWriter {
+
+    /**
+     * Produces the new content of a file.
+     */
+    public interface Body {
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    private static final Map<Path, Path> pending = new LinkedHashMap<>();
+    private static final ConcurrentHashMap<Path, Object> targetLocks = new ConcurrentHashMap<>();
+    private static long commitWindowMillis = DataConstants.ATOMIC_COMMIT_WINDOW_MS;
+    private static boolean commitScheduled;
+    private static ScheduledExecutorService committer;
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(AtomicFileWriter::flushAll, "atomic-file-writer-shutdown"));
+    }
+
+    private AtomicFileWriter() {
+    }
+
+    /**
+     * Sets how long staged writes may wait so that later writes to the same file replace them.
+     * A window of 0 commits every write before returning.
+     * @param millis the commit window in milliseconds
+     */
+    public static synchronized void setCommitWindowMillis(long millis) {
+        commitWindowMillis = Math.max(0, millis);
+    }
+
+    public static synchronized long getCommitWindowMillis() {
+        return commitWindowMillis;
+    }
+
+    /**
+     * Writes new content for the file. The content is staged in a temporary file right away; it replaces the
+     * target when the commit window closes, or immediately when the window is 0. A concurrent write to the same file
+     * waits until this one is staged, so an older body can never replace a newer one.
+     * @param filePath the file to replace
+     * @param body writes the new content
+     * @throws IOException if the content cannot be staged or committed
+     */
+    public static void write(String filePath, Body body) throws IOException {
+        Path target = Paths.get(filePath).toAbsolutePath();
+        synchronized (lockFor(target)) {
+            Path staged = stage(target, body);
+            synchronized (AtomicFileWriter.class) {
+                Path superseded = pending.put(target, staged);
+                if (superseded != null) {
+                    Files.deleteIfExists(superseded);
+                }
+                if (commitWindowMillis == 0) {
+                    commit(target);
+                    return;
+                }
+                if (!commitScheduled) {
+                    commitScheduled = true;
+                    committer().schedule(AtomicFileWriter::flushAll, commitWindowMillis, TimeUnit.MILLISECONDS);
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes new content for the file and commits it before returning, whatever the commit window.
+     * @param filePath the file to replace
+     * @param body writes the new content
+     * @throws IOException if the content cannot be written
+     */
+    public static void writeNow(String filePath, Body body) throws IOException {
+        Path target = Paths.get(filePath).toAbsolutePath();
+        synchronized (lockFor(target)) {
+            Path staged = stage(target, body);
+            synchronized (AtomicFileWriter.class) {
+                Path superseded = pending.put(target, staged);
+                if (superseded != null) {
+                    Files.deleteIfExists(superseded);
+                }
+                commit(target);
+            }
+        }
+    }
+
+    /**
+     * Returns the lock held while a write to the target is staged and registered. It is always taken before the
+     * class lock, never inside it.
+     */
+    private static Object lockFor(Path target) {
+        return targetLocks.computeIfAbsent(target, path -> new Object());
+    }
+
+    /**
+     * Commits a staged write for the file, if there is one, so that readers see the newest content.
+     * @param filePath the file to commit
+     */
+    public static synchronized void flush(String filePath) {
+        Path target = Paths.get(filePath).toAbsolutePath();
+        if (pending.containsKey(target)) {
+            try {
+                commit(target);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Commits the staged writes for the files as one batch and reports whether they all reached their targets,
+     * so callers only treat their records as saved once the new content is in place.
+     * @param filePaths the files to commit
+     * @throws IOException if any of the files could not be committed; the others are still committed
+     */
+    public static synchronized void commit(List<String> filePaths) throws IOException {
+        Set<Path> directories = new HashSet<>();
+        IOException failure = null;
+        for (String filePath : filePaths) {
+            Path target = Paths.get(filePath).toAbsolutePath();
+            Path staged = pending.remove(target);
+            if (staged == null) {
+                continue;
+            }
+            try {
+                moveIntoPlace(target, staged);
+                directories.add(target.getParent());
+            } catch (IOException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        for (Path directory : directories) {
+            forceDirectory(directory);
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Commits every staged write as one batch: each temporary file is forced and renamed, and each directory
+     * involved is forced once at the end. Failures are only logged; callers that need to know use commit.
+     */
+    public static synchronized void flushAll() {
+        commitScheduled = false;
+        Set<Path> directories = new HashSet<>();
+        for (Path target : pending.keySet().toArray(new Path[0])) {
+            try {
+                moveIntoPlace(target, pending.remove(target));
+                directories.add(target.getParent());
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        for (Path directory : directories) {
+            forceDirectory(directory);
+        }
+    }
+
+    private static void commit(Path target) throws IOException {
+        Path staged = pending.remove(target);
+        if (staged != null) {
+            moveIntoPlace(target, staged);
+            forceDirectory(target.getParent());
+        }
+    }
+
+    /**
+     * Writes the body to a new temporary file in the target's directory and returns it, unforced.
+     */
+    private static Path stage(Path target, Body body) throws IOException {
+        Path directory = target.getParent();
+        Files.createDirectories(directory);
+        Path staged = Files.createTempFile(directory, "." + target.getFileName(), ".tmp");
+        try {
+            copyPermissions(target, staged);
+        } catch (IOException e) {
+            Files.deleteIfExists(staged);
+            throw e;
+        }
+        try (FileChannel channel = FileChannel.open(staged, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+             OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel), 64 * 1024)) {
+            body.writeTo(out);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(staged);
+            throw e;
+        }
+        return staged;
+    }
+
+    /**
+     * Forces the staged file and renames it over the target. A staged file that cannot be moved is deleted,
+     * leaving the old target in place.
+     */
+    private static void moveIntoPlace(Path target, Path staged) throws IOException {
+        try {
+            try (FileChannel channel = FileChannel.open(staged, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+            try {
+                Files.move(staged, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(staged, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(staged);
+            throw e;
+        }
+    }
+
+    /**
+     * Gives the staged file the target's permissions, since temporary files are created readable by the owner only.
+     * File systems without POSIX permissions keep their defaults.
+     */
+    private static void copyPermissions(Path target, Path staged) throws IOException {
+        if (!Files.exists(target)) {
+            return;
+        }
+        try {
+            Files.setPosixFilePermissions(staged, Files.getPosixFilePermissions(target));
+        } catch (UnsupportedOperationException e) {
+            // not a POSIX file system
+        }
+    }
+
+    /**
+     * Forces a directory so the rename itself is durable. Not every platform allows opening a directory,
+     * in which case the rename is left to the file system.
+     */
+    private static void forceDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // directories cannot be opened for sync on some platforms
+        }
+    }
+
+    private static ScheduledExecutorService committer() {
+        if (committer == null) {
+            committer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "atomic-file-writer");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return committer;
+    }
+}
@@ -0,0 +1,553 @@
+/**
+ * Compact binary snapshot of the JSON data files, read at start-up instead of parsing the JSON when it is fresh.
+ * The JSON files stay the interchange format; the snapshot is only a compiled copy of them.
+ *
+ * Layout (all numbers big-endian):
+ * magic, format version, then for each section its source file's path, size and modification time and the
+ * section's offset, a constant pool of every distinct string, then the users, courses, languages, words and
+ * phrases sections. Strings are stored as pool indexes (-1 for null), UUIDs as two longs (both zero for null) and
+ * lists as a count followed by their elements. A user record holds the ID of each course the user is enrolled in,
+ * followed by that user's enrollment: access, then a count of lesson ID and progress pairs. The courses themselves
+ * are resolved through CourseCatalog when the users are read. A section is only used while its source file is
+ * unchanged, so editing one JSON file does not invalidate the others.
+ * @author Four Musketeers
+ */
+package com.narration;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+public class BinarySnapshot {
+
+    public static final int MAGIC = 0x5350454B; // "SPEK"
+    public static final int FORMAT_VERSION = 3;
+
+    private static final int USERS = 0;
+    private static final int COURSES = 1;
+    private static final int LANGUAGES = 2;
+    private static final int WORDS = 3;
+    private static final int PHRASES = 4;
+    private static final int SECTION_COUNT = 5;
+
+    private static BinarySnapshot cached;
+
+    private final File file;
+    private final long fileModified;
+    private final long fileLength;
+    private final ByteBuffer buffer;
+    private final String[] pool;
+    private final int[] sectionOffsets;
+    private final String[] sources;
+    private final long[] sourceLengths;
+    private final long[] sourceModified;
+
+    private BinarySnapshot(File file, ByteBuffer buffer) throws IOException {
+        this.file = file;
+        this.fileModified = file.lastModified();
+        this.fileLength = file.length();
+        this.buffer = buffer;
+        if (buffer.getInt() != MAGIC) {
+            throw new IOException("Not a data snapshot: " + file);
+        }
+        int version = buffer.getInt();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported data snapshot version: " + version);
+        }
+
+        sources = new String[SECTION_COUNT];
+        sourceLengths = new long[SECTION_COUNT];
+        sourceModified = new long[SECTION_COUNT];
+        sectionOffsets = new int[SECTION_COUNT];
+        for (int i = 0; i < SECTION_COUNT; i++) {
+            sources[i] = readUtf8(buffer);
+            sourceLengths[i] = buffer.getLong();
+            sourceModified[i] = buffer.getLong();
+            sectionOffsets[i] = buffer.getInt();
+        }
+
+        pool = new String[buffer.getInt()];
+        for (int i = 0; i < pool.length; i++) {
+            pool[i] = readUtf8(buffer);
+        }
+    }
+
+    /**
+     * Opens the snapshot file. The opened snapshot is kept until the file changes, so later calls are cheap.
+     * @param snapshotPath the snapshot file
+     * @return the snapshot, or null when it is missing or unreadable
+     */
+    public static synchronized BinarySnapshot open(String snapshotPath) {
+        File file = new File(snapshotPath);
+        if (!file.isFile()) {
+            return null;
+        }
+        BinarySnapshot snapshot = cached;
+        if (snapshot != null && snapshot.file.equals(file) && snapshot.fileModified == file.lastModified()
+                && snapshot.fileLength == file.length()) {
+            return snapshot;
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            snapshot = new BinarySnapshot(file, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Ignoring data snapshot " + snapshotPath + ": " + e.getMessage());
+            return null;
+        }
+        cached = snapshot;
+        return snapshot;
+    }
+
+    /**
+     * Compiles the JSON files into a snapshot. The size and modification time of each file are taken before it is
+     * read, so a file changed while compiling makes its section stale rather than wrongly fresh.
+     * @param snapshotPath the snapshot file to write
+     * @param usersFile the users JSON file
+     * @param coursesFile the courses JSON file
+     * @param languagesFile the languages JSON file
+     * @param wordsFile the words JSON file
+     * @param phrasesFile the phrases JSON file
+     * @throws IOException if the snapshot cannot be written
+     */
+    public static void compile(String snapshotPath, String usersFile, String coursesFile, String languagesFile,
+                               String wordsFile, String phrasesFile) throws IOException {
+        String[] sourcePaths = {usersFile, coursesFile, languagesFile, wordsFile, phrasesFile};
+        long[] lengths = new long[SECTION_COUNT];
+        long[] modified = new long[SECTION_COUNT];
+        for (int i = 0; i < SECTION_COUNT; i++) {
+            AtomicFileWriter.flush(sourcePaths[i]);
+            File source = new File(sourcePaths[i]);
+            lengths[i] = source.length();
+            modified[i] = source.lastModified();
+        }
+
+        write(snapshotPath, sourcePaths, lengths, modified,
+                DataLoader.getUsersFromJson(usersFile),
+                DataLoader.loadCoursesFromJson(coursesFile),
+                DataLoader.getLanguagesFromJson(languagesFile),
+                DataLoader.loadWordsFromJson(wordsFile).getAllWords(),
+                DataLoader.loadPhrasesFromJson(phrasesFile).getAllPhrases());
+    }
+
+    /**
+     * Checks that a section was compiled from this file and that the file has not changed since.
+     */
+    private boolean isFresh(int section, String sourcePath) {
+        AtomicFileWriter.flush(sourcePath);
+        File source = new File(sourcePath);
+        return sources[section].equals(sourcePath) && source.length() == sourceLengths[section]
+                && source.lastModified() == sourceModified[section];
+    }
+
+    private static void write(String snapshotPath, String[] sourcePaths, long[] lengths, long[] modified,
+                              List<User> users, List<Course> courses, List<Language> languages,
+                              List<Word> words, List<Phrase> phrases) throws IOException {
+        Map<String, Integer> poolIndex = new HashMap<>();
+        List<String> poolStrings = new ArrayList<>();
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(body);
+        int[] offsets = new int[SECTION_COUNT];
+
+        offsets[USERS] = out.size();
+        out.writeInt(users.size());
+        for (User user : users) {
+            writeUser(out, user, poolIndex, poolStrings);
+        }
+
+        offsets[COURSES] = out.size();
+        out.writeInt(courses.size());
+        for (Course course : courses) {
+            writeCourse(out, course, poolIndex, poolStrings);
+        }
+
+        offsets[LANGUAGES] = out.size();
+        out.writeInt(languages.size());
+        for (Language language : languages) {
+            writeUUID(out, language.getId());
+            writeString(out, language.getName(), poolIndex, poolStrings);
+        }
+
+        offsets[WORDS] = out.size();
+        out.writeInt(words.size());
+        for (Word word : words) {
+            writeString(out, word.getWordText(), poolIndex, poolStrings);
+            writeString(out, word.getDefinition(), poolIndex, poolStrings);
+            writeString(out, word.getDifficulty(), poolIndex, poolStrings);
+            writeString(out, word.getTranslation(), poolIndex, poolStrings);
+        }
+
+        offsets[PHRASES] = out.size();
+        out.writeInt(phrases.size());
+        for (Phrase phrase : phrases) {
+            writeString(out, phrase.getPhraseText(), poolIndex, poolStrings);
+            writeString(out, phrase.getDefinition(), poolIndex, poolStrings);
+        }
+        out.flush();
+
+        ByteArrayOutputStream poolBytes = new ByteArrayOutputStream();
+        DataOutputStream poolOut = new DataOutputStream(poolBytes);
+        poolOut.writeInt(poolStrings.size());
+        for (String string : poolStrings) {
+            writeUtf8(poolOut, string);
+        }
+        poolOut.flush();
+
+        int bodyStart = 2 * Integer.BYTES + poolBytes.size();
+        for (String sourcePath : sourcePaths) {
+            bodyStart += Integer.BYTES + sourcePath.getBytes(StandardCharsets.UTF_8).length + 2 * Long.BYTES + Integer.BYTES;
+        }
+        int bodyOffset = bodyStart;
+
+        AtomicFileWriter.writeNow(snapshotPath, target -> {
+            DataOutputStream header = new DataOutputStream(new BufferedOutputStream(target, 64 * 1024));
+            header.writeInt(MAGIC);
+            header.writeInt(FORMAT_VERSION);
+            for (int i = 0; i < SECTION_COUNT; i++) {
+                writeUtf8(header, sourcePaths[i]);
+                header.writeLong(lengths[i]);
+                header.writeLong(modified[i]);
+                header.writeInt(bodyOffset + offsets[i]);
+            }
+            poolBytes.writeTo(header);
+            body.writeTo(header);
+            header.flush();
+        });
+        synchronized (BinarySnapshot.class) {
+            cached = null;
+        }
+    }
+
+    /**
+     * Reads the users section if the users file is unchanged since the snapshot was compiled. Enrolled courses are
+     * the shared instances from CourseCatalog; when one is not known yet, the courses are first read from this
+     * snapshot's courses section, or from the courses file if that section is stale, and added to the catalog.
+     * @param sourcePath the users JSON file
+     * @return new User objects, marked as saved, or null when the section is stale or names a course that does not exist
+     */
+    public ArrayList<User> readUsers(String sourcePath) {
+        if (!isFresh(USERS, sourcePath)) {
+            return null;
+        }
+        ArrayList<User> users = readUserSection();
+        if (users == null) {
+            ArrayList<Course> courses = readCourses(sources[COURSES]);
+            if (courses == null) {
+                courses = DataLoader.loadCoursesFromJson(sources[COURSES]);
+            }
+            for (Course course : courses) {
+                CourseCatalog.intern(course);
+            }
+            users = readUserSection();
+        }
+        return users;
+    }
+
+    /**
+     * Reads every user, or returns null as soon as a user is enrolled in a course CourseCatalog does not know.
+     */
+    private ArrayList<User> readUserSection() {
+        ByteBuffer in = section(USERS);
+        int count = in.getInt();
+        ArrayList<User> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            User user = readUser(in);
+            if (user == null) {
+                return null;
+            }
+            users.add(user);
+        }
+        return users;
+    }
+
+    /**
+     * Reads the courses section if the courses file is unchanged since the snapshot was compiled.
+     * @param sourcePath the courses JSON file
+     * @return new Course objects, marked as saved, or null when the section is stale
+     */
+    public ArrayList<Course> readCourses(String sourcePath) {
+        if (!isFresh(COURSES, sourcePath)) {
+            return null;
+        }
+        ByteBuffer in = section(COURSES);
+        int count = in.getInt();
+        ArrayList<Course> courses = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            courses.add(readCourse(in));
+        }
+        return courses;
+    }
+
+    /**
+     * Reads the languages section if the languages file is unchanged since the snapshot was compiled.
+     * @param sourcePath the languages JSON file
+     * @return new Language objects, or null when the section is stale
+     */
+    public ArrayList<Language> readLanguages(String sourcePath) {
+        if (!isFresh(LANGUAGES, sourcePath)) {
+            return null;
+        }
+        ByteBuffer in = section(LANGUAGES);
+        int count = in.getInt();
+        ArrayList<Language> languages = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            UUID id = readUUID(in);
+            languages.add(new Language(id, readString(in)));
+        }
+        return languages;
+    }
+
+    /**
+     * Reads the words section if the words file is unchanged since the snapshot was compiled.
+     * @param sourcePath the words JSON file
+     * @return new Word objects, or null when the section is stale
+     */
+    public ArrayList<Word> readWords(String sourcePath) {
+        if (!isFresh(WORDS, sourcePath)) {
+            return null;
+        }
+        ByteBuffer in = section(WORDS);
+        int count = in.getInt();
+        ArrayList<Word> words = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String wordText = readString(in);
+            String definition = readString(in);
+            String difficulty = readString(in);
+            words.add(new Word(wordText, definition, difficulty, readString(in)));
+        }
+        return words;
+    }
+
+    /**
+     * Reads the phrases section if the phrases file is unchanged since the snapshot was compiled.
+     * @param sourcePath the phrases JSON file
+     * @return new Phrase objects, or null when the section is stale
+     */
+    public ArrayList<Phrase> readPhrases(String sourcePath) {
+        if (!isFresh(PHRASES, sourcePath)) {
+            return null;
+        }
+        ByteBuffer in = section(PHRASES);
+        int count = in.getInt();
+        ArrayList<Phrase> phrases = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String phraseText = readString(in);
+            phrases.add(new Phrase(phraseText, readString(in)));
+        }
+        return phrases;
+    }
+
+    private ByteBuffer section(int section) {
+        ByteBuffer in = buffer.duplicate();
+        in.position(sectionOffsets[section]);
+        return in;
+    }
+
+    private static void writeUser(DataOutputStream out, User user, Map<String, Integer> poolIndex, List<String> poolStrings) throws IOException {
+        writeUUID(out, user.getId());
+        writeString(out, user.getUsername(), poolIndex, poolStrings);
+        writeString(out, user.getEmail(), poolIndex, poolStrings);
+        writeString(out, user.getPassword(), poolIndex, poolStrings);
+
+        ArrayList<Course> courses = user.getCourses();
+        out.writeInt(courses == null ? 0 : courses.size());
+        if (courses != null) {
+            for (Course course : courses) {
+                UUID courseId = course == null ? null : course.getId();
+                writeUUID(out, courseId);
+                writeEnrollment(out, courseId == null ? null : user.getEnrollment(courseId));
+            }
+        }
+
+        Map<UUID, Double> progress = user.getProgress();
+        out.writeInt(progress == null ? 0 : progress.size());
+        if (progress != null) {
+            for (Map.Entry<UUID, Double> entry : progress.entrySet()) {
+                writeUUID(out, entry.getKey());
+                out.writeDouble(entry.getValue() == null ? 0.0 : entry.getValue());
+            }
+        }
+
+        ArrayList<UUID> completedCourses = user.getCompletedCourses();
+        out.writeInt(completedCourses == null ? 0 : completedCourses.size());
+        if (completedCourses != null) {
+            for (UUID courseId : completedCourses) {
+                writeUUID(out, courseId);
+            }
+        }
+
+        writeUUID(out, user.getCurrentCourse());
+        writeUUID(out, user.getCurrentLanguage());
+        writeString(out, user.getCurrentLanguageName(), poolIndex, poolStrings);
+    }
+
+    private User readUser(ByteBuffer in) {
+        UUID id = readUUID(in);
+        String username = readString(in);
+        String email = readString(in);
+        String password = readString(in);
+
+        int courseCount = in.getInt();
+        ArrayList<Enrollment> enrollments = new ArrayList<>(courseCount);
+        for (int i = 0; i < courseCount; i++) {
+            enrollments.add(readEnrollment(in, readUUID(in)));
+        }
+
+        int progressCount = in.getInt();
+        HashMap<UUID, Double> progress = new HashMap<>();
+        for (int i = 0; i < progressCount; i++) {
+            UUID courseId = readUUID(in);
+            progress.put(courseId, in.getDouble());
+        }
+
+        int completedCount = in.getInt();
+        ArrayList<UUID> completedCourses = new ArrayList<>(completedCount);
+        for (int i = 0; i < completedCount; i++) {
+            completedCourses.add(readUUID(in));
+        }
+
+        UUID currentCourseID = readUUID(in);
+        UUID currentLanguageID = readUUID(in);
+        String currentLanguageName = readString(in);
+        User user = new User(id, username, email, password, new ArrayList<>(), progress, completedCourses,
+                currentCourseID, new ArrayList<>(), currentLanguageID, currentLanguageName);
+        for (Enrollment enrollment : enrollments) {
+            Course course = CourseCatalog.find(enrollment.getCourseId());
+            if (course == null) {
+                return null;
+            }
+            user.addCourse(course);
+            user.setCourseAccess(enrollment.getCourseId(), enrollment.getUserAccess());
+            for (Map.Entry<UUID, Double> lesson : enrollment.getAllLessonProgress().entrySet()) {
+                user.updateLessonProgress(enrollment.getCourseId(), lesson.getKey(), lesson.getValue());
+            }
+        }
+        user.markSaved(user.getVersion());
+        return user;
+    }
+
+    private static void writeEnrollment(DataOutputStream out, Enrollment enrollment) throws IOException {
+        out.writeBoolean(enrollment != null && enrollment.getUserAccess());
+        Map<UUID, Double> lessonProgress = enrollment == null ? Collections.emptyMap() : enrollment.getAllLessonProgress();
+        out.writeInt(lessonProgress.size());
+        for (Map.Entry<UUID, Double> entry : lessonProgress.entrySet()) {
+            writeUUID(out, entry.getKey());
+            out.writeDouble(entry.getValue() == null ? 0.0 : entry.getValue());
+        }
+    }
+
+    private Enrollment readEnrollment(ByteBuffer in, UUID courseId) {
+        Enrollment enrollment = new Enrollment(courseId);
+        enrollment.setUserAccess(in.get() != 0);
+        int lessonCount = in.getInt();
+        for (int i = 0; i < lessonCount; i++) {
+            UUID lessonId = readUUID(in);
+            enrollment.setLessonProgress(lessonId, in.getDouble());
+        }
+        return enrollment;
+    }
+
+    private static void writeCourse(DataOutputStream out, Course course, Map<String, Integer> poolIndex,
+            List<String> poolStrings) throws IOException {
+        writeUUID(out, course.getId());
+        writeString(out, course.getName(), poolIndex, poolStrings);
+        writeString(out, course.getDescription(), poolIndex, poolStrings);
+        out.writeBoolean(course.getUserAccess());
+        out.writeBoolean(course.isCompletedCourse());
+        out.writeDouble(course.getCourseProgress());
+
+        ArrayList<Lesson> lessons = course.getAllLessons();
+        out.writeInt(lessons == null ? 0 : lessons.size());
+        if (lessons != null) {
+            for (Lesson lesson : lessons) {
+                writeString(out, lesson.getLessonName(), poolIndex, poolStrings);
+                writeUUID(out, lesson.getId());
+                writeString(out, lesson.getDescription(), poolIndex, poolStrings);
+                out.writeDouble(lesson.getLessonProgress());
+                writeString(out, lesson.getEnglishContent(), poolIndex, poolStrings);
+                writeString(out, lesson.getSpanishContent(), poolIndex, poolStrings);
+            }
+        }
+    }
+
+    private Course readCourse(ByteBuffer in) {
+        UUID id = readUUID(in);
+        String name = readString(in);
+        String description = readString(in);
+        boolean userAccess = in.get() != 0;
+        boolean completed = in.get() != 0;
+        double courseProgress = in.getDouble();
+
+        int lessonCount = in.getInt();
+        ArrayList<Lesson> lessons = new ArrayList<>(lessonCount);
+        for (int i = 0; i < lessonCount; i++) {
+            String lessonName = readString(in);
+            UUID lessonId = readUUID(in);
+            String lessonDescription = readString(in);
+            double lessonProgress = in.getDouble();
+            String englishContent = readString(in);
+            String spanishContent = readString(in);
+            Lesson lesson = new Lesson(lessonName, lessonId, lessonDescription, lessonProgress, englishContent, spanishContent);
+            lesson.markSaved(lesson.getVersion());
+            lessons.add(lesson);
+        }
+
+        FlashcardQuestion flashcard = new FlashcardQuestion("Default Question", "Default Answer");
+        Course course = new Course(id, name, description, userAccess, courseProgress, completed, lessons,
+                new ArrayList<>(), new ArrayList<>(), flashcard);
+        course.markSaved(course.getVersion());
+        return course;
+    }
+
+    private static void writeString(DataOutputStream out, String value, Map<String, Integer> poolIndex, List<String> poolStrings) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        Integer index = poolIndex.get(value);
+        if (index == null) {
+            index = poolStrings.size();
+            poolStrings.add(value);
+            poolIndex.put(value, index);
+        }
+        out.writeInt(index);
+    }
+
+    private String readString(ByteBuffer in) {
+        int index = in.getInt();
+        return index < 0 ? null : pool[index];
+    }
+
+    private static void writeUUID(DataOutputStream out, UUID id) throws IOException {
+        out.writeLong(id == null ? 0L : id.getMostSignificantBits());
+        out.writeLong(id == null ? 0L : id.getLeastSignificantBits());
+    }
+
+    private static UUID readUUID(ByteBuffer in) {
+        long most = in.getLong();
+        long least = in.getLong();
+        return most == 0L && least == 0L ? null : new UUID(most, least);
+    }
+
+    private static void writeUtf8(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readUtf8(ByteBuffer in) {
+        byte[] bytes = new byte[in.getInt()];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,177 @@
+/**
+ * Watches data files such as the courses and words files and reloads a file in the background when it changes,
+ * so publishing new content does not need a restart. Only the changed file is reloaded, once its own burst of changes
+ * settles; writes to other files in the same directory do not hold it back.
+ * @author Four Musketeers
+ */
+package com.narration;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+public class CatalogWatcher {
+
+    private static CatalogWatcher catalogWatcher;
+
+    private final long settleMillis;
+    private final Map<Path, Runnable> reloads = new ConcurrentHashMap<>();
+    private final Set<Path> directories = new HashSet<>();
+    private WatchService watchService;
+    private Thread thread;
+
+    /**
+     * Creates a watcher that reloads a file once it has not changed for the given time.
+     * @param settleMillis how long a file must stay unchanged before it is reloaded
+     */
+    CatalogWatcher(long settleMillis) {
+        this.settleMillis = settleMillis;
+    }
+
+    /**
+     * Returns the shared watcher used for the application's data files.
+     * @return the single instance of CatalogWatcher
+     */
+    public static synchronized CatalogWatcher getInstance() {
+        if (catalogWatcher == null) {
+            catalogWatcher = new CatalogWatcher(DataConstants.CATALOG_RELOAD_SETTLE_MS);
+        }
+        return catalogWatcher;
+    }
+
+    /**
+     * Runs the reload action in the background whenever the file is created or modified.
+     * Watching the same file again replaces its reload action.
+     * @param filePath the file to watch
+     * @param reload reloads the file
+     * @return true if the file is being watched, false if its directory cannot be watched
+     */
+    public synchronized boolean watch(String filePath, Runnable reload) {
+        Path file = Paths.get(filePath).toAbsolutePath().normalize();
+        Path directory = file.getParent();
+        try {
+            if (watchService == null) {
+                watchService = FileSystems.getDefault().newWatchService();
+            }
+            if (directories.add(directory)) {
+                directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            directories.remove(directory);
+            return false;
+        }
+        reloads.put(file, reload);
+        if (thread == null) {
+            thread = new Thread(this::run, "catalog-watcher");
+            thread.setDaemon(true);
+            thread.start();
+        }
+        return true;
+    }
+
+    /**
+     * Stops watching all files.
+     */
+    public synchronized void close() {
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        watchService = null;
+        thread = null;
+        directories.clear();
+        reloads.clear();
+    }
+
+    private void run() {
+        WatchService service;
+        synchronized (this) {
+            service = watchService;
+        }
+        // each changed file's reload waits until the file has been quiet for the settle time; events for files
+        // nobody watches, such as the journal or temporary files in the same directory, never delay a reload
+        Map<Path, Long> deadlines = new LinkedHashMap<>();
+        try {
+            while (true) {
+                WatchKey key;
+                if (deadlines.isEmpty()) {
+                    key = service.take();
+                } else {
+                    long wait = Collections.min(deadlines.values()) - System.nanoTime();
+                    key = wait > 0 ? service.poll(wait, TimeUnit.NANOSECONDS) : service.poll();
+                }
+                if (key != null) {
+                    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(settleMillis);
+                    for (Path file : collect(key)) {
+                        deadlines.put(file, deadline);
+                    }
+                }
+                long now = System.nanoTime();
+                Iterator<Map.Entry<Path, Long>> due = deadlines.entrySet().iterator();
+                while (due.hasNext()) {
+                    Map.Entry<Path, Long> entry = due.next();
+                    if (entry.getValue() - now <= 0) {
+                        due.remove();
+                        reload(entry.getKey());
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // closed, stop watching
+        }
+    }
+
+    /**
+     * Returns the watched files the key's events are about.
+     */
+    private Set<Path> collect(WatchKey key) {
+        Set<Path> changed = new LinkedHashSet<>();
+        Path directory = (Path) key.watchable();
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                changed.addAll(reloads.keySet());
+                continue;
+            }
+            Path file = directory.resolve((Path) event.context());
+            if (reloads.containsKey(file)) {
+                changed.add(file);
+            }
+        }
+        key.reset();
+        return changed;
+    }
+
+    private void reload(Path file) {
+        Runnable reload = reloads.get(file);
+        if (reload == null) {
+            return;
+        }
+        try {
+            reload.run();
+        } catch (RuntimeException e) {
+            System.err.println("Error reloading " + file + ":");
+            e.printStackTrace();
+        }
+    }
+}
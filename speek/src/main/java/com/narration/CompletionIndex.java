@@ -0,0 +1,370 @@
+/**
+ * Autocompletes vocabulary as a learner types, so "bue" offers "Buenos días" and "Buenas noches", heaviest first.
+ * Keys are accent and case folded and kept sorted, packed back to back in one char array, so all completions of a
+ * prefix sit in one range found with two binary searches. A tree of the heaviest entry in each part of the array then
+ * picks the top k of that range without visiting the rest of it.
+ * An entry costs its folded characters plus about 20 bytes, and shares the text it completes to with the word or
+ * phrase it came from.
+ * An index is never changed; adding an entry returns a new one. New entries go to a small second block that is merged
+ * into the main one once it grows, so adding a word does not copy the whole index.
+ * @author Four Musketeers
+ */
+package com.narration;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.PriorityQueue;
+
+public class CompletionIndex {
+
+    /**
+     * The number of added entries kept apart before they are merged into the main block.
+     */
+    static final int MERGE_AT = 512;
+
+    /**
+     * A text to complete to, with its weight; heavier completions are offered first.
+     */
+    public static class Completion {
+
+        private final String text;
+        private final int weight;
+
+        public Completion(String text, int weight) {
+            this.text = text;
+            this.weight = weight;
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        public int getWeight() {
+            return weight;
+        }
+    }
+
+    private final Block main;
+    private final Block added;
+
+    private CompletionIndex(Block main, Block added) {
+        this.main = main;
+        this.added = added;
+    }
+
+    /**
+     * Builds an index over the completions. Texts that fold to the same key keep the heaviest; nulls are dropped.
+     * @param completions the texts and their weights
+     */
+    public CompletionIndex(Collection<Completion> completions) {
+        this(Block.of(completions), Block.EMPTY);
+    }
+
+    /**
+     * Returns an index that also completes to the text.
+     * @param text   the text to add
+     * @param weight its weight
+     * @return the new index, or this one if the text is null
+     */
+    public CompletionIndex with(String text, int weight) {
+        if (text == null) {
+            return this;
+        }
+        Block grown = Block.merge(added, Block.of(Collections.singletonList(new Completion(text, weight))));
+        if (grown.size() < MERGE_AT) {
+            return new CompletionIndex(main, grown);
+        }
+        return new CompletionIndex(Block.merge(main, grown), Block.EMPTY);
+    }
+
+    /**
+     * @return the number of entries, counting a key added again after the index was built twice
+     */
+    public int size() {
+        return main.size() + added.size();
+    }
+
+    /**
+     * Finds the heaviest texts whose folded form starts with the folded prefix.
+     * @param prefix the text typed so far
+     * @param limit  the largest number of completions
+     * @return the completions, heaviest first and alphabetical among equally heavy ones
+     */
+    public ArrayList<String> complete(String prefix, int limit) {
+        ArrayList<String> completions = new ArrayList<>();
+        if (prefix == null || limit <= 0) {
+            return completions;
+        }
+        String folded = TextFolding.fold(prefix);
+        ArrayList<Completion> found = main.top(folded, limit);
+        if (added.size() > 0) {
+            found.addAll(added.top(folded, limit));
+            found.sort(Block.HEAVIEST_FIRST);
+        }
+        HashSet<String> keys = new HashSet<>();
+        for (Completion completion : found) {
+            if (completions.size() >= limit) {
+                break;
+            }
+            // a key added again after the index was built shows once, at its heavier weight
+            if (added.size() == 0 || keys.add(TextFolding.fold(completion.getText()))) {
+                completions.add(completion.getText());
+            }
+        }
+        return completions;
+    }
+
+    /**
+     * Sorted, distinct keys packed into one char array, with the text and weight of each.
+     */
+    private static class Block {
+
+        static final Block EMPTY = new Block(new char[0], new int[1], new String[0], new int[0]);
+
+        static final Comparator<Completion> HEAVIEST_FIRST = Comparator.comparingInt(Completion::getWeight).reversed()
+                .thenComparing(completion -> TextFolding.fold(completion.getText()));
+
+        final char[] keys;
+        final int[] offsets;
+        final String[] texts;
+        final int[] weights;
+        // heaviest[n + i] is entry i; heaviest[j] is the heavier of heaviest[2j] and heaviest[2j + 1]
+        final int[] heaviest;
+
+        Block(char[] keys, int[] offsets, String[] texts, int[] weights) {
+            int n = texts.length;
+            this.keys = keys;
+            this.offsets = offsets;
+            this.texts = texts;
+            this.weights = weights;
+            this.heaviest = new int[2 * n];
+            for (int i = 0; i < n; i++) {
+                heaviest[n + i] = i;
+            }
+            for (int j = n - 1; j > 0; j--) {
+                heaviest[j] = heavier(heaviest[2 * j], heaviest[2 * j + 1]);
+            }
+        }
+
+        static Block pack(String[] sortedKeys, String[] texts, int[] weights) {
+            int n = texts.length;
+            int[] offsets = new int[n + 1];
+            for (int i = 0; i < n; i++) {
+                offsets[i + 1] = offsets[i] + sortedKeys[i].length();
+            }
+            char[] keys = new char[offsets[n]];
+            for (int i = 0; i < n; i++) {
+                sortedKeys[i].getChars(0, sortedKeys[i].length(), keys, offsets[i]);
+            }
+            return new Block(keys, offsets, texts, weights);
+        }
+
+        /**
+         * Folds and sorts the completions, keeping the heaviest text for each key.
+         */
+        static Block of(Collection<Completion> completions) {
+            ArrayList<Completion> sources = new ArrayList<>(completions.size());
+            for (Completion completion : completions) {
+                if (completion != null && completion.getText() != null) {
+                    sources.add(completion);
+                }
+            }
+            String[] folded = new String[sources.size()];
+            Integer[] order = new Integer[sources.size()];
+            for (int i = 0; i < folded.length; i++) {
+                folded[i] = TextFolding.fold(sources.get(i).getText());
+                order[i] = i;
+            }
+            Arrays.sort(order, Comparator.comparing(i -> folded[i]));
+            String[] sortedKeys = new String[folded.length];
+            String[] texts = new String[folded.length];
+            int[] weights = new int[folded.length];
+            int n = 0;
+            for (int i : order) {
+                Completion completion = sources.get(i);
+                if (n > 0 && sortedKeys[n - 1].equals(folded[i])) {
+                    if (completion.getWeight() > weights[n - 1]) {
+                        texts[n - 1] = completion.getText();
+                        weights[n - 1] = completion.getWeight();
+                    }
+                    continue;
+                }
+                sortedKeys[n] = folded[i];
+                texts[n] = completion.getText();
+                weights[n] = completion.getWeight();
+                n++;
+            }
+            return pack(Arrays.copyOf(sortedKeys, n), Arrays.copyOf(texts, n), Arrays.copyOf(weights, n));
+        }
+
+        /**
+         * Merges two blocks in one pass over their sorted keys; a key in both keeps its heavier text.
+         */
+        static Block merge(Block a, Block b) {
+            int capacity = a.size() + b.size();
+            char[] keys = new char[a.keys.length + b.keys.length];
+            int[] offsets = new int[capacity + 1];
+            String[] texts = new String[capacity];
+            int[] weights = new int[capacity];
+            int n = 0;
+            int i = 0;
+            int j = 0;
+            while (i < a.size() || j < b.size()) {
+                int order = i == a.size() ? 1 : j == b.size() ? -1 : a.compare(i, b, j);
+                Block from = order <= 0 ? a : b;
+                int at = order <= 0 ? i : j;
+                if (order == 0 && b.weights[j] > a.weights[i]) {
+                    from = b;
+                    at = j;
+                }
+                int length = from.offsets[at + 1] - from.offsets[at];
+                System.arraycopy(from.keys, from.offsets[at], keys, offsets[n], length);
+                offsets[n + 1] = offsets[n] + length;
+                texts[n] = from.texts[at];
+                weights[n] = from.weights[at];
+                n++;
+                if (order <= 0) {
+                    i++;
+                }
+                if (order >= 0) {
+                    j++;
+                }
+            }
+            return new Block(Arrays.copyOf(keys, offsets[n]), Arrays.copyOf(offsets, n + 1), Arrays.copyOf(texts, n),
+                    Arrays.copyOf(weights, n));
+        }
+
+        int size() {
+            return texts.length;
+        }
+
+        /**
+         * Returns the heaviest entries starting with the folded prefix, heaviest first. The heaviest entry of the
+         * range is taken, then the two ranges either side of it are searched, so only k ranges are ever looked at.
+         */
+        ArrayList<Completion> top(String prefix, int limit) {
+            ArrayList<Completion> top = new ArrayList<>();
+            int from = lowerBound(prefix);
+            int to = endOfPrefix(prefix, from);
+            if (from >= to) {
+                return top;
+            }
+            // each range is {from, to, heaviest entry}
+            PriorityQueue<int[]> ranges = new PriorityQueue<>((x, y) -> heavier(x[2], y[2]) == x[2] ? -1 : 1);
+            ranges.add(new int[] {from, to, heaviest(from, to)});
+            while (!ranges.isEmpty() && top.size() < limit) {
+                int[] range = ranges.poll();
+                int best = range[2];
+                top.add(new Completion(texts[best], weights[best]));
+                if (range[0] < best) {
+                    ranges.add(new int[] {range[0], best, heaviest(range[0], best)});
+                }
+                if (best + 1 < range[1]) {
+                    ranges.add(new int[] {best + 1, range[1], heaviest(best + 1, range[1])});
+                }
+            }
+            return top;
+        }
+
+        /**
+         * Returns the heaviest entry in [from, to), the first of equally heavy ones.
+         */
+        private int heaviest(int from, int to) {
+            int n = size();
+            int best = from;
+            for (int low = from + n, high = to + n; low < high; low >>= 1, high >>= 1) {
+                if ((low & 1) == 1) {
+                    best = heavier(best, heaviest[low++]);
+                }
+                if ((high & 1) == 1) {
+                    best = heavier(best, heaviest[--high]);
+                }
+            }
+            return best;
+        }
+
+        private int heavier(int a, int b) {
+            if (weights[a] != weights[b]) {
+                return weights[a] > weights[b] ? a : b;
+            }
+            return Math.min(a, b);
+        }
+
+        /**
+         * Returns the first entry whose key is not before the prefix.
+         */
+        private int lowerBound(String prefix) {
+            int low = 0;
+            int high = size();
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (compare(middle, prefix) < 0) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * Returns the first entry from start on whose key does not begin with the prefix.
+         */
+        private int endOfPrefix(String prefix, int start) {
+            int low = start;
+            int high = size();
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (startsWith(middle, prefix)) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        private int compare(int i, String other) {
+            int start = offsets[i];
+            int length = offsets[i + 1] - start;
+            int shared = Math.min(length, other.length());
+            for (int c = 0; c < shared; c++) {
+                if (keys[start + c] != other.charAt(c)) {
+                    return keys[start + c] - other.charAt(c);
+                }
+            }
+            return length - other.length();
+        }
+
+        private int compare(int i, Block other, int j) {
+            int start = offsets[i];
+            int length = offsets[i + 1] - start;
+            int otherStart = other.offsets[j];
+            int otherLength = other.offsets[j + 1] - otherStart;
+            int shared = Math.min(length, otherLength);
+            for (int c = 0; c < shared; c++) {
+                if (keys[start + c] != other.keys[otherStart + c]) {
+                    return keys[start + c] - other.keys[otherStart + c];
+                }
+            }
+            return length - otherLength;
+        }
+
+        private boolean startsWith(int i, String prefix) {
+            int start = offsets[i];
+            if (offsets[i + 1] - start < prefix.length()) {
+                return false;
+            }
+            for (int c = 0; c < prefix.length(); c++) {
+                if (keys[start + c] != prefix.charAt(c)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -8,18 +8,22 @@ import java.util.UUID;
 
 public class Course {
 
-    private String name;
+    private volatile String name;
     private String description;
     private boolean userAccess;
     private double courseProgress;
     private ArrayList<Lesson> lessons;
     private ArrayList<Assessment> assessments;
     private ArrayList<String> keyWords;
-    private UUID id;
+    private volatile UUID id;
     private boolean completed;
     private ArrayList<String> completedAssessments;
     private FlashcardQuestion flashcard;
     private Lesson lesson;
+    private long version = 1;
+    private long savedVersion;
+    private volatile KeywordIndex<Course> keywordIndex;
+    private volatile CourseList courseList;
 
     /**
      * Constructs a Course with all details.
@@ -83,7 +87,13 @@ public class Course {
     }
 
     public void setName(String name) {
+        version++;
+        String old = this.name;
         this.name = name;
+        CourseList list = courseList;
+        if (list != null) {
+            list.nameChanged(this, old);
+        }
     }
 
     public String getDescription() {
@@ -91,6 +101,7 @@ public class Course {
     }
 
     public void setDescription(String description) {
+        version++;
         this.description = description;
     }
 
@@ -98,6 +109,7 @@ public class Course {
      * Calculates and updates the course progress based on the completion status of lessons and flashcards
      */
     public void calculateProgress() {
+        version++;
         if (lesson != null && lesson.isCompleted() && flashcard != null && flashcard.getFlashcardProgress() == 100.0) {
             courseProgress = 100.0;
             System.out.println(courseProgress);
@@ -112,6 +124,7 @@ public class Course {
 
     public void setCourseProgress(double courseProgress) {
         if (courseProgress >= 0.0 && courseProgress <= 100.0) {
+            version++;
             this.courseProgress = courseProgress;
         }
     }
@@ -125,6 +138,7 @@ public class Course {
     }
     
     public void setUserAccess(boolean userAccess) {
+        version++;
         this.userAccess = userAccess;
     }
 
@@ -133,6 +147,7 @@ public class Course {
     }
 
     public void setCompleted(boolean completed) {
+        version++;
         this.completed = completed;
         if (completed) {
             this.courseProgress = 100.0;
@@ -145,6 +160,7 @@ public class Course {
     }
 
     public void addLesson(Lesson lesson) {
+        version++;
         lessons.add(lesson);
     }
 
@@ -153,6 +169,7 @@ public class Course {
     }
 
     public void addAssessment(Assessment assessment) {
+        version++;
         assessments.add(assessment);
     }
 
@@ -172,11 +189,38 @@ public class Course {
     }
 
     public void setCompletedAssessments(ArrayList<String> completedAssessments) {
+        version++;
         this.completedAssessments = completedAssessments;
     }
     
+    /**
+     * Adds a keyword to the course, unless it is null or the course already has it in any case.
+     * @param keyWord the keyword to add
+     */
     public void addKeyWord(String keyWord) {
+        if (keyWord == null || hasKeyWord(keyWord)) {
+            return;
+        }
+        version++;
         keyWords.add(keyWord);
+        KeywordIndex<Course> index = keywordIndex;
+        if (index != null) {
+            index.add(keyWord, this);
+        }
+    }
+
+    /**
+     * Checks whether the course has a keyword, ignoring case.
+     * @param keyWord the keyword to look for
+     * @return true if the course has the keyword
+     */
+    public boolean hasKeyWord(String keyWord) {
+        for (String existing : keyWords) {
+            if (existing != null && KeywordIndex.matches(existing, keyWord)) {
+                return true;
+            }
+        }
+        return false;
     }
 
     public ArrayList<String> getKeyWords() {
@@ -184,8 +228,44 @@ public class Course {
     }
 
     public void setKeyWords(ArrayList<String> keyWords) {
-    this.keyWords = keyWords;
-}
+        version++;
+        KeywordIndex<Course> index = keywordIndex;
+        if (index != null) {
+            index.removeAll(this.keyWords, this);
+            index.addAll(keyWords, this);
+        }
+        this.keyWords = keyWords;
+    }
+
+    /**
+     * Moves the course's keywords into the given index, which then follows the course's keyword changes.
+     * @param index the index of the list holding the course, or null when it leaves the list
+     */
+    void setKeywordIndex(KeywordIndex<Course> index) {
+        KeywordIndex<Course> previous = keywordIndex;
+        if (previous == index) {
+            return;
+        }
+        if (previous != null) {
+            previous.removeAll(keyWords, this);
+        }
+        keywordIndex = index;
+        if (index != null) {
+            index.addAll(keyWords, this);
+        }
+    }
+
+    /**
+     * Sets the list holding the course, which then follows the course's name and ID changes.
+     * @param list the list holding the course, or null when it leaves the list
+     */
+    void setCourseList(CourseList list) {
+        courseList = list;
+    }
+
+    CourseList getCourseList() {
+        return courseList;
+    }
 
 
     public UUID generateUUID() {
@@ -197,13 +277,20 @@ public class Course {
     }
 
     public void setId(UUID id) {
+        version++;
+        UUID old = this.id;
         this.id = id;
+        CourseList list = courseList;
+        if (list != null) {
+            list.idChanged(this, old);
+        }
     }
 
     /**
      * Marks the course as completed and sets the progress to 100%
      */
     public void setCompletedCourse() {
+        version++;
         this.completed = true;
         this.courseProgress = 100.0;
     }
@@ -216,4 +303,34 @@ public class Course {
     public boolean completedCourse() {
         return this.courseProgress == 100.0;
     }
+
+    /**
+     * Returns the change counter of the course, including the changes made to its lessons.
+     * @return the current version
+     */
+    public long getVersion() {
+        long total = version;
+        if (lessons != null) {
+            for (Lesson lesson : lessons) {
+                total += lesson.getVersion();
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Checks whether the course or any of its lessons changed since it was loaded or last saved.
+     * @return true if the course has unsaved changes
+     */
+    public boolean isDirty() {
+        return getVersion() != savedVersion;
+    }
+
+    /**
+     * Records that the course was written as of the given version.
+     * @param savedVersion the version that was written, as returned by getVersion before writing
+     */
+    public void markSaved(long savedVersion) {
+        this.savedVersion = savedVersion;
+    }
 }
\ No newline at end of file
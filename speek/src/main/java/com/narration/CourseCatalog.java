@@ -0,0 +1,56 @@
+/**
+ * Keeps one shared instance of every course, by course ID, so all users enrolled in a course reference the same
+ * Course and Lesson objects instead of each holding their own copy of the lessons and their content.
+ * Courses published by CourseList replace any instance registered earlier. Copies embedded in user records are never
+ * registered, since they carry that user's access and progress.
+ * @author Four Musketeers
+ */
+package com.narration;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class CourseCatalog {
+
+    private static final Map<UUID, Course> courses = new ConcurrentHashMap<>();
+
+    private CourseCatalog() {
+    }
+
+    /**
+     * Returns the shared instance of the course, registering this one if the course is not known yet.
+     * @param course a course, for example one added to a user
+     * @return the shared instance with the same ID, or the course itself if it has no ID
+     */
+    public static Course intern(Course course) {
+        if (course == null || course.getId() == null) {
+            return course;
+        }
+        Course existing = courses.putIfAbsent(course.getId(), course);
+        return existing == null ? course : existing;
+    }
+
+    /**
+     * Makes the given courses the shared instances for their IDs, replacing any earlier ones.
+     * Loaded users pick up the new instances when UserStore.resolveCourses is called, as CourseList does after publishing.
+     * @param published the courses to share
+     */
+    public static void publish(Collection<Course> published) {
+        for (Course course : published) {
+            if (course != null && course.getId() != null) {
+                courses.put(course.getId(), course);
+            }
+        }
+    }
+
+    /**
+     * Finds the shared instance of a course
+     * @param courseId the ID of the course
+     * @return the shared course, or null if it is not known
+     */
+    public static Course find(UUID courseId) {
+        return courseId == null ? null : courses.get(courseId);
+    }
+}
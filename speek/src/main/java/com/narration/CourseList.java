@@ -1,22 +1,56 @@
 /**
  * Manages the list of available courses in the language learning system.
  * This class follows the singleton pattern to ensure a single instance of the course list.
+ * Changes are made in place under the list's lock and keep the UUID and name indexes up to date, including when a
+ * listed course is renamed, so adding many courses in a row costs the same per course however many there are. getCourses hands out a snapshot that is only copied again after
+ * a change, so readers never block and never see a half-built list; changes made to that snapshot directly are
+ * adopted by the next operation on the list.
+ * The courses are also shared through CourseCatalog, so users enrolled in them reference these same instances.
  * @author Four Musketeers
  */
 package com.narration;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class CourseList {
 
-    private static CourseList courseList;  
-    private final ArrayList<Course> courses;
+    private ArrayList<Course> courses;  // guarded by this
+    private volatile TrackedArrayList<Course> published;  // the snapshot getCourses hands out, null after a change
+    private volatile int publishedModifications;
+    private volatile Index index;
+    private final AtomicBoolean adopting = new AtomicBoolean();
+    private volatile KeywordIndex<Course> keyWords = new KeywordIndex<>();
+    private volatile LessonSearchIndex lessonIndex = new LessonSearchIndex();
+    private long savedMembership;
+    private HashSet<UUID> savedIds;
+    private long fileModified;
+    private long fileLength;
 
     /**
      * initialize the list of courses using data from DataLoader
      */
     private CourseList() {
-        courses = DataLoader.loadCourses();
+        courses = new ArrayList<>(DataLoader.loadCourses());
+        index = new Index(courses);
+        attach(new ArrayList<>(), courses);
+        CourseCatalog.publish(courses);
+        UserStore.getInstance().resolveCourses();
+        indexKeyWords(courses, keyWords);
+        indexLessons(courses, lessonIndex);
+        savedMembership = membershipOf(courses);
+        savedIds = idsOf(courses);
+        rememberFile();
     }
 
     /**
@@ -25,21 +59,42 @@ public class CourseList {
      * @return the single instance of CourseList
      */
     public static CourseList getInstance() {
-        if (courseList == null){
-            courseList = new CourseList();
-        }
-        return courseList;
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Loads the courses the first time the list is used; the JVM's class initialization publishes it safely,
+     * so later calls read it without a lock.
+     */
+    private static class Holder {
+        static final CourseList INSTANCE = new CourseList();
     }
 
     /**
-     * Adds a course to the list and saves the updated list to storage.
+     * Adds a course to the list and schedules the updated list to be saved in the background,
+     * so adding many courses in a row writes the file once.
      *
      * @param course the course to be added
      * @return the added course
      */
-    public Course addCourse(Course course) {
+    public synchronized Course addCourse(Course course) {
+        adoptPublished();
         courses.add(course);
-        saveCourses();
+        published = null;
+        index.add(course);
+        if (course != null) {
+            course.setCourseList(this);
+        }
+        boolean replacesShared = course != null && CourseCatalog.find(course.getId()) != null;
+        CourseCatalog.publish(Collections.singletonList(course));
+        if (replacesShared) {
+            UserStore.getInstance().resolveCourses();
+        }
+        if (course != null) {
+            course.setKeywordIndex(keyWords);
+            lessonIndex.addCourse(course);
+        }
+        WriteBehindScheduler.getInstance().markDirty(WriteBehindScheduler.COURSES, this::saveCourses);
         return course;
     }
 
@@ -49,20 +104,159 @@ public class CourseList {
      * @param course the course to be removed
      * @return true if the course was successfully removed, false otherwise
      */
-    public boolean removeCourse(Course course) {
+    public synchronized boolean removeCourse(Course course) {
         if (course == null) {
             return false;
         }
-        return courses.remove(course);
+        adoptPublished();
+        if (!courses.remove(course)) {
+            return false;
+        }
+        published = null;
+        if (!courses.contains(course)) {
+            index.remove(course);
+            course.setCourseList(null);
+            course.setKeywordIndex(null);
+            lessonIndex.removeCourse(course);
+        }
+        WriteBehindScheduler.getInstance().markDirty(WriteBehindScheduler.COURSES, this::saveCourses);
+        return true;
     }
 
     /**
-     * Returns the list of all courses.
+     * Reloads the courses file if it was changed by someone other than this list, for example when a new course is
+     * published. The new list is built completely before it replaces the current one in a single step.
+     * Courses added here but not yet saved are kept after the file's courses and saved by the pending save.
+     *
+     * @return true if the courses were reloaded, false if the file had not changed
+     */
+    public boolean reloadCourses() {
+        AtomicFileWriter.flush(DataConstants.COURSES_FILE);
+        File file = new File(DataConstants.COURSES_FILE);
+        synchronized (this) {
+            if (file.lastModified() == fileModified && file.length() == fileLength) {
+                return false;
+            }
+        }
+        ArrayList<Course> fresh = new ArrayList<>(DataLoader.loadCourses());
+        CourseCatalog.publish(fresh);
+        UserStore.getInstance().resolveCourses();
+        // index the lessons before taking the lock, so the list stays usable while the file's lessons are read
+        LessonSearchIndex freshLessons = new LessonSearchIndex();
+        indexLessons(fresh, freshLessons);
+        synchronized (this) {
+            adoptPublished();
+            HashSet<UUID> freshIds = idsOf(fresh);
+            long freshMembership = membershipOf(fresh);
+            boolean keptUnsaved = false;
+            for (Course course : courses) {
+                if (course != null && course.getId() != null && !savedIds.contains(course.getId())
+                        && !freshIds.contains(course.getId())) {
+                    fresh.add(course);
+                    freshLessons.addCourse(course);
+                    keptUnsaved = true;
+                }
+            }
+            for (Course course : courses) {
+                if (course != null) {
+                    course.setKeywordIndex(null);
+                }
+            }
+            KeywordIndex<Course> freshKeyWords = new KeywordIndex<>();
+            indexKeyWords(fresh, freshKeyWords);
+            attach(courses, fresh);
+            courses = fresh;
+            published = null;
+            index = new Index(fresh);
+            keyWords = freshKeyWords;
+            lessonIndex = freshLessons;
+            savedMembership = freshMembership;
+            savedIds = freshIds;
+            rememberFile();
+            if (keptUnsaved) {
+                WriteBehindScheduler.getInstance().markDirty(WriteBehindScheduler.COURSES, this::saveCourses);
+            }
+        }
+        System.out.println("Reloaded " + fresh.size() + " courses.");
+        return true;
+    }
+
+    /**
+     * Returns the list of all courses. The same snapshot is returned until the list changes, and changes made to it
+     * directly are adopted by the next operation on the list.
      *
      * @return the list of courses
      */
     public ArrayList<Course> getCourses() {
-        return courses;
+        TrackedArrayList<Course> snapshot = published;
+        if (snapshot != null) {
+            return snapshot;
+        }
+        synchronized (this) {
+            adoptPublished();
+            if (published == null) {
+                TrackedArrayList<Course> copy = new TrackedArrayList<>(courses);
+                publishedModifications = copy.modifications();
+                published = copy;
+            }
+            return published;
+        }
+    }
+
+    /**
+     * Takes over changes made directly to the snapshot from getCourses, rebuilding the index over it.
+     * The caller holds the lock.
+     */
+    private void adoptPublished() {
+        TrackedArrayList<Course> snapshot = published;
+        if (snapshot != null && snapshot.modifications() != publishedModifications) {
+            ArrayList<Course> adopted = new ArrayList<>(snapshot);
+            attach(courses, adopted);
+            courses = adopted;
+            publishedModifications = snapshot.modifications();
+            index = new Index(courses);
+        }
+    }
+
+    /**
+     * Points the courses leaving the list away from it and the courses now in it at it, so only listed courses
+     * report their name and ID changes here. The caller holds the lock.
+     */
+    private void attach(ArrayList<Course> previous, ArrayList<Course> current) {
+        for (Course course : previous) {
+            if (course != null && course.getCourseList() == this) {
+                course.setCourseList(null);
+            }
+        }
+        for (Course course : current) {
+            if (course != null) {
+                course.setCourseList(this);
+            }
+        }
+    }
+
+    /**
+     * Moves a course from its old name to its current one. Called by Course when the name changes.
+     * @param course  the renamed course
+     * @param oldName the name the course was indexed under
+     */
+    synchronized void nameChanged(Course course, String oldName) {
+        adoptPublished();
+        if (course.getCourseList() == this) {
+            index.rename(course, oldName);
+        }
+    }
+
+    /**
+     * Moves a course from its old ID to its current one. Called by Course when the ID changes.
+     * @param course the course whose ID changed
+     * @param oldId  the ID the course was indexed under
+     */
+    synchronized void idChanged(Course course, UUID oldId) {
+        adoptPublished();
+        if (course.getCourseList() == this) {
+            index.changeId(course, oldId);
+        }
     }
 
     /**
@@ -76,34 +270,304 @@ public class CourseList {
         if (name == null) {
             throw new IllegalArgumentException("Name cannot be null");
         }
-    
+        Course[] named = index().byName.get(foldName(name));
+        return named == null ? null : named[0];
+    }
+
+    /**
+     * Finds the courses whose names start with the given prefix, ignoring case, in name order.
+     * Runs in O(log N + k) over a sorted name index that is kept up to date as courses change, so it suits a course picker that searches as the user types.
+     *
+     * @param prefix the start of the course name
+     * @param limit  the largest number of courses to return
+     * @return up to limit matching courses, sorted by name
+     * @throws IllegalArgumentException if the prefix is null
+     */
+    public ArrayList<Course> findByPrefix(String prefix, int limit) {
+        if (prefix == null) {
+            throw new IllegalArgumentException("Prefix cannot be null");
+        }
+        String folded = foldName(prefix);
+        ArrayList<Course> found = new ArrayList<>();
+        for (Map.Entry<String, Course[]> entry : index().byName.tailMap(folded, true).entrySet()) {
+            if (found.size() >= limit || !entry.getKey().startsWith(folded)) {
+                break;
+            }
+            for (Course course : entry.getValue()) {
+                if (found.size() >= limit) {
+                    break;
+                }
+                found.add(course);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Finds the courses tagged with a keyword, ignoring case.
+     *
+     * @param keyWord the keyword to search for
+     * @return the courses in the list with the keyword
+     */
+    public ArrayList<Course> findCoursesByKeyWord(String keyWord) {
+        ArrayList<Course> found = keyWords.find(keyWord);
+        // a course dropped from the list through getCourses() stays in the keyword index, so check it is still listed
+        Index current = index();
+        found.removeIf(course -> course.getId() == null || current.find(course.getId()) != course);
+        return found;
+    }
+
+    /**
+     * Searches the English and Spanish content of every lesson, ignoring accents and case. Every word must appear,
+     * and words in double quotes must appear together in that order.
+     *
+     * @param query the words and quoted phrases to search for
+     * @return the matching lessons
+     * @see LessonSearchIndex#search(String)
+     */
+    public ArrayList<LessonSearchIndex.Hit> searchLessons(String query) {
+        ArrayList<LessonSearchIndex.Hit> hits = lessonIndex.search(query);
+        Index current = index();
+        hits.removeIf(hit -> hit.getCourse().getId() == null || current.find(hit.getCourse().getId()) != hit.getCourse());
+        return hits;
+    }
+
+    /**
+     * Indexes a course's lessons again for searchLessons, after its lessons or their content were edited.
+     *
+     * @param course the edited course
+     */
+    public void reindexLessons(Course course) {
+        lessonIndex.updateCourse(course);
+    }
+
+    private static void indexLessons(ArrayList<Course> courses, LessonSearchIndex lessonIndex) {
+        for (Course course : courses) {
+            lessonIndex.addCourse(course);
+        }
+    }
+
+    private static void indexKeyWords(ArrayList<Course> courses, KeywordIndex<Course> keyWords) {
         for (Course course : courses) {
-            if (course.getName().equalsIgnoreCase(name)) {
-                return course;
+            if (course != null) {
+                course.setKeywordIndex(keyWords);
             }
         }
-        return null;
+    }
+
+    private static String foldName(String name) {
+        return name.toLowerCase(Locale.ROOT);
     }
 
     /**
      * Retrieves a course by its unique identifier
      *
      * @param courseId the ID of the course as a string
-     * @return the course if found, otherwise null
+     * @return the course if found, otherwise null, including when the string is not a UUID
      */
     public Course getCourseById(String courseId) {
-        for (Course course : courses) {
-            if (course.getId().toString().equals(courseId)) {
-                return course;
+        if (courseId == null) {
+            return null;
+        }
+        try {
+            return getCourseById(UUID.fromString(courseId));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Retrieves a course by its unique identifier
+     *
+     * @param courseId the ID of the course
+     * @return the course if found, otherwise null
+     */
+    public Course getCourseById(UUID courseId) {
+        if (courseId == null) {
+            return null;
+        }
+        return index().find(courseId);
+    }
+
+    /**
+     * Returns the index without locking. If the snapshot from getCourses was changed directly, the first reader to
+     * notice adopts the change; readers arriving meanwhile keep using the current index rather than waiting.
+     */
+    private Index index() {
+        TrackedArrayList<Course> snapshot = published;
+        if (snapshot != null && snapshot.modifications() != publishedModifications
+                && adopting.compareAndSet(false, true)) {
+            try {
+                synchronized (this) {
+                    adoptPublished();
+                }
+            } finally {
+                adopting.set(false);
             }
         }
-        return null;
+        return index;
     }
 
     /**
-     * Saves the current list of courses to storage.
+     * Saves the current list of courses to storage. Nothing is written when no course was added, removed
+     * or changed since the list was loaded or last saved.
      */
-    public void saveCourses() {
-        DataWriter.saveCourses(courses);
+    public synchronized void saveCourses() {
+        adoptPublished();
+        ArrayList<Course> courses = this.courses;
+        long membership = membershipOf(courses);
+        boolean changed = membership != savedMembership;
+        long[] versions = new long[courses.size()];
+        for (int i = 0; i < versions.length; i++) {
+            Course course = courses.get(i);
+            if (course != null) {
+                changed |= course.isDirty();
+                versions[i] = course.getVersion();
+            }
+        }
+        if (!changed || !DataWriter.saveCourses(courses)) {
+            return;
+        }
+        try {
+            AtomicFileWriter.commit(Collections.singletonList(DataConstants.COURSES_FILE));
+        } catch (IOException e) {
+            // the courses stay dirty, so the next save writes them again
+            e.printStackTrace();
+            return;
+        }
+        for (int i = 0; i < versions.length; i++) {
+            if (courses.get(i) != null) {
+                courses.get(i).markSaved(versions[i]);
+            }
+        }
+        savedMembership = membership;
+        savedIds = idsOf(courses);
+        rememberFile();
+    }
+
+    /**
+     * Records the courses file's modification time and size, so the list's own writes are not mistaken for outside changes.
+     */
+    private void rememberFile() {
+        File file = new File(DataConstants.COURSES_FILE);
+        fileModified = file.lastModified();
+        fileLength = file.length();
+    }
+
+    /**
+     * Lookup maps over the courses, kept up to date key by key as courses are added, removed, renamed or given a new
+     * ID. Each key maps to the courses holding it in the order they got it, and lookups return the first.
+     */
+    private static class Index {
+
+        final ConcurrentHashMap<UUID, Course[]> byId = new ConcurrentHashMap<>();
+        final ConcurrentSkipListMap<String, Course[]> byName = new ConcurrentSkipListMap<>();
+
+        Index(ArrayList<Course> courses) {
+            for (Course course : courses) {
+                add(course);
+            }
+        }
+
+        Course find(UUID courseId) {
+            Course[] found = byId.get(courseId);
+            return found == null ? null : found[0];
+        }
+
+        void add(Course course) {
+            if (course == null) {
+                return;
+            }
+            if (course.getId() != null) {
+                byId.compute(course.getId(), (key, found) -> with(found, course));
+            }
+            if (course.getName() != null) {
+                byName.compute(foldName(course.getName()), (key, found) -> with(found, course));
+            }
+        }
+
+        void remove(Course course) {
+            if (course.getId() != null) {
+                byId.computeIfPresent(course.getId(), (key, found) -> without(found, course));
+            }
+            if (course.getName() != null) {
+                byName.computeIfPresent(foldName(course.getName()), (key, found) -> without(found, course));
+            }
+        }
+
+        void rename(Course course, String oldName) {
+            if (oldName != null) {
+                byName.computeIfPresent(foldName(oldName), (key, found) -> without(found, course));
+            }
+            if (course.getName() != null) {
+                byName.compute(foldName(course.getName()), (key, found) -> with(found, course));
+            }
+        }
+
+        void changeId(Course course, UUID oldId) {
+            if (oldId != null) {
+                byId.computeIfPresent(oldId, (key, found) -> without(found, course));
+            }
+            if (course.getId() != null) {
+                byId.compute(course.getId(), (key, found) -> with(found, course));
+            }
+        }
+    }
+
+    /**
+     * Returns the courses sharing a key with the course added last, or the same array if it is already there.
+     */
+    private static Course[] with(Course[] found, Course course) {
+        if (found == null) {
+            return new Course[] {course};
+        }
+        for (Course each : found) {
+            if (each == course) {
+                return found;
+            }
+        }
+        Course[] updated = Arrays.copyOf(found, found.length + 1);
+        updated[found.length] = course;
+        return updated;
+    }
+
+    /**
+     * Returns the courses sharing a key without the given course, or null when none are left.
+     */
+    private static Course[] without(Course[] found, Course course) {
+        int at = -1;
+        for (int i = 0; i < found.length && at < 0; i++) {
+            if (found[i] == course) {
+                at = i;
+            }
+        }
+        if (at < 0) {
+            return found;
+        }
+        if (found.length == 1) {
+            return null;
+        }
+        Course[] updated = new Course[found.length - 1];
+        System.arraycopy(found, 0, updated, 0, at);
+        System.arraycopy(found, at + 1, updated, at, updated.length - at);
+        return updated;
+    }
+
+    private static HashSet<UUID> idsOf(ArrayList<Course> list) {
+        HashSet<UUID> ids = new HashSet<>();
+        for (Course course : list) {
+            if (course != null && course.getId() != null) {
+                ids.add(course.getId());
+            }
+        }
+        return ids;
+    }
+
+    private static long membershipOf(ArrayList<Course> list) {
+        long membership = list.size();
+        for (Course course : list) {
+            membership = 31 * membership + System.identityHashCode(course);
+        }
+        return membership;
     }
 }
\ No newline at end of file
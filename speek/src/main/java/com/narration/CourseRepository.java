@@ -0,0 +1,45 @@
+/**
+ * Storage for courses and their lessons, independent of where they are kept. Every operation has a blocking form
+ * and a form that runs on the shared storage executor and returns a CompletableFuture.
+ * @author Four Musketeers
+ */
+package com.narration;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+public interface CourseRepository {
+
+    /**
+     * Loads every stored course.
+     * @return the courses, in stored order
+     */
+    ArrayList<Course> loadCourses();
+
+    /**
+     * Finds one stored course.
+     * @param courseId the course's ID
+     * @return the course, or null if there is none with that ID
+     */
+    Course findCourse(UUID courseId);
+
+    /**
+     * Replaces the stored courses with the given ones.
+     * @param courses all courses to store
+     */
+    void saveCourses(List<Course> courses);
+
+    default CompletableFuture<ArrayList<Course>> loadCoursesAsync() {
+        return CompletableFuture.supplyAsync(this::loadCourses, Repositories.executor());
+    }
+
+    default CompletableFuture<Course> findCourseAsync(UUID courseId) {
+        return CompletableFuture.supplyAsync(() -> findCourse(courseId), Repositories.executor());
+    }
+
+    default CompletableFuture<Void> saveCoursesAsync(List<Course> courses) {
+        return CompletableFuture.runAsync(() -> saveCourses(courses), Repositories.executor());
+    }
+}
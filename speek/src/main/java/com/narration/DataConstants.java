@@ -15,6 +15,35 @@ public class DataConstants {
     public static final String LANGUAGES_FILE = "speek/docs/JSON/Languages.json";
     public static final String WORDS_FILE = "speek/docs/JSON/words.json";
     public static final String PHRASES_FILE = "speek/docs/JSON/phrases.json";
+
+    // Number of data files loaded at the same time when the application starts
+    public static final int STARTUP_LOAD_THREADS = 5;
+
+    // Binary snapshot compiled from the JSON files, preferred at start-up while it is fresh
+    public static final String SNAPSHOT_FILE = "speek/docs/JSON/data.snapshot";
+
+    // Leave lesson stories in the memory-mapped courses file until they are read, keeping read ones softly cached
+    public static final boolean LAZY_LESSON_CONTENT = false;
+    public static final boolean CACHE_LESSON_CONTENT = true;
+
+    // Optional sharded user layout, used instead of USERS_FILE when its manifest exists
+    public static final String USERS_SHARD_DIR = "speek/docs/JSON/users";
+    public static final int DEFAULT_USER_SHARD_COUNT = 64;
+
+    // Write-ahead progress journal that is replayed on top of the user snapshot
+    public static final String PROGRESS_JOURNAL_FILE = "speek/docs/JSON/progress.journal";
+    public static final long JOURNAL_COMPACT_THRESHOLD_BYTES = 4L * 1024 * 1024;
+    public static final long JOURNAL_COMPACT_INTERVAL_MS = 30_000;
+
+    // Saves to the same file within this window are coalesced into one fsync and rename
+    public static final long ATOMIC_COMMIT_WINDOW_MS = 50;
+
+    // Course and user lists are saved in the background after this delay, or sooner once this many changes pile up
+    public static final long WRITE_BEHIND_DELAY_MS = 2_000;
+    public static final int WRITE_BEHIND_FLUSH_THRESHOLD = 500;
+
+    // Changed course and word files are reloaded once they have been left alone for this long
+    public static final long CATALOG_RELOAD_SETTLE_MS = 250;
     
     // Constants for user information
     public static final int MIN_PASSWORD_LENGTH = 5;
@@ -6,8 +6,8 @@ package com.narration;
 
 import java.io.FileReader;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.UUID;
 
@@ -23,108 +23,96 @@ public class DataLoader extends DataConstants {
     public static String LANGUAGES_FILE = "speek/docs/JSON/Languages.json";
     public static String WORDS_FILE = "speek/docs/JSON/words.json";
     public static String PHRASES_FILE = "speek/docs/JSON/phrases.json";
+    public static String SNAPSHOT_FILE = DataConstants.SNAPSHOT_FILE;
+    public static boolean LAZY_LESSON_CONTENT = DataConstants.LAZY_LESSON_CONTENT;
 
-    private static JSONObject wordsData;
+    private static volatile Dictionary dictionary;
+
+    /**
+     * Creates a loader. The words used for translations are read on the first lookup rather than here,
+     * so creating a loader does not parse the words file again.
+     */
     public DataLoader() {
-        loadWordsData();
     }
 
         
     /**
-     * Loads users from the JSON file and constructs a list of User objects.
+     * Loads users from the JSON file, or from the sharded user directory when one exists, and constructs a list of User objects.
+     * Progress changes still waiting in the active progress journal are replayed on top.
      * @return a list of User objects
      */
     public static ArrayList<User> getUsers() {
-        ArrayList<User> users = new ArrayList<>();
+        ArrayList<User> users = loadUserSnapshot();
+        ProgressJournal.replayActive(users);
+        return users;
+    }
 
-        try (FileReader reader = new FileReader(DataConstants.USERS_FILE)) {
-            JSONParser jsonParser = new JSONParser();
-            JSONArray userList = (JSONArray) jsonParser.parse(reader);
-
-            for (Object obj : userList) {
-                JSONObject userJSON = (JSONObject) obj;
-                UUID id = parseUUID((String) userJSON.get("userId"), "userID");
-                String username = (String) userJSON.get("username");
-                String email = (String) userJSON.get("email");
-                String password = (String) userJSON.get("password");
-
-                ArrayList<Course> courses = new ArrayList<>();
-                JSONArray coursesJSON = (JSONArray) userJSON.get("courses");
-
-                // Null check for coursesJSON before iterating
-                if (coursesJSON != null) {
-                    for (Object courseObj : coursesJSON) {
-                        JSONObject courseJSON = (JSONObject) courseObj;
-                        UUID courseId = parseUUID((String) courseJSON.get("courseID"), "courseID");
-                        String courseName = (String) courseJSON.get("name");
-                        String courseDescription = (String) courseJSON.get("description");
-                        boolean userAccess = courseJSON.containsKey("userAccess");
-                        double courseProgress = courseJSON.containsKey("courseProgress") ? ((Number) courseJSON.get("courseProgress")).doubleValue() : 0.0;
-                        boolean completed = courseJSON.containsKey("completed");
-
-                        // Assuming these fields have default values for Course
-                        ArrayList<Assessment> assessments = new ArrayList<>();
-                        ArrayList<String> completedAssessments = new ArrayList<>();
-
-                        ArrayList<Lesson> lessons = new ArrayList<>();
-                        JSONArray lessonsArray = (JSONArray) courseJSON.get("lessons");
-                        if (lessonsArray != null) {
-                            for (Object lessonObj : lessonsArray) {
-                                JSONObject lessonJSON = (JSONObject) lessonObj;
-                                String lessonName = (String) lessonJSON.get("lessonName");
-                                UUID lessonId = UUID.fromString((String) lessonJSON.get("lessonID"));
-                                String lessonDescription = (String) lessonJSON.get("description");
-                                double lessonProgress = ((Number) lessonJSON.get("lessonProgress")).doubleValue();
-                                String englishContent = (String) lessonJSON.get("englishContent");
-                                String spanishContent = (String) lessonJSON.get("spanishContent");
-
-                                Lesson lesson = new Lesson(lessonName, lessonId, lessonDescription, lessonProgress, englishContent, spanishContent);
-                                lessons.add(lesson);
-                            }
-                        }
-                        FlashcardQuestion flashcard = new FlashcardQuestion("Default Question", "Default Answer");
-
-                        Course course = new Course(courseId, courseName, courseDescription, userAccess, courseProgress, completed, lessons, assessments, completedAssessments, flashcard);
-                        courses.add(course);
-                    }
-                }
+    /**
+     * Loads the user snapshot exactly as stored, without replaying the progress journal.
+     * @return a list of User objects
+     */
+    static ArrayList<User> loadUserSnapshot() {
+        if (ShardedUserStorage.exists(USERS_SHARD_DIR)) {
+            return getUsersFromShards(USERS_SHARD_DIR);
+        }
+        return getUsers(DataConstants.USERS_FILE);
+    }
 
-            // Similar null checks can be added for other fields if needed
-            HashMap<UUID, Double> progress = new HashMap<>();
-            JSONObject progressJSON = (JSONObject) userJSON.get("progress");
-            if (progressJSON != null) {
-                for (Object key : progressJSON.keySet()) {
-                    UUID courseId = parseUUID((String) key, "progress");
-                    double progressValue = ((Number) progressJSON.get(key)).doubleValue();
-                    progress.put(courseId, progressValue);
-                }
-            }
+    /**
+     * Loads users from a sharded user directory.
+     * @param shardDirectory the directory holding the shard manifest and shard files
+     * @return a list of User objects
+     */
+    static ArrayList<User> getUsersFromShards(String shardDirectory) {
+        ArrayList<User> users = new ArrayList<>();
 
-            ArrayList<UUID> completedCourses = new ArrayList<>();
-            JSONArray completedCoursesJSON = (JSONArray) userJSON.get("completedCourses");
-            if (completedCoursesJSON != null) {
-                for (Object courseId : completedCoursesJSON) {
-                    completedCourses.add(parseUUID((String) courseId, "completedCourses"));
-                }
-            }
+        try {
+            ShardedUserStorage.open(shardDirectory).forEachUser(users::add);
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        System.out.println("Total users loaded: " + users.size());
+        return users;
+    }
 
-            UUID currentCourseID = parseUUID((String) userJSON.get("currentCourseID"), "currentCourseID");
-            UUID currentLanguageID = parseUUID((String) userJSON.get("currentLanguageID"), "currentLanguageID");
-            String currentLanguageName = (String) userJSON.get("currentLanguageName");
+    /**
+     * Loads users from the binary snapshot when it was compiled from this file and is fresh, otherwise from the JSON file.
+     * @param filePath the path of the users JSON file
+     * @return a list of User objects
+     */
+    static ArrayList<User> getUsers(String filePath) {
+        BinarySnapshot snapshot = BinarySnapshot.open(SNAPSHOT_FILE);
+        ArrayList<User> users = snapshot == null ? null : snapshot.readUsers(filePath);
+        if (users != null) {
+            System.out.println("Total users loaded: " + users.size());
+            return users;
+        }
+        return getUsersFromJson(filePath);
+    }
 
-            User user = new User(id, username, email, password, courses, progress, completedCourses, currentCourseID, new ArrayList<>(), currentLanguageID, currentLanguageName);
-            users.add(user);
-            System.out.println("Loaded user: " + user.getUsername());
+    /**
+     * Loads users from the given JSON file and constructs a list of User objects.
+     * @param filePath the path of the users JSON file
+     * @return a list of User objects
+     */
+    static ArrayList<User> getUsersFromJson(String filePath) {
+        ArrayList<User> users = new ArrayList<>();
+
+        AtomicFileWriter.flush(filePath);
+        try {
+            StreamingJsonLoader.forEachUser(filePath, user -> {
+                users.add(user);
+                System.out.println("Loaded user: " + user.getUsername());
+            });
+        } catch (Exception e) {
+            e.printStackTrace();
         }
-    } catch (Exception e) {
-        e.printStackTrace();
+        System.out.println("Total users loaded: " + users.size());
+        return users;
     }
-    System.out.println("Total users loaded: " + users.size());
-    return users;
-}
 
 
-    private static UUID parseUUID(String uuidString, String fieldName) {
+    static UUID parseUUID(String uuidString, String fieldName) {
         if (uuidString == null || uuidString.trim().isEmpty()) {
             System.err.println("Warning: Missing or empty UUID for field: " + fieldName);
             return null;  // Return null or handle as needed
@@ -144,29 +132,43 @@ public class DataLoader extends DataConstants {
      * @return true if the user is confirmed, false otherwise
      */
     public boolean confirmUser(String username, String password) {
-        ArrayList<User> users = getUsers();
-        for (User user : users) {
-            if (user.getUsername().equals(username) && user.getPassword().equals(password)) {
-                return true;
-            }
-        }
-        return false;
+        return UserStore.getInstance().confirmUser(username, password);
     }
 
     /**
-     * Loads courses from the JSON file and returns a list of Course objects
+     * Loads courses from the binary snapshot when it is fresh, otherwise from the JSON file, and returns a list of Course objects.
+     * In lazy content mode the lesson stories are left in the mapped JSON file until they are read.
      * @return a list of Course objects
      */
     public static ArrayList<Course> loadCourses() {
+        if (LAZY_LESSON_CONTENT) {
+            return LazyCourseLoader.loadCourses(COURSES_FILE, DataConstants.CACHE_LESSON_CONTENT);
+        }
+        BinarySnapshot snapshot = BinarySnapshot.open(SNAPSHOT_FILE);
+        ArrayList<Course> courses = snapshot == null ? null : snapshot.readCourses(COURSES_FILE);
+        if (courses != null) {
+            System.out.println("Total courses loaded: " + courses.size());
+            return courses;
+        }
+        return loadCoursesFromJson(COURSES_FILE);
+    }
+
+    /**
+     * Loads courses from the given JSON file.
+     * @param filePath the path of the courses JSON file
+     * @return a list of Course objects
+     */
+    static ArrayList<Course> loadCoursesFromJson(String filePath) {
         ArrayList<Course> courses = new ArrayList<>();
 
-        try (FileReader reader = new FileReader(COURSES_FILE)) {
+        AtomicFileWriter.flush(filePath);
+        try (FileReader reader = new FileReader(filePath, StandardCharsets.UTF_8)) {
             JSONParser jsonParser = new JSONParser();
             JSONArray courseList = (JSONArray) jsonParser.parse(reader);
 
             for (Object obj : courseList) {
                 JSONObject courseJSON = (JSONObject) obj;
-                UUID id = UUID.fromString((String) courseJSON.get("courseID"));
+                UUID id = parseUUID((String) courseJSON.get("courseID"), "courseID");
                 String name = (String) courseJSON.get("name");
                 String description = (String) courseJSON.get("description");
                 boolean userAccess = (Boolean) courseJSON.get("userAccess");
@@ -190,11 +192,13 @@ public class DataLoader extends DataConstants {
                     String spanishContent = (String) lessonJSON.get("spanishContent");
 
                 Lesson lesson = new Lesson(lessonName, lessonId, lessonDescription, lessonProgress, englishContent, spanishContent);
+                lesson.markSaved(lesson.getVersion());
                 lessons.add(lesson);
             }
             FlashcardQuestion flashcard = new FlashcardQuestion("Default Question", "Default Answer");
                 
                 Course course = new Course(id, name, description, userAccess, courseProgress, completed, lessons, assessments, completedAssessments, flashcard);
+                course.markSaved(course.getVersion());
                 courses.add(course);
                 System.out.println("Loaded course: " + course.getName());
             }
@@ -206,14 +210,29 @@ public class DataLoader extends DataConstants {
     }
 
     /**
-     * Loads supported languages from the JSON file
+     * Loads supported languages from the binary snapshot when it is fresh, otherwise from the JSON file
      * @return a list of Language objects
      */
     public static ArrayList<Language> getLanguages() {
+        BinarySnapshot snapshot = BinarySnapshot.open(SNAPSHOT_FILE);
+        ArrayList<Language> languages = snapshot == null ? null : snapshot.readLanguages(LANGUAGES_FILE);
+        if (languages != null) {
+            return languages;
+        }
+        return getLanguagesFromJson(LANGUAGES_FILE);
+    }
+
+    /**
+     * Loads supported languages from the given JSON file.
+     * @param filePath the path of the languages JSON file
+     * @return a list of Language objects
+     */
+    static ArrayList<Language> getLanguagesFromJson(String filePath) {
         ArrayList<Language> languages = new ArrayList<>();
         JSONParser jsonParser = new JSONParser();
 
-        try (FileReader fileReader = new FileReader(LANGUAGES_FILE)) {
+        AtomicFileWriter.flush(filePath);
+        try (FileReader fileReader = new FileReader(filePath, StandardCharsets.UTF_8)) {
             JSONArray languageArray = (JSONArray) jsonParser.parse(fileReader);
 
             for (Object languageObject : languageArray) {
@@ -231,14 +250,33 @@ public class DataLoader extends DataConstants {
     }
 
     /**
-     * Loads words from the JSON file into a WordsList object
+     * Loads words from the binary snapshot when it is fresh, otherwise from the JSON file, into a WordsList object
      * @return a WordsList object containing all loaded words
      */
     public static WordsList loadWords() {
+        BinarySnapshot snapshot = BinarySnapshot.open(SNAPSHOT_FILE);
+        ArrayList<Word> words = snapshot == null ? null : snapshot.readWords(WORDS_FILE);
+        if (words == null) {
+            return loadWordsFromJson(WORDS_FILE);
+        }
+        WordsList wordsList = new WordsList();
+        for (Word word : words) {
+            wordsList.addWord(word);
+        }
+        return wordsList;
+    }
+
+    /**
+     * Loads words from the given JSON file into a WordsList object.
+     * @param filePath the path of the words JSON file
+     * @return a WordsList object containing all loaded words
+     */
+    static WordsList loadWordsFromJson(String filePath) {
         WordsList wordsList = new WordsList();
         JSONParser parser = new JSONParser();
 
-        try (FileReader reader = new FileReader(WORDS_FILE)) {
+        AtomicFileWriter.flush(filePath);
+        try (FileReader reader = new FileReader(filePath, StandardCharsets.UTF_8)) {
             JSONArray wordsArray = (JSONArray) parser.parse(reader);
             for (Object obj : wordsArray) {
                 JSONObject wordObject = (JSONObject) obj;
@@ -257,29 +295,65 @@ public class DataLoader extends DataConstants {
         return wordsList;
     }
 
-private static void loadWordsData() {
-    JSONParser parser = new JSONParser();
-    try (FileReader reader = new FileReader(WORDS_FILE)) {
-        JSONArray wordsArray = (JSONArray) parser.parse(reader);  // Parse as JSONArray
-        wordsData = new JSONObject();
-        wordsData.put("words", wordsArray);  // Wrap it in a JSONObject if needed for other methods
-    } catch (IOException | ParseException e) {
-        e.printStackTrace();
+    /**
+     * Returns the dictionary shared by every translation lookup, loading the words for it on first use
+     * unless the facade has already shared its own.
+     * @return the shared dictionary
+     */
+    public static Dictionary getDictionary() {
+        Dictionary shared = dictionary;
+        if (shared == null) {
+            synchronized (DataLoader.class) {
+                shared = dictionary;
+                if (shared == null) {
+                    shared = new Dictionary(loadWords());
+                    dictionary = shared;
+                }
+            }
+        }
+        return shared;
+    }
+
+    /**
+     * Makes translation lookups use the given dictionary, so the words are indexed once and reloads of the
+     * dictionary are seen here too.
+     * @param shared the dictionary to share
+     */
+    static void shareDictionary(Dictionary shared) {
+        dictionary = shared;
     }
-}
 
 
 
 
     /**
-     * Loads phrases from the JSON file into a PhraseList object
+     * Loads phrases from the binary snapshot when it is fresh, otherwise from the JSON file, into a PhraseList object
      * @return a PhraseList object containing all loaded phrases
      */
     public PhraseList loadPhrases() {
+        BinarySnapshot snapshot = BinarySnapshot.open(SNAPSHOT_FILE);
+        ArrayList<Phrase> phrases = snapshot == null ? null : snapshot.readPhrases(PHRASES_FILE);
+        if (phrases == null) {
+            return loadPhrasesFromJson(PHRASES_FILE);
+        }
+        PhraseList phraseList = new PhraseList();
+        for (Phrase phrase : phrases) {
+            phraseList.addPhrase(phrase);
+        }
+        return phraseList;
+    }
+
+    /**
+     * Loads phrases from the given JSON file into a PhraseList object.
+     * @param filePath the path of the phrases JSON file
+     * @return a PhraseList object containing all loaded phrases
+     */
+    static PhraseList loadPhrasesFromJson(String filePath) {
         PhraseList phraseList = new PhraseList();
         JSONParser parser = new JSONParser();
 
-        try (FileReader reader = new FileReader(PHRASES_FILE)) {
+        AtomicFileWriter.flush(filePath);
+        try (FileReader reader = new FileReader(filePath, StandardCharsets.UTF_8)) {
             JSONArray phrasesArray = (JSONArray) parser.parse(reader);
             for (Object obj : phrasesArray) {
                 JSONObject phraseObj = (JSONObject) obj;
@@ -296,18 +370,14 @@ private static void loadWordsData() {
         return phraseList;
     }
 
+    /**
+     * Looks up the English translation of a Spanish word in the shared dictionary, ignoring accents and case.
+     * @param spanishWord the Spanish word
+     * @return the translation as it was loaded, or null if the word is not found
+     */
     public static String getEnglishTranslation(String spanishWord) {
-        if (wordsData == null){
-            loadWordsData();
-        }
-        JSONArray wordsArray = (JSONArray) wordsData.get("words");
-        for (Object wordObj : wordsArray) {
-            JSONObject wordJson = (JSONObject) wordObj;
-            if (wordJson.get("word").equals(spanishWord)) {
-                return (String) wordJson.get("translation");
-            }
-        }
-        return null; // Return null if not found
+        Word word = getDictionary().findWord(spanishWord);
+        return word == null ? null : word.getTranslation();
     }
 
 
@@ -343,7 +413,8 @@ private static void loadWordsData() {
         List<FlashcardQuestion> flashcards = new ArrayList<>();
         JSONParser parser = new JSONParser();
 
-        try (FileReader reader = new FileReader(filePath)) {
+        AtomicFileWriter.flush(filePath);
+        try (FileReader reader = new FileReader(filePath, StandardCharsets.UTF_8)) {
             JSONArray wordsArray = (JSONArray) parser.parse(reader);
             for (Object obj : wordsArray) {
                 JSONObject wordObject = (JSONObject) obj;
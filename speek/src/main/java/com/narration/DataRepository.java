@@ -0,0 +1,15 @@
+/**
+ * A complete storage backend: users, courses and vocabulary kept in one place.
+ * @author Four Musketeers
+ */
+package com.narration;
+
+public interface DataRepository extends UserRepository, CourseRepository, VocabularyRepository, AutoCloseable {
+
+    /**
+     * Releases whatever the backend holds open. Backends that hold nothing open do nothing.
+     */
+    @Override
+    default void close() {
+    }
+}
@@ -1,13 +1,16 @@
 /**
- * Class responsible for writing data to JSON files, including user data, courses, languages, words, and phrases
+ * Class responsible for writing data to JSON files, including user data, courses, languages, words, and phrases.
+ * Every file is replaced atomically through AtomicFileWriter, so a crash never leaves a half-written file behind.
  * @author Four Musketeers
  */
 package com.narration;
 
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
-import java.util.UUID;
+import java.util.List;
 
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
@@ -16,58 +19,34 @@ public class DataWriter extends DataConstants {
 
 
     /**
-     * Saves a list of users to the JSON file.
+     * Saves a list of users to the JSON file, streaming one user at a time.
      * @param users the list of users to be saved
      */
-    @SuppressWarnings("unchecked")
     public static void saveUsers(ArrayList<User> users) {
-        JSONArray userList = new JSONArray();
-
-        for (User user : users) {
-            JSONObject userJSON = new JSONObject();
-            userJSON.put("userId", user.getId().toString());
-            userJSON.put("username", user.getUsername());
-            userJSON.put("email", user.getEmail());
-            userJSON.put("password", user.getPassword());
-
-            JSONArray coursesJSON = new JSONArray();
-            for (Course course : user.getCourses()) {
-                JSONObject courseJSON = new JSONObject();
-                courseJSON.put("courseID", course.getId().toString());
-                coursesJSON.add(courseJSON);
-            }
-            userJSON.put("courses", coursesJSON);
-
-            JSONObject progressJSON = new JSONObject();
-            for (UUID courseId : user.getProgress().keySet()) {
-                progressJSON.put(courseId.toString(), user.getCourseProgress(courseId));
-            }
-            userJSON.put("progress", progressJSON);
-
-            JSONArray completedCoursesJSON = new JSONArray();
-            for (UUID courseId : user.getCompletedCourses()) {
-                completedCoursesJSON.add(courseId.toString());
-            }
-            userJSON.put("completedCourses", completedCoursesJSON);
-
-            JSONArray languagesJSON = new JSONArray();
-            for (Language lang : user.getLanguages()) {
-                languagesJSON.add(lang.getName());
+        if (ShardedUserStorage.exists(USERS_SHARD_DIR)) {
+            try {
+                ShardedUserStorage.open(USERS_SHARD_DIR).saveAll(users);
+            } catch (Exception e) {
+                e.printStackTrace();
             }
-            userJSON.put("languages", languagesJSON);
-
-            userJSON.put("currentCourseID", user.getCurrentCourse().toString());
-            userJSON.put("currentLanguageID", user.getCurrentLanguage().toString());
-            userJSON.put("currentLanguageName", user.getCurrentLanguageName());
-
-            userList.add(userJSON);
+            return;
         }
+        saveUsers(users, USERS_FILE);
+    }
 
-        try (FileWriter file = new FileWriter(USERS_FILE)) {
-            file.write(userList.toJSONString());
-            file.flush();
+    /**
+     * Saves a list of users to the given JSON file, streaming one user at a time.
+     * @param users the list of users to be saved
+     * @param filePath the path of the users JSON file
+     * @return true if writing was successful, false otherwise
+     */
+    static boolean saveUsers(ArrayList<User> users, String filePath) {
+        try {
+            AtomicFileWriter.write(filePath, out -> StreamingJsonWriter.writeUsers(out, users));
+            return true;
         } catch (Exception e) {
             e.printStackTrace();
+            return false;
         }
     }
 
@@ -77,10 +56,13 @@ public class DataWriter extends DataConstants {
      * @param jsonArray the JSON array to write
      * @return true if writing was successful, false otherwise
      */
-    private boolean writeToFile(String filePath, JSONArray jsonArray) {
-        try (FileWriter file = new FileWriter(filePath)) {
-            file.write(jsonArray.toJSONString());
-            file.flush();
+    private static boolean writeToFile(String filePath, JSONArray jsonArray) {
+        try {
+            AtomicFileWriter.write(filePath, out -> {
+                Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+                writer.write(jsonArray.toJSONString());
+                writer.flush();
+            });
             return true;
         } catch (IOException e) {
             e.printStackTrace();
@@ -91,25 +73,49 @@ public class DataWriter extends DataConstants {
     /**
      * Saves a list of courses to the JSON file.
      * @param courses the list of courses to save
+     * @return true if successful, false otherwise
+     */
+    public static boolean saveCourses(ArrayList<Course> courses) {
+        return saveCourses(courses, COURSES_FILE);
+    }
+
+    /**
+     * Saves a list of courses, with their lessons, to the given JSON file in the layout DataLoader reads.
+     * @param courses the list of courses to save
+     * @param filePath the path of the courses JSON file
+     * @return true if successful, false otherwise
      */
     @SuppressWarnings("unchecked")
-    public static void saveCourses(ArrayList<Course> courses) {
+    static boolean saveCourses(List<Course> courses, String filePath) {
         JSONArray courseList = new JSONArray();
 
         for (Course course : courses) {
             JSONObject courseJSON = new JSONObject();
-            courseJSON.put("courseID", course.getId());
+            courseJSON.put("courseID", course.getId() == null ? null : course.getId().toString());
             courseJSON.put("name", course.getName());
             courseJSON.put("description", course.getDescription());
+            courseJSON.put("userAccess", course.getUserAccess());
+            courseJSON.put("courseProgress", course.getCourseProgress());
+            courseJSON.put("completed", course.isCompletedCourse());
+
+            JSONArray lessonsArray = new JSONArray();
+            if (course.getAllLessons() != null) {
+                for (Lesson lesson : course.getAllLessons()) {
+                    JSONObject lessonJSON = new JSONObject();
+                    lessonJSON.put("lessonName", lesson.getLessonName());
+                    lessonJSON.put("lessonID", lesson.getId().toString());
+                    lessonJSON.put("lessonProgress", lesson.getLessonProgress());
+                    lessonJSON.put("description", lesson.getDescription());
+                    lessonJSON.put("englishContent", lesson.getEnglishContent());
+                    lessonJSON.put("spanishContent", lesson.getSpanishContent());
+                    lessonsArray.add(lessonJSON);
+                }
+            }
+            courseJSON.put("lessons", lessonsArray);
             courseList.add(courseJSON);
         }
 
-        try (FileWriter file = new FileWriter(COURSES_FILE)) {
-            file.write(courseList.toJSONString());
-            file.flush();
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+        return writeToFile(filePath, courseList);
     }
 
     /**
@@ -117,8 +123,18 @@ public class DataWriter extends DataConstants {
      * @param languages the list of languages to save
      * @return true if successful, false otherwise
      */
-    @SuppressWarnings("unchecked")
     public boolean saveLanguages(ArrayList<Language> languages) {
+        return saveLanguages(languages, LANGUAGES_FILE);
+    }
+
+    /**
+     * Saves a list of languages to the given JSON file.
+     * @param languages the list of languages to save
+     * @param filePath the path of the languages JSON file
+     * @return true if successful, false otherwise
+     */
+    @SuppressWarnings("unchecked")
+    static boolean saveLanguages(List<Language> languages, String filePath) {
         JSONArray languageArray = new JSONArray();
 
         for (Language language : languages) {
@@ -128,22 +144,31 @@ public class DataWriter extends DataConstants {
             languageArray.add(languageJson);
         }
 
-        return writeToFile(LANGUAGES_FILE, languageArray);
+        return writeToFile(filePath, languageArray);
     }
 
     /**
-     * Saves the user progress to the JSON file by updating the user's data.
+     * Saves the user progress by updating the user's data. With the sharded layout only that user's shard is rewritten.
+     * When the progress journal is active, journaled changes only need to become durable; the user is still saved
+     * when it has changes the journal does not record, such as enrollments or lesson progress.
      * @param user the user whose progress is being saved
      */
     public void saveUserProgress(User user) {
-        ArrayList<User> users = DataLoader.getUsers();
-        for (User existingUser : users) {
+        UserStore store = UserStore.getInstance();
+        ProgressJournal journal = ProgressJournal.getActive();
+        for (User existingUser : store.getUsers()) {
             if (existingUser.getId().equals(user.getId())) {
                 existingUser.setProgress(user.getProgress());
-                break;
+                if (journal != null) {
+                    journal.sync();
+                }
+                if (journal == null || existingUser.hasUnjournaledChanges()) {
+                    store.saveUser(existingUser);
+                }
+                return;
             }
         }
-        saveUsers(users);
+        store.save();
     }
 
     /**
@@ -153,54 +178,62 @@ public class DataWriter extends DataConstants {
      * @param assessment the assessment being saved
      */
     public void saveAssessmentHistory(User user, Assessment assessment) {
-        ArrayList<User> users = DataLoader.getUsers();
-        for (User existingUser : users) {
-            if (existingUser.getId().equals(user.getId())) {
-                break;
-            }
-        }
-        saveUsers(users);
+        UserStore.getInstance().save();
     }
 
     /**
      * Saves words from the WordsList to the JSON file.
      * @param wordsList the WordsList containing words to save
      */
-    @SuppressWarnings("unchecked")
     public void saveWords(WordsList wordsList) {
+        saveWords(wordsList.getAllWords(), WORDS_FILE);
+    }
+
+    /**
+     * Saves words, with their difficulty and translation, to the given JSON file in the layout DataLoader reads.
+     * @param words the words to save
+     * @param filePath the path of the words JSON file
+     * @return true if successful, false otherwise
+     */
+    @SuppressWarnings("unchecked")
+    static boolean saveWords(List<Word> words, String filePath) {
         JSONArray wordsArray = new JSONArray();
-        for (Word word : wordsList.getAllWords()) {
+        for (Word word : words) {
             JSONObject wordObj = new JSONObject();
             wordObj.put("word", word.getWordText());
             wordObj.put("definition", word.getDefinition());
+            wordObj.put("difficulty", word.getDifficulty());
+            wordObj.put("translation", word.getTranslation());
             wordsArray.add(wordObj);
         }
 
-        try (FileWriter writer = new FileWriter(WORDS_FILE)) {
-            writer.write(wordsArray.toJSONString());
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+        return writeToFile(filePath, wordsArray);
     }
 
     /**
      * Saves phrases from the PhraseList to the JSON file.
      * @param phraseList the PhraseList containing phrases to save
      */
-    @SuppressWarnings("unchecked")
     public void savePhrases(PhraseList phraseList) {
+        savePhrases(phraseList.getAllPhrases(), PHRASES_FILE);
+    }
+
+    /**
+     * Saves phrases to the given JSON file.
+     * @param phrases the phrases to save
+     * @param filePath the path of the phrases JSON file
+     * @return true if successful, false otherwise
+     */
+    @SuppressWarnings("unchecked")
+    static boolean savePhrases(List<Phrase> phrases, String filePath) {
         JSONArray phrasesArray = new JSONArray();
-        for (Phrase phrase : phraseList.getAllPhrases()) {
+        for (Phrase phrase : phrases) {
             JSONObject phraseObj = new JSONObject();
             phraseObj.put("phrase", phrase.getPhraseText());
             phraseObj.put("definition", phrase.getDefinition());
             phrasesArray.add(phraseObj);
         }
 
-        try (FileWriter writer = new FileWriter(PHRASES_FILE)) {
-            writer.write(phrasesArray.toJSONString());
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-    };    
+        return writeToFile(filePath, phrasesArray);
+    }
 }
\ No newline at end of file
@@ -1,29 +1,161 @@
 package com.narration;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class Dictionary {
 
-    private final WordsList wordsList;
-    private final Map<String, String> translationMap;
+    private static final String NOT_FOUND = "Translation not found!";
+
+    /**
+     * One translation, with the word, the lowercased Spanish and English text it was added with and their folded keys.
+     */
+    private static class Entry {
+
+        final Word word;
+        final String spanish;
+        final String english;
+        final String foldedSpanish;
+        final String foldedEnglish;
+
+        Entry(Word word) {
+            this.word = word;
+            this.spanish = word.getWordText().toLowerCase();
+            this.english = word.getTranslation() == null ? null : word.getTranslation().toLowerCase();
+            this.foldedSpanish = TextFolding.fold(spanish);
+            this.foldedEnglish = TextFolding.fold(english);
+        }
+    }
+
+    /**
+     * Both directions of the dictionary, keyed by accent and case folded text so "adios" finds "adiós".
+     * The keys are folded once when a word is added; a lookup folds only the word being looked up.
+     * Lookups read the concurrent maps without locking, while adding or removing a word changes them in place in
+     * constant time. The Spanish words of each English key are kept as well, so removing the word an English lookup
+     * points at moves it to another word without scanning the dictionary.
+     */
+    private static class Translations {
+
+        final ConcurrentHashMap<String, Entry> toEnglish = new ConcurrentHashMap<>();
+        final ConcurrentHashMap<String, Entry> toSpanish = new ConcurrentHashMap<>();
+        // every entry for each folded English key, oldest first; only used while holding this object's lock
+        private final HashMap<String, ArrayList<Entry>> byEnglish = new HashMap<>();
+        private volatile SpellingIndex spellings;
+
+        /**
+         * Returns the folded Spanish words for suggestions, sorting them the first time they are needed.
+         */
+        SpellingIndex spellings() {
+            SpellingIndex index = spellings;
+            if (index == null) {
+                synchronized (this) {
+                    index = spellings;
+                    if (index == null) {
+                        index = new SpellingIndex(toEnglish.keySet());
+                        spellings = index;
+                    }
+                }
+            }
+            return index;
+        }
+
+        synchronized void add(Word word) {
+            Entry entry = new Entry(word);
+            Entry replaced = toEnglish.put(entry.foldedSpanish, entry);
+            if (replaced != null) {
+                removeReverse(replaced);
+            } else if (spellings != null) {
+                spellings = spellings.with(entry.foldedSpanish);
+            }
+            if (entry.foldedEnglish != null) {
+                byEnglish.computeIfAbsent(entry.foldedEnglish, english -> new ArrayList<>(1)).add(entry);
+                toSpanish.put(entry.foldedEnglish, entry);
+            }
+        }
+
+        synchronized void remove(String foldedSpanish) {
+            Entry removed = toEnglish.remove(foldedSpanish);
+            if (removed != null) {
+                removeReverse(removed);
+                if (spellings != null) {
+                    spellings = spellings.without(foldedSpanish);
+                }
+            }
+        }
+
+        /**
+         * Drops the English lookup for an entry that is going away. When other Spanish words have the same
+         * English translation, the English lookup moves to the one added last.
+         */
+        private void removeReverse(Entry entry) {
+            if (entry.foldedEnglish == null) {
+                return;
+            }
+            ArrayList<Entry> same = byEnglish.get(entry.foldedEnglish);
+            same.remove(entry);
+            if (same.isEmpty()) {
+                byEnglish.remove(entry.foldedEnglish);
+                toSpanish.remove(entry.foldedEnglish);
+            } else if (toSpanish.get(entry.foldedEnglish) == entry) {
+                toSpanish.put(entry.foldedEnglish, same.get(same.size() - 1));
+            }
+        }
+    }
+
+    private volatile WordsList wordsList;
+    private volatile Translations translations;
+    private final PhraseList phraseList;
+    private volatile CompletionIndex completions;
 
     public Dictionary(WordsList wordsList) {
+        this(wordsList, new PhraseList());
+    }
+
+    /**
+     * Creates a dictionary whose autocompletion also offers the phrases.
+     * @param wordsList  the words to translate and complete
+     * @param phraseList the phrases to complete
+     */
+    public Dictionary(WordsList wordsList, PhraseList phraseList) {
+        this.wordsList = wordsList;
+        this.phraseList = phraseList == null ? new PhraseList() : phraseList;
+        this.translations = buildTranslations(wordsList);
+    }
+
+    /**
+     * Replaces the dictionary's words, for example after the words file changed. The new translations are built
+     * completely before they replace the current ones, so lookups never block and never see a half-built map.
+     * @param wordsList the new words
+     */
+    public synchronized void reload(WordsList wordsList) {
+        Translations built = buildTranslations(wordsList);
         this.wordsList = wordsList;
-        this.translationMap = new HashMap<>();
+        this.translations = built;
+        this.completions = null;
+    }
 
+    private static Translations buildTranslations(WordsList wordsList) {
+        Translations built = new Translations();
         for (Word word : wordsList.getAllWords()) {
-            translationMap.put(word.getWordText().toLowerCase(), word.getTranslation().toLowerCase());
+            built.add(word);
         }
+        return built;
     }
 
+    /**
+     * Translates a Spanish word to English, ignoring accents and case.
+     * @param word the Spanish word
+     * @return the lowercased English translation, or "Translation not found!"
+     */
     public String translate(String word) {
         if (word == null) {
-            return "Translation not found!";
+            return NOT_FOUND;
         }
-        word = word.toLowerCase();
-        return translationMap.getOrDefault(word, "Translation not found!");
+        Entry entry = translations.toEnglish.get(TextFolding.fold(word));
+        return entry == null || entry.english == null ? NOT_FOUND : entry.english;
     }
 
     public Map<String, String> translate(List<String> words) {
@@ -36,22 +168,123 @@ public class Dictionary {
         return translations;
     }
 
-    public void addTranslation(Word word) {
+    /**
+     * Translates an English word to Spanish, ignoring accents and case.
+     * When several Spanish words share the translation, the one added last is returned.
+     * @param word the English word
+     * @return the lowercased Spanish word, or "Translation not found!"
+     */
+    public String translateToSpanish(String word) {
+        if (word == null) {
+            return NOT_FOUND;
+        }
+        Entry entry = translations.toSpanish.get(TextFolding.fold(word));
+        return entry == null ? NOT_FOUND : entry.spanish;
+    }
+
+    /**
+     * Finds the word for a Spanish word, ignoring accents and case.
+     * @param word the Spanish word
+     * @return the word as it was added, or null if it is not in the dictionary
+     */
+    public Word findWord(String word) {
+        if (word == null) {
+            return null;
+        }
+        Entry entry = translations.toEnglish.get(TextFolding.fold(word));
+        return entry == null ? null : entry.word;
+    }
+
+    /**
+     * Suggests the Spanish words closest in spelling to a possibly misspelled word, ignoring accents and case,
+     * for example "gracas" suggests "gracias". Only a small part of the vocabulary is compared; see SpellingIndex.
+     * @param word        the word the learner typed
+     * @param maxDistance the most inserted, deleted or replaced characters a suggestion may differ by
+     * @param limit       the largest number of suggestions
+     * @return the lowercased Spanish words, closest first and alphabetical among equally close words
+     */
+    public List<String> suggest(String word, int maxDistance, int limit) {
+        ArrayList<String> suggestions = new ArrayList<>();
+        if (word == null || limit <= 0) {
+            return suggestions;
+        }
+        Translations current = translations;
+        for (SpellingIndex.Match match : current.spellings().closest(TextFolding.fold(word), maxDistance, limit)) {
+            Entry entry = current.toEnglish.get(match.getWord());
+            if (entry != null) {
+                suggestions.add(entry.spanish);
+            }
+        }
+        return suggestions;
+    }
+
+    /**
+     * Completes the start of a Spanish word or phrase, ignoring accents and case, for example "bue" completes to
+     * "Buenos días". Easier words are offered first.
+     * @param prefix the text typed so far
+     * @param limit  the largest number of completions
+     * @return the words and phrases as they were added, easiest first and alphabetical among equally easy ones
+     */
+    public List<String> complete(String prefix, int limit) {
+        return completions().complete(prefix, limit);
+    }
+
+    /**
+     * Returns the completion index, building it over every word and phrase the first time it is needed.
+     */
+    private CompletionIndex completions() {
+        CompletionIndex index = completions;
+        if (index == null) {
+            synchronized (this) {
+                index = completions;
+                if (index == null) {
+                    ArrayList<CompletionIndex.Completion> all = new ArrayList<>();
+                    for (Word word : wordsList.getAllWords()) {
+                        all.add(new CompletionIndex.Completion(word.getWordText(), weightOf(word.getLevel())));
+                    }
+                    for (Phrase phrase : phraseList.getAllPhrases()) {
+                        all.add(new CompletionIndex.Completion(phrase.getPhraseText(), weightOf(null)));
+                    }
+                    index = new CompletionIndex(all);
+                    completions = index;
+                }
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Weighs a completion by difficulty, so rudimentary words come before advanced ones. Phrases and words with an
+     * unknown difficulty count as intermediate.
+     */
+    private static int weightOf(Difficulty level) {
+        return Difficulty.values().length - (level == null ? Difficulty.INTERMEDIATE : level).ordinal();
+    }
+
+    public synchronized void addTranslation(Word word) {
         if (word == null) {
             return; // Prevent adding null word
         }
         wordsList.addWord(word);
-        translationMap.put(word.getWordText().toLowerCase(), word.getTranslation().toLowerCase());
+        translations.add(word);
+        if (completions != null) {
+            completions = completions.with(word.getWordText(), weightOf(word.getLevel()));
+        }
     }
 
-    public void removeTranslation(String wordText) {
+    /**
+     * Removes a Spanish word and its translation in both directions, ignoring accents and case.
+     * @param wordText the Spanish word to remove
+     */
+    public synchronized void removeTranslation(String wordText) {
         if (wordText == null) {
             return; // Prevent removing null word
         }
-        String finalWordText = wordText.toLowerCase();
-        List<Word> words = wordsList.getAllWords();
-        words.removeIf(word -> word.getWordText().equalsIgnoreCase(finalWordText));
-        translationMap.remove(finalWordText);
+        String folded = TextFolding.fold(wordText);
+        wordsList.removeWords(wordText);
+        translations.remove(folded);
+        // removals are rare, so the completions are rebuilt when next needed
+        completions = null;
     }
 
     public int getWordCount() {
@@ -59,6 +292,10 @@ public class Dictionary {
     }
 
     public Map<String, String> getAllTranslations() {
-        return new HashMap<>(translationMap);
+        Map<String, String> all = new HashMap<>();
+        for (Entry entry : translations.toEnglish.values()) {
+            all.put(entry.spanish, entry.english);
+        }
+        return all;
     }
 }
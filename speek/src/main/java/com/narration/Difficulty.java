@@ -4,8 +4,36 @@
  */
 package com.narration;
 
+import java.util.Locale;
+
 public enum Difficulty {
     RUDIMENTARY,   // Beginner level
     INTERMEDIATE,  // Medium level
-    ADVANCED       // High level
+    ADVANCED;      // High level
+
+    /**
+     * Parses a difficulty from its name, ignoring case and surrounding spaces, so "Rudimentary" is RUDIMENTARY.
+     * @param text the difficulty as stored in the data files
+     * @return the difficulty, or null if the text is null or not a difficulty
+     */
+    public static Difficulty fromText(String text) {
+        if (text == null) {
+            return null;
+        }
+        String name = text.trim();
+        for (Difficulty difficulty : values()) {
+            if (difficulty.name().equalsIgnoreCase(name)) {
+                return difficulty;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the difficulty the way the data files write it, such as "Rudimentary".
+     * @return the difficulty's name with only its first letter in upper case
+     */
+    public String toText() {
+        return name().charAt(0) + name().substring(1).toLowerCase(Locale.ROOT);
+    }
 }
\ No newline at end of file
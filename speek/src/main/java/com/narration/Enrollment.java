@@ -0,0 +1,71 @@
+/**
+ * Holds one user's own state in a course they are enrolled in: whether they have access and how far they got in each lesson.
+ * The course and its lessons are shared by every enrolled user, so nothing per-user is stored on them.
+ * The user's overall progress and completion of the course are kept on the User.
+ * @author Four Musketeers
+ */
+package com.narration;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+public class Enrollment {
+
+    private final UUID courseId;
+    private boolean userAccess;
+    private HashMap<UUID, Double> lessonProgress;  // created when the first lesson gets progress
+
+    /**
+     * Creates an enrollment without access or lesson progress.
+     * @param courseId the ID of the course
+     */
+    public Enrollment(UUID courseId) {
+        this.courseId = courseId;
+    }
+
+    /**
+     * Gets the ID of the course this enrollment is for
+     * @return the course ID
+     */
+    public UUID getCourseId() {
+        return courseId;
+    }
+
+    /**
+     * Checks whether the user has access to the course
+     * @return true if the user has access
+     */
+    public boolean getUserAccess() {
+        return userAccess;
+    }
+
+    void setUserAccess(boolean userAccess) {
+        this.userAccess = userAccess;
+    }
+
+    /**
+     * Gets the user's progress in a lesson of the course
+     * @param lessonId the ID of the lesson
+     * @return the lesson progress, or 0.0 if the lesson was not started
+     */
+    public double getLessonProgress(UUID lessonId) {
+        return lessonProgress == null ? 0.0 : lessonProgress.getOrDefault(lessonId, 0.0);
+    }
+
+    void setLessonProgress(UUID lessonId, double progress) {
+        if (lessonProgress == null) {
+            lessonProgress = new HashMap<>();
+        }
+        lessonProgress.put(lessonId, progress);
+    }
+
+    /**
+     * Gets the user's progress in every lesson they started
+     * @return the lesson progress by lesson ID
+     */
+    public Map<UUID, Double> getAllLessonProgress() {
+        return lessonProgress == null ? Collections.emptyMap() : Collections.unmodifiableMap(lessonProgress);
+    }
+}
@@ -0,0 +1,543 @@
+/**
+ * Storage backend that keeps everything in an embedded H2 database, so no database server is needed.
+ * Each list is a table whose rows carry a sequence number to keep the stored order; the lists inside users and
+ * courses live in child tables keyed by the parent row's sequence number.
+ * @author Four Musketeers
+ */
+package com.narration;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+public class H2Repository implements DataRepository {
+
+    private static final String[] SCHEMA = {
+        "CREATE TABLE IF NOT EXISTS users (seq INT PRIMARY KEY, id UUID, username VARCHAR, email VARCHAR, "
+            + "password VARCHAR, current_course UUID, current_language UUID, current_language_name VARCHAR)",
+        "CREATE INDEX IF NOT EXISTS users_id ON users (id)",
+        "CREATE TABLE IF NOT EXISTS user_courses (user_seq INT, seq INT, course_id UUID, PRIMARY KEY (user_seq, seq))",
+        "ALTER TABLE user_courses ADD COLUMN IF NOT EXISTS user_access BOOLEAN DEFAULT FALSE",
+        "CREATE TABLE IF NOT EXISTS user_lessons (user_seq INT, course_id UUID, lesson_id UUID, progress DOUBLE PRECISION)",
+        "CREATE INDEX IF NOT EXISTS user_lessons_user ON user_lessons (user_seq)",
+        "CREATE TABLE IF NOT EXISTS user_progress (user_seq INT, course_id UUID, progress DOUBLE PRECISION)",
+        "CREATE INDEX IF NOT EXISTS user_progress_user ON user_progress (user_seq)",
+        "CREATE TABLE IF NOT EXISTS user_completed (user_seq INT, seq INT, course_id UUID, PRIMARY KEY (user_seq, seq))",
+        "CREATE TABLE IF NOT EXISTS courses (seq INT PRIMARY KEY, id UUID, name VARCHAR, description VARCHAR, "
+            + "user_access BOOLEAN, completed BOOLEAN, progress DOUBLE PRECISION)",
+        "CREATE INDEX IF NOT EXISTS courses_id ON courses (id)",
+        "CREATE TABLE IF NOT EXISTS lessons (course_seq INT, seq INT, id UUID, name VARCHAR, description VARCHAR, "
+            + "progress DOUBLE PRECISION, english_content VARCHAR, spanish_content VARCHAR, PRIMARY KEY (course_seq, seq))",
+        "CREATE TABLE IF NOT EXISTS languages (seq INT PRIMARY KEY, id UUID, name VARCHAR)",
+        "CREATE TABLE IF NOT EXISTS words (seq INT PRIMARY KEY, word VARCHAR, definition VARCHAR, difficulty VARCHAR, translation VARCHAR)",
+        "CREATE TABLE IF NOT EXISTS phrases (seq INT PRIMARY KEY, phrase VARCHAR, definition VARCHAR)"
+    };
+
+    private static final String USER_CHILD_FILTER = " WHERE user_seq IN (SELECT seq FROM users WHERE id = ?)";
+    private static final String COURSE_CHILD_FILTER = " WHERE course_seq IN (SELECT seq FROM courses WHERE id = ?)";
+
+    private final String url;
+    private Connection connection;
+
+    /**
+     * Creates a backend for the database at the URL. The database and its tables are created on first use.
+     * @param url the JDBC URL, for example "jdbc:h2:file:./speek/docs/db/speek" or "jdbc:h2:mem:test"
+     */
+    public H2Repository(String url) {
+        this.url = url;
+    }
+
+    @Override
+    public synchronized ArrayList<User> loadUsers() {
+        try {
+            return queryUsers("", "", null);
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return new ArrayList<>();
+        }
+    }
+
+    @Override
+    public synchronized User findUser(UUID userId) {
+        try {
+            ArrayList<User> users = queryUsers(" WHERE id = ?", USER_CHILD_FILTER, userId);
+            return users.isEmpty() ? null : users.get(0);
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    @Override
+    public synchronized void saveUsers(List<User> users) {
+        try {
+            Connection db = connection();
+            try (Statement statement = db.createStatement()) {
+                statement.executeUpdate("DELETE FROM user_courses");
+                statement.executeUpdate("DELETE FROM user_lessons");
+                statement.executeUpdate("DELETE FROM user_progress");
+                statement.executeUpdate("DELETE FROM user_completed");
+                statement.executeUpdate("DELETE FROM users");
+            }
+            insertUsers(db, users, 0);
+            db.commit();
+        } catch (SQLException e) {
+            rollback(e);
+        }
+    }
+
+    @Override
+    public synchronized void saveUser(User user) {
+        try {
+            Connection db = connection();
+            Integer seq = null;
+            try (PreparedStatement select = db.prepareStatement("SELECT seq FROM users WHERE id = ?")) {
+                select.setObject(1, user.getId());
+                try (ResultSet rows = select.executeQuery()) {
+                    if (rows.next()) {
+                        seq = rows.getInt(1);
+                    }
+                }
+            }
+            if (seq == null) {
+                try (Statement statement = db.createStatement();
+                     ResultSet rows = statement.executeQuery("SELECT COALESCE(MAX(seq) + 1, 0) FROM users")) {
+                    rows.next();
+                    seq = rows.getInt(1);
+                }
+            } else {
+                for (String table : new String[] {"user_courses", "user_lessons", "user_progress", "user_completed"}) {
+                    try (PreparedStatement delete = db.prepareStatement("DELETE FROM " + table + " WHERE user_seq = ?")) {
+                        delete.setInt(1, seq);
+                        delete.executeUpdate();
+                    }
+                }
+                try (PreparedStatement delete = db.prepareStatement("DELETE FROM users WHERE seq = ?")) {
+                    delete.setInt(1, seq);
+                    delete.executeUpdate();
+                }
+            }
+            List<User> single = new ArrayList<>();
+            single.add(user);
+            insertUsers(db, single, seq);
+            db.commit();
+        } catch (SQLException e) {
+            rollback(e);
+        }
+    }
+
+    @Override
+    public synchronized ArrayList<Course> loadCourses() {
+        try {
+            return queryCourses("", "", null);
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return new ArrayList<>();
+        }
+    }
+
+    @Override
+    public synchronized Course findCourse(UUID courseId) {
+        try {
+            ArrayList<Course> courses = queryCourses(" WHERE id = ?", COURSE_CHILD_FILTER, courseId);
+            return courses.isEmpty() ? null : courses.get(0);
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    @Override
+    public synchronized void saveCourses(List<Course> courses) {
+        try {
+            Connection db = connection();
+            try (Statement statement = db.createStatement()) {
+                statement.executeUpdate("DELETE FROM lessons");
+                statement.executeUpdate("DELETE FROM courses");
+            }
+            try (PreparedStatement insertCourse = db.prepareStatement(
+                    "INSERT INTO courses (seq, id, name, description, user_access, completed, progress) VALUES (?, ?, ?, ?, ?, ?, ?)");
+                 PreparedStatement insertLesson = db.prepareStatement(
+                    "INSERT INTO lessons (course_seq, seq, id, name, description, progress, english_content, spanish_content) "
+                        + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)")) {
+                for (int seq = 0; seq < courses.size(); seq++) {
+                    Course course = courses.get(seq);
+                    insertCourse.setInt(1, seq);
+                    insertCourse.setObject(2, course.getId());
+                    insertCourse.setString(3, course.getName());
+                    insertCourse.setString(4, course.getDescription());
+                    insertCourse.setBoolean(5, course.getUserAccess());
+                    insertCourse.setBoolean(6, course.isCompletedCourse());
+                    insertCourse.setDouble(7, course.getCourseProgress());
+                    insertCourse.addBatch();
+
+                    ArrayList<Lesson> lessons = course.getAllLessons();
+                    for (int i = 0; lessons != null && i < lessons.size(); i++) {
+                        Lesson lesson = lessons.get(i);
+                        insertLesson.setInt(1, seq);
+                        insertLesson.setInt(2, i);
+                        insertLesson.setObject(3, lesson.getId());
+                        insertLesson.setString(4, lesson.getLessonName());
+                        insertLesson.setString(5, lesson.getDescription());
+                        insertLesson.setDouble(6, lesson.getLessonProgress());
+                        insertLesson.setString(7, lesson.getEnglishContent());
+                        insertLesson.setString(8, lesson.getSpanishContent());
+                        insertLesson.addBatch();
+                    }
+                }
+                insertCourse.executeBatch();
+                insertLesson.executeBatch();
+            }
+            db.commit();
+        } catch (SQLException e) {
+            rollback(e);
+        }
+    }
+
+    @Override
+    public synchronized ArrayList<Language> loadLanguages() {
+        ArrayList<Language> languages = new ArrayList<>();
+        try (Statement statement = connection().createStatement();
+             ResultSet rows = statement.executeQuery("SELECT id, name FROM languages ORDER BY seq")) {
+            while (rows.next()) {
+                languages.add(new Language(rows.getObject(1, UUID.class), rows.getString(2)));
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return languages;
+    }
+
+    @Override
+    public synchronized ArrayList<Word> loadWords() {
+        ArrayList<Word> words = new ArrayList<>();
+        try (Statement statement = connection().createStatement();
+             ResultSet rows = statement.executeQuery("SELECT word, definition, difficulty, translation FROM words ORDER BY seq")) {
+            while (rows.next()) {
+                words.add(new Word(rows.getString(1), rows.getString(2), rows.getString(3), rows.getString(4)));
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return words;
+    }
+
+    @Override
+    public synchronized ArrayList<Phrase> loadPhrases() {
+        ArrayList<Phrase> phrases = new ArrayList<>();
+        try (Statement statement = connection().createStatement();
+             ResultSet rows = statement.executeQuery("SELECT phrase, definition FROM phrases ORDER BY seq")) {
+            while (rows.next()) {
+                phrases.add(new Phrase(rows.getString(1), rows.getString(2)));
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return phrases;
+    }
+
+    @Override
+    public synchronized void saveLanguages(List<Language> languages) {
+        try {
+            Connection db = connection();
+            try (Statement statement = db.createStatement();
+                 PreparedStatement insert = db.prepareStatement("INSERT INTO languages (seq, id, name) VALUES (?, ?, ?)")) {
+                statement.executeUpdate("DELETE FROM languages");
+                for (int seq = 0; seq < languages.size(); seq++) {
+                    insert.setInt(1, seq);
+                    insert.setObject(2, languages.get(seq).getId());
+                    insert.setString(3, languages.get(seq).getName());
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+            }
+            db.commit();
+        } catch (SQLException e) {
+            rollback(e);
+        }
+    }
+
+    @Override
+    public synchronized void saveWords(List<Word> words) {
+        try {
+            Connection db = connection();
+            try (Statement statement = db.createStatement();
+                 PreparedStatement insert = db.prepareStatement(
+                    "INSERT INTO words (seq, word, definition, difficulty, translation) VALUES (?, ?, ?, ?, ?)")) {
+                statement.executeUpdate("DELETE FROM words");
+                for (int seq = 0; seq < words.size(); seq++) {
+                    Word word = words.get(seq);
+                    insert.setInt(1, seq);
+                    insert.setString(2, word.getWordText());
+                    insert.setString(3, word.getDefinition());
+                    insert.setString(4, word.getDifficulty());
+                    insert.setString(5, word.getTranslation());
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+            }
+            db.commit();
+        } catch (SQLException e) {
+            rollback(e);
+        }
+    }
+
+    @Override
+    public synchronized void savePhrases(List<Phrase> phrases) {
+        try {
+            Connection db = connection();
+            try (Statement statement = db.createStatement();
+                 PreparedStatement insert = db.prepareStatement("INSERT INTO phrases (seq, phrase, definition) VALUES (?, ?, ?)")) {
+                statement.executeUpdate("DELETE FROM phrases");
+                for (int seq = 0; seq < phrases.size(); seq++) {
+                    insert.setInt(1, seq);
+                    insert.setString(2, phrases.get(seq).getPhraseText());
+                    insert.setString(3, phrases.get(seq).getDefinition());
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+            }
+            db.commit();
+        } catch (SQLException e) {
+            rollback(e);
+        }
+    }
+
+    /**
+     * Closes the database connection. The next call opens it again.
+     */
+    @Override
+    public synchronized void close() {
+        if (connection != null) {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+            connection = null;
+        }
+    }
+
+    private Connection connection() throws SQLException {
+        if (connection == null) {
+            connection = DriverManager.getConnection(url);
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement()) {
+                for (String sql : SCHEMA) {
+                    statement.execute(sql);
+                }
+            }
+            connection.commit();
+        }
+        return connection;
+    }
+
+    private void rollback(SQLException cause) {
+        cause.printStackTrace();
+        if (connection != null) {
+            try {
+                connection.rollback();
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Inserts users and their child rows, numbering them from the given sequence number.
+     */
+    private void insertUsers(Connection db, List<User> users, int firstSeq) throws SQLException {
+        try (PreparedStatement insertUser = db.prepareStatement(
+                "INSERT INTO users (seq, id, username, email, password, current_course, current_language, current_language_name) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)");
+             PreparedStatement insertCourse = db.prepareStatement("INSERT INTO user_courses (user_seq, seq, course_id, user_access) VALUES (?, ?, ?, ?)");
+             PreparedStatement insertLesson = db.prepareStatement("INSERT INTO user_lessons (user_seq, course_id, lesson_id, progress) VALUES (?, ?, ?, ?)");
+             PreparedStatement insertProgress = db.prepareStatement("INSERT INTO user_progress (user_seq, course_id, progress) VALUES (?, ?, ?)");
+             PreparedStatement insertCompleted = db.prepareStatement("INSERT INTO user_completed (user_seq, seq, course_id) VALUES (?, ?, ?)")) {
+            for (int i = 0; i < users.size(); i++) {
+                User user = users.get(i);
+                int seq = firstSeq + i;
+                insertUser.setInt(1, seq);
+                insertUser.setObject(2, user.getId());
+                insertUser.setString(3, user.getUsername());
+                insertUser.setString(4, user.getEmail());
+                insertUser.setString(5, user.getPassword());
+                insertUser.setObject(6, user.getCurrentCourse());
+                insertUser.setObject(7, user.getCurrentLanguage());
+                insertUser.setString(8, user.getCurrentLanguageName());
+                insertUser.addBatch();
+
+                ArrayList<Course> courses = user.getCourses();
+                for (int c = 0; courses != null && c < courses.size(); c++) {
+                    UUID courseId = courses.get(c) == null ? null : courses.get(c).getId();
+                    insertCourse.setInt(1, seq);
+                    insertCourse.setInt(2, c);
+                    insertCourse.setObject(3, courseId);
+                    insertCourse.setBoolean(4, user.hasCourseAccess(courseId));
+                    insertCourse.addBatch();
+                }
+                for (Enrollment enrollment : user.getEnrollments().values()) {
+                    for (Map.Entry<UUID, Double> lesson : enrollment.getAllLessonProgress().entrySet()) {
+                        insertLesson.setInt(1, seq);
+                        insertLesson.setObject(2, enrollment.getCourseId());
+                        insertLesson.setObject(3, lesson.getKey());
+                        insertLesson.setDouble(4, lesson.getValue() == null ? 0.0 : lesson.getValue());
+                        insertLesson.addBatch();
+                    }
+                }
+                if (user.getProgress() != null) {
+                    for (Map.Entry<UUID, Double> entry : user.getProgress().entrySet()) {
+                        insertProgress.setInt(1, seq);
+                        insertProgress.setObject(2, entry.getKey());
+                        if (entry.getValue() == null) {
+                            insertProgress.setNull(3, Types.DOUBLE);
+                        } else {
+                            insertProgress.setDouble(3, entry.getValue());
+                        }
+                        insertProgress.addBatch();
+                    }
+                }
+                ArrayList<UUID> completed = user.getCompletedCourses();
+                for (int c = 0; completed != null && c < completed.size(); c++) {
+                    insertCompleted.setInt(1, seq);
+                    insertCompleted.setInt(2, c);
+                    insertCompleted.setObject(3, completed.get(c));
+                    insertCompleted.addBatch();
+                }
+            }
+            insertUser.executeBatch();
+            insertCourse.executeBatch();
+            insertLesson.executeBatch();
+            insertProgress.executeBatch();
+            insertCompleted.executeBatch();
+        }
+    }
+
+    /**
+     * Reads users and their child rows. The filters restrict the users table and the child tables the same way;
+     * both are empty to read everything.
+     */
+    private ArrayList<User> queryUsers(String userFilter, String childFilter, UUID id) throws SQLException {
+        Connection db = connection();
+        Map<Integer, ArrayList<Course>> courses = new HashMap<>();
+        Map<Integer, Map<UUID, Enrollment>> enrollments = new HashMap<>();
+        Map<Integer, HashMap<UUID, Double>> progress = new HashMap<>();
+        Map<Integer, ArrayList<UUID>> completed = new HashMap<>();
+
+        try (ResultSet rows = query(db, "SELECT user_seq, course_id, user_access FROM user_courses" + childFilter + " ORDER BY user_seq, seq", id)) {
+            while (rows.next()) {
+                UUID courseId = rows.getObject(2, UUID.class);
+                courses.computeIfAbsent(rows.getInt(1), seq -> new ArrayList<>()).add(courseReference(courseId));
+                if (courseId != null) {
+                    enrollments.computeIfAbsent(rows.getInt(1), seq -> new HashMap<>())
+                            .computeIfAbsent(courseId, Enrollment::new).setUserAccess(rows.getBoolean(3));
+                }
+            }
+        }
+        try (ResultSet rows = query(db, "SELECT user_seq, course_id, lesson_id, progress FROM user_lessons" + childFilter, id)) {
+            while (rows.next()) {
+                enrollments.computeIfAbsent(rows.getInt(1), seq -> new HashMap<>())
+                        .computeIfAbsent(rows.getObject(2, UUID.class), Enrollment::new)
+                        .setLessonProgress(rows.getObject(3, UUID.class), rows.getDouble(4));
+            }
+        }
+        try (ResultSet rows = query(db, "SELECT user_seq, course_id, progress FROM user_progress" + childFilter, id)) {
+            while (rows.next()) {
+                double value = rows.getDouble(3);
+                Double courseProgress = rows.wasNull() ? null : value;
+                progress.computeIfAbsent(rows.getInt(1), seq -> new HashMap<>()).put(rows.getObject(2, UUID.class), courseProgress);
+            }
+        }
+        try (ResultSet rows = query(db, "SELECT user_seq, course_id FROM user_completed" + childFilter + " ORDER BY user_seq, seq", id)) {
+            while (rows.next()) {
+                completed.computeIfAbsent(rows.getInt(1), seq -> new ArrayList<>()).add(rows.getObject(2, UUID.class));
+            }
+        }
+
+        ArrayList<User> users = new ArrayList<>();
+        try (ResultSet rows = query(db, "SELECT seq, id, username, email, password, current_course, current_language, "
+                + "current_language_name FROM users" + userFilter + " ORDER BY seq", id)) {
+            while (rows.next()) {
+                int seq = rows.getInt(1);
+                User user = new User(rows.getObject(2, UUID.class), rows.getString(3), rows.getString(4), rows.getString(5),
+                        courses.getOrDefault(seq, new ArrayList<>()), progress.getOrDefault(seq, new HashMap<>()),
+                        completed.getOrDefault(seq, new ArrayList<>()), rows.getObject(6, UUID.class), new ArrayList<>(),
+                        rows.getObject(7, UUID.class), rows.getString(8));
+                for (Enrollment enrollment : enrollments.getOrDefault(seq, new HashMap<>()).values()) {
+                    user.setCourseAccess(enrollment.getCourseId(), enrollment.getUserAccess());
+                    for (Map.Entry<UUID, Double> lesson : enrollment.getAllLessonProgress().entrySet()) {
+                        user.updateLessonProgress(enrollment.getCourseId(), lesson.getKey(), lesson.getValue());
+                    }
+                }
+                user.markSaved(user.getVersion());
+                users.add(user);
+            }
+        }
+        db.commit();
+        return users;
+    }
+
+    private ArrayList<Course> queryCourses(String courseFilter, String childFilter, UUID id) throws SQLException {
+        Connection db = connection();
+        Map<Integer, ArrayList<Lesson>> lessons = new HashMap<>();
+        try (ResultSet rows = query(db, "SELECT course_seq, id, name, description, progress, english_content, spanish_content "
+                + "FROM lessons" + childFilter + " ORDER BY course_seq, seq", id)) {
+            while (rows.next()) {
+                Lesson lesson = new Lesson(rows.getString(3), rows.getObject(2, UUID.class), rows.getString(4),
+                        rows.getDouble(5), rows.getString(6), rows.getString(7));
+                lesson.markSaved(lesson.getVersion());
+                lessons.computeIfAbsent(rows.getInt(1), seq -> new ArrayList<>()).add(lesson);
+            }
+        }
+
+        Map<Integer, Course> courses = new LinkedHashMap<>();
+        try (ResultSet rows = query(db, "SELECT seq, id, name, description, user_access, completed, progress FROM courses"
+                + courseFilter + " ORDER BY seq", id)) {
+            while (rows.next()) {
+                int seq = rows.getInt(1);
+                FlashcardQuestion flashcard = new FlashcardQuestion("Default Question", "Default Answer");
+                Course course = new Course(rows.getObject(2, UUID.class), rows.getString(3), rows.getString(4),
+                        rows.getBoolean(5), rows.getDouble(7), rows.getBoolean(6), lessons.getOrDefault(seq, new ArrayList<>()),
+                        new ArrayList<>(), new ArrayList<>(), flashcard);
+                course.markSaved(course.getVersion());
+                courses.put(seq, course);
+            }
+        }
+        db.commit();
+        return new ArrayList<>(courses.values());
+    }
+
+    /**
+     * Runs a query that takes the ID as its only parameter when the SQL has one. The statement is closed
+     * together with the returned result set.
+     */
+    private static ResultSet query(Connection db, String sql, UUID id) throws SQLException {
+        PreparedStatement statement = db.prepareStatement(sql);
+        if (sql.indexOf('?') >= 0) {
+            statement.setObject(1, id);
+        }
+        statement.closeOnCompletion();
+        return statement.executeQuery();
+    }
+
+    /**
+     * Users only store the IDs of their courses and their enrollment in them, the same as in the JSON files, so a user's
+     * course is read back as a course that carries just its ID. The User swaps it for the shared instance when there is one.
+     */
+    private static Course courseReference(UUID courseId) {
+        FlashcardQuestion flashcard = new FlashcardQuestion("Default Question", "Default Answer");
+        Course course = new Course(courseId, null, null, false, 0.0, false, new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), flashcard);
+        course.markSaved(course.getVersion());
+        return course;
+    }
+}
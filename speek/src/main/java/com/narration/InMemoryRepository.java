@@ -0,0 +1,95 @@
+/**
+ * Storage backend that keeps everything in memory and starts out empty. Nothing survives the JVM, which makes it
+ * useful for load tests and as a baseline when benchmarking the other backends.
+ * @author Four Musketeers
+ */
+package com.narration;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+public class InMemoryRepository implements DataRepository {
+
+    private final Map<UUID, User> users = new LinkedHashMap<>();
+    private final Map<UUID, Course> courses = new LinkedHashMap<>();
+    private final ArrayList<Language> languages = new ArrayList<>();
+    private final ArrayList<Word> words = new ArrayList<>();
+    private final ArrayList<Phrase> phrases = new ArrayList<>();
+
+    @Override
+    public synchronized ArrayList<User> loadUsers() {
+        return new ArrayList<>(users.values());
+    }
+
+    @Override
+    public synchronized User findUser(UUID userId) {
+        return users.get(userId);
+    }
+
+    @Override
+    public synchronized void saveUsers(List<User> users) {
+        this.users.clear();
+        for (User user : users) {
+            this.users.put(user.getId(), user);
+        }
+    }
+
+    @Override
+    public synchronized void saveUser(User user) {
+        users.put(user.getId(), user);
+    }
+
+    @Override
+    public synchronized ArrayList<Course> loadCourses() {
+        return new ArrayList<>(courses.values());
+    }
+
+    @Override
+    public synchronized Course findCourse(UUID courseId) {
+        return courses.get(courseId);
+    }
+
+    @Override
+    public synchronized void saveCourses(List<Course> courses) {
+        this.courses.clear();
+        for (Course course : courses) {
+            this.courses.put(course.getId(), course);
+        }
+    }
+
+    @Override
+    public synchronized ArrayList<Language> loadLanguages() {
+        return new ArrayList<>(languages);
+    }
+
+    @Override
+    public synchronized ArrayList<Word> loadWords() {
+        return new ArrayList<>(words);
+    }
+
+    @Override
+    public synchronized ArrayList<Phrase> loadPhrases() {
+        return new ArrayList<>(phrases);
+    }
+
+    @Override
+    public synchronized void saveLanguages(List<Language> languages) {
+        this.languages.clear();
+        this.languages.addAll(languages);
+    }
+
+    @Override
+    public synchronized void saveWords(List<Word> words) {
+        this.words.clear();
+        this.words.addAll(words);
+    }
+
+    @Override
+    public synchronized void savePhrases(List<Phrase> phrases) {
+        this.phrases.clear();
+        this.phrases.addAll(phrases);
+    }
+}
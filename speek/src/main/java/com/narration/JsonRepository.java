@@ -0,0 +1,152 @@
+/**
+ * Storage backend that keeps everything in the JSON data files, read through DataLoader and written through DataWriter.
+ * Lookups by ID use maps built from one parse of the file, kept until the file is saved here or its modification
+ * time or size shows it was changed elsewhere, so a lookup does not read the whole file again.
+ * @author Four Musketeers
+ */
+package com.narration;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.UUID;
+
+public class JsonRepository implements DataRepository {
+
+    private final String usersFile;
+    private final String coursesFile;
+    private final String languagesFile;
+    private final String wordsFile;
+    private final String phrasesFile;
+    private HashMap<UUID, User> usersById;
+    private long usersModified;
+    private long usersLength;
+    private HashMap<UUID, Course> coursesById;
+    private long coursesModified;
+    private long coursesLength;
+
+    public JsonRepository(String usersFile, String coursesFile, String languagesFile, String wordsFile, String phrasesFile) {
+        this.usersFile = usersFile;
+        this.coursesFile = coursesFile;
+        this.languagesFile = languagesFile;
+        this.wordsFile = wordsFile;
+        this.phrasesFile = phrasesFile;
+    }
+
+    @Override
+    public ArrayList<User> loadUsers() {
+        return DataLoader.getUsers(usersFile);
+    }
+
+    /**
+     * Finds a user by ID. The same instance is returned until the users file changes.
+     */
+    @Override
+    public synchronized User findUser(UUID userId) {
+        File file = new File(usersFile);
+        if (usersById == null || file.lastModified() != usersModified || file.length() != usersLength) {
+            // read the file's state before parsing, so a change made during the parse is picked up next time
+            usersModified = file.lastModified();
+            usersLength = file.length();
+            usersById = new HashMap<>();
+            for (User user : loadUsers()) {
+                if (user.getId() != null) {
+                    usersById.putIfAbsent(user.getId(), user);
+                }
+            }
+        }
+        return usersById.get(userId);
+    }
+
+    @Override
+    public synchronized void saveUsers(List<User> users) {
+        DataWriter.saveUsers(new ArrayList<>(users), usersFile);
+        AtomicFileWriter.flush(usersFile);
+        usersById = null;
+    }
+
+    /**
+     * Saves one user. The JSON file holds every user, so this rewrites the whole file.
+     */
+    @Override
+    public synchronized void saveUser(User user) {
+        ArrayList<User> users = loadUsers();
+        boolean replaced = false;
+        for (int i = 0; i < users.size(); i++) {
+            if (users.get(i).getId() != null && users.get(i).getId().equals(user.getId())) {
+                users.set(i, user);
+                replaced = true;
+                break;
+            }
+        }
+        if (!replaced) {
+            users.add(user);
+        }
+        saveUsers(users);
+    }
+
+    @Override
+    public ArrayList<Course> loadCourses() {
+        return DataLoader.loadCoursesFromJson(coursesFile);
+    }
+
+    /**
+     * Finds a course by ID, skipping courses without one. The same instance is returned until the courses file changes.
+     */
+    @Override
+    public synchronized Course findCourse(UUID courseId) {
+        File file = new File(coursesFile);
+        if (coursesById == null || file.lastModified() != coursesModified || file.length() != coursesLength) {
+            coursesModified = file.lastModified();
+            coursesLength = file.length();
+            coursesById = new HashMap<>();
+            for (Course course : loadCourses()) {
+                if (course.getId() != null) {
+                    coursesById.putIfAbsent(course.getId(), course);
+                }
+            }
+        }
+        return coursesById.get(courseId);
+    }
+
+    @Override
+    public synchronized void saveCourses(List<Course> courses) {
+        DataWriter.saveCourses(courses, coursesFile);
+        AtomicFileWriter.flush(coursesFile);
+        coursesById = null;
+    }
+
+    @Override
+    public ArrayList<Language> loadLanguages() {
+        return DataLoader.getLanguagesFromJson(languagesFile);
+    }
+
+    @Override
+    public ArrayList<Word> loadWords() {
+        return new ArrayList<>(DataLoader.loadWordsFromJson(wordsFile).getAllWords());
+    }
+
+    @Override
+    public ArrayList<Phrase> loadPhrases() {
+        return new ArrayList<>(DataLoader.loadPhrasesFromJson(phrasesFile).getAllPhrases());
+    }
+
+    @Override
+    public synchronized void saveLanguages(List<Language> languages) {
+        DataWriter.saveLanguages(languages, languagesFile);
+        AtomicFileWriter.flush(languagesFile);
+    }
+
+    @Override
+    public synchronized void saveWords(List<Word> words) {
+        DataWriter.saveWords(words, wordsFile);
+        AtomicFileWriter.flush(wordsFile);
+    }
+
+    @Override
+    public synchronized void savePhrases(List<Phrase> phrases) {
+        DataWriter.savePhrases(phrases, phrasesFile);
+        AtomicFileWriter.flush(phrasesFile);
+    }
+}
@@ -0,0 +1,119 @@
+/**
+ * An inverted index from keywords to the items tagged with them, matched case-insensitively.
+ * Items add and remove their own keywords here as they change, so a keyword search costs one hash lookup
+ * instead of a scan of every item's keyword list. Used for both languages and courses.
+ * Each keyword keeps its items in a concurrent map, numbered in the order they were tagged, so tagging or untagging
+ * one item costs the same however many items share the keyword, searches never lock, and changes to one keyword
+ * never wait for changes to another.
+ * @author Four Musketeers
+ */
+package com.narration;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class KeywordIndex<T> {
+
+    private final ConcurrentHashMap<String, ConcurrentHashMap<T, Long>> items = new ConcurrentHashMap<>();
+    private final AtomicLong tagged = new AtomicLong();
+
+    /**
+     * Tags an item with a keyword.
+     * @param keyWord the keyword; null is ignored
+     * @param item    the item to tag
+     */
+    public void add(String keyWord, T item) {
+        if (keyWord == null) {
+            return;
+        }
+        // compute runs under the keyword's own lock, so a concurrent remove cannot drop the map this adds to
+        items.compute(fold(keyWord), (key, keyItems) -> {
+            ConcurrentHashMap<T, Long> updated = keyItems == null ? new ConcurrentHashMap<>() : keyItems;
+            updated.putIfAbsent(item, tagged.incrementAndGet());
+            return updated;
+        });
+    }
+
+    /**
+     * Tags an item with each of the keywords.
+     * @param keyWords the keywords; null is ignored
+     * @param item     the item to tag
+     */
+    public void addAll(Collection<String> keyWords, T item) {
+        if (keyWords == null) {
+            return;
+        }
+        for (String keyWord : keyWords) {
+            add(keyWord, item);
+        }
+    }
+
+    /**
+     * Removes a keyword from an item.
+     * @param keyWord the keyword; null is ignored
+     * @param item    the item to untag
+     */
+    public void remove(String keyWord, T item) {
+        if (keyWord == null) {
+            return;
+        }
+        items.computeIfPresent(fold(keyWord), (key, keyItems) -> {
+            keyItems.remove(item);
+            return keyItems.isEmpty() ? null : keyItems;
+        });
+    }
+
+    /**
+     * Removes each of the keywords from an item.
+     * @param keyWords the keywords; null is ignored
+     * @param item     the item to untag
+     */
+    public void removeAll(Collection<String> keyWords, T item) {
+        if (keyWords == null) {
+            return;
+        }
+        for (String keyWord : keyWords) {
+            remove(keyWord, item);
+        }
+    }
+
+    /**
+     * Finds the items tagged with a keyword, ignoring case, in the order they were tagged.
+     * @param keyWord the keyword to search for
+     * @return the tagged items, empty if there are none
+     */
+    public ArrayList<T> find(String keyWord) {
+        if (keyWord == null) {
+            return new ArrayList<>();
+        }
+        ConcurrentHashMap<T, Long> keyItems = items.get(fold(keyWord));
+        if (keyItems == null) {
+            return new ArrayList<>();
+        }
+        ArrayList<Map.Entry<T, Long>> entries = new ArrayList<>(keyItems.entrySet());
+        entries.sort(Map.Entry.comparingByValue());
+        ArrayList<T> found = new ArrayList<>(entries.size());
+        for (Map.Entry<T, Long> entry : entries) {
+            found.add(entry.getKey());
+        }
+        return found;
+    }
+
+    /**
+     * Checks whether two keywords match, ignoring case the same way the index does.
+     * @param a a keyword
+     * @param b another keyword
+     * @return true if they match
+     */
+    static boolean matches(String a, String b) {
+        return fold(a).equals(fold(b));
+    }
+
+    private static String fold(String keyWord) {
+        return keyWord.toLowerCase(Locale.ROOT);
+    }
+}
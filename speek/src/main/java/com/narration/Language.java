@@ -21,6 +21,7 @@ public class Language {
     private ArrayList<Course> completedCourses;
     private ArrayList<Assessment> completedAssessments;
     private HashMap<Course, Boolean> courseAccess;
+    private volatile KeywordIndex<Language> keywordIndex;
 
     /**
      * Constructs a Language instance associated with a user and language name
@@ -56,6 +57,7 @@ public class Language {
     public Language(UUID id, String name) {
         this.id = id;
         this.name = name;
+        this.keyWords = new ArrayList<>();
     }
 
     public String getName() {
@@ -131,7 +133,46 @@ public class Language {
      * @param keyWord the keyword to add
      */
     public void addKeyWord(String keyWord) {
+        if (keyWord == null || hasKeyWord(keyWord)) {
+            return;
+        }
         keyWords.add(keyWord);
+        KeywordIndex<Language> index = keywordIndex;
+        if (index != null) {
+            index.add(keyWord, this);
+        }
+    }
+
+    /**
+     * Checks whether the language has a keyword, ignoring case.
+     * @param keyWord the keyword to look for
+     * @return true if the language has the keyword
+     */
+    public boolean hasKeyWord(String keyWord) {
+        for (String existing : keyWords) {
+            if (existing != null && KeywordIndex.matches(existing, keyWord)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Moves the language's keywords into the given index, which then follows the language's keyword changes.
+     * @param index the index of the list holding the language, or null when it leaves the list
+     */
+    void setKeywordIndex(KeywordIndex<Language> index) {
+        KeywordIndex<Language> previous = keywordIndex;
+        if (previous == index) {
+            return;
+        }
+        if (previous != null) {
+            previous.removeAll(keyWords, this);
+        }
+        keywordIndex = index;
+        if (index != null) {
+            index.addAll(keyWords, this);
+        }
     }
 
     /**
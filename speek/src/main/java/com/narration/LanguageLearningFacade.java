@@ -4,9 +4,11 @@
  */
 package com.narration;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 public class LanguageLearningFacade {
@@ -20,25 +22,61 @@ public class LanguageLearningFacade {
     DataWriter dataWriter = new DataWriter();
     private List<User> users;
     private final ArrayList<Language> languages;
-    private final WordsList wordsList;
+    private volatile WordsList wordsList;
+    private final Dictionary dictionary;
+    private final PhraseList phraseList;
+    private final StartupLoader startup;
 
     /**
      * Initializes the facade, setting up user, course, and language lists,
-     * and loads data such as words from storage.
+     * and loads data such as words from storage. All data files are loaded in parallel before the facade is used,
+     * and the courses and words are reloaded in the background whenever their files change.
      */
     public LanguageLearningFacade() {
         languages = new ArrayList<>();
+        try {
+            ProgressJournal.open(DataConstants.PROGRESS_JOURNAL_FILE);
+        } catch (IOException e) {
+            System.err.println("Progress journal unavailable, saving progress directly: " + e.getMessage());
+        }
+        startup = StartupLoader.loadAll();
+        System.out.println("Loaded data files: " + startup.formatTimings());
+
         userList = UserList.getInstance();
-        courseList = CourseList.getInstance();
+        courseList = startup.getCourseList() != null ? startup.getCourseList() : CourseList.getInstance();
         languages.add(new Language("Spanish"));
         languageList = LanguageList.getInstance();
+        if (startup.getLanguages() != null) {
+            for (Language language : startup.getLanguages()) {
+                if (languageList.findLanguageByName(language.getName()) == null) {
+                    languageList.addLanguage(language);
+                }
+            }
+        }
         this.dataWriter = new DataWriter();
-        this.wordsList = new DataLoader().loadWords();
-        this.users = DataLoader.getUsers();
+        this.wordsList = startup.getWordsList() != null ? startup.getWordsList() : new WordsList();
+        this.phraseList = startup.getPhraseList() != null ? startup.getPhraseList() : new PhraseList();
+        this.dictionary = new Dictionary(wordsList, phraseList);
+        DataLoader.shareDictionary(dictionary);
+        this.users = startup.getUsers();
 
         if (this.users == null) {
             this.users = new ArrayList<>();
         }
+
+        CatalogWatcher watcher = CatalogWatcher.getInstance();
+        watcher.watch(DataConstants.COURSES_FILE, courseList::reloadCourses);
+        watcher.watch(DataConstants.WORDS_FILE, this::reloadWords);
+    }
+
+    /**
+     * Reloads the words file and swaps the new words into the dictionary.
+     */
+    private void reloadWords() {
+        WordsList fresh = DataLoader.loadWords();
+        dictionary.reload(fresh);
+        wordsList = fresh;
+        System.out.println("Reloaded " + fresh.getAllWords().size() + " words.");
     }
 
     /**
@@ -73,8 +111,8 @@ public class LanguageLearningFacade {
      */
     public void startCourse(Course course) {
         if (user != null) {
-            user.getCourses().add(course);
-            course.setUserAccess(true);
+            user.addCourse(course);
+            user.setCourseAccess(course.getId(), true);
         }
     }
 
@@ -85,8 +123,8 @@ public class LanguageLearningFacade {
      * @return the course progress percentage, or 0 if not accessible
      */
     public double trackCourseProgress(Course course) {
-        if (user != null && course.getUserAccess()) {
-            return course.getCourseProgress();
+        if (user != null && user.hasCourseAccess(course.getId())) {
+            return user.getCourseProgress(course.getId());
         }
         return 0.0;
     }
@@ -152,6 +190,27 @@ public class LanguageLearningFacade {
         return courses;
     }
 
+    /**
+     * Searches the content of every lesson for words and quoted phrases, ignoring accents and case.
+     *
+     * @param query the words and quoted phrases to search for, for example {@code "buenos dias" mochila}
+     * @return the matching lessons
+     */
+    public ArrayList<LessonSearchIndex.Hit> searchLessons(String query) {
+        return courseList.searchLessons(query);
+    }
+
+    /**
+     * Completes the start of a Spanish word or phrase, ignoring accents and case, easiest words first.
+     *
+     * @param prefix the text typed so far, for example "bue" for "Buenos días"
+     * @param limit  the largest number of completions
+     * @return the completing words and phrases
+     */
+    public List<String> autocomplete(String prefix, int limit) {
+        return dictionary.complete(prefix, limit);
+    }
+
     /**
      * Gets the list of words available in the system.
      *
@@ -161,6 +220,33 @@ public class LanguageLearningFacade {
         return this.wordsList;
     }
 
+    /**
+     * Gets the dictionary of translations for the words available in the system.
+     *
+     * @return the Dictionary built from the words
+     */
+    public Dictionary getDictionary() {
+        return this.dictionary;
+    }
+
+    /**
+     * Gets the list of phrases available in the system.
+     *
+     * @return the PhraseList containing all phrases
+     */
+    public PhraseList getPhraseList() {
+        return this.phraseList;
+    }
+
+    /**
+     * Gets how long each data file took to load when the facade was created.
+     *
+     * @return the load time of each file in milliseconds, by file name
+     */
+    public Map<String, Long> getStartupTimings() {
+        return startup.getTimings();
+    }
+
     /**
      * Tracks the overall progress across all courses for the current user.
      *
@@ -170,7 +256,7 @@ public class LanguageLearningFacade {
         if (user != null) {
             double totalProgress = 0.0;
             for (Course course : user.getCourses()) {
-                totalProgress += course.getCourseProgress();
+                totalProgress += user.getCourseProgress(course.getId());
             }
             return totalProgress / user.getCourses().size();
         }
@@ -207,7 +293,7 @@ public class LanguageLearningFacade {
         UUID userId = UUID.randomUUID();
         User newUser = new User(userId, username, email, password, new ArrayList<>(), new HashMap<>(), new ArrayList<>(), null, new ArrayList<>(), null, "English");
         userList.addUser(newUser);
-        dataWriter.saveUsers(new ArrayList<>(users));
+        WriteBehindScheduler.getInstance().markDirty(WriteBehindScheduler.USERS, UserStore.getInstance()::save);
     }
 
     /**
@@ -218,7 +304,7 @@ public class LanguageLearningFacade {
      */
     public boolean hasCourseAccess(Course course) {
         if (user != null) {
-            return course.getUserAccess();
+            return user.hasCourseAccess(course.getId());
         }
         return false;
     }
@@ -1,5 +1,6 @@
 /**
- * Manages a list of languages within the system, providing functionality to add, remove, and retrieve languages by name or keyword
+ * Manages a list of languages within the system, providing functionality to add, remove, and retrieve languages by name or keyword.
+ * Keyword searches go through an inverted index that the languages in the list keep up to date as their keywords change.
  * @author Four Musketeers
  */
 package com.narration;
@@ -9,13 +10,15 @@ import java.util.ArrayList;
 public class LanguageList {
 
     private static LanguageList instance;
-    private final ArrayList<Language> languages;
+    private final TrackedArrayList<Language> languages;
+    private KeywordIndex<Language> keyWords = new KeywordIndex<>();
+    private int indexedModifications;
 
     /**
      * Private constructor to initialize the language list, ensuring it is only instantiated once.
      */
     private LanguageList() {
-        languages = new ArrayList<>();
+        languages = new TrackedArrayList<>();
     }
 
     /**
@@ -33,8 +36,13 @@ public class LanguageList {
      * Adds a language to the list.
      * @param language the language to add
      */
-    public void addLanguage(Language language) {
+    public synchronized void addLanguage(Language language) {
+        KeywordIndex<Language> index = keyWordIndex();
         languages.add(language);
+        indexedModifications = languages.modifications();
+        if (language != null) {
+            language.setKeywordIndex(index);
+        }
     }
 
     /**
@@ -42,8 +50,17 @@ public class LanguageList {
      * @param language the language to remove
      * @return true if the language was successfully removed, false otherwise
      */
-    public boolean removeLanguage(Language language) {
-        return languages.remove(language);
+    public synchronized boolean removeLanguage(Language language) {
+        keyWordIndex();
+        if (!languages.remove(language)) {
+            return false;
+        }
+        indexedModifications = languages.modifications();
+        // the same language may have been added twice; it stays indexed while any copy remains
+        if (language != null && !languages.contains(language)) {
+            language.setKeywordIndex(null);
+        }
+        return true;
     }
 
     /**
@@ -70,17 +87,27 @@ public class LanguageList {
     }
 
     /**
-     * Finds languages that contain a specified keyword
+     * Finds languages that contain a specified keyword, ignoring case
      * @param keyWord the keyword to search for
      * @return an ArrayList of languages containing the keyword
      */
-    public ArrayList<Language> findLanguagesByKeyWord(String keyWord) {
-        ArrayList<Language> matchingLanguages = new ArrayList<>();
-        for (Language language : languages) {
-            if (language.getKeyWords().contains(keyWord)) {
-                matchingLanguages.add(language);
+    public synchronized ArrayList<Language> findLanguagesByKeyWord(String keyWord) {
+        return keyWordIndex().find(keyWord);
+    }
+
+    /**
+     * Returns the keyword index, rebuilding it if languages were added or removed through getLanguages().
+     */
+    private KeywordIndex<Language> keyWordIndex() {
+        if (indexedModifications != languages.modifications()) {
+            keyWords = new KeywordIndex<>();
+            for (Language language : languages) {
+                if (language != null) {
+                    language.setKeywordIndex(keyWords);
+                }
             }
+            indexedModifications = languages.modifications();
         }
-        return matchingLanguages;
+        return keyWords;
     }
 }
\ No newline at end of file
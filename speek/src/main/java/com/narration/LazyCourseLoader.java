@@ -0,0 +1,174 @@
+/**
+ * Loads the courses file without reading the lesson stories into the heap. The file is memory-mapped and each lesson
+ * only records where its English and Spanish content sit in it; the text is decoded when a lesson is first read.
+ * A catalog of many long lessons then costs little more than its names and IDs.
+ * The courses file is always replaced by renaming a new file over it, so the old mapping stays valid until the
+ * lessons that use it are gone.
+ * @author Four Musketeers
+ */
+package com.narration;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.UUID;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+
+public class LazyCourseLoader {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private LazyCourseLoader() {
+    }
+
+    /**
+     * Loads the courses in the file, leaving each lesson's content in the mapped file until it is read.
+     * @param filePath the path of the courses JSON file
+     * @param cacheContent true to keep content that was read through a soft reference, false to decode it on every read
+     * @return a list of Course objects
+     */
+    public static ArrayList<Course> loadCourses(String filePath, boolean cacheContent) {
+        ArrayList<Course> courses = new ArrayList<>();
+
+        AtomicFileWriter.flush(filePath);
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                return DataLoader.loadCoursesFromJson(filePath);
+            }
+            MappedByteBuffer file = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            try (JsonParser parser = JSON_FACTORY.createParser(new ByteBufferBackedInputStream(file.duplicate()))) {
+                if (parser.nextToken() != JsonToken.START_ARRAY) {
+                    throw new IOException("Expected a JSON array of courses in " + filePath);
+                }
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    courses.add(readCourse(parser, file, cacheContent));
+                }
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        System.out.println("Total courses loaded: " + courses.size());
+        return courses;
+    }
+
+    /**
+     * Reads one course object; the parser is positioned on its START_OBJECT.
+     */
+    private static Course readCourse(JsonParser parser, MappedByteBuffer file, boolean cacheContent) throws IOException {
+        UUID id = null;
+        String name = null;
+        String description = null;
+        boolean userAccess = false;
+        boolean completed = false;
+        double courseProgress = 0.0;
+        ArrayList<Lesson> lessons = new ArrayList<>();
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "courseID":
+                    id = UUID.fromString(parser.getValueAsString());
+                    break;
+                case "name":
+                    name = parser.getValueAsString();
+                    break;
+                case "description":
+                    description = parser.getValueAsString();
+                    break;
+                case "userAccess":
+                    userAccess = parser.getValueAsBoolean();
+                    break;
+                case "completed":
+                    completed = parser.getValueAsBoolean();
+                    break;
+                case "courseProgress":
+                    courseProgress = parser.getValueAsDouble();
+                    break;
+                case "lessons":
+                    if (value == JsonToken.START_ARRAY) {
+                        while (parser.nextToken() == JsonToken.START_OBJECT) {
+                            lessons.add(readLesson(parser, file, cacheContent));
+                        }
+                    } else {
+                        parser.skipChildren();
+                    }
+                    break;
+                default:
+                    parser.skipChildren();
+                    break;
+            }
+        }
+
+        FlashcardQuestion flashcard = new FlashcardQuestion("Default Question", "Default Answer");
+        Course course = new Course(id, name, description, userAccess, courseProgress, completed, lessons,
+                new ArrayList<>(), new ArrayList<>(), flashcard);
+        course.markSaved(course.getVersion());
+        return course;
+    }
+
+    /**
+     * Reads one lesson object; the parser is positioned on its START_OBJECT.
+     */
+    private static Lesson readLesson(JsonParser parser, MappedByteBuffer file, boolean cacheContent) throws IOException {
+        String lessonName = null;
+        UUID lessonId = null;
+        String description = null;
+        double lessonProgress = 0.0;
+        LazyText englishContent = null;
+        LazyText spanishContent = null;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            parser.nextToken();
+            switch (field) {
+                case "lessonName":
+                    lessonName = parser.getValueAsString();
+                    break;
+                case "lessonID":
+                    lessonId = UUID.fromString(parser.getValueAsString());
+                    break;
+                case "description":
+                    description = parser.getValueAsString();
+                    break;
+                case "lessonProgress":
+                    lessonProgress = parser.getValueAsDouble();
+                    break;
+                case "englishContent":
+                    englishContent = lazyText(parser, file, cacheContent);
+                    break;
+                case "spanishContent":
+                    spanishContent = lazyText(parser, file, cacheContent);
+                    break;
+                default:
+                    parser.skipChildren();
+                    break;
+            }
+        }
+
+        Lesson lesson = new Lesson(lessonName, lessonId, description, lessonProgress, englishContent, spanishContent);
+        lesson.markSaved(lesson.getVersion());
+        return lesson;
+    }
+
+    /**
+     * Records where the current string value starts and ends in the file, without keeping its text.
+     */
+    private static LazyText lazyText(JsonParser parser, MappedByteBuffer file, boolean cacheContent) throws IOException {
+        if (parser.currentToken() != JsonToken.VALUE_STRING) {
+            parser.skipChildren();
+            return null;
+        }
+        long start = parser.getTokenLocation().getByteOffset();
+        parser.finishToken();
+        long end = parser.getCurrentLocation().getByteOffset();
+        return new LazyText(file, (int) start, (int) (end - start), cacheContent);
+    }
+}
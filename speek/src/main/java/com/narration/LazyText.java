@@ -0,0 +1,90 @@
+/**
+ * A piece of lesson content that stays in its memory-mapped file until it is first read. Only the position of the
+ * JSON string in the file is held; the text is decoded on access and, optionally, kept through a soft reference
+ * so the garbage collector can drop it again under memory pressure.
+ * @author Four Musketeers
+ */
+package com.narration;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.ref.SoftReference;
+import java.nio.ByteBuffer;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+public class LazyText {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final ByteBuffer file;
+    private final int offset;
+    private final int length;
+    private final boolean cached;
+    private volatile SoftReference<String> text;
+
+    /**
+     * Creates a handle to a JSON string value in a mapped file.
+     * @param file   the mapped file; it is only read through duplicates, so one buffer can back many handles
+     * @param offset the position of the string's opening quote
+     * @param length the length of the string in bytes, including both quotes
+     * @param cached true to keep the decoded text through a soft reference
+     */
+    LazyText(ByteBuffer file, int offset, int length, boolean cached) {
+        this.file = file;
+        this.offset = offset;
+        this.length = length;
+        this.cached = cached;
+    }
+
+    /**
+     * Returns the text, decoding it from the file unless a cached copy is still available.
+     * @return the decoded text
+     * @throws UncheckedIOException if the bytes at the recorded position are not a JSON string
+     */
+    public String get() {
+        SoftReference<String> reference = text;
+        String value = reference == null ? null : reference.get();
+        if (value != null) {
+            return value;
+        }
+        value = decode();
+        if (cached) {
+            text = new SoftReference<>(value);
+        }
+        return value;
+    }
+
+    /**
+     * Checks whether the decoded text is currently held in memory.
+     * @return true if a cached copy is available
+     */
+    boolean isLoaded() {
+        SoftReference<String> reference = text;
+        return reference != null && reference.get() != null;
+    }
+
+    /**
+     * @return the length of the encoded string in the file, in bytes
+     */
+    int getLength() {
+        return length;
+    }
+
+    private String decode() {
+        byte[] bytes = new byte[length];
+        ByteBuffer view = file.duplicate();
+        view.position(offset);
+        view.get(bytes);
+        try (JsonParser parser = JSON_FACTORY.createParser(bytes)) {
+            if (parser.nextToken() != JsonToken.VALUE_STRING) {
+                throw new IOException("No string at offset " + offset);
+            }
+            return parser.getText();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
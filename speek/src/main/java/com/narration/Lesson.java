@@ -1,5 +1,6 @@
 /**
- * Represents a lesson within a course, including details like description, progress, English and Spanish content, and completion status
+ * Represents a lesson within a course, including details like description, progress, English and Spanish content, and completion status.
+ * The content can also be left in the courses file and read on first access, see LazyCourseLoader.
  */
 package com.narration;
 
@@ -12,8 +13,12 @@ public class Lesson {
     private double lessonProgress;
     private String englishContent;
     private String spanishContent;
+    private LazyText lazyEnglishContent;
+    private LazyText lazySpanishContent;
     private boolean completed;
     private String lessonName;
+    private long version = 1;
+    private long savedVersion;
 
     /**
      * Constructs a Lesson with specified ID, description, progress, English content, and Spanish content.
@@ -34,6 +39,22 @@ public class Lesson {
         this.spanishContent = spanishContent;
     }
 
+    /**
+     * Constructs a Lesson whose English and Spanish content stay in the courses file until they are first read.
+     *
+     * @param lessonName     the name of the lesson
+     * @param id             the unique identifier for the lesson
+     * @param description    a brief description of the lesson
+     * @param lessonProgress the progress percentage of the lesson
+     * @param englishContent where the English content is stored, or null if there is none
+     * @param spanishContent where the Spanish content is stored, or null if there is none
+     */
+    Lesson(String lessonName, UUID id, String description, double lessonProgress, LazyText englishContent, LazyText spanishContent) {
+        this(lessonName, id, description, lessonProgress, (String) null, (String) null);
+        this.lazyEnglishContent = englishContent;
+        this.lazySpanishContent = spanishContent;
+    }
+
     /**
      * Constructs a Lesson with description and content, initializing progress at 0.
      *
@@ -59,6 +80,7 @@ public class Lesson {
     }
 
     public void setDescription(String description) {
+        version++;
         this.description = description;
     }
 
@@ -71,24 +93,31 @@ public class Lesson {
      * @param lessonProgress the progress percentage of the lesson
      */
     public void setLessonProgress(double lessonProgress) {
+        version++;
         this.lessonProgress = lessonProgress;
         this.completed = lessonProgress >= 100.0;
     }
 
     public String getEnglishContent() {
-        return englishContent;
+        LazyText lazy = lazyEnglishContent;
+        return lazy != null ? lazy.get() : englishContent;
     }
 
     public void setEnglishContent(String englishContent) {
+        version++;
         this.englishContent = englishContent;
+        this.lazyEnglishContent = null;
     }
 
     public String getSpanishContent() {
-        return spanishContent;
+        LazyText lazy = lazySpanishContent;
+        return lazy != null ? lazy.get() : spanishContent;
     }
 
     public void setSpanishContent(String spanishContent) {
+        version++;
         this.spanishContent = spanishContent;
+        this.lazySpanishContent = null;
     }
 
     /**
@@ -103,7 +132,32 @@ public class Lesson {
      * Marks the lesson as completed, setting the progress to 100%
      */
     public void markAsCompleted() {
+        version++;
         this.completed = true;
         this.lessonProgress = 100.0;
     }
+
+    /**
+     * Returns the change counter, which goes up every time a saved field of this lesson changes.
+     * @return the current version
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Checks whether the lesson changed since it was loaded or last saved.
+     * @return true if the lesson has unsaved changes
+     */
+    public boolean isDirty() {
+        return version != savedVersion;
+    }
+
+    /**
+     * Records that the lesson was written as of the given version.
+     * @param savedVersion the version that was written, as returned by getVersion before writing
+     */
+    public void markSaved(long savedVersion) {
+        this.savedVersion = savedVersion;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,363 @@
+/**
+ * A full-text index over the English and Spanish content of every lesson, so learners and editors can find the
+ * stories that mention a word or phrase without scanning every lesson. Words are accent and case folded, so "adios"
+ * finds "Adiós", and each posting keeps the word's positions so quoted phrases only match words in sequence.
+ * Each course is indexed when it is added. Its lessons are read and folded before the index is locked, so a search
+ * running meanwhile only waits while the finished postings are appended.
+ * Removed courses are only masked out of the results until more than a quarter of the documents are removed; then
+ * the index is compacted so their postings do not stay in memory forever.
+ * @author Four Musketeers
+ */
+package com.narration;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+public class LessonSearchIndex {
+
+    /**
+     * A lesson whose English or Spanish content matched a search.
+     */
+    public static class Hit {
+
+        private final Course course;
+        private final Lesson lesson;
+        private final boolean spanish;
+
+        Hit(Course course, Lesson lesson, boolean spanish) {
+            this.course = course;
+            this.lesson = lesson;
+            this.spanish = spanish;
+        }
+
+        public Course getCourse() {
+            return course;
+        }
+
+        public Lesson getLesson() {
+            return lesson;
+        }
+
+        /**
+         * @return true if the match is in the Spanish content, false if it is in the English content
+         */
+        public boolean isSpanish() {
+            return spanish;
+        }
+    }
+
+    /**
+     * The positions of one word in one indexed text.
+     */
+    private static class Posting {
+
+        final int document;
+        final int[] positions;
+
+        Posting(int document, int[] positions) {
+            this.document = document;
+            this.positions = positions;
+        }
+    }
+
+    /**
+     * The index is compacted once more than 1 in COMPACT_AT of its documents are removed.
+     */
+    private static final int COMPACT_AT = 4;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ArrayList<Hit> documents = new ArrayList<>();
+    private final HashMap<String, ArrayList<Posting>> postings = new HashMap<>();
+    private final IdentityHashMap<Course, int[]> indexedCourses = new IdentityHashMap<>();
+    private final BitSet removed = new BitSet();
+
+    /**
+     * Indexes a course's lessons. A course already in the index is skipped.
+     * @param course the course to index
+     */
+    public void addCourse(Course course) {
+        if (course == null) {
+            return;
+        }
+        ArrayList<Hit> hits = new ArrayList<>();
+        ArrayList<ArrayList<String>> contents = new ArrayList<>();
+        if (course.getAllLessons() != null) {
+            for (Lesson lesson : course.getAllLessons()) {
+                if (lesson != null) {
+                    hits.add(new Hit(course, lesson, false));
+                    contents.add(TextFolding.words(lesson.getEnglishContent()));
+                    hits.add(new Hit(course, lesson, true));
+                    contents.add(TextFolding.words(lesson.getSpanishContent()));
+                }
+            }
+        }
+        lock.writeLock().lock();
+        try {
+            if (indexedCourses.containsKey(course)) {
+                return;
+            }
+            int start = documents.size();
+            for (int i = 0; i < hits.size(); i++) {
+                index(hits.get(i), contents.get(i));
+            }
+            indexedCourses.put(course, new int[] {start, documents.size()});
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a course's lessons from the search results.
+     * @param course the course to remove
+     */
+    public void removeCourse(Course course) {
+        lock.writeLock().lock();
+        try {
+            int[] range = indexedCourses.remove(course);
+            if (range != null) {
+                removed.set(range[0], range[1]);
+                if (removed.cardinality() * COMPACT_AT > documents.size()) {
+                    compact();
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Indexes a course again, for example after its lessons or their content were edited.
+     * @param course the course to index again
+     */
+    public void updateCourse(Course course) {
+        removeCourse(course);
+        addCourse(course);
+    }
+
+    /**
+     * Finds the lessons whose content contains every word of the query, ignoring accents and case.
+     * Words in double quotes must appear together in that order, so {@code "buenos dias" mochila} finds the stories
+     * with the phrase "buenos días" that also mention a mochila.
+     * @param query the words and quoted phrases to search for
+     * @return the matching lessons in the order their courses were added, each content language separately
+     */
+    public ArrayList<Hit> search(String query) {
+        ArrayList<Hit> hits = new ArrayList<>();
+        ArrayList<ArrayList<String>> phrases = parse(query);
+        if (phrases.isEmpty()) {
+            return hits;
+        }
+        lock.readLock().lock();
+        try {
+            int[] matches = null;
+            for (ArrayList<String> phrase : phrases) {
+                int[] phraseMatches = matchPhrase(phrase);
+                matches = matches == null ? phraseMatches : intersect(matches, phraseMatches);
+                if (matches.length == 0) {
+                    return hits;
+                }
+            }
+            for (int document : matches) {
+                if (!removed.get(document)) {
+                    hits.add(documents.get(document));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return hits;
+    }
+
+    /**
+     * Splits a query into phrases of folded words; every word outside quotes is a phrase of its own.
+     */
+    private static ArrayList<ArrayList<String>> parse(String query) {
+        ArrayList<ArrayList<String>> phrases = new ArrayList<>();
+        if (query == null) {
+            return phrases;
+        }
+        String[] parts = query.split("\"", -1);
+        for (int i = 0; i < parts.length; i++) {
+            ArrayList<String> words = TextFolding.words(parts[i]);
+            if (i % 2 == 1) {
+                if (!words.isEmpty()) {
+                    phrases.add(words);
+                }
+            } else {
+                for (String word : words) {
+                    ArrayList<String> single = new ArrayList<>(1);
+                    single.add(word);
+                    phrases.add(single);
+                }
+            }
+        }
+        return phrases;
+    }
+
+    /**
+     * Returns the sorted documents containing the words in sequence. The caller holds the read lock.
+     */
+    private int[] matchPhrase(ArrayList<String> phrase) {
+        ArrayList<ArrayList<Posting>> lists = new ArrayList<>(phrase.size());
+        for (String word : phrase) {
+            ArrayList<Posting> list = postings.get(word);
+            if (list == null) {
+                return new int[0];
+            }
+            lists.add(list);
+        }
+
+        // walk the rarest word's postings and look the others up by document
+        int rarest = 0;
+        for (int i = 1; i < lists.size(); i++) {
+            if (lists.get(i).size() < lists.get(rarest).size()) {
+                rarest = i;
+            }
+        }
+        int[] found = new int[lists.get(rarest).size()];
+        int count = 0;
+        Posting[] postingsInDocument = new Posting[lists.size()];
+        for (Posting candidate : lists.get(rarest)) {
+            boolean inAll = true;
+            for (int i = 0; i < lists.size() && inAll; i++) {
+                postingsInDocument[i] = i == rarest ? candidate : find(lists.get(i), candidate.document);
+                inAll = postingsInDocument[i] != null;
+            }
+            if (inAll && inSequence(postingsInDocument)) {
+                found[count++] = candidate.document;
+            }
+        }
+        return Arrays.copyOf(found, count);
+    }
+
+    /**
+     * Checks whether the words occur one after another somewhere in the document.
+     */
+    private static boolean inSequence(Posting[] words) {
+        if (words.length == 1) {
+            return true;
+        }
+        for (int start : words[0].positions) {
+            boolean follows = true;
+            for (int i = 1; i < words.length && follows; i++) {
+                follows = Arrays.binarySearch(words[i].positions, start + i) >= 0;
+            }
+            if (follows) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Finds a document's posting in a list sorted by document.
+     */
+    private static Posting find(ArrayList<Posting> list, int document) {
+        int low = 0;
+        int high = list.size() - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int found = list.get(middle).document;
+            if (found < document) {
+                low = middle + 1;
+            } else if (found > document) {
+                high = middle - 1;
+            } else {
+                return list.get(middle);
+            }
+        }
+        return null;
+    }
+
+    private static int[] intersect(int[] a, int[] b) {
+        int[] both = new int[Math.min(a.length, b.length)];
+        int count = 0;
+        for (int i = 0, j = 0; i < a.length && j < b.length; ) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                both[count++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(both, count);
+    }
+
+    /**
+     * Drops the removed documents and renumbers the rest in their order, reusing the postings' position arrays so no
+     * lesson content is read again. Every posting list stays sorted by document. The caller holds the write lock.
+     */
+    private void compact() {
+        int[] renumbered = new int[documents.size() + 1];
+        int live = 0;
+        for (int document = 0; document < documents.size(); document++) {
+            renumbered[document] = live;
+            if (!removed.get(document)) {
+                documents.set(live++, documents.get(document));
+            }
+        }
+        renumbered[documents.size()] = live;
+        documents.subList(live, documents.size()).clear();
+
+        postings.values().removeIf(list -> {
+            int kept = 0;
+            for (Posting posting : list) {
+                if (!removed.get(posting.document)) {
+                    list.set(kept++, new Posting(renumbered[posting.document], posting.positions));
+                }
+            }
+            list.subList(kept, list.size()).clear();
+            list.trimToSize();
+            return list.isEmpty();
+        });
+        for (int[] range : indexedCourses.values()) {
+            range[0] = renumbered[range[0]];
+            range[1] = renumbered[range[1]];
+        }
+        removed.clear();
+    }
+
+    /**
+     * Returns the number of documents in the index, counting removed ones that were not compacted away yet.
+     */
+    int documentCount() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds one lesson content as a new document. Documents only ever get higher numbers, which keeps every posting
+     * list sorted by document. The caller holds the write lock.
+     */
+    private void index(Hit hit, ArrayList<String> words) {
+        if (words.isEmpty()) {
+            return;
+        }
+        int document = documents.size();
+        documents.add(hit);
+        HashMap<String, ArrayList<Integer>> positions = new HashMap<>();
+        for (int i = 0; i < words.size(); i++) {
+            positions.computeIfAbsent(words.get(i), word -> new ArrayList<>()).add(i);
+        }
+        for (Map.Entry<String, ArrayList<Integer>> entry : positions.entrySet()) {
+            ArrayList<Integer> wordPositions = entry.getValue();
+            int[] list = new int[wordPositions.size()];
+            for (int i = 0; i < list.length; i++) {
+                list[i] = wordPositions.get(i);
+            }
+            postings.computeIfAbsent(entry.getKey(), word -> new ArrayList<>()).add(new Posting(document, list));
+        }
+    }
+}
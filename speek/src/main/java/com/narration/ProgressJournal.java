@@ -0,0 +1,437 @@
+/**
+ * Write-ahead journal for user progress. Progress changes are appended as small fixed-size binary records by a
+ * single writer thread that commits whole batches with one fsync, and a background compactor folds the journal
+ * back into the user snapshot that DataLoader reads. Loading users replays the journal on top of the snapshot.
+ * @author Four Musketeers
+ */
+package com.narration;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+public class ProgressJournal {
+
+    /**
+     * Kinds of progress change the journal records.
+     */
+    public enum EventType {
+        PROGRESS,
+        COMPLETED,
+        CURRENT_COURSE
+    }
+
+    // type(1) + user(16) + course(16) + value(8) + timestamp(8) + crc(4)
+    static final int RECORD_SIZE = 53;
+    private static final int MAX_BATCH = 1024;
+    private static final UUID NO_ID = new UUID(0L, 0L);
+
+    private static volatile ProgressJournal active;
+
+    private final Path journalPath;
+    private final Path sealedPath;
+    private final long compactThresholdBytes;
+    private final LinkedBlockingQueue<PendingEvent> queue = new LinkedBlockingQueue<>();
+    private final Object channelLock = new Object();
+    private final Thread writerThread;
+    private final ScheduledExecutorService compactor;
+    private FileChannel channel;
+    private volatile boolean closed;
+
+    private ProgressJournal(String journalFile, long compactThresholdBytes, long compactIntervalMillis) throws IOException {
+        this.journalPath = Paths.get(journalFile);
+        this.sealedPath = Paths.get(journalFile + ".sealed");
+        this.compactThresholdBytes = compactThresholdBytes;
+        truncateTornTail(journalPath);
+        this.channel = openChannel();
+
+        this.writerThread = new Thread(this::writeLoop, "progress-journal-writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+
+        this.compactor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "progress-journal-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (compactIntervalMillis > 0) {
+            compactor.scheduleWithFixedDelay(this::compactIfLarge, compactIntervalMillis, compactIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Opens the journal and makes it the active journal that User records its progress changes to.
+     * A sealed segment left behind by an interrupted compaction is folded into the snapshot right away.
+     * @param journalFile the path of the journal file
+     * @return the active journal
+     * @throws IOException if the journal cannot be opened
+     */
+    public static synchronized ProgressJournal open(String journalFile) throws IOException {
+        return open(journalFile, DataConstants.JOURNAL_COMPACT_THRESHOLD_BYTES, DataConstants.JOURNAL_COMPACT_INTERVAL_MS);
+    }
+
+    /**
+     * Opens the journal with explicit compaction settings.
+     * @param journalFile the path of the journal file
+     * @param compactThresholdBytes journal size that triggers a background compaction
+     * @param compactIntervalMillis how often the compactor checks the size, or 0 to only compact on request
+     * @return the active journal
+     * @throws IOException if the journal cannot be opened
+     */
+    public static synchronized ProgressJournal open(String journalFile, long compactThresholdBytes, long compactIntervalMillis) throws IOException {
+        if (active != null) {
+            active.close();
+        }
+        ProgressJournal journal = new ProgressJournal(journalFile, compactThresholdBytes, compactIntervalMillis);
+        active = journal;
+        if (Files.exists(journal.sealedPath)) {
+            journal.compactor.execute(journal::foldSealedSegment);
+        }
+        return journal;
+    }
+
+    /**
+     * Returns the active journal, or null when progress is not being journaled.
+     * @return the active journal or null
+     */
+    public static ProgressJournal getActive() {
+        return active;
+    }
+
+    /**
+     * Records a progress change on the active journal, if there is one.
+     * @param type the kind of change
+     * @param userId the user whose progress changed
+     * @param courseId the course the change applies to
+     * @param value the new progress value (ignored for other event types)
+     * @return true if the change was journaled, false if there is no active journal
+     */
+    public static boolean record(EventType type, UUID userId, UUID courseId, double value) {
+        ProgressJournal journal = active;
+        if (journal != null && userId != null && !journal.closed) {
+            journal.append(type, userId, courseId, value);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Replays the active journal onto freshly loaded users, if there is an active journal.
+     * @param users the users loaded from the snapshot
+     */
+    public static void replayActive(List<User> users) {
+        ProgressJournal journal = active;
+        if (journal != null) {
+            journal.replay(users);
+        }
+    }
+
+    /**
+     * Queues an event for the writer thread. The returned future completes once the batch holding the
+     * event has been forced to disk.
+     * @param type the kind of change
+     * @param userId the user whose progress changed
+     * @param courseId the course the change applies to
+     * @param value the new progress value
+     * @return a future completed when the event is durable
+     */
+    public CompletableFuture<Void> append(EventType type, UUID userId, UUID courseId, double value) {
+        PendingEvent event = new PendingEvent(type, userId, courseId, value, System.currentTimeMillis());
+        if (closed) {
+            event.done.completeExceptionally(new IOException("Progress journal is closed"));
+            return event.done;
+        }
+        queue.add(event);
+        return event.done;
+    }
+
+    /**
+     * Blocks until every event appended so far is durable.
+     */
+    public void sync() {
+        append(EventType.PROGRESS, null, null, 0.0).join();
+    }
+
+    /**
+     * Writer loop: takes the first waiting event, drains everything else that queued up behind it, writes the batch
+     * and forces it with a single fsync before completing the batch's futures.
+     */
+    private void writeLoop() {
+        List<PendingEvent> batch = new ArrayList<>();
+        ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE * MAX_BATCH);
+        while (!closed || !queue.isEmpty()) {
+            try {
+                PendingEvent first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, MAX_BATCH - 1);
+
+                buffer.clear();
+                for (PendingEvent event : batch) {
+                    if (event.userId != null) {
+                        encode(buffer, event);
+                    }
+                }
+                buffer.flip();
+                synchronized (channelLock) {
+                    while (buffer.hasRemaining()) {
+                        channel.write(buffer);
+                    }
+                    channel.force(false);
+                }
+                for (PendingEvent event : batch) {
+                    event.done.complete(null);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (IOException e) {
+                for (PendingEvent event : batch) {
+                    event.done.completeExceptionally(e);
+                }
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private static void encode(ByteBuffer buffer, PendingEvent event) {
+        int start = buffer.position();
+        UUID courseId = event.courseId == null ? NO_ID : event.courseId;
+        buffer.put((byte) event.type.ordinal());
+        buffer.putLong(event.userId.getMostSignificantBits());
+        buffer.putLong(event.userId.getLeastSignificantBits());
+        buffer.putLong(courseId.getMostSignificantBits());
+        buffer.putLong(courseId.getLeastSignificantBits());
+        buffer.putDouble(event.value);
+        buffer.putLong(event.timestamp);
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), start, RECORD_SIZE - 4);
+        buffer.putInt((int) crc.getValue());
+    }
+
+    /**
+     * Applies the sealed segment and then the live journal to the users, in append order.
+     * @param users the users to update
+     */
+    public void replay(List<User> users) {
+        Map<UUID, User> byId = new HashMap<>();
+        for (User user : users) {
+            if (user.getId() != null) {
+                byId.put(user.getId(), user);
+            }
+        }
+        try {
+            replayFile(sealedPath, byId);
+            synchronized (channelLock) {
+                replayFile(journalPath, byId);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Applies every intact record of one journal file. Reading stops at the first short or corrupt record,
+     * which is where a crash cut the last batch off.
+     */
+    private static void replayFile(Path path, Map<UUID, User> users) throws IOException {
+        if (!Files.exists(path)) {
+            return;
+        }
+        ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(path));
+        CRC32 crc = new CRC32();
+        while (data.remaining() >= RECORD_SIZE) {
+            int start = data.position();
+            crc.reset();
+            crc.update(data.array(), start, RECORD_SIZE - 4);
+            int typeIndex = data.get();
+            UUID userId = new UUID(data.getLong(), data.getLong());
+            UUID courseId = new UUID(data.getLong(), data.getLong());
+            double value = data.getDouble();
+            data.getLong();
+            int storedCrc = data.getInt();
+            if (storedCrc != (int) crc.getValue() || typeIndex < 0 || typeIndex >= EventType.values().length) {
+                System.err.println("Progress journal " + path + " is truncated or corrupt at byte " + start);
+                return;
+            }
+            User user = users.get(userId);
+            if (user != null) {
+                apply(user, EventType.values()[typeIndex], NO_ID.equals(courseId) ? null : courseId, value);
+            }
+        }
+    }
+
+    private static void apply(User user, EventType type, UUID courseId, double value) {
+        switch (type) {
+            case PROGRESS:
+                user.getProgress().put(courseId, value);
+                break;
+            case COMPLETED:
+                if (!user.getCompletedCourses().contains(courseId)) {
+                    user.getCompletedCourses().add(courseId);
+                }
+                break;
+            case CURRENT_COURSE:
+                user.restoreCurrentCourse(courseId);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Compacts when the journal has grown past the configured threshold.
+     */
+    private void compactIfLarge() {
+        try {
+            if (Files.exists(journalPath) && Files.size(journalPath) >= compactThresholdBytes) {
+                compact();
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Seals the current journal, folds it into the user snapshot and deletes it. Appends made while the fold
+     * runs go to a fresh journal file, so writers never wait for compaction.
+     * @throws IOException if the journal cannot be rotated
+     */
+    public void compact() throws IOException {
+        synchronized (channelLock) {
+            if (!Files.exists(sealedPath)) {
+                channel.force(false);
+                channel.close();
+                Files.move(journalPath, sealedPath, StandardCopyOption.ATOMIC_MOVE);
+                channel = openChannel();
+            }
+        }
+        foldSealedSegment();
+    }
+
+    /**
+     * Saves the users held by UserStore and removes the sealed segment. The store's users already reflect the
+     * segment, either because their changes were journaled from them or because it was replayed when they were
+     * loaded, so saving them folds it in without replacing the instances the rest of the program holds.
+     * The segment is kept when the save fails, and replaying an already folded segment is harmless because every
+     * event sets a value rather than adding to it.
+     */
+    private void foldSealedSegment() {
+        WriteBehindScheduler.getInstance().flush(WriteBehindScheduler.USERS);
+        UserStore store = UserStore.getInstance();
+        synchronized (store) {
+            try {
+                if (store.saveAll()) {
+                    Files.deleteIfExists(sealedPath);
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Flushes pending events, stops the background threads and deactivates the journal.
+     */
+    public void close() {
+        synchronized (ProgressJournal.class) {
+            if (active == this) {
+                active = null;
+            }
+        }
+        if (closed) {
+            return;
+        }
+        sync();
+        closed = true;
+        compactor.shutdown();
+        try {
+            writerThread.join();
+            compactor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (channelLock) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Cuts a partially written last record off the journal, so new appends do not land behind it.
+     */
+    private static void truncateTornTail(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return;
+        }
+        byte[] data = Files.readAllBytes(path);
+        CRC32 crc = new CRC32();
+        int valid = 0;
+        while (valid + RECORD_SIZE <= data.length) {
+            crc.reset();
+            crc.update(data, valid, RECORD_SIZE - 4);
+            int storedCrc = ByteBuffer.wrap(data, valid + RECORD_SIZE - 4, 4).getInt();
+            if (storedCrc != (int) crc.getValue()) {
+                break;
+            }
+            valid += RECORD_SIZE;
+        }
+        if (valid < data.length) {
+            try (FileChannel file = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                file.truncate(valid);
+                file.force(true);
+            }
+        }
+    }
+
+    private FileChannel openChannel() throws IOException {
+        File parent = journalPath.toAbsolutePath().getParent().toFile();
+        if (!parent.isDirectory()) {
+            parent.mkdirs();
+        }
+        return FileChannel.open(journalPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * An event waiting for the writer thread. A null user marks a sync barrier that is not written.
+     */
+    private static class PendingEvent {
+        private final EventType type;
+        private final UUID userId;
+        private final UUID courseId;
+        private final double value;
+        private final long timestamp;
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        private PendingEvent(EventType type, UUID userId, UUID courseId, double value, long timestamp) {
+            this.type = type;
+            this.userId = userId;
+            this.courseId = courseId;
+            this.value = value;
+            this.timestamp = timestamp;
+        }
+    }
+}
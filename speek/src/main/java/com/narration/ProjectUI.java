@@ -316,7 +316,7 @@ public class ProjectUI {
         }
 
         currentLesson = currentCourse.getAllLessons().get(0);
-        currentCourse.setCurrentLesson(currentLesson);
+        facade.getCurrentUser().setCurrentCourse(currentCourse.getId());
         System.out.println("Starting Storytelling...");
         
         String spanishStory = currentLesson.getSpanishContent();
@@ -334,9 +334,9 @@ public class ProjectUI {
         String continueResponse = scanner.nextLine().trim();
 
         if (continueResponse.equalsIgnoreCase("done")) {
-            currentLesson.markAsCompleted();
+            double courseProgress = facade.getCurrentUser().completeLesson(currentCourse, currentLesson);
             System.out.println("Storytelling marked completed.");
-            course.calculateProgress();
+            System.out.println("Course Progress: " + courseProgress);
             startAssessment2(); 
         } else {
             System.out.println("Exiting Storytelling.");
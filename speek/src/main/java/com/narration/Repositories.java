@@ -0,0 +1,36 @@
+/**
+ * Owns the executor the storage backends' asynchronous methods run on.
+ * @author Four Musketeers
+ */
+package com.narration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class Repositories {
+
+    private static final int THREADS = 4;
+
+    private static ExecutorService executor;
+
+    private Repositories() {
+    }
+
+    /**
+     * Returns the executor the repositories' asynchronous methods run on. Its threads are daemons,
+     * so pending storage work never keeps the JVM alive.
+     * @return the shared storage executor
+     */
+    public static synchronized ExecutorService executor() {
+        if (executor == null) {
+            AtomicInteger threadNumber = new AtomicInteger();
+            executor = Executors.newFixedThreadPool(THREADS, runnable -> {
+                Thread thread = new Thread(runnable, "storage-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return executor;
+    }
+}
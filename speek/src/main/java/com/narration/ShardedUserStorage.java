@@ -0,0 +1,296 @@
+/**
+ * Optional storage layout for users: a directory holding a small manifest and a fixed number of shard files,
+ * each a JSON array of the users whose IDs hash into that bucket. Saving one user rewrites only that user's shard,
+ * so the cost of a save follows the size of the change rather than the size of the user base.
+ * @author Four Musketeers
+ */
+package com.narration;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+
+public class ShardedUserStorage {
+
+    public static final String MANIFEST_FILE = "manifest.json";
+    public static final int LAYOUT_VERSION = 1;
+
+    private static final long UNKNOWN_MEMBERSHIP = Long.MIN_VALUE;
+
+    private final File directory;
+    private final int shardCount;
+    private final long[] writtenMembership;
+
+    private ShardedUserStorage(File directory, int shardCount) {
+        this.directory = directory;
+        this.shardCount = shardCount;
+        this.writtenMembership = new long[shardCount];
+        Arrays.fill(writtenMembership, UNKNOWN_MEMBERSHIP);
+    }
+
+    /**
+     * Checks whether a sharded layout (a directory with a manifest) exists at the path.
+     * @param directoryPath the shard directory
+     * @return true if the manifest is present
+     */
+    public static boolean exists(String directoryPath) {
+        return directoryPath != null && new File(directoryPath, MANIFEST_FILE).isFile();
+    }
+
+    /**
+     * Opens an existing sharded layout by reading its manifest.
+     * @param directoryPath the shard directory
+     * @return the storage described by the manifest
+     * @throws IOException if the manifest is missing, unreadable or from an unknown layout version
+     */
+    public static ShardedUserStorage open(String directoryPath) throws IOException {
+        File directory = new File(directoryPath);
+        try (FileReader reader = new FileReader(new File(directory, MANIFEST_FILE), StandardCharsets.UTF_8)) {
+            JSONObject manifest = (JSONObject) new JSONParser().parse(reader);
+            int version = ((Number) manifest.get("version")).intValue();
+            if (version != LAYOUT_VERSION) {
+                throw new IOException("Unsupported user shard layout version: " + version);
+            }
+            int shardCount = ((Number) manifest.get("shardCount")).intValue();
+            if (shardCount <= 0) {
+                throw new IOException("Invalid shard count in manifest: " + shardCount);
+            }
+            return new ShardedUserStorage(directory, shardCount);
+        } catch (ParseException | ClassCastException | NullPointerException e) {
+            throw new IOException("Invalid user shard manifest in " + directoryPath, e);
+        }
+    }
+
+    /**
+     * Creates a sharded layout, writing every user into its shard and then the manifest.
+     * The manifest is written last, so a half-created directory is never mistaken for a valid layout.
+     * @param directoryPath the shard directory, created if needed
+     * @param shardCount the number of hash buckets
+     * @param users the users to store
+     * @return the new storage
+     * @throws IOException if any file cannot be written
+     */
+    @SuppressWarnings("unchecked")
+    public static ShardedUserStorage create(String directoryPath, int shardCount, Iterable<User> users) throws IOException {
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("Shard count must be positive");
+        }
+        File directory = new File(directoryPath);
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Could not create shard directory " + directoryPath);
+        }
+        ShardedUserStorage storage = new ShardedUserStorage(directory, shardCount);
+        storage.saveAll(users);
+
+        JSONObject manifest = new JSONObject();
+        manifest.put("version", LAYOUT_VERSION);
+        manifest.put("shardCount", shardCount);
+        manifest.put("layout", "userId-hash");
+        AtomicFileWriter.writeNow(new File(directory, MANIFEST_FILE).getPath(), out -> {
+            OutputStreamWriter writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+            writer.write(manifest.toJSONString());
+            writer.flush();
+        });
+        return storage;
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    /**
+     * Returns the bucket a user ID belongs to. Users without an ID all go to bucket 0.
+     * @param userId the user's ID
+     * @return the shard index
+     */
+    public int shardOf(UUID userId) {
+        return userId == null ? 0 : Math.floorMod(userId.hashCode(), shardCount);
+    }
+
+    /**
+     * Returns the file that holds one shard.
+     * @param shard the shard index
+     * @return the shard file
+     */
+    public File shardFile(int shard) {
+        return new File(directory, String.format("users-%04d.json", shard));
+    }
+
+    /**
+     * Streams every user of every shard to the callback, shard by shard.
+     * @param callback receives each user
+     * @throws IOException if a shard cannot be read
+     */
+    public void forEachUser(Consumer<User> callback) throws IOException {
+        for (int shard = 0; shard < shardCount; shard++) {
+            File file = shardFile(shard);
+            if (file.isFile()) {
+                StreamingJsonLoader.forEachUser(file.getPath(), callback);
+            }
+        }
+    }
+
+    /**
+     * Loads every user in the layout.
+     * @return the users of all shards
+     * @throws IOException if a shard cannot be read
+     */
+    public ArrayList<User> loadAll() throws IOException {
+        ArrayList<User> users = new ArrayList<>();
+        forEachUser(users::add);
+        List<List<User>> buckets = bucket(users);
+        for (int shard = 0; shard < shardCount; shard++) {
+            writtenMembership[shard] = membershipOf(buckets.get(shard));
+        }
+        return users;
+    }
+
+    /**
+     * Rewrites every shard from the given users. Shards that end up empty are written as empty arrays.
+     * @param users all users to store
+     * @throws IOException if a shard cannot be written
+     */
+    public void saveAll(Iterable<User> users) throws IOException {
+        List<List<User>> buckets = bucket(users);
+        ArrayList<Integer> shards = new ArrayList<>();
+        for (int shard = 0; shard < shardCount; shard++) {
+            shards.add(shard);
+        }
+        writeShards(shards, buckets);
+    }
+
+    /**
+     * Rewrites only the shards whose contents changed since they were loaded or written through this storage:
+     * shards holding a dirty user, and shards that gained or lost users. Every written user is marked saved.
+     * @param users all users to store
+     * @return the number of shards written
+     * @throws IOException if a shard cannot be written
+     */
+    public int saveChanged(Iterable<User> users) throws IOException {
+        List<List<User>> buckets = bucket(users);
+        ArrayList<Integer> changed = new ArrayList<>();
+        for (int shard = 0; shard < shardCount; shard++) {
+            List<User> bucket = buckets.get(shard);
+            if (membershipOf(bucket) != writtenMembership[shard] || anyDirty(bucket)) {
+                changed.add(shard);
+            }
+        }
+        writeShards(changed, buckets);
+        return changed.size();
+    }
+
+    private List<List<User>> bucket(Iterable<User> users) {
+        List<List<User>> buckets = new ArrayList<>(shardCount);
+        for (int shard = 0; shard < shardCount; shard++) {
+            buckets.add(new ArrayList<>());
+        }
+        for (User user : users) {
+            buckets.get(shardOf(user.getId())).add(user);
+        }
+        return buckets;
+    }
+
+    /**
+     * Stages the shards and commits them as one batch. Users are only marked saved once every shard is in place,
+     * so a failed commit leaves them dirty and the next save writes them again.
+     */
+    private void writeShards(List<Integer> shards, List<List<User>> buckets) throws IOException {
+        long[][] versions = new long[shards.size()][];
+        ArrayList<String> paths = new ArrayList<>(shards.size());
+        for (int i = 0; i < shards.size(); i++) {
+            List<User> bucket = buckets.get(shards.get(i));
+            versions[i] = new long[bucket.size()];
+            for (int j = 0; j < bucket.size(); j++) {
+                versions[i][j] = bucket.get(j).getVersion();
+            }
+            String path = shardFile(shards.get(i)).getPath();
+            AtomicFileWriter.write(path, out -> StreamingJsonWriter.writeUsers(out, bucket));
+            paths.add(path);
+        }
+        AtomicFileWriter.commit(paths);
+        for (int i = 0; i < shards.size(); i++) {
+            List<User> bucket = buckets.get(shards.get(i));
+            for (int j = 0; j < bucket.size(); j++) {
+                bucket.get(j).markSaved(versions[i][j]);
+            }
+            writtenMembership[shards.get(i)] = membershipOf(bucket);
+        }
+    }
+
+    private static boolean anyDirty(List<User> bucket) {
+        for (User user : bucket) {
+            if (user.isDirty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Identifies which user objects a shard holds, in order, so that adding, removing or replacing a user
+     * is noticed even when none of the remaining users is dirty.
+     */
+    private static long membershipOf(List<User> bucket) {
+        long membership = bucket.size();
+        for (User user : bucket) {
+            membership = 31 * membership + System.identityHashCode(user);
+        }
+        return membership;
+    }
+
+    /**
+     * Saves one user by rewriting only the shard it hashes into, replacing its old record or appending it.
+     * @param user the user to save
+     * @throws IOException if the shard cannot be read or written
+     */
+    public void saveUser(User user) throws IOException {
+        File file = shardFile(shardOf(user.getId()));
+        ArrayList<User> shardUsers = new ArrayList<>();
+        if (file.isFile()) {
+            StreamingJsonLoader.forEachUser(file.getPath(), shardUsers::add);
+        }
+
+        boolean replaced = false;
+        for (int i = 0; i < shardUsers.size(); i++) {
+            UUID id = shardUsers.get(i).getId();
+            if (id != null && id.equals(user.getId())) {
+                shardUsers.set(i, user);
+                replaced = true;
+                break;
+            }
+        }
+        if (!replaced) {
+            shardUsers.add(user);
+        }
+        long version = user.getVersion();
+        AtomicFileWriter.writeNow(file.getPath(), out -> StreamingJsonWriter.writeUsers(out, shardUsers));
+        user.markSaved(version);
+        writtenMembership[shardOf(user.getId())] = UNKNOWN_MEMBERSHIP;
+    }
+
+    /**
+     * Cheap fingerprint of the layout built from each shard's modification time and size, used to notice
+     * changes made outside this process without reading the shards.
+     * @return a value that changes when any shard changes
+     */
+    public long fingerprint() {
+        long fingerprint = shardCount;
+        for (int shard = 0; shard < shardCount; shard++) {
+            File file = shardFile(shard);
+            fingerprint = 31 * fingerprint + file.lastModified();
+            fingerprint = 31 * fingerprint + file.length();
+        }
+        return fingerprint;
+    }
+}
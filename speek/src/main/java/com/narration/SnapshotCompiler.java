@@ -0,0 +1,34 @@
+/**
+ * Command-line tool that compiles the JSON data files into the binary snapshot read at start-up.
+ * Run it after editing the JSON files; until then the edited files are simply read as JSON.
+ * Usage: SnapshotCompiler [snapshotFile usersFile coursesFile languagesFile wordsFile phrasesFile]
+ * @author Four Musketeers
+ */
+package com.narration;
+
+import java.io.File;
+import java.io.IOException;
+
+public class SnapshotCompiler {
+
+    public static void main(String[] args) {
+        if (args.length != 0 && args.length != 6) {
+            System.err.println("Usage: SnapshotCompiler [snapshotFile usersFile coursesFile languagesFile wordsFile phrasesFile]");
+            System.exit(1);
+        }
+        String[] paths = args.length == 6 ? args : new String[] {
+            DataConstants.SNAPSHOT_FILE, DataConstants.USERS_FILE, DataConstants.COURSES_FILE,
+            DataConstants.LANGUAGES_FILE, DataConstants.WORDS_FILE, DataConstants.PHRASES_FILE
+        };
+
+        long start = System.nanoTime();
+        try {
+            BinarySnapshot.compile(paths[0], paths[1], paths[2], paths[3], paths[4], paths[5]);
+        } catch (IOException e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        System.out.println("Wrote " + paths[0] + " (" + new File(paths[0]).length() + " bytes) in " + elapsedMillis + " ms");
+    }
+}
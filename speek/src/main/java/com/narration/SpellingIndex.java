@@ -0,0 +1,533 @@
+/**
+ * Tries of the spellings of a vocabulary, for finding every word within a small edit distance of a misspelling.
+ * A search runs a Levenshtein automaton over a trie: the edit distance row for a prefix is computed once for every
+ * word starting with it, only the cells within the searched distance of the diagonal are filled, and as soon as a
+ * prefix is too far from the searched word none of its children are visited. The words are also kept spelled
+ * backwards, so each search can allow only half the edits in one half of the word; see find.
+ * Each trie is kept in preorder in two flat arrays, the letter of each node and where the nodes below it end, so a
+ * search moving down the trie reads memory in order. It costs about 6 bytes per node and does not keep the words.
+ * An index is never changed; adding or removing a word returns a new one. Added words go to small second tries and
+ * removed ones to a short list, both merged into the main tries once they grow, so a change does not rebuild them.
+ * @author Four Musketeers
+ */
+package com.narration;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+
+public class SpellingIndex {
+
+    /**
+     * The smallest number of added and removed words kept apart before they are merged into the main tries.
+     */
+    static final int MERGE_AT = 512;
+
+    /**
+     * A word found by a search, with its distance from the searched word.
+     */
+    public static class Match {
+
+        private final String word;
+        private final int distance;
+
+        Match(String word, int distance) {
+            this.word = word;
+            this.distance = distance;
+        }
+
+        public String getWord() {
+            return word;
+        }
+
+        public int getDistance() {
+            return distance;
+        }
+    }
+
+    private static final String[] NONE = new String[0];
+
+    private final Spellings main;
+    private final Spellings added;
+    // words of the main tries that were removed, sorted
+    private final String[] removed;
+
+    private SpellingIndex(Spellings main, Spellings added, String[] removed) {
+        this.main = main;
+        this.added = added;
+        this.removed = removed;
+    }
+
+    /**
+     * Builds an index over the words; duplicates and nulls are dropped.
+     * @param words the words to index
+     */
+    public SpellingIndex(Collection<String> words) {
+        this(Spellings.of(words.stream().filter(word -> word != null).sorted().distinct().toArray(String[]::new)),
+                Spellings.EMPTY, NONE);
+    }
+
+    /**
+     * Returns an index that also has the word.
+     * @param word the word to add
+     * @return the new index, or this one if it already has the word
+     */
+    public SpellingIndex with(String word) {
+        if (word == null) {
+            return this;
+        }
+        int slot = Arrays.binarySearch(removed, word);
+        if (slot >= 0) {
+            return new SpellingIndex(main, added, remove(removed, slot));
+        }
+        if (main.contains(word) || added.contains(word)) {
+            return this;
+        }
+        ArrayList<String> words = added.words();
+        int insertion = -Collections.binarySearch(words, word) - 1;
+        words.add(insertion, word);
+        return merged(new SpellingIndex(main, Spellings.of(words.toArray(NONE)), removed));
+    }
+
+    /**
+     * Returns an index without the word.
+     * @param word the word to remove
+     * @return the new index, or this one if it does not have the word
+     */
+    public SpellingIndex without(String word) {
+        if (word == null) {
+            return this;
+        }
+        if (added.contains(word)) {
+            ArrayList<String> words = added.words();
+            words.remove(word);
+            return new SpellingIndex(main, Spellings.of(words.toArray(NONE)), removed);
+        }
+        int slot = Arrays.binarySearch(removed, word);
+        if (slot >= 0 || !main.contains(word)) {
+            return this;
+        }
+        int insertion = -slot - 1;
+        String[] grown = new String[removed.length + 1];
+        System.arraycopy(removed, 0, grown, 0, insertion);
+        grown[insertion] = word;
+        System.arraycopy(removed, insertion, grown, insertion + 1, removed.length - insertion);
+        return merged(new SpellingIndex(main, added, grown));
+    }
+
+    /**
+     * Folds the added and removed words into the main tries once there are enough of them. A merge rebuilds the
+     * main tries while the small ones are rebuilt on every change, so a larger index waits for more changes, about
+     * four times the square root of its size, which keeps the two costs even.
+     */
+    private static SpellingIndex merged(SpellingIndex index) {
+        int mergeAt = Math.max(MERGE_AT, 4 * (int) Math.sqrt(index.size()));
+        if (index.added.size() + index.removed.length < mergeAt) {
+            return index;
+        }
+        ArrayList<String> kept = new ArrayList<>(index.size());
+        for (String word : index.main.words()) {
+            if (Arrays.binarySearch(index.removed, word) < 0) {
+                kept.add(word);
+            }
+        }
+        kept.addAll(index.added.words());
+        String[] words = kept.toArray(NONE);
+        Arrays.sort(words);
+        return new SpellingIndex(Spellings.of(words), Spellings.EMPTY, NONE);
+    }
+
+    private static String[] remove(String[] words, int slot) {
+        String[] shrunk = new String[words.length - 1];
+        System.arraycopy(words, 0, shrunk, 0, slot);
+        System.arraycopy(words, slot + 1, shrunk, slot, words.length - slot - 1);
+        return shrunk;
+    }
+
+    /**
+     * @return the number of words in the index
+     */
+    public int size() {
+        return main.size() - removed.length + added.size();
+    }
+
+    /**
+     * Finds every word within the given edit distance of the word.
+     * @param word        the word to search around
+     * @param maxDistance the largest number of inserted, deleted or replaced characters
+     * @return the matches in alphabetical order
+     */
+    public ArrayList<Match> search(String word, int maxDistance) {
+        if (word == null || maxDistance < 0) {
+            return new ArrayList<>();
+        }
+        ArrayList<Match> found = find(main, word, maxDistance, removed);
+        return added.size() == 0 ? found : union(found, find(added, word, maxDistance, NONE));
+    }
+
+    /**
+     * Finds the words closest to the word.
+     * @param word        the word to search around
+     * @param maxDistance the largest number of inserted, deleted or replaced characters
+     * @param limit       the largest number of matches
+     * @return the matches, closest first and alphabetical among equally close words
+     */
+    public ArrayList<Match> closest(String word, int maxDistance, int limit) {
+        ArrayList<Match> matches = search(word, maxDistance);
+        // already alphabetical, and the sort is stable
+        matches.sort(Comparator.comparingInt(Match::getDistance));
+        return limit < matches.size() ? new ArrayList<>(matches.subList(0, Math.max(0, limit))) : matches;
+    }
+
+    /**
+     * Searches one set of tries. Of two halves of the word, a match within maxDistance edits differs from one of
+     * them by at most half as many, so the word is searched twice: forwards, allowing only that many edits in its
+     * first half, and backwards through the reversed words, allowing only that many in its second half. Few
+     * prefixes survive the tighter limit, which is what keeps a search at two edits fast in a large vocabulary.
+     * A match's closest alignment is within the limit in at least one direction, so the closer of the two
+     * distances found is its own.
+     */
+    private static ArrayList<Match> find(Spellings spellings, String word, int maxDistance, String[] skipped) {
+        int split = word.length() / 2;
+        int near = maxDistance / 2;
+        ArrayList<Match> found = new Search(spellings.forward, word, maxDistance, split, near, skipped, false).run();
+        if (split == 0 || near == maxDistance) {
+            // the forward search already allowed every edit
+            return found;
+        }
+        String reversed = new StringBuilder(word).reverse().toString();
+        ArrayList<Match> back = new Search(spellings.backward, reversed, maxDistance, word.length() - split, near,
+                skipped, true).run();
+        back.sort(Comparator.comparing(Match::getWord));
+        return union(found, back);
+    }
+
+    /**
+     * Merges two alphabetical lists of matches, keeping the closer of any word found in both.
+     */
+    private static ArrayList<Match> union(ArrayList<Match> a, ArrayList<Match> b) {
+        ArrayList<Match> matches = new ArrayList<>(a.size() + b.size());
+        int i = 0;
+        int j = 0;
+        while (i < a.size() || j < b.size()) {
+            int order = j == b.size() ? -1 : i == a.size() ? 1 : a.get(i).getWord().compareTo(b.get(j).getWord());
+            if (order == 0) {
+                matches.add(a.get(i).getDistance() <= b.get(j).getDistance() ? a.get(i) : b.get(j));
+            } else {
+                matches.add(order < 0 ? a.get(i) : b.get(j));
+            }
+            if (order <= 0) {
+                i++;
+            }
+            if (order >= 0) {
+                j++;
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * One search over a trie, holding an edit distance row and the letters of the prefix for each depth. Only
+     * alignments with at most near edits in the first split letters of the word are followed, so a word whose
+     * closest alignment has more edits there is reported at a larger distance than its own, or not at all.
+     */
+    private static class Search {
+
+        private final Trie trie;
+        private final String word;
+        private final int maxDistance;
+        private final int split;
+        private final int near;
+        private final String[] skipped;
+        private final boolean backward;
+        private final int[][] rows;
+        private final char[] path;
+        private final ArrayList<Match> matches = new ArrayList<>();
+
+        Search(Trie trie, String word, int maxDistance, int split, int near, String[] skipped, boolean backward) {
+            this.trie = trie;
+            this.word = word;
+            this.maxDistance = maxDistance;
+            this.split = split;
+            this.near = near;
+            this.skipped = skipped;
+            this.backward = backward;
+            this.rows = new int[trie.maxDepth + 1][];
+            this.path = new char[trie.maxDepth];
+            int[] first = new int[word.length() + 1];
+            for (int j = 0; j < first.length; j++) {
+                first[j] = Math.min(j, maxDistance + 1);
+            }
+            rows[0] = first;
+        }
+
+        ArrayList<Match> run() {
+            if (trie.size() > 0) {
+                visit(0, 0);
+            }
+            return matches;
+        }
+
+        /**
+         * Reports the node's word if it is close enough, then visits the children whose prefix can still be.
+         * Children are visited in letter order, so a forward search finds the matches alphabetically.
+         */
+        private void visit(int node, int depth) {
+            int[] above = rows[depth];
+            int distance = above[word.length()];
+            if (trie.isWord(node) && distance <= maxDistance) {
+                String match = backward ? new StringBuilder(depth).append(path, 0, depth).reverse().toString()
+                        : new String(path, 0, depth);
+                if (Arrays.binarySearch(skipped, match) < 0) {
+                    matches.add(new Match(match, distance));
+                }
+            }
+            int end = trie.end(node);
+            for (int child = node + 1; child < end; child = trie.end(child)) {
+                if (rows[depth + 1] == null) {
+                    // cells outside the band are never written, so they must start out of range
+                    rows[depth + 1] = new int[word.length() + 1];
+                    Arrays.fill(rows[depth + 1], maxDistance + 1);
+                }
+                char letter = trie.label(child);
+                if (fillBand(above, rows[depth + 1], depth + 1, letter)) {
+                    path[depth] = letter;
+                    visit(child, depth + 1);
+                }
+            }
+        }
+
+        /**
+         * Fills row i, for the prefix that ends with the letter, and returns whether any of its cells is in range.
+         * Only the cells within maxDistance of the diagonal can be, so only those are computed; the ones next to
+         * them are set to maxDistance + 1 for the row below, and every value is capped there.
+         */
+        private boolean fillBand(int[] above, int[] row, int i, char letter) {
+            int cap = maxDistance + 1;
+            int last = word.length();
+            int low = Math.max(1, i - maxDistance);
+            int high = Math.min(last, i + maxDistance);
+            row[0] = Math.min(i, cap);
+            boolean inRange = row[0] <= (split > 0 ? near : maxDistance);
+            if (low > last) {
+                return inRange;
+            }
+            if (low > 1) {
+                row[low - 1] = cap;
+            }
+            for (int j = low; j <= high; j++) {
+                int arrive = Math.min(above[j - 1] + (letter == word.charAt(j - 1) ? 0 : 1), row[j - 1] + 1);
+                if (j == split && arrive > near) {
+                    // only alignments with at most near edits in the first split letters go on past them
+                    arrive = cap;
+                }
+                row[j] = Math.min(Math.min(arrive, above[j] + 1), cap);
+                inRange |= row[j] <= (j < split ? near : maxDistance);
+            }
+            if (high < last) {
+                row[high + 1] = cap;
+            }
+            return inRange;
+        }
+    }
+
+    /**
+     * A set of words as a trie of their spellings and a trie of the same words spelled backwards.
+     */
+    private static class Spellings {
+
+        static final Spellings EMPTY = of(NONE);
+
+        final Trie forward;
+        final Trie backward;
+
+        private Spellings(Trie forward, Trie backward) {
+            this.forward = forward;
+            this.backward = backward;
+        }
+
+        static Spellings of(String[] sorted) {
+            String[] reversed = new String[sorted.length];
+            for (int i = 0; i < sorted.length; i++) {
+                reversed[i] = new StringBuilder(sorted[i]).reverse().toString();
+            }
+            Arrays.sort(reversed);
+            return new Spellings(Trie.of(sorted), Trie.of(reversed));
+        }
+
+        int size() {
+            return forward.size();
+        }
+
+        boolean contains(String word) {
+            return forward.contains(word);
+        }
+
+        ArrayList<String> words() {
+            return forward.words();
+        }
+    }
+
+    /**
+     * Sorted, distinct words as a trie in preorder: every node is followed by the nodes below it, so the first child
+     * of node n is node n + 1, and end[n] is the first node after them, which is also n's next sibling. Node 0 is
+     * the root.
+     */
+    private static class Trie {
+
+        final char[] labels;
+        final int[] ends;
+        final long[] words;
+        final int wordCount;
+        final int maxDepth;
+
+        private Trie(char[] labels, int[] ends, long[] words, int wordCount, int maxDepth) {
+            this.labels = labels;
+            this.ends = ends;
+            this.words = words;
+            this.wordCount = wordCount;
+            this.maxDepth = maxDepth;
+        }
+
+        /**
+         * Builds the trie in one pass over the sorted words: the nodes a word shares with the one before it are
+         * kept, the ones below that are closed, and a node is opened for each remaining letter.
+         */
+        static Trie of(String[] sorted) {
+            int capacity = 16;
+            char[] labels = new char[capacity];
+            int[] ends = new int[capacity];
+            long[] words = new long[capacity / 64 + 1];
+            // open[d] is the node for the first d letters of the previous word
+            int[] open = new int[16];
+            int nodes = 1;
+            int maxDepth = 0;
+            String previous = "";
+            for (String word : sorted) {
+                int shared = 0;
+                int length = Math.min(previous.length(), word.length());
+                while (shared < length && previous.charAt(shared) == word.charAt(shared)) {
+                    shared++;
+                }
+                for (int depth = previous.length(); depth > shared; depth--) {
+                    ends[open[depth]] = nodes;
+                }
+                if (word.length() >= open.length) {
+                    open = Arrays.copyOf(open, Math.max(open.length * 2, word.length() + 1));
+                }
+                for (int depth = shared; depth < word.length(); depth++) {
+                    if (nodes == capacity) {
+                        capacity *= 2;
+                        labels = Arrays.copyOf(labels, capacity);
+                        ends = Arrays.copyOf(ends, capacity);
+                        words = Arrays.copyOf(words, capacity / 64 + 1);
+                    }
+                    labels[nodes] = word.charAt(depth);
+                    open[depth + 1] = nodes;
+                    nodes++;
+                }
+                int node = open[word.length()];
+                words[node >>> 6] |= 1L << node;
+                maxDepth = Math.max(maxDepth, word.length());
+                previous = word;
+            }
+            for (int depth = previous.length(); depth > 0; depth--) {
+                ends[open[depth]] = nodes;
+            }
+            ends[0] = nodes;
+            return new Trie(Arrays.copyOf(labels, nodes), Arrays.copyOf(ends, nodes),
+                    Arrays.copyOf(words, nodes / 64 + 1), sorted.length, maxDepth);
+        }
+
+        int size() {
+            return wordCount;
+        }
+
+        char label(int node) {
+            return labels[node];
+        }
+
+        int end(int node) {
+            return ends[node];
+        }
+
+        boolean isWord(int node) {
+            return (words[node >>> 6] & 1L << node) != 0;
+        }
+
+        boolean contains(String word) {
+            int node = 0;
+            for (int i = 0; i < word.length(); i++) {
+                int child = node + 1;
+                while (child < ends[node] && labels[child] != word.charAt(i)) {
+                    child = ends[child];
+                }
+                if (child == ends[node]) {
+                    return false;
+                }
+                node = child;
+            }
+            return isWord(node);
+        }
+
+        /**
+         * @return every word in the trie, sorted
+         */
+        ArrayList<String> words() {
+            ArrayList<String> all = new ArrayList<>(wordCount);
+            if (wordCount > 0) {
+                collect(0, new StringBuilder(), all);
+            }
+            return all;
+        }
+
+        private void collect(int node, StringBuilder prefix, ArrayList<String> all) {
+            if (isWord(node)) {
+                all.add(prefix.toString());
+            }
+            for (int child = node + 1; child < ends[node]; child = ends[child]) {
+                prefix.append(labels[child]);
+                collect(child, prefix, all);
+                prefix.setLength(prefix.length() - 1);
+            }
+        }
+    }
+
+    /**
+     * Fills the next edit distance row for one more letter of the candidate and returns its smallest value.
+     */
+    private static int fillRow(int[] above, int[] row, char letter, String word) {
+        row[0] = above[0] + 1;
+        int smallest = row[0];
+        for (int j = 1; j < row.length; j++) {
+            int replace = above[j - 1] + (letter == word.charAt(j - 1) ? 0 : 1);
+            row[j] = Math.min(replace, Math.min(above[j], row[j - 1]) + 1);
+            smallest = Math.min(smallest, row[j]);
+        }
+        return smallest;
+    }
+
+    /**
+     * Returns the Levenshtein distance between two words: the fewest inserted, deleted or replaced characters
+     * that turn one into the other.
+     * @param a a word
+     * @param b another word
+     * @return the edit distance
+     */
+    public static int distance(String a, String b) {
+        int[] above = new int[b.length() + 1];
+        int[] row = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            above[j] = j;
+        }
+        for (int i = 0; i < a.length(); i++) {
+            fillRow(above, row, a.charAt(i), b);
+            int[] swap = above;
+            above = row;
+            row = swap;
+        }
+        return above[b.length()];
+    }
+}
@@ -0,0 +1,172 @@
+/**
+ * Loads the data files the application needs at start-up in parallel on a bounded pool and waits for all of them,
+ * recording how long each file took. The files are independent, so start-up takes about as long as the slowest one.
+ * @author Four Musketeers
+ */
+package com.narration;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class StartupLoader {
+
+    public static final String USERS = "users";
+    public static final String COURSES = "courses";
+    public static final String LANGUAGES = "languages";
+    public static final String WORDS = "words";
+    public static final String PHRASES = "phrases";
+
+    private final Map<String, Object> results = new LinkedHashMap<>();
+    private final Map<String, Long> timings = new LinkedHashMap<>();
+    private long totalMillis;
+
+    /**
+     * Runs the given load tasks at the same time on at most the given number of threads and waits for all of them.
+     * A task that fails is reported and leaves a null result, the other tasks still complete.
+     * @param threads the maximum number of files loaded at once
+     * @param tasks the load tasks by name, in the order their timings are reported
+     */
+    StartupLoader(int threads, Map<String, Callable<?>> tasks) {
+        long start = System.nanoTime();
+        AtomicInteger threadNumber = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, tasks.size())), runnable -> {
+            Thread thread = new Thread(runnable, "startup-load-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            Map<String, Future<Object>> pending = new LinkedHashMap<>();
+            Map<String, Long> elapsed = Collections.synchronizedMap(new LinkedHashMap<>());
+            for (Map.Entry<String, Callable<?>> task : tasks.entrySet()) {
+                pending.put(task.getKey(), executor.submit(() -> {
+                    long taskStart = System.nanoTime();
+                    try {
+                        return task.getValue().call();
+                    } finally {
+                        elapsed.put(task.getKey(), (System.nanoTime() - taskStart) / 1_000_000);
+                    }
+                }));
+            }
+            for (Map.Entry<String, Future<Object>> entry : pending.entrySet()) {
+                results.put(entry.getKey(), join(entry.getKey(), entry.getValue()));
+                timings.put(entry.getKey(), elapsed.get(entry.getKey()));
+            }
+        } finally {
+            executor.shutdown();
+        }
+        totalMillis = (System.nanoTime() - start) / 1_000_000;
+    }
+
+    /**
+     * Loads users, courses, languages, words and phrases from the configured files at the same time.
+     * The progress journal should already be open, so users come back with their journaled progress.
+     * @return the loaded data and the time each file took
+     */
+    public static StartupLoader loadAll() {
+        Map<String, Callable<?>> tasks = new LinkedHashMap<>();
+        tasks.put(USERS, () -> UserStore.getInstance().getUsers());
+        tasks.put(COURSES, CourseList::getInstance);
+        tasks.put(LANGUAGES, DataLoader::getLanguages);
+        tasks.put(WORDS, DataLoader::loadWords);
+        tasks.put(PHRASES, () -> new DataLoader().loadPhrases());
+        return new StartupLoader(DataConstants.STARTUP_LOAD_THREADS, tasks);
+    }
+
+    private static Object join(String name, Future<Object> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.err.println("Interrupted while loading " + name);
+        } catch (ExecutionException e) {
+            System.err.println("Error loading " + name + ":");
+            e.getCause().printStackTrace();
+        }
+        return null;
+    }
+
+    /**
+     * Returns the result of a load task.
+     * @param name the task name
+     * @return what the task loaded, or null if it failed
+     */
+    Object get(String name) {
+        return results.get(name);
+    }
+
+    /**
+     * @return the loaded users, or null if they could not be loaded
+     */
+    @SuppressWarnings("unchecked")
+    public ArrayList<User> getUsers() {
+        return (ArrayList<User>) results.get(USERS);
+    }
+
+    /**
+     * @return the course list, or null if it could not be loaded
+     */
+    public CourseList getCourseList() {
+        return (CourseList) results.get(COURSES);
+    }
+
+    /**
+     * @return the loaded languages, or null if they could not be loaded
+     */
+    @SuppressWarnings("unchecked")
+    public ArrayList<Language> getLanguages() {
+        return (ArrayList<Language>) results.get(LANGUAGES);
+    }
+
+    /**
+     * @return the loaded words, or null if they could not be loaded
+     */
+    public WordsList getWordsList() {
+        return (WordsList) results.get(WORDS);
+    }
+
+    /**
+     * @return the loaded phrases, or null if they could not be loaded
+     */
+    public PhraseList getPhraseList() {
+        return (PhraseList) results.get(PHRASES);
+    }
+
+    /**
+     * Returns how long each file took to load, in milliseconds.
+     * @return the timings by task name, in load order
+     */
+    public Map<String, Long> getTimings() {
+        return Collections.unmodifiableMap(timings);
+    }
+
+    /**
+     * Returns how long the whole start-up load took, in milliseconds, from submitting the first file to the last one finishing.
+     * @return the wall-clock time of the load
+     */
+    public long getTotalMillis() {
+        return totalMillis;
+    }
+
+    /**
+     * Formats the timings as one line, for example "users 120 ms, courses 40 ms (total 125 ms)".
+     * @return the formatted timings
+     */
+    public String formatTimings() {
+        StringBuilder line = new StringBuilder();
+        for (Map.Entry<String, Long> timing : timings.entrySet()) {
+            if (line.length() > 0) {
+                line.append(", ");
+            }
+            line.append(timing.getKey()).append(' ').append(timing.getValue()).append(" ms");
+        }
+        return line.append(" (total ").append(totalMillis).append(" ms)").toString();
+    }
+}
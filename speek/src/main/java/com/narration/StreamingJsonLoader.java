@@ -0,0 +1,308 @@
+/**
+ * Streams users out of the users JSON file with Jackson's token parser, building each User (with its courses, lessons and progress)
+ * as the file is read so the whole JSON tree never has to sit in memory next to the finished objects.
+ * @author Four Musketeers
+ */
+package com.narration;
+
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+public class StreamingJsonLoader {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private StreamingJsonLoader() {
+    }
+
+    /**
+     * Reads every user in the file and hands each one to the callback as soon as it is built.
+     * @param filePath the path of the users JSON file
+     * @param callback receives each loaded user in file order
+     * @throws IOException if the file cannot be read or is not a JSON array of users
+     */
+    public static void forEachUser(String filePath, Consumer<User> callback) throws IOException {
+        try (InputStream in = new BufferedInputStream(new FileInputStream(filePath));
+             JsonParser parser = JSON_FACTORY.createParser(in)) {
+            expectArrayStart(parser);
+            User user;
+            while ((user = nextUser(parser)) != null) {
+                callback.accept(user);
+            }
+        }
+    }
+
+    /**
+     * Opens a lazy stream of users backed by the file. The file stays open until the stream is closed,
+     * so callers should use it in a try-with-resources block.
+     * @param filePath the path of the users JSON file
+     * @return a sequential stream of users in file order
+     * @throws IOException if the file cannot be opened or does not start with a JSON array
+     */
+    public static Stream<User> streamUsers(String filePath) throws IOException {
+        InputStream in = new BufferedInputStream(new FileInputStream(filePath));
+        JsonParser parser;
+        try {
+            parser = JSON_FACTORY.createParser(in);
+            expectArrayStart(parser);
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+
+        Spliterator<User> spliterator = new Spliterators.AbstractSpliterator<User>(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super User> action) {
+                try {
+                    User user = nextUser(parser);
+                    if (user == null) {
+                        return false;
+                    }
+                    action.accept(user);
+                    return true;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+
+        return StreamSupport.stream(spliterator, false).onClose(() -> {
+            try {
+                parser.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private static void expectArrayStart(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_ARRAY) {
+            throw new IOException("Expected a JSON array of users");
+        }
+    }
+
+    /**
+     * Reads the next user object from the array, or returns null at the end of the array.
+     */
+    private static User nextUser(JsonParser parser) throws IOException {
+        JsonToken token = parser.nextToken();
+        if (token == null || token == JsonToken.END_ARRAY) {
+            return null;
+        }
+        if (token != JsonToken.START_OBJECT) {
+            throw new IOException("Expected a user object but found " + token);
+        }
+
+        UUID id = null;
+        String username = null;
+        String email = null;
+        String password = null;
+        ArrayList<Course> courses = new ArrayList<>();
+        Map<UUID, Map<UUID, Double>> lessonProgress = new HashMap<>();
+        HashMap<UUID, Double> progress = new HashMap<>();
+        ArrayList<UUID> completedCourses = new ArrayList<>();
+        UUID currentCourseID = null;
+        UUID currentLanguageID = null;
+        String currentLanguageName = null;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "userId":
+                    id = DataLoader.parseUUID(parser.getValueAsString(), "userID");
+                    break;
+                case "username":
+                    username = parser.getValueAsString();
+                    break;
+                case "email":
+                    email = parser.getValueAsString();
+                    break;
+                case "password":
+                    password = parser.getValueAsString();
+                    break;
+                case "courses":
+                    if (value == JsonToken.START_ARRAY) {
+                        while (parser.nextToken() == JsonToken.START_OBJECT) {
+                            courses.add(readCourse(parser, lessonProgress));
+                        }
+                    } else {
+                        parser.skipChildren();
+                    }
+                    break;
+                case "progress":
+                    if (value == JsonToken.START_OBJECT) {
+                        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                            UUID courseId = DataLoader.parseUUID(parser.getCurrentName(), "progress");
+                            parser.nextToken();
+                            progress.put(courseId, parser.getValueAsDouble());
+                        }
+                    } else {
+                        parser.skipChildren();
+                    }
+                    break;
+                case "completedCourses":
+                    if (value == JsonToken.START_ARRAY) {
+                        while (parser.nextToken() != JsonToken.END_ARRAY) {
+                            completedCourses.add(DataLoader.parseUUID(parser.getValueAsString(), "completedCourses"));
+                        }
+                    } else {
+                        parser.skipChildren();
+                    }
+                    break;
+                case "currentCourseID":
+                    currentCourseID = DataLoader.parseUUID(parser.getValueAsString(), "currentCourseID");
+                    break;
+                case "currentLanguageID":
+                    currentLanguageID = DataLoader.parseUUID(parser.getValueAsString(), "currentLanguageID");
+                    break;
+                case "currentLanguageName":
+                    currentLanguageName = parser.getValueAsString();
+                    break;
+                default:
+                    parser.skipChildren();
+                    break;
+            }
+        }
+
+        User user = new User(id, username, email, password, courses, progress, completedCourses, currentCourseID, new ArrayList<>(), currentLanguageID, currentLanguageName);
+        for (Map.Entry<UUID, Map<UUID, Double>> course : lessonProgress.entrySet()) {
+            for (Map.Entry<UUID, Double> lesson : course.getValue().entrySet()) {
+                user.updateLessonProgress(course.getKey(), lesson.getKey(), lesson.getValue());
+            }
+        }
+        user.markSaved(user.getVersion());
+        return user;
+    }
+
+    /**
+     * Reads one course object embedded in a user record; the parser is positioned on its START_OBJECT.
+     * The user's lesson progress in the course, if recorded, is added to lessonProgress under the course ID.
+     */
+    private static Course readCourse(JsonParser parser, Map<UUID, Map<UUID, Double>> lessonProgress) throws IOException {
+        UUID courseId = null;
+        String name = null;
+        String description = null;
+        boolean userAccess = false;
+        double courseProgress = 0.0;
+        boolean completed = false;
+        ArrayList<Lesson> lessons = new ArrayList<>();
+        Map<UUID, Double> userLessonProgress = new HashMap<>();
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "courseID":
+                    courseId = DataLoader.parseUUID(parser.getValueAsString(), "courseID");
+                    break;
+                case "name":
+                    name = parser.getValueAsString();
+                    break;
+                case "description":
+                    description = parser.getValueAsString();
+                    break;
+                case "userAccess":
+                    userAccess = true;
+                    break;
+                case "courseProgress":
+                    courseProgress = parser.getValueAsDouble();
+                    break;
+                case "completed":
+                    completed = true;
+                    break;
+                case "lessons":
+                    if (value == JsonToken.START_ARRAY) {
+                        while (parser.nextToken() == JsonToken.START_OBJECT) {
+                            lessons.add(readLesson(parser));
+                        }
+                    } else {
+                        parser.skipChildren();
+                    }
+                    break;
+                case "lessonProgress":
+                    if (value == JsonToken.START_OBJECT) {
+                        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                            UUID lessonId = DataLoader.parseUUID(parser.getCurrentName(), "lessonProgress");
+                            parser.nextToken();
+                            userLessonProgress.put(lessonId, parser.getValueAsDouble());
+                        }
+                    } else {
+                        parser.skipChildren();
+                    }
+                    break;
+                default:
+                    parser.skipChildren();
+                    break;
+            }
+        }
+        if (courseId != null && !userLessonProgress.isEmpty()) {
+            lessonProgress.put(courseId, userLessonProgress);
+        }
+
+        FlashcardQuestion flashcard = new FlashcardQuestion("Default Question", "Default Answer");
+        Course course = new Course(courseId, name, description, userAccess, courseProgress, completed, lessons, new ArrayList<>(), new ArrayList<>(), flashcard);
+        course.markSaved(course.getVersion());
+        return course;
+    }
+
+    /**
+     * Reads one lesson object; the parser is positioned on its START_OBJECT.
+     */
+    private static Lesson readLesson(JsonParser parser) throws IOException {
+        String lessonName = null;
+        UUID lessonId = null;
+        String description = null;
+        double lessonProgress = 0.0;
+        String englishContent = null;
+        String spanishContent = null;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            parser.nextToken();
+            switch (field) {
+                case "lessonName":
+                    lessonName = parser.getValueAsString();
+                    break;
+                case "lessonID":
+                    lessonId = DataLoader.parseUUID(parser.getValueAsString(), "lessonID");
+                    break;
+                case "description":
+                    description = parser.getValueAsString();
+                    break;
+                case "lessonProgress":
+                    lessonProgress = parser.getValueAsDouble();
+                    break;
+                case "englishContent":
+                    englishContent = parser.getValueAsString();
+                    break;
+                case "spanishContent":
+                    spanishContent = parser.getValueAsString();
+                    break;
+                default:
+                    parser.skipChildren();
+                    break;
+            }
+        }
+
+        Lesson lesson = new Lesson(lessonName, lessonId, description, lessonProgress, englishContent, spanishContent);
+        lesson.markSaved(lesson.getVersion());
+        return lesson;
+    }
+}
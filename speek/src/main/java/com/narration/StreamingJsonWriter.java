@@ -0,0 +1,114 @@
+/**
+ * Writes users to JSON one record at a time through Jackson's generator, so saving never holds more than the
+ * current user in serialized form instead of a full JSON tree plus its string copy.
+ * @author Four Musketeers
+ */
+package com.narration;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.UUID;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+public class StreamingJsonWriter {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private StreamingJsonWriter() {
+    }
+
+    /**
+     * Replaces a file with the users through AtomicFileWriter, committing before returning, so a failed write
+     * leaves the old file in place.
+     * @param filePath the path of the users JSON file
+     * @param users the users to write, in order
+     * @throws IOException if the file cannot be written
+     */
+    public static void writeUsers(String filePath, Iterable<User> users) throws IOException {
+        AtomicFileWriter.writeNow(filePath, out -> writeUsers(out, users));
+    }
+
+    /**
+     * Writes the users as a JSON array to the stream. The stream is flushed but left open.
+     * @param out the stream to write to
+     * @param users the users to write, in order
+     * @throws IOException if writing fails
+     */
+    public static void writeUsers(OutputStream out, Iterable<User> users) throws IOException {
+        try (JsonGenerator generator = JSON_FACTORY.createGenerator(out, JsonEncoding.UTF8)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartArray();
+            for (User user : users) {
+                writeUser(generator, user);
+            }
+            generator.writeEndArray();
+        }
+    }
+
+    /**
+     * Writes a single user object in the same layout StreamingJsonLoader reads back.
+     */
+    private static void writeUser(JsonGenerator generator, User user) throws IOException {
+        generator.writeStartObject();
+        writeUUIDField(generator, "userId", user.getId());
+        generator.writeStringField("username", user.getUsername());
+        generator.writeStringField("email", user.getEmail());
+        generator.writeStringField("password", user.getPassword());
+
+        generator.writeArrayFieldStart("courses");
+        for (Course course : user.getCourses()) {
+            generator.writeStartObject();
+            writeUUIDField(generator, "courseID", course.getId());
+            Enrollment enrollment = user.getEnrollment(course.getId());
+            if (enrollment != null) {
+                if (enrollment.getUserAccess()) {
+                    generator.writeBooleanField("userAccess", true);
+                }
+                if (!enrollment.getAllLessonProgress().isEmpty()) {
+                    generator.writeObjectFieldStart("lessonProgress");
+                    for (Map.Entry<UUID, Double> entry : enrollment.getAllLessonProgress().entrySet()) {
+                        generator.writeNumberField(String.valueOf(entry.getKey()), entry.getValue() == null ? 0.0 : entry.getValue());
+                    }
+                    generator.writeEndObject();
+                }
+            }
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+
+        generator.writeObjectFieldStart("progress");
+        for (Map.Entry<UUID, Double> entry : user.getProgress().entrySet()) {
+            generator.writeNumberField(String.valueOf(entry.getKey()), entry.getValue() == null ? 0.0 : entry.getValue());
+        }
+        generator.writeEndObject();
+
+        generator.writeArrayFieldStart("completedCourses");
+        for (UUID courseId : user.getCompletedCourses()) {
+            generator.writeString(String.valueOf(courseId));
+        }
+        generator.writeEndArray();
+
+        generator.writeArrayFieldStart("languages");
+        for (Language language : user.getLanguages()) {
+            generator.writeString(language.getName());
+        }
+        generator.writeEndArray();
+
+        writeUUIDField(generator, "currentCourseID", user.getCurrentCourse());
+        writeUUIDField(generator, "currentLanguageID", user.getCurrentLanguage());
+        generator.writeStringField("currentLanguageName", user.getCurrentLanguageName());
+        generator.writeEndObject();
+    }
+
+    private static void writeUUIDField(JsonGenerator generator, String field, UUID value) throws IOException {
+        if (value == null) {
+            generator.writeNullField(field);
+        } else {
+            generator.writeStringField(field, value.toString());
+        }
+    }
+}
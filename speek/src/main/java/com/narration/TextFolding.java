@@ -0,0 +1,77 @@
+/**
+ * Folds text for searching and matching: accents are stripped and case is lowered, so "adios" matches "Adiós"
+ * and "NINO" matches "niño". Also splits text into folded words for the search indexes.
+ * @author Four Musketeers
+ */
+package com.narration;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Locale;
+
+public class TextFolding {
+
+    private TextFolding() {
+    }
+
+    /**
+     * Removes accents and lowers the case of the text.
+     * @param text the text to fold
+     * @return the folded text, or null if the text is null
+     */
+    public static String fold(String text) {
+        if (text == null) {
+            return null;
+        }
+        if (isAscii(text)) {
+            return text.toLowerCase(Locale.ROOT);
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        StringBuilder folded = new StringBuilder(decomposed.length());
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) != Character.NON_SPACING_MARK) {
+                folded.append(c);
+            }
+        }
+        return folded.toString().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Splits the text into folded words. Anything that is not a letter or digit separates words,
+     * so punctuation such as "¿" and "!" is dropped.
+     * @param text the text to split
+     * @return the folded words in order, empty if the text is null
+     */
+    public static ArrayList<String> words(String text) {
+        ArrayList<String> words = new ArrayList<>();
+        if (text == null) {
+            return words;
+        }
+        String folded = fold(text);
+        int start = -1;
+        for (int i = 0; i < folded.length(); i++) {
+            if (Character.isLetterOrDigit(folded.charAt(i))) {
+                if (start < 0) {
+                    start = i;
+                }
+            } else if (start >= 0) {
+                words.add(folded.substring(start, i));
+                start = -1;
+            }
+        }
+        if (start >= 0) {
+            words.add(folded.substring(start));
+        }
+        return words;
+    }
+
+    private static boolean isAscii(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
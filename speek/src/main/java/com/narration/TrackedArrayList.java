@@ -0,0 +1,29 @@
+/**
+ * An ArrayList that exposes how many times it was structurally modified, so holders of an index over it can tell
+ * in constant time whether anyone added, removed or cleared elements since the index was built.
+ * @author Four Musketeers
+ */
+package com.narration;
+
+import java.util.ArrayList;
+import java.util.Collection;
+
+class TrackedArrayList<E> extends ArrayList<E> {
+
+    private static final long serialVersionUID = 1L;
+
+    TrackedArrayList() {
+    }
+
+    TrackedArrayList(Collection<? extends E> elements) {
+        super(elements);
+    }
+
+    /**
+     * Returns the number of structural modifications so far. Replacing an element with set does not count.
+     * @return the modification count
+     */
+    int modifications() {
+        return modCount;
+    }
+}
@@ -5,25 +5,36 @@
 package com.narration;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Map;
 import java.util.UUID;
 
 public class User {
 
     private final UUID id;
-    private String username;
-    private String email;
+    private volatile String username;
+    private volatile String email;
     private String password;
     private final ArrayList<Course> courses;
+    private final HashMap<UUID, Enrollment> enrollments;
     private HashMap<UUID, Double> progress;
     private final ArrayList<UUID> completedCourses;
     private UUID currentCourseID;
     private final ArrayList<Language> languages;
     private UUID currentLanguageID;
     private String currentLanguageName;
+    private long version = 1;
+    private long savedVersion;
+    private long unjournaledVersion;
+    private volatile UserList userList;
 
     /**
      * Constructs a User with the specified attributes.
+     * The user's own access, course progress, completion and lesson progress are taken from the given courses, which are
+     * then replaced by the shared instances from CourseCatalog, so users enrolled in the same course do not each hold a copy.
+     * A course the catalog does not know yet stays the user's own copy until CourseList publishes it; a copy read from
+     * a user record carries that user's state, so it is never made the shared instance.
      *
      * @param id                unique identifier for the user
      * @param username          username of the user
@@ -45,12 +56,44 @@ public class User {
         this.email = email;
         this.password = password;
         this.courses = courses;
+        this.enrollments = new HashMap<>();
         this.progress = progress;
         this.completedCourses = completedCourses;
         this.currentCourseID = currentCourseID;
         this.languages = languages;
         this.currentLanguageID = currentLanguageID;
         this.currentLanguageName = currentLanguageName;
+        for (int i = 0; courses != null && i < courses.size(); i++) {
+            Course course = courses.get(i);
+            if (course != null && course.getId() != null) {
+                enroll(course);
+                Course shared = CourseCatalog.find(course.getId());
+                if (shared != null) {
+                    courses.set(i, shared);
+                }
+            }
+        }
+    }
+
+    /**
+     * Records the user's own state from a course read out of their user record.
+     */
+    private void enroll(Course course) {
+        Enrollment enrollment = enrollments.computeIfAbsent(course.getId(), Enrollment::new);
+        enrollment.setUserAccess(enrollment.getUserAccess() || course.getUserAccess());
+        if (course.getCourseProgress() != 0.0 && progress != null) {
+            progress.putIfAbsent(course.getId(), course.getCourseProgress());
+        }
+        if (course.isCompletedCourse() && completedCourses != null && !completedCourses.contains(course.getId())) {
+            completedCourses.add(course.getId());
+        }
+        if (course.getAllLessons() != null) {
+            for (Lesson lesson : course.getAllLessons()) {
+                if (lesson != null && lesson.getLessonProgress() != 0.0) {
+                    enrollment.setLessonProgress(lesson.getId(), lesson.getLessonProgress());
+                }
+            }
+        }
     }
 
     /**
@@ -85,7 +128,13 @@ public class User {
      * @param username the new username
      */
     public void setUsername(String username) {
+        changed();
+        String oldUsername = this.username;
         this.username = username;
+        UserList list = userList;
+        if (list != null) {
+            list.usernameChanged(this, oldUsername);
+        }
     }
 
     /**
@@ -101,7 +150,13 @@ public class User {
      * @param email the new email
      */
     public void setEmail(String email) {
+        changed();
+        String oldEmail = this.email;
         this.email = email;
+        UserList list = userList;
+        if (list != null) {
+            list.emailChanged(this, oldEmail);
+        }
     }
 
     /**
@@ -117,6 +172,7 @@ public class User {
      * @param password the new password
      */
     public void setPassword(String password) {
+        changed();
         this.password = password;
     }
 
@@ -128,12 +184,89 @@ public class User {
         return courses;
     }
 
+    /**
+     * Replaces each enrolled course with the shared instance CourseCatalog now holds for it, so a reloaded course
+     * reaches this user. Called when courses are published.
+     */
+    void resolveCourses() {
+        for (int i = 0; courses != null && i < courses.size(); i++) {
+            Course course = courses.get(i);
+            Course shared = course == null ? null : CourseCatalog.find(course.getId());
+            if (shared != null && shared != course) {
+                courses.set(i, shared);
+            }
+        }
+    }
+
     /**
      * Adds a course to the user's list of enrolled courses
      * @param course the course to add
      */
     public void addCourse(Course course) {
-        courses.add(course);
+        changed();
+        courses.add(CourseCatalog.intern(course));
+        if (course != null && course.getId() != null) {
+            enrollments.computeIfAbsent(course.getId(), Enrollment::new);
+        }
+    }
+
+    /**
+     * Gets the user's own state in a course, such as access and lesson progress
+     * @param courseId the ID of the course
+     * @return the enrollment, or null if the user is not enrolled in the course
+     */
+    public Enrollment getEnrollment(UUID courseId) {
+        return enrollments.get(courseId);
+    }
+
+    /**
+     * Gets the user's own state in every course they are enrolled in
+     * @return the enrollments by course ID
+     */
+    public Map<UUID, Enrollment> getEnrollments() {
+        return Collections.unmodifiableMap(enrollments);
+    }
+
+    /**
+     * Gives or takes away the user's access to a course, enrolling them in its state if needed
+     * @param courseId   the ID of the course
+     * @param userAccess true to give access
+     */
+    public void setCourseAccess(UUID courseId, boolean userAccess) {
+        changed();
+        enrollments.computeIfAbsent(courseId, Enrollment::new).setUserAccess(userAccess);
+    }
+
+    /**
+     * Checks whether the user has access to a course
+     * @param courseId the ID of the course
+     * @return true if the user has access
+     */
+    public boolean hasCourseAccess(UUID courseId) {
+        Enrollment enrollment = enrollments.get(courseId);
+        return enrollment != null && enrollment.getUserAccess();
+    }
+
+    /**
+     * Updates the user's progress in a lesson of a course
+     * @param courseId    the ID of the course
+     * @param lessonId    the ID of the lesson
+     * @param newProgress the new lesson progress
+     */
+    public void updateLessonProgress(UUID courseId, UUID lessonId, double newProgress) {
+        changed();
+        enrollments.computeIfAbsent(courseId, Enrollment::new).setLessonProgress(lessonId, newProgress);
+    }
+
+    /**
+     * Gets the user's progress in a lesson of a course
+     * @param courseId the ID of the course
+     * @param lessonId the ID of the lesson
+     * @return the lesson progress, or 0.0 if the lesson was not started
+     */
+    public double getLessonProgress(UUID courseId, UUID lessonId) {
+        Enrollment enrollment = enrollments.get(courseId);
+        return enrollment == null ? 0.0 : enrollment.getLessonProgress(lessonId);
     }
 
     /**
@@ -151,7 +284,32 @@ public class User {
      * @param newProgress the new progress value to set
      */
     public void updateCourseProgress(UUID courseId, double newProgress) {
+        version++;
         progress.put(courseId, newProgress);
+        journaled(ProgressJournal.record(ProgressJournal.EventType.PROGRESS, id, courseId, newProgress));
+    }
+
+    /**
+     * Marks a lesson finished for this user and sets their progress in the course to the share of its lessons they
+     * finished, completing the course once all of them are. The shared course and lesson are left unchanged.
+     * @param course the course the lesson belongs to
+     * @param lesson the finished lesson
+     * @return the user's new progress in the course
+     */
+    public double completeLesson(Course course, Lesson lesson) {
+        updateLessonProgress(course.getId(), lesson.getId(), 100.0);
+        int finished = 0;
+        for (Lesson each : course.getAllLessons()) {
+            if (getLessonProgress(course.getId(), each.getId()) >= 100.0) {
+                finished++;
+            }
+        }
+        double courseProgress = 100.0 * finished / course.getAllLessons().size();
+        updateCourseProgress(course.getId(), courseProgress);
+        if (finished == course.getAllLessons().size()) {
+            completeCourse(course.getId());
+        }
+        return courseProgress;
     }
 
     /**
@@ -168,7 +326,9 @@ public class User {
      */
     public void completeCourse(UUID courseId) {
         if (!completedCourses.contains(courseId)) {
+            version++;
             completedCourses.add(courseId);
+            journaled(ProgressJournal.record(ProgressJournal.EventType.COMPLETED, id, courseId, 0.0));
         }
     }
 
@@ -185,6 +345,16 @@ public class User {
      * @param courseId the ID of the course to set as current
      */
     public void setCurrentCourse(UUID courseId) {
+        version++;
+        this.currentCourseID = courseId;
+        journaled(ProgressJournal.record(ProgressJournal.EventType.CURRENT_COURSE, id, courseId, 0.0));
+    }
+
+    /**
+     * Sets the current course while replaying the progress journal, without journaling the change again.
+     * @param courseId the ID of the course to set as current
+     */
+    void restoreCurrentCourse(UUID courseId) {
         this.currentCourseID = courseId;
     }
 
@@ -201,6 +371,7 @@ public class User {
      * @param language the language to add
      */
     public void addLanguage(Language language) {
+        changed();
         languages.add(language);
     }
 
@@ -217,6 +388,7 @@ public class User {
      * @param languageId the ID of the language to set as current
      */
     public void setCurrentLanguage(UUID languageId) {
+        changed();
         this.currentLanguageID = languageId;
     }
 
@@ -233,6 +405,7 @@ public class User {
      * @param languageName the name of the language to set as current
      */
     public void setCurrentLanguageName(String languageName) {
+        changed();
         this.currentLanguageName = languageName;
     }
 
@@ -249,9 +422,82 @@ public class User {
      * @param progress the new progress map
      */
     public void setProgress(HashMap<UUID, Double> progress) {
+        version++;
+        if (progress != null && this.progress != null && progress != this.progress) {
+            // the journal can only set values, so dropped courses need the user saved in full
+            boolean journaled = progress.keySet().containsAll(this.progress.keySet());
+            for (Map.Entry<UUID, Double> entry : progress.entrySet()) {
+                if (entry.getValue() == null) {
+                    journaled = false;
+                } else if (!entry.getValue().equals(this.progress.get(entry.getKey()))) {
+                    journaled &= ProgressJournal.record(ProgressJournal.EventType.PROGRESS, id, entry.getKey(), entry.getValue());
+                }
+            }
+            journaled(journaled);
+        } else if (progress != this.progress) {
+            unjournaledVersion = version;
+        }
         this.progress = progress;
     }
 
+    /**
+     * Sets the user list that indexes this user by username and email, so renaming the user moves its keys there.
+     * @param userList the list holding the user, or null when it was removed
+     */
+    void setUserList(UserList userList) {
+        this.userList = userList;
+    }
+
+    /**
+     * Returns the change counter, which goes up every time a saved field of this user changes.
+     * @return the current version
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Counts a change that the progress journal does not record, so only saving the user keeps it.
+     */
+    private void changed() {
+        version++;
+        unjournaledVersion = version;
+    }
+
+    /**
+     * Follows a change that was offered to the progress journal; if no journal took it, only saving the user keeps it.
+     */
+    private void journaled(boolean recorded) {
+        if (!recorded) {
+            unjournaledVersion = version;
+        }
+    }
+
+    /**
+     * Checks whether the user has changes since it was loaded or last saved that the progress journal did not
+     * record, such as enrollments, lesson progress or a new email.
+     * @return true if only saving the user keeps all of its changes
+     */
+    public boolean hasUnjournaledChanges() {
+        return unjournaledVersion > savedVersion;
+    }
+
+    /**
+     * Checks whether the user changed since it was loaded or last saved.
+     * @return true if the user has unsaved changes
+     */
+    public boolean isDirty() {
+        return version != savedVersion;
+    }
+
+    /**
+     * Records that the user was written as of the given version. Changes made after that version keep it dirty.
+     * @param savedVersion the version that was written, as returned by getVersion before writing
+     */
+    public void markSaved(long savedVersion) {
+        this.savedVersion = savedVersion;
+    }
+
     /**
      * Returns a string representation of the user's profile, including username, email, and current language
      * @return a string representing the user's profile
@@ -1,37 +1,79 @@
 /**
  * Singleton class managing the list of users in the language learning system.
- * Provides methods to add, remove, and retrieve users by username or UUID.
- * The user list is initialized from data loaded by DataLoader.
+ * Provides methods to add, remove, and retrieve users by username, UUID or email.
+ * The user list is backed by the users held in UserStore, and lookups go through concurrent hash indexes over it,
+ * so any number of sessions can look users up at once without taking a lock. Adding, removing or renaming a user only
+ * updates that user's keys. Changes to the list are made under UserStore's lock, the same one its saves and reloads
+ * hold, so a change never races a save of the list. A reload rebuilds the indexes on the reloading thread, and
+ * lookups keep using the old ones until the new ones are published, so a lookup never waits for a rebuild.
  * @author Four Musketeers
  */
 package com.narration;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Locale;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class UserList {
 
     private final ArrayList<User> users;  // List of users in the system
-    public static UserList userList;
+    private final Object lock;
+    private volatile Index index;
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
 
     private UserList() {
-        this.users = DataLoader.getUsers();
+        this(UserStore.getInstance().getUsers(), UserStore.getInstance());
+        UserStore.getInstance().onReplace(this::rebuild);
     }
 
-    public static UserList getInstance() {
-        if (userList == null) {
-            userList = new UserList();
+    /**
+     * Creates a user list over the given users. Changes made to the list directly, such as a reload in UserStore,
+     * are picked up on the next lookup when it is a TrackedArrayList and the change was made holding the lock;
+     * any other list must only be changed through here.
+     * @param users the users to manage
+     * @param lock  the lock held by everything that changes the list
+     */
+    UserList(ArrayList<User> users, Object lock) {
+        this.users = users;
+        this.lock = lock;
+        synchronized (lock) {
+            this.index = build();
         }
-        return userList;
     }
 
     /**
-     * Adds a user to the list.
+     * Creates the single instance the first time it is used; the JVM's class initialization publishes it safely.
+     */
+    private static class Holder {
+        static final UserList INSTANCE = new UserList();
+    }
+
+    public static UserList getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Adds a user to the list. Null and users whose UUID is already in the list are ignored.
      *
      * @param user The user to add.
      */
     public void addUser(User user) {
-        users.add(user);
+        if (user == null) {
+            return;
+        }
+        synchronized (lock) {
+            Index current = currentIndex();
+            if (user.getId() != null && current.byId.containsKey(user.getId())) {
+                return;
+            }
+            users.add(user);
+            current.add(user);
+            user.setUserList(this);
+            current.modifications = modifications();
+        }
     }
 
     /**
@@ -40,22 +82,71 @@ public class UserList {
      * @param userId The UUID of the user to remove.
      */
     public void removeUser(UUID userId) {
-        users.removeIf(user -> user.getId().equals(userId));
+        if (userId == null) {
+            return;
+        }
+        synchronized (lock) {
+            Index current = currentIndex();
+            User[] removed = current.byId.get(userId);
+            if (removed != null && users.removeIf(user -> userId.equals(user.getId()))) {
+                for (User user : removed) {
+                    current.remove(user);
+                    user.setUserList(null);
+                }
+                current.modifications = modifications();
+            }
+        }
+    }
+
+    /**
+     * Moves a user from their old username to their current one. Called by User when the username changes.
+     * @param user        the renamed user
+     * @param oldUsername the username the user was indexed under
+     */
+    void usernameChanged(User user, String oldUsername) {
+        synchronized (lock) {
+            Index current = currentIndex();
+            if (current.holds(user)) {
+                if (oldUsername != null) {
+                    current.byUsername.computeIfPresent(fold(oldUsername), (key, found) -> without(found, user));
+                }
+                if (user.getUsername() != null) {
+                    current.byUsername.compute(fold(user.getUsername()), (key, found) -> with(found, user));
+                }
+            }
+        }
     }
 
     /**
-     * Finds a user by their username.
+     * Moves a user from their old email to their current one. Called by User when the email changes.
+     * @param user     the user whose email changed
+     * @param oldEmail the email the user was indexed under
+     */
+    void emailChanged(User user, String oldEmail) {
+        synchronized (lock) {
+            Index current = currentIndex();
+            if (current.holds(user)) {
+                if (oldEmail != null) {
+                    current.byEmail.computeIfPresent(fold(oldEmail), (key, found) -> without(found, user));
+                }
+                if (user.getEmail() != null) {
+                    current.byEmail.compute(fold(user.getEmail()), (key, found) -> with(found, user));
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds a user by their username, ignoring case.
      *
      * @param username The username to search for.
      * @return The user if found, otherwise null.
      */
     public User getUser(String username) {
-        for (User user : users) {
-            if (user.getUsername().equalsIgnoreCase(username)) {
-                return user;
-            }
+        if (username == null) {
+            return null;
         }
-        return null;
+        return first(index().byUsername.get(fold(username)));
     }
 
     /**
@@ -65,12 +156,126 @@ public class UserList {
      * @return The user if found, otherwise null.
      */
     public User findUserById(UUID userId) {
+        if (userId == null) {
+            return null;
+        }
+        return first(index().byId.get(userId));
+    }
+
+    /**
+     * Finds a user by their email address, ignoring case.
+     *
+     * @param email The email address to search for.
+     * @return The user if found, otherwise null.
+     */
+    public User findUserByEmail(String email) {
+        if (email == null) {
+            return null;
+        }
+        return first(index().byEmail.get(fold(email)));
+    }
+
+    private static String fold(String key) {
+        return key.toLowerCase(Locale.ROOT);
+    }
+
+    private static User first(User[] found) {
+        return found == null ? null : found[0];
+    }
+
+    /**
+     * Returns the users sharing a key with the user added last, or the same array if it is already there.
+     */
+    private static User[] with(User[] found, User user) {
+        if (found == null) {
+            return new User[] {user};
+        }
+        for (User each : found) {
+            if (each == user) {
+                return found;
+            }
+        }
+        User[] updated = Arrays.copyOf(found, found.length + 1);
+        updated[found.length] = user;
+        return updated;
+    }
+
+    /**
+     * Returns the users sharing a key without the given user, or null when none are left.
+     */
+    private static User[] without(User[] found, User user) {
+        int at = -1;
+        for (int i = 0; i < found.length && at < 0; i++) {
+            if (found[i] == user) {
+                at = i;
+            }
+        }
+        if (at < 0) {
+            return found;
+        }
+        if (found.length == 1) {
+            return null;
+        }
+        User[] updated = new User[found.length - 1];
+        System.arraycopy(found, 0, updated, 0, at);
+        System.arraycopy(found, at + 1, updated, at, updated.length - at);
+        return updated;
+    }
+
+    private int modifications() {
+        return users instanceof TrackedArrayList ? ((TrackedArrayList<User>) users).modifications() : 0;
+    }
+
+    /**
+     * Returns the current index without locking. If users were added or removed behind this list's back, the first
+     * reader to notice rebuilds the index; readers arriving meanwhile keep using the current one rather than waiting.
+     */
+    private Index index() {
+        Index current = index;
+        if (current.modifications == modifications() || !rebuilding.compareAndSet(false, true)) {
+            return current;
+        }
+        try {
+            synchronized (lock) {
+                return currentIndex();
+            }
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    /**
+     * Rebuilds the index after UserStore replaced the users. Runs under the lock on the reloading thread.
+     */
+    private void rebuild() {
+        index = build();
+    }
+
+    /**
+     * Returns the index, rebuilding it if the list was changed behind this list's back. The caller holds the lock.
+     */
+    private Index currentIndex() {
+        Index current = index;
+        if (current.modifications != modifications()) {
+            current = build();
+            index = current;
+        }
+        return current;
+    }
+
+    /**
+     * Builds a new index over the users. The caller holds the lock; readers keep using the old index until the new
+     * one is published, so they never see a half-built one.
+     */
+    private Index build() {
+        Index built = new Index(modifications());
         for (User user : users) {
-            if (user.getId().equals(userId)) {
-                return user;
+            if (user != null) {
+                built.add(user);
+                user.setUserList(this);
             }
         }
-        return null;
+        return built;
     }
 
     /**
@@ -88,7 +293,57 @@ public class UserList {
      * @return The total number of users.
      */
     public int getTotalUsers() {
-        return users.size();
+        synchronized (lock) {
+            return users.size();
+        }
     }
 
-}
\ No newline at end of file
+    /**
+     * Hash indexes over the users, plus the list modification count they are current for. Each key maps to the users
+     * holding it in the order they got it, and lookups return the first, so when two users share a key the one
+     * earlier in the list wins, matching the linear scan the indexes replaced.
+     */
+    private static class Index {
+
+        final ConcurrentHashMap<String, User[]> byUsername = new ConcurrentHashMap<>();
+        final ConcurrentHashMap<UUID, User[]> byId = new ConcurrentHashMap<>();
+        final ConcurrentHashMap<String, User[]> byEmail = new ConcurrentHashMap<>();
+        volatile int modifications;
+
+        Index(int modifications) {
+            this.modifications = modifications;
+        }
+
+        /**
+         * Checks whether the user itself, not just another user with its UUID, is indexed.
+         */
+        boolean holds(User user) {
+            User[] found = user.getId() == null ? null : byId.get(user.getId());
+            return found != null && with(found, user) == found;
+        }
+
+        void add(User user) {
+            if (user.getUsername() != null) {
+                byUsername.compute(fold(user.getUsername()), (key, found) -> with(found, user));
+            }
+            if (user.getId() != null) {
+                byId.compute(user.getId(), (key, found) -> with(found, user));
+            }
+            if (user.getEmail() != null) {
+                byEmail.compute(fold(user.getEmail()), (key, found) -> with(found, user));
+            }
+        }
+
+        void remove(User user) {
+            if (user.getUsername() != null) {
+                byUsername.computeIfPresent(fold(user.getUsername()), (key, found) -> without(found, user));
+            }
+            if (user.getId() != null) {
+                byId.computeIfPresent(user.getId(), (key, found) -> without(found, user));
+            }
+            if (user.getEmail() != null) {
+                byEmail.computeIfPresent(fold(user.getEmail()), (key, found) -> without(found, user));
+            }
+        }
+    }
+}
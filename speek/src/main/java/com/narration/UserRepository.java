@@ -0,0 +1,55 @@
+/**
+ * Storage for users, independent of where they are kept. Every operation has a blocking form and a form that runs
+ * on the shared storage executor and returns a CompletableFuture.
+ * @author Four Musketeers
+ */
+package com.narration;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+public interface UserRepository {
+
+    /**
+     * Loads every stored user.
+     * @return the users, in stored order
+     */
+    ArrayList<User> loadUsers();
+
+    /**
+     * Finds one stored user.
+     * @param userId the user's ID
+     * @return the user, or null if there is none with that ID
+     */
+    User findUser(UUID userId);
+
+    /**
+     * Replaces the stored users with the given ones.
+     * @param users all users to store
+     */
+    void saveUsers(List<User> users);
+
+    /**
+     * Stores one user, replacing the stored user with the same ID or adding it.
+     * @param user the user to store
+     */
+    void saveUser(User user);
+
+    default CompletableFuture<ArrayList<User>> loadUsersAsync() {
+        return CompletableFuture.supplyAsync(this::loadUsers, Repositories.executor());
+    }
+
+    default CompletableFuture<User> findUserAsync(UUID userId) {
+        return CompletableFuture.supplyAsync(() -> findUser(userId), Repositories.executor());
+    }
+
+    default CompletableFuture<Void> saveUsersAsync(List<User> users) {
+        return CompletableFuture.runAsync(() -> saveUsers(users), Repositories.executor());
+    }
+
+    default CompletableFuture<Void> saveUserAsync(User user) {
+        return CompletableFuture.runAsync(() -> saveUser(user), Repositories.executor());
+    }
+}
@@ -0,0 +1,322 @@
+/**
+ * Singleton that owns the set of users loaded from the users JSON file (or from the sharded user directory when
+ * one exists). Every part of the system that needs the users reads them from here, and the data is only parsed
+ * again when its modification time and checksum show that it was changed outside this store.
+ * @author Four Musketeers
+ */
+package com.narration;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.zip.CRC32;
+
+public class UserStore {
+
+    private static UserStore userStore;
+
+    private final String filePath;
+    private final String shardDirectory;
+    private final ArrayList<User> users;
+    private boolean loaded;
+    private boolean loadedFromShards;
+    private ShardedUserStorage storage;
+    private long shardFingerprint;
+    private long savedMembership;
+    private long lastModified;
+    private long length;
+    private long checksum;
+    private final ArrayList<Runnable> replaceListeners = new ArrayList<>();
+
+    /**
+     * Creates a store backed by the given users file. Nothing is read until the users are first requested.
+     * @param filePath the path of the users JSON file
+     */
+    UserStore(String filePath) {
+        this(filePath, null);
+    }
+
+    /**
+     * Creates a store that reads the sharded user directory when its manifest exists and the users file otherwise.
+     * @param filePath the path of the users JSON file
+     * @param shardDirectory the sharded user directory, or null to only use the file
+     */
+    UserStore(String filePath, String shardDirectory) {
+        this.filePath = filePath;
+        this.shardDirectory = shardDirectory;
+        this.users = new TrackedArrayList<>();
+    }
+
+    /**
+     * Returns the singleton store for the configured users file.
+     * @return the single instance of UserStore
+     */
+    public static synchronized UserStore getInstance() {
+        if (userStore == null) {
+            userStore = new UserStore(DataConstants.USERS_FILE, DataConstants.USERS_SHARD_DIR);
+        }
+        return userStore;
+    }
+
+    /**
+     * Returns the loaded users, reloading them first if the file changed since it was last read or written here.
+     * The same list instance is returned on every call, so holders of the list see reloads too.
+     * @return the list of users
+     */
+    public synchronized ArrayList<User> getUsers() {
+        refresh();
+        return users;
+    }
+
+    /**
+     * Finds a user by username and password.
+     * @param username the user's username
+     * @param password the user's password
+     * @return true if a user with those credentials exists
+     */
+    public synchronized boolean confirmUser(String username, String password) {
+        for (User user : getUsers()) {
+            if (user.getUsername().equals(username) && user.getPassword().equals(password)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Writes the in-memory users that changed since they were loaded or last saved, and remembers the written
+     * state so this store's own write does not trigger a reload. With the sharded layout only the shards holding
+     * changes are rewritten; with the single file nothing is written when no user changed.
+     */
+    public synchronized void save() {
+        if (ShardedUserStorage.exists(shardDirectory)) {
+            try {
+                ShardedUserStorage shards = storage();
+                shards.saveChanged(users);
+                shardFingerprint = shards.fingerprint();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            return;
+        }
+
+        long membership = membershipOf(users);
+        if (loaded && !loadedFromShards && membership == savedMembership && !anyDirty()) {
+            return;
+        }
+        writeFile(membership);
+    }
+
+    /**
+     * Writes every user, changed or not, so the stored users hold everything the loaded ones reflect, including
+     * progress replayed from the journal. The users are loaded first if they were not yet, and the written state is
+     * remembered so the write does not trigger a reload.
+     * @return true if the users were written
+     */
+    public synchronized boolean saveAll() {
+        refresh();
+        if (ShardedUserStorage.exists(shardDirectory)) {
+            try {
+                ShardedUserStorage shards = storage();
+                shards.saveAll(users);
+                shardFingerprint = shards.fingerprint();
+                return true;
+            } catch (IOException e) {
+                e.printStackTrace();
+                return false;
+            }
+        }
+        return writeFile(membershipOf(users));
+    }
+
+    /**
+     * Writes the users to the single file, marks them saved and remembers the file's new state.
+     */
+    private boolean writeFile(long membership) {
+        long[] versions = new long[users.size()];
+        for (int i = 0; i < versions.length; i++) {
+            versions[i] = users.get(i).getVersion();
+        }
+        if (!DataWriter.saveUsers(users, filePath)) {
+            return false;
+        }
+        try {
+            AtomicFileWriter.commit(Collections.singletonList(filePath));
+        } catch (IOException e) {
+            // the users stay dirty, so the next save writes them again
+            e.printStackTrace();
+            return false;
+        }
+        for (int i = 0; i < versions.length; i++) {
+            users.get(i).markSaved(versions[i]);
+        }
+        savedMembership = membership;
+        loaded = true;
+        loadedFromShards = false;
+        FileState state = readState();
+        if (state != null) {
+            remember(state);
+        }
+        return true;
+    }
+
+    /**
+     * Writes one user. With the sharded layout only that user's shard is rewritten; otherwise the whole file is saved.
+     * @param user the user to save
+     */
+    public synchronized void saveUser(User user) {
+        if (!ShardedUserStorage.exists(shardDirectory)) {
+            save();
+            return;
+        }
+        try {
+            ShardedUserStorage shards = storage();
+            shards.saveUser(user);
+            shardFingerprint = shards.fingerprint();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Registers an action run, under this store's lock, each time the users are replaced by a reload, so views over
+     * the list can catch up on the reloading thread instead of on their next read.
+     * @param listener the action to run after a reload
+     */
+    public synchronized void onReplace(Runnable listener) {
+        replaceListeners.add(listener);
+    }
+
+    /**
+     * Points the loaded users at the shared course instances in CourseCatalog. Users that are not loaded yet pick
+     * them up when they are read.
+     */
+    public synchronized void resolveCourses() {
+        for (User user : users) {
+            user.resolveCourses();
+        }
+    }
+
+    /**
+     * Reloads the users if the file's modification time or size changed and its checksum no longer matches.
+     */
+    private void refresh() {
+        if (ShardedUserStorage.exists(shardDirectory)) {
+            refreshFromShards();
+            return;
+        }
+
+        File file = new File(filePath);
+        if (loaded && !loadedFromShards && file.lastModified() == lastModified && file.length() == length) {
+            return;
+        }
+
+        FileState state = readState();
+        if (loaded && !loadedFromShards && state != null && state.checksum == checksum) {
+            remember(state);
+            return;
+        }
+
+        replaceUsers(DataLoader.getUsers(filePath));
+        loadedFromShards = false;
+        if (state != null) {
+            remember(state);
+        }
+    }
+
+    /**
+     * Reloads the users from the shards if any shard's modification time or size changed.
+     */
+    private void refreshFromShards() {
+        try {
+            long fingerprint = storage().fingerprint();
+            if (loaded && loadedFromShards && fingerprint == shardFingerprint) {
+                return;
+            }
+            storage = ShardedUserStorage.open(shardDirectory);
+            replaceUsers(storage.loadAll());
+            loadedFromShards = true;
+            shardFingerprint = fingerprint;
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void replaceUsers(ArrayList<User> fresh) {
+        ProgressJournal.replayActive(fresh);
+        users.clear();
+        users.addAll(fresh);
+        savedMembership = membershipOf(users);
+        loaded = true;
+        for (Runnable listener : replaceListeners) {
+            listener.run();
+        }
+    }
+
+    private ShardedUserStorage storage() throws IOException {
+        if (storage == null) {
+            storage = ShardedUserStorage.open(shardDirectory);
+        }
+        return storage;
+    }
+
+    private boolean anyDirty() {
+        for (User user : users) {
+            if (user.isDirty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Identifies which user objects the list holds, in order, so adding or removing a user counts as a change.
+     */
+    private static long membershipOf(ArrayList<User> list) {
+        long membership = list.size();
+        for (User user : list) {
+            membership = 31 * membership + System.identityHashCode(user);
+        }
+        return membership;
+    }
+
+    private void remember(FileState state) {
+        lastModified = state.lastModified;
+        length = state.length;
+        checksum = state.checksum;
+    }
+
+    private FileState readState() {
+        File file = new File(filePath);
+        CRC32 crc = new CRC32();
+        try (InputStream in = new BufferedInputStream(new FileInputStream(file))) {
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                crc.update(buffer, 0, read);
+            }
+        } catch (IOException e) {
+            return null;
+        }
+        return new FileState(file.lastModified(), file.length(), crc.getValue());
+    }
+
+    /**
+     * Modification time, size and CRC32 of the users file at one point in time.
+     */
+    private static class FileState {
+        private final long lastModified;
+        private final long length;
+        private final long checksum;
+
+        private FileState(long lastModified, long length, long checksum) {
+            this.lastModified = lastModified;
+            this.length = length;
+            this.checksum = checksum;
+        }
+    }
+}
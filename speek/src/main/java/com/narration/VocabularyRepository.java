@@ -0,0 +1,61 @@
+/**
+ * Storage for the vocabulary: languages, words and phrases, independent of where they are kept. Every operation
+ * has a blocking form and a form that runs on the shared storage executor and returns a CompletableFuture.
+ * @author Four Musketeers
+ */
+package com.narration;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+public interface VocabularyRepository {
+
+    ArrayList<Language> loadLanguages();
+
+    ArrayList<Word> loadWords();
+
+    ArrayList<Phrase> loadPhrases();
+
+    /**
+     * Replaces the stored languages with the given ones.
+     * @param languages all languages to store
+     */
+    void saveLanguages(List<Language> languages);
+
+    /**
+     * Replaces the stored words with the given ones.
+     * @param words all words to store
+     */
+    void saveWords(List<Word> words);
+
+    /**
+     * Replaces the stored phrases with the given ones.
+     * @param phrases all phrases to store
+     */
+    void savePhrases(List<Phrase> phrases);
+
+    default CompletableFuture<ArrayList<Language>> loadLanguagesAsync() {
+        return CompletableFuture.supplyAsync(this::loadLanguages, Repositories.executor());
+    }
+
+    default CompletableFuture<ArrayList<Word>> loadWordsAsync() {
+        return CompletableFuture.supplyAsync(this::loadWords, Repositories.executor());
+    }
+
+    default CompletableFuture<ArrayList<Phrase>> loadPhrasesAsync() {
+        return CompletableFuture.supplyAsync(this::loadPhrases, Repositories.executor());
+    }
+
+    default CompletableFuture<Void> saveLanguagesAsync(List<Language> languages) {
+        return CompletableFuture.runAsync(() -> saveLanguages(languages), Repositories.executor());
+    }
+
+    default CompletableFuture<Void> saveWordsAsync(List<Word> words) {
+        return CompletableFuture.runAsync(() -> saveWords(words), Repositories.executor());
+    }
+
+    default CompletableFuture<Void> savePhrasesAsync(List<Phrase> phrases) {
+        return CompletableFuture.runAsync(() -> savePhrases(phrases), Repositories.executor());
+    }
+}
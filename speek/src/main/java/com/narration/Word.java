@@ -14,7 +14,9 @@ public class Word {
     private String wordText;
     private String definition;
     private final ArrayList<String> translations = new ArrayList<>();
-    private String difficulty;
+    private Difficulty level;
+    private String otherDifficulty;  // the difficulty text, kept only when it is not a Difficulty
+    private WordsList wordsList;
 
     /**
      * Constructs a Word object with specified properties.
@@ -27,7 +29,8 @@ public class Word {
         this.id = UUID.randomUUID();
         this.wordText = wordText;
         this.definition = definition;
-        this.difficulty = difficulty;
+        this.level = Difficulty.fromText(difficulty);
+        this.otherDifficulty = level == null ? difficulty : null;
         this.translation = translation;
     }
 
@@ -107,18 +110,43 @@ public class Word {
 
     /**
      * Gets the difficulty level of the word.
-     * @return the difficulty level
+     * @return the difficulty level as the data files write it, or the text it was given if that is not a difficulty
      */
     public String getDifficulty() {
-        return difficulty;
+        return level != null ? level.toText() : otherDifficulty;
     }
 
     /**
-     * Sets the difficulty level of the word.
+     * Sets the difficulty level of the word. A word list holding the word moves it to its new difficulty.
      * @param difficulty the new difficulty level
      */
     public void setDifficulty(String difficulty) {
-        this.difficulty = difficulty;
+        Difficulty old = level;
+        this.level = Difficulty.fromText(difficulty);
+        this.otherDifficulty = level == null ? difficulty : null;
+        if (wordsList != null && old != level) {
+            wordsList.levelChanged(this);
+        }
+    }
+
+    /**
+     * Gets the difficulty level of the word.
+     * @return the difficulty level, or null if the text it was given is not a difficulty
+     */
+    public Difficulty getLevel() {
+        return level;
+    }
+
+    /**
+     * Sets the list holding the word, which then follows the word's difficulty changes.
+     * @param list the list holding the word, or null when it leaves the list
+     */
+    void setWordsList(WordsList list) {
+        wordsList = list;
+    }
+
+    WordsList getWordsList() {
+        return wordsList;
     }
 
     /**
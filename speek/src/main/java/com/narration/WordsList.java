@@ -1,36 +1,176 @@
 /**
- * A collection of Word objects, providing methods to add, filter, and access words by different criteria
+ * A collection of Word objects, providing methods to add, filter, and access words by different criteria.
+ * Words are indexed by their folded text and bucketed by difficulty as they are added, so removing a word and picking
+ * or listing the words of one difficulty never scan the whole list. Removing a word moves the last word into its
+ * place, so the order of the words changes as words are removed.
+ * A word moves to its new difficulty bucket when its difficulty changes; the text it had when it was added is the one
+ * it stays indexed under.
  * @author Four Musketeers
  */
 package com.narration;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 
 public class WordsList {
-    private final List<Word> words;
+
+    /**
+     * Where a word is stored, and the keys it was indexed under.
+     */
+    private static class Slot {
+
+        final String text;
+        Difficulty level;
+        int index;
+        int levelIndex;
+
+        Slot(String text, Difficulty level) {
+            this.text = text;
+            this.level = level;
+        }
+    }
+
+    private final ArrayList<Word> words;
+    private final IdentityHashMap<Word, Slot> slots = new IdentityHashMap<>();
+    private final HashMap<String, ArrayList<Word>> byText = new HashMap<>();
+    private final EnumMap<Difficulty, ArrayList<Word>> byLevel = new EnumMap<>(Difficulty.class);
 
     /**
      * Constructs an empty WordsList.
      */
     public WordsList() {
         this.words = new ArrayList<>();
+        for (Difficulty level : Difficulty.values()) {
+            byLevel.put(level, new ArrayList<>());
+        }
     }
 
     /**
-     * Adds a word to the list.
+     * Adds a word to the list. Null and a word already in the list are ignored.
      * @param word The word to be added.
      */
     public void addWord(Word word) {
-        this.words.add(word);
+        if (word == null || slots.containsKey(word)) {
+            return;
+        }
+        Slot slot = new Slot(TextFolding.fold(word.getWordText()), word.getLevel());
+        slot.index = words.size();
+        words.add(word);
+        joinLevel(word, slot);
+        byText.computeIfAbsent(slot.text, text -> new ArrayList<>(1)).add(word);
+        slots.put(word, slot);
+        word.setWordsList(this);
+    }
+
+    /**
+     * Moves a word to the bucket of its current difficulty. Called by Word when the difficulty changes.
+     * @param word the word whose difficulty changed
+     */
+    void levelChanged(Word word) {
+        Slot slot = slots.get(word);
+        if (slot == null || slot.level == word.getLevel()) {
+            return;
+        }
+        leaveLevel(word, slot);
+        slot.level = word.getLevel();
+        joinLevel(word, slot);
+    }
+
+    /**
+     * Removes a word from the list.
+     * @param word The word to be removed.
+     * @return true if the word was in the list
+     */
+    public boolean removeWord(Word word) {
+        Slot slot = word == null ? null : slots.get(word);
+        if (slot == null) {
+            return false;
+        }
+        ArrayList<Word> named = byText.get(slot.text);
+        named.remove(word);
+        if (named.isEmpty()) {
+            byText.remove(slot.text);
+        }
+        unlink(word, slot);
+        return true;
+    }
+
+    /**
+     * Removes every word with the given text, ignoring accents and case.
+     * @param wordText The text of the words to be removed.
+     * @return the number of words removed
+     */
+    public int removeWords(String wordText) {
+        ArrayList<Word> named = wordText == null ? null : byText.remove(TextFolding.fold(wordText));
+        if (named == null) {
+            return 0;
+        }
+        for (Word word : named) {
+            unlink(word, slots.get(word));
+        }
+        return named.size();
     }
 
+    /**
+     * Takes a word out of the list and its difficulty bucket, moving the last word of each into its place.
+     */
+    private void unlink(Word word, Slot slot) {
+        slots.remove(word);
+        if (word.getWordsList() == this) {
+            word.setWordsList(null);
+        }
+        Word last = words.remove(words.size() - 1);
+        if (last != word) {
+            words.set(slot.index, last);
+            slots.get(last).index = slot.index;
+        }
+        leaveLevel(word, slot);
+    }
+
+    private void joinLevel(Word word, Slot slot) {
+        if (slot.level != null) {
+            ArrayList<Word> bucket = byLevel.get(slot.level);
+            slot.levelIndex = bucket.size();
+            bucket.add(word);
+        }
+    }
+
+    /**
+     * Takes a word out of its difficulty bucket, moving the bucket's last word into its place.
+     */
+    private void leaveLevel(Word word, Slot slot) {
+        if (slot.level != null) {
+            ArrayList<Word> bucket = byLevel.get(slot.level);
+            Word lastOfLevel = bucket.remove(bucket.size() - 1);
+            if (lastOfLevel != word) {
+                bucket.set(slot.levelIndex, lastOfLevel);
+                slots.get(lastOfLevel).levelIndex = slot.levelIndex;
+            }
+        }
+    }
 
     /**
      * Retrieves a random word from the list.
      * @return A randomly selected word, or null if the list is empty.
      */
     public Word getRandomWord() {
+        return randomWord(words);
+    }
+
+    /**
+     * Retrieves a random word of the given difficulty.
+     * @param difficulty The difficulty of the word.
+     * @return A randomly selected word, or null if the list has no word of that difficulty.
+     */
+    public Word getRandomWord(Difficulty difficulty) {
+        return difficulty == null ? null : randomWord(byLevel.get(difficulty));
+    }
+
+    private static Word randomWord(List<Word> words) {
         if (words.isEmpty()) return null;
         int randomIndex = (int) (Math.random() * words.size());
         return words.get(randomIndex);
@@ -38,9 +178,21 @@ public class WordsList {
 
     /**
      * Provides access to the full list of words.
-     * @return The complete list of words.
+     * @return The complete list of words, which cannot be changed through it.
      */
     public List<Word> getAllWords() {
-        return words;
+        return Collections.unmodifiableList(words);
+    }
+
+    /**
+     * Provides the words of one difficulty.
+     * @param difficulty The difficulty of the words.
+     * @return The words of that difficulty, which cannot be changed through it.
+     */
+    public List<Word> getAllWords(Difficulty difficulty) {
+        if (difficulty == null) {
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableList(byLevel.get(difficulty));
     }
-}
\ No newline at end of file
+}
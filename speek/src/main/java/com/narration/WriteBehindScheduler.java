@@ -0,0 +1,170 @@
+/**
+ * Write-behind saving for the lists that are otherwise written to disk on every change. Callers mark a list dirty
+ * with the action that saves it, and a single background thread runs that action once the delay has passed or once
+ * enough changes have piled up, so a burst of N changes costs one file write instead of N. Anything still dirty is
+ * saved when the JVM shuts down.
+ * @author Four Musketeers
+ */
+package com.narration;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+public class WriteBehindScheduler {
+
+    public static final String USERS = "users";
+    public static final String COURSES = "courses";
+
+    private static WriteBehindScheduler scheduler;
+
+    private final Map<String, Runnable> dirty = new LinkedHashMap<>();
+    private final ScheduledExecutorService executor;
+    private long delayMillis;
+    private int flushThreshold;
+    private int changesSinceFlush;
+    private ScheduledFuture<?> scheduledFlush;
+
+    /**
+     * Creates a scheduler with its own background thread.
+     * @param delayMillis how long a change may wait before it is saved; 0 saves every change right away
+     * @param flushThreshold how many changes trigger a save before the delay has passed
+     */
+    WriteBehindScheduler(long delayMillis, int flushThreshold) {
+        this.delayMillis = Math.max(0, delayMillis);
+        this.flushThreshold = Math.max(1, flushThreshold);
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Runtime.getRuntime().addShutdownHook(new Thread(this::flushAll, "write-behind-shutdown"));
+    }
+
+    /**
+     * Returns the singleton scheduler configured from DataConstants.
+     * @return the single instance of WriteBehindScheduler
+     */
+    public static synchronized WriteBehindScheduler getInstance() {
+        if (scheduler == null) {
+            scheduler = new WriteBehindScheduler(DataConstants.WRITE_BEHIND_DELAY_MS, DataConstants.WRITE_BEHIND_FLUSH_THRESHOLD);
+        }
+        return scheduler;
+    }
+
+    /**
+     * Sets how long a change may wait before it is saved. A delay of 0 saves every change before markDirty returns.
+     * @param delayMillis the delay in milliseconds
+     */
+    public synchronized void setDelayMillis(long delayMillis) {
+        this.delayMillis = Math.max(0, delayMillis);
+    }
+
+    public synchronized long getDelayMillis() {
+        return delayMillis;
+    }
+
+    /**
+     * Sets how many changes trigger a save before the delay has passed.
+     * @param flushThreshold the number of changes
+     */
+    public synchronized void setFlushThreshold(int flushThreshold) {
+        this.flushThreshold = Math.max(1, flushThreshold);
+    }
+
+    public synchronized int getFlushThreshold() {
+        return flushThreshold;
+    }
+
+    /**
+     * Marks a list as changed. The newest save action for a key replaces any earlier one, so the list is saved once
+     * no matter how many times it was marked.
+     * @param key names the list being saved
+     * @param save writes the list to disk
+     */
+    public void markDirty(String key, Runnable save) {
+        boolean saveNow;
+        synchronized (this) {
+            dirty.put(key, save);
+            changesSinceFlush++;
+            saveNow = delayMillis == 0;
+            if (!saveNow && changesSinceFlush >= flushThreshold) {
+                cancelScheduledFlush();
+                scheduledFlush = executor.schedule(this::flushAll, 0, TimeUnit.MILLISECONDS);
+            } else if (!saveNow && scheduledFlush == null) {
+                scheduledFlush = executor.schedule(this::flushAll, delayMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+        if (saveNow) {
+            flush(key);
+        }
+    }
+
+    /**
+     * Checks whether a list has changes that were not saved yet.
+     * @param key names the list
+     * @return true if the list is waiting to be saved
+     */
+    public synchronized boolean isDirty(String key) {
+        return dirty.containsKey(key);
+    }
+
+    /**
+     * Saves one list now if it is dirty.
+     * @param key names the list to save
+     */
+    public void flush(String key) {
+        Runnable save;
+        synchronized (this) {
+            save = dirty.remove(key);
+            if (dirty.isEmpty()) {
+                cancelScheduledFlush();
+                changesSinceFlush = 0;
+            }
+        }
+        run(save);
+    }
+
+    /**
+     * Saves every dirty list now, on the calling thread.
+     */
+    public void flushAll() {
+        List<Runnable> saves;
+        synchronized (this) {
+            saves = new ArrayList<>(dirty.values());
+            dirty.clear();
+            changesSinceFlush = 0;
+            cancelScheduledFlush();
+        }
+        for (Runnable save : saves) {
+            run(save);
+        }
+    }
+
+    private void cancelScheduledFlush() {
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+    }
+
+    /**
+     * Runs a save action outside the scheduler's lock, so a save that takes another lock (such as the user store's)
+     * cannot deadlock against a thread holding that lock while it flushes.
+     */
+    private static void run(Runnable save) {
+        if (save == null) {
+            return;
+        }
+        try {
+            save.run();
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.narration;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test class for the AtomicFileWriter class.
+ */
+public class AtomicFileWriterTest {
+
+    private static final String TEST_DIR = "testData/atomic";
+    private static final String TEST_FILE = TEST_DIR + "/data.json";
+
+    private long originalWindow;
+
+    @Before
+    public void setUp() throws IOException {
+        originalWindow = AtomicFileWriter.getCommitWindowMillis();
+        new File(TEST_DIR).mkdirs();
+        Files.write(Paths.get(TEST_FILE), "old".getBytes(StandardCharsets.UTF_8));
+    }
+
+    @After
+    public void tearDown() {
+        AtomicFileWriter.flushAll();
+        AtomicFileWriter.setCommitWindowMillis(originalWindow);
+        File[] files = new File(TEST_DIR).listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        new File(TEST_DIR).delete();
+    }
+
+    private String read() throws IOException {
+        return new String(Files.readAllBytes(Paths.get(TEST_FILE)), StandardCharsets.UTF_8);
+    }
+
+    private int fileCount() {
+        return new File(TEST_DIR).listFiles().length;
+    }
+
+    @Test
+    public void testWrite_NoWindowReplacesImmediately() throws IOException {
+        AtomicFileWriter.setCommitWindowMillis(0);
+        AtomicFileWriter.write(TEST_FILE, out -> out.write("new".getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals("new", read());
+        assertEquals("temporary files should be renamed away", 1, fileCount());
+    }
+
+    @Test
+    public void testWrite_WindowCoalescesToNewestContent() throws IOException {
+        AtomicFileWriter.setCommitWindowMillis(60_000);
+        for (int i = 0; i < 10; i++) {
+            String content = "version" + i;
+            AtomicFileWriter.write(TEST_FILE, out -> out.write(content.getBytes(StandardCharsets.UTF_8)));
+        }
+
+        assertEquals("old", read());
+        assertEquals("only the newest staged write should be kept", 2, fileCount());
+
+        AtomicFileWriter.flush(TEST_FILE);
+        assertEquals("version9", read());
+        assertEquals(1, fileCount());
+    }
+
+    @Test
+    public void testWriteNow_CommitsDespiteWindow() throws IOException {
+        AtomicFileWriter.setCommitWindowMillis(60_000);
+        AtomicFileWriter.writeNow(TEST_FILE, out -> out.write("now".getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals("now", read());
+    }
+
+    @Test
+    public void testWrite_FailedBodyKeepsOldFile() {
+        AtomicFileWriter.setCommitWindowMillis(0);
+        try {
+            AtomicFileWriter.write(TEST_FILE, out -> {
+                out.write("partial".getBytes(StandardCharsets.UTF_8));
+                throw new IOException("disk full");
+            });
+        } catch (IOException e) {
+            assertEquals("disk full", e.getMessage());
+        }
+
+        try {
+            assertEquals("old", read());
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+        assertEquals(1, fileCount());
+    }
+
+    @Test
+    public void testCommit_ReportsFailedRename() throws IOException {
+        AtomicFileWriter.setCommitWindowMillis(60_000);
+        File blocked = new File(TEST_DIR, "blocked");
+        blocked.mkdirs();
+        File inside = new File(blocked, "keep.json");
+        Files.write(inside.toPath(), "keep".getBytes(StandardCharsets.UTF_8));
+        try {
+            AtomicFileWriter.write(TEST_FILE, out -> out.write("new".getBytes(StandardCharsets.UTF_8)));
+            AtomicFileWriter.write(blocked.getPath(), out -> out.write("new".getBytes(StandardCharsets.UTF_8)));
+            try {
+                AtomicFileWriter.commit(Arrays.asList(TEST_FILE, blocked.getPath()));
+                fail("a file cannot replace a directory that is not empty");
+            } catch (IOException e) {
+                // expected
+            }
+            assertEquals("new", read());
+            assertTrue(blocked.isDirectory());
+            assertEquals(2, fileCount());
+        } finally {
+            inside.delete();
+            blocked.delete();
+        }
+    }
+
+    @Test
+    public void testWrite_KeepsPermissions() throws IOException {
+        Path target = Paths.get(TEST_FILE);
+        Set<PosixFilePermission> permissions = PosixFilePermissions.fromString("rw-r--r--");
+        try {
+            Files.setPosixFilePermissions(target, permissions);
+        } catch (UnsupportedOperationException e) {
+            return;
+        }
+        AtomicFileWriter.writeNow(TEST_FILE, out -> out.write("new".getBytes(StandardCharsets.UTF_8)));
+        assertEquals("new", read());
+        assertEquals(permissions, Files.getPosixFilePermissions(target));
+    }
+
+    @Test
+    public void testFlush_NothingPending() throws IOException {
+        AtomicFileWriter.flush(TEST_FILE);
+        assertEquals("old", read());
+        assertFalse(new File(TEST_DIR, "missing.json").exists());
+        assertTrue(new File(TEST_FILE).exists());
+    }
+
+    @Test
+    public void testWrite_ConcurrentWritesCommitInStagingOrder() throws Exception {
+        AtomicFileWriter.setCommitWindowMillis(60_000);
+        CountDownLatch staging = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread slow = new Thread(() -> {
+            try {
+                AtomicFileWriter.write(TEST_FILE, out -> {
+                    staging.countDown();
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    out.write("first".getBytes(StandardCharsets.UTF_8));
+                });
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        });
+        slow.start();
+        staging.await();
+
+        // the second write starts while the first is still producing its body, so it has to wait for it
+        Thread fast = new Thread(() -> {
+            try {
+                AtomicFileWriter.write(TEST_FILE, out -> out.write("second".getBytes(StandardCharsets.UTF_8)));
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        });
+        fast.start();
+        while (fast.getState() != Thread.State.BLOCKED && fast.getState() != Thread.State.TERMINATED) {
+            Thread.sleep(1);
+        }
+        release.countDown();
+        slow.join();
+        fast.join();
+
+        AtomicFileWriter.flush(TEST_FILE);
+        assertEquals("second", read());
+        assertEquals(1, fileCount());
+    }
+}
@@ -0,0 +1,188 @@
+package com.narration;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test class for the BinarySnapshot class.
+ */
+public class BinarySnapshotTest {
+
+    private static final String TEST_DIR = "testData/snapshot";
+    private static final String SNAPSHOT_FILE = TEST_DIR + "/data.snapshot";
+    private static final String USERS_FILE = TEST_DIR + "/User.json";
+    private static final String COURSES_FILE = TEST_DIR + "/Courses.json";
+    private static final String LANGUAGES_FILE = TEST_DIR + "/Languages.json";
+    private static final String WORDS_FILE = TEST_DIR + "/words.json";
+    private static final String PHRASES_FILE = TEST_DIR + "/phrases.json";
+
+    private UUID userId;
+    private UUID courseId;
+    private UUID lessonId;
+
+    @Before
+    public void setUp() throws IOException {
+        deleteTestDirectory();
+        new File(TEST_DIR).mkdirs();
+        userId = UUID.randomUUID();
+        courseId = UUID.randomUUID();
+
+        ArrayList<User> users = new ArrayList<>();
+        User user = new User(userId, "jennyJ", "jenny@gmail.com", "password");
+        user.updateCourseProgress(courseId, 40.0);
+        user.completeCourse(courseId);
+        user.setCurrentCourse(courseId);
+        user.addCourse(new Course(courseId, "Spanish 101", "Basics", false, 0.0, false, new ArrayList<>(),
+                new ArrayList<>(), new ArrayList<>(), null));
+        user.setCourseAccess(courseId, true);
+        lessonId = UUID.randomUUID();
+        user.updateLessonProgress(courseId, lessonId, 20.0);
+        users.add(user);
+        users.add(new User(UUID.randomUUID(), "señor", "senor@example.com", "password"));
+        StreamingJsonWriter.writeUsers(USERS_FILE, users);
+
+        write(COURSES_FILE, "[{\"courseID\":\"" + courseId + "\",\"name\":\"Spanish 101\",\"description\":\"Basics\","
+                + "\"userAccess\":true,\"completed\":false,\"courseProgress\":25.0,\"lessons\":[{\"lessonName\":\"Greetings\","
+                + "\"lessonID\":\"" + UUID.randomUUID() + "\",\"description\":\"Saying hello\",\"lessonProgress\":50.0,"
+                + "\"englishContent\":\"Hello\",\"spanishContent\":\"Hola\"}]}]");
+        write(LANGUAGES_FILE, "[{\"languageID\":\"" + UUID.randomUUID() + "\",\"name\":\"Spanish\"}]");
+        write(WORDS_FILE, "[{\"difficulty\":\"Rudimentary\",\"translation\":\"Hello\",\"definition\":\"Hello\",\"word\":\"Hola\"},"
+                + "{\"difficulty\":\"Rudimentary\",\"translation\":\"Goodbye\",\"definition\":\"Goodbye\",\"word\":\"Adiós\"}]");
+        write(PHRASES_FILE, "[{\"phrase\":\"Buenos días\",\"definition\":\"Good morning\"}]");
+
+        BinarySnapshot.compile(SNAPSHOT_FILE, USERS_FILE, COURSES_FILE, LANGUAGES_FILE, WORDS_FILE, PHRASES_FILE);
+    }
+
+    @After
+    public void tearDown() {
+        deleteTestDirectory();
+    }
+
+    private static void write(String path, String content) throws IOException {
+        Files.write(Paths.get(path), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void deleteTestDirectory() {
+        File directory = new File(TEST_DIR);
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    @Test
+    public void testReadUsers_MatchesJson() {
+        ArrayList<User> users = BinarySnapshot.open(SNAPSHOT_FILE).readUsers(USERS_FILE);
+
+        assertEquals(2, users.size());
+        User user = users.get(0);
+        assertEquals(userId, user.getId());
+        assertEquals("jennyJ", user.getUsername());
+        assertEquals(40.0, user.getCourseProgress(courseId), 0.01);
+        assertEquals(courseId, user.getCompletedCourses().get(0));
+        assertEquals(courseId, user.getCurrentCourse());
+        assertNull(user.getCurrentLanguage());
+        assertEquals("señor", users.get(1).getUsername());
+        assertTrue(user.hasCourseAccess(courseId));
+        assertEquals(20.0, user.getLessonProgress(courseId, lessonId), 0.01);
+        assertFalse(user.isDirty());
+    }
+
+    @Test
+    public void testReadUsers_ShareCatalogCourses() {
+        ArrayList<User> first = BinarySnapshot.open(SNAPSHOT_FILE).readUsers(USERS_FILE);
+        ArrayList<User> second = BinarySnapshot.open(SNAPSHOT_FILE).readUsers(USERS_FILE);
+
+        assertSame(CourseCatalog.find(courseId), first.get(0).getCourses().get(0));
+        assertSame(first.get(0).getCourses().get(0), second.get(0).getCourses().get(0));
+        assertNotSame(first.get(0).getEnrollment(courseId), second.get(0).getEnrollment(courseId));
+    }
+
+    @Test
+    public void testReadCourses_MatchesJson() {
+        ArrayList<Course> courses = BinarySnapshot.open(SNAPSHOT_FILE).readCourses(COURSES_FILE);
+
+        assertEquals(1, courses.size());
+        Course course = courses.get(0);
+        assertEquals(courseId, course.getId());
+        assertEquals("Spanish 101", course.getName());
+        assertEquals(25.0, course.getCourseProgress(), 0.01);
+        assertEquals(1, course.getAllLessons().size());
+        assertEquals("Hola", course.getAllLessons().get(0).getSpanishContent());
+    }
+
+    @Test
+    public void testReadVocabulary_MatchesJson() {
+        BinarySnapshot snapshot = BinarySnapshot.open(SNAPSHOT_FILE);
+
+        assertEquals("Spanish", snapshot.readLanguages(LANGUAGES_FILE).get(0).getName());
+        ArrayList<Word> words = snapshot.readWords(WORDS_FILE);
+        assertEquals(2, words.size());
+        assertEquals("Adiós", words.get(1).getWordText());
+        assertEquals("Goodbye", words.get(1).getTranslation());
+        assertEquals("Good morning", snapshot.readPhrases(PHRASES_FILE).get(0).getDefinition());
+    }
+
+    @Test
+    public void testChangedSource_OnlyThatSectionIsStale() throws IOException {
+        write(PHRASES_FILE, "[]");
+        new File(PHRASES_FILE).setLastModified(System.currentTimeMillis() + 5000);
+
+        BinarySnapshot snapshot = BinarySnapshot.open(SNAPSHOT_FILE);
+        assertNull(snapshot.readPhrases(PHRASES_FILE));
+        assertNotNull(snapshot.readWords(WORDS_FILE));
+    }
+
+    @Test
+    public void testOtherSourcePath_IsStale() {
+        assertNull(BinarySnapshot.open(SNAPSHOT_FILE).readUsers("testData/User.json"));
+    }
+
+    @Test
+    public void testOpen_RejectsOtherFiles() {
+        assertNull(BinarySnapshot.open(USERS_FILE));
+        assertNull(BinarySnapshot.open(TEST_DIR + "/missing.snapshot"));
+    }
+
+    @Test
+    public void testDataLoader_PrefersFreshSnapshot() throws IOException {
+        // Blank the JSON without changing its size or timestamp, so only the snapshot still has the users
+        File usersFile = new File(USERS_FILE);
+        long modified = usersFile.lastModified();
+        StringBuilder blank = new StringBuilder("[]");
+        while (blank.length() < usersFile.length()) {
+            blank.append(' ');
+        }
+        write(USERS_FILE, blank.toString());
+        usersFile.setLastModified(modified);
+
+        String originalSnapshot = DataLoader.SNAPSHOT_FILE;
+        DataLoader.SNAPSHOT_FILE = SNAPSHOT_FILE;
+        try {
+            ArrayList<User> users = DataLoader.getUsers(USERS_FILE);
+            assertEquals(2, users.size());
+            assertEquals("jennyJ", users.get(0).getUsername());
+        } finally {
+            DataLoader.SNAPSHOT_FILE = originalSnapshot;
+        }
+    }
+}
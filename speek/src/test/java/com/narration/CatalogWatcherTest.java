@@ -0,0 +1,146 @@
+package com.narration;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test class for the CatalogWatcher class.
+ */
+public class CatalogWatcherTest {
+
+    private static final String TEST_DIR = "testData/watcher";
+    private static final String COURSES_FILE = TEST_DIR + "/Courses.json";
+    private static final String WORDS_FILE = TEST_DIR + "/words.json";
+
+    private CatalogWatcher watcher;
+
+    @Before
+    public void setUp() throws IOException {
+        deleteTestDirectory();
+        new File(TEST_DIR).mkdirs();
+        write(COURSES_FILE, "[]");
+        write(WORDS_FILE, "[]");
+        watcher = new CatalogWatcher(100);
+    }
+
+    @After
+    public void tearDown() {
+        watcher.close();
+        deleteTestDirectory();
+    }
+
+    private static void write(String path, String content) throws IOException {
+        Files.write(Paths.get(path), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void deleteTestDirectory() {
+        File directory = new File(TEST_DIR);
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    @Test
+    public void testModifiedFile_IsReloaded() throws Exception {
+        Semaphore reloaded = new Semaphore(0);
+        assertTrue(watcher.watch(COURSES_FILE, reloaded::release));
+
+        write(COURSES_FILE, "[{}]");
+
+        assertTrue(reloaded.tryAcquire(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testWritesToOtherFiles_DoNotDelayReload() throws Exception {
+        Semaphore reloaded = new Semaphore(0);
+        watcher.watch(COURSES_FILE, reloaded::release);
+        AtomicInteger writes = new AtomicInteger();
+        Thread busy = new Thread(() -> {
+            try {
+                while (!Thread.currentThread().isInterrupted() && writes.incrementAndGet() < 500) {
+                    write(TEST_DIR + "/progress.journal", "x" + writes.get());
+                    Thread.sleep(20);
+                }
+            } catch (IOException | InterruptedException e) {
+                // stop writing
+            }
+        });
+        busy.start();
+        try {
+            write(COURSES_FILE, "[{}]");
+            assertTrue(reloaded.tryAcquire(3, TimeUnit.SECONDS));
+        } finally {
+            busy.interrupt();
+            busy.join();
+        }
+    }
+
+    @Test
+    public void testAtomicReplace_IsReloaded() throws Exception {
+        Semaphore reloaded = new Semaphore(0);
+        watcher.watch(COURSES_FILE, reloaded::release);
+
+        AtomicFileWriter.writeNow(COURSES_FILE, out -> out.write("[{}]".getBytes(StandardCharsets.UTF_8)));
+
+        assertTrue(reloaded.tryAcquire(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testOnlyChangedFile_IsReloaded() throws Exception {
+        Semaphore coursesReloaded = new Semaphore(0);
+        AtomicInteger wordsReloads = new AtomicInteger();
+        watcher.watch(COURSES_FILE, coursesReloaded::release);
+        watcher.watch(WORDS_FILE, wordsReloads::incrementAndGet);
+
+        write(COURSES_FILE, "[{}]");
+        write(TEST_DIR + "/unrelated.json", "[]");
+
+        assertTrue(coursesReloaded.tryAcquire(10, TimeUnit.SECONDS));
+        assertEquals(0, wordsReloads.get());
+    }
+
+    @Test
+    public void testBurstOfWrites_ReloadsOnce() throws Exception {
+        Semaphore reloaded = new Semaphore(0);
+        watcher.watch(WORDS_FILE, reloaded::release);
+
+        for (int i = 0; i < 5; i++) {
+            write(WORDS_FILE, "[" + i + "]");
+        }
+
+        assertTrue(reloaded.tryAcquire(10, TimeUnit.SECONDS));
+        assertFalse(reloaded.tryAcquire(500, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testFailingReload_KeepsWatching() throws Exception {
+        Semaphore reloaded = new Semaphore(0);
+        watcher.watch(COURSES_FILE, () -> {
+            reloaded.release();
+            throw new IllegalStateException("bad file");
+        });
+
+        write(COURSES_FILE, "[{}]");
+        assertTrue(reloaded.tryAcquire(10, TimeUnit.SECONDS));
+        Thread.sleep(300);
+        write(COURSES_FILE, "[{}, {}]");
+        assertTrue(reloaded.tryAcquire(10, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,96 @@
+package com.narration;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Random;
+
+/**
+ * Measures the memory and lookup time of CompletionIndex against a HashMap from folded text to text.
+ * Run with: java -Xmx4g -cp ... com.narration.CompletionBenchmark [entryCount ...]
+ * Defaults to 100k and 500k entries.
+ */
+public class CompletionBenchmark {
+
+    private static final int QUERIES = 10_000;
+
+    public static void main(String[] args) {
+        int[] sizes = args.length == 0 ? new int[] {100_000, 500_000} : new int[args.length];
+        for (int i = 0; i < args.length; i++) {
+            sizes[i] = Integer.parseInt(args[i]);
+        }
+
+        System.out.printf("%10s %14s %14s %14s %14s%n", "entries", "index B/entry", "map B/entry", "complete us", "add us");
+        for (int size : sizes) {
+            Random random = new Random(42);
+            ArrayList<CompletionIndex.Completion> completions = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                completions.add(new CompletionIndex.Completion(randomText(random), random.nextInt(3) + 1));
+            }
+
+            long before = usedMemory();
+            CompletionIndex index = new CompletionIndex(completions);
+            long indexBytes = usedMemory() - before;
+
+            before = usedMemory();
+            HashMap<String, String> map = new HashMap<>();
+            for (CompletionIndex.Completion completion : completions) {
+                map.put(new String(TextFolding.fold(completion.getText())), completion.getText());
+            }
+            long mapBytes = usedMemory() - before;
+
+            String[] prefixes = new String[QUERIES];
+            for (int i = 0; i < QUERIES; i++) {
+                String text = completions.get(random.nextInt(size)).getText();
+                prefixes[i] = text.substring(0, 1 + random.nextInt(Math.min(3, text.length())));
+            }
+            for (String prefix : prefixes) {
+                index.complete(prefix, 10);
+            }
+            long start = System.nanoTime();
+            for (String prefix : prefixes) {
+                index.complete(prefix, 10);
+            }
+            long completeMicros = (System.nanoTime() - start) / QUERIES / 1_000;
+
+            int adds = 2 * CompletionIndex.MERGE_AT;
+            start = System.nanoTime();
+            for (int i = 0; i < adds; i++) {
+                index = index.with(randomText(random), 1);
+            }
+            long addMicros = (System.nanoTime() - start) / adds / 1_000;
+
+            System.out.printf("%10d %14d %14d %14d %14d%n", size, indexBytes / size, mapBytes / size,
+                    completeMicros, addMicros);
+            if (map.isEmpty() || index.size() == 0) {
+                System.out.println();
+            }
+        }
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Builds a word, or now and then a two-word phrase, of letters drawn with roughly Spanish letter frequencies.
+     */
+    private static String randomText(Random random) {
+        String letters = "eeeeeeeeeeeeaaaaaaaaaaaaoooooooossssssrrrrrrnnnnnniiiiiddddllllccccttttuuuummmppbgvyqhfzjñxkw";
+        StringBuilder text = new StringBuilder();
+        int words = random.nextInt(4) == 0 ? 2 : 1;
+        for (int w = 0; w < words; w++) {
+            if (w > 0) {
+                text.append(' ');
+            }
+            int length = 3 + random.nextInt(8);
+            for (int i = 0; i < length; i++) {
+                text.append(letters.charAt(random.nextInt(letters.length())));
+            }
+        }
+        return text.toString();
+    }
+}
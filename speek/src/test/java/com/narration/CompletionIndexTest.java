@@ -0,0 +1,103 @@
+package com.narration;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ * Test class for the CompletionIndex class.
+ */
+public class CompletionIndexTest {
+
+    private static CompletionIndex.Completion completion(String text, int weight) {
+        return new CompletionIndex.Completion(text, weight);
+    }
+
+    @Test
+    public void testComplete_HeaviestFirstIgnoringAccents() {
+        CompletionIndex index = new CompletionIndex(Arrays.asList(
+                completion("Buenos días", 2), completion("Buenas noches", 2), completion("Bueno", 3),
+                completion("Bien", 3), completion("Adiós", 1)));
+
+        assertEquals(Arrays.asList("Bueno", "Buenas noches", "Buenos días"), index.complete("BUE", 5));
+        assertEquals(Arrays.asList("Bueno", "Buenas noches"), index.complete("bue", 2));
+        assertEquals(Arrays.asList("Adiós"), index.complete("adio", 5));
+        assertEquals(Arrays.asList("Buenos días"), index.complete("buenos dias", 5));
+        assertTrue(index.complete("x", 5).isEmpty());
+        assertEquals(5, index.complete("", 10).size());
+    }
+
+    @Test
+    public void testComplete_EmptyInputs() {
+        CompletionIndex index = new CompletionIndex(Arrays.asList(completion("Hola", 1), null, completion(null, 1)));
+        assertEquals(1, index.size());
+        assertTrue(index.complete(null, 5).isEmpty());
+        assertTrue(index.complete("ho", 0).isEmpty());
+        assertTrue(new CompletionIndex(new ArrayList<>()).complete("ho", 5).isEmpty());
+    }
+
+    @Test
+    public void testWith_AddsWithoutChangingTheOriginal() {
+        CompletionIndex index = new CompletionIndex(Arrays.asList(completion("Hola", 1)));
+        CompletionIndex added = index.with("Hora", 2).with("hola", 3);
+
+        assertEquals(Arrays.asList("Hola"), index.complete("ho", 5));
+        // the heavier "hola" replaces "Hola" rather than showing twice
+        assertEquals(Arrays.asList("hola", "Hora"), added.complete("ho", 5));
+        assertEquals(Arrays.asList("hola"), added.complete("ho", 1));
+    }
+
+    @Test
+    public void testComplete_MatchesLinearScanAcrossMerges() {
+        Random random = new Random(11);
+        Map<String, Integer> heaviest = new HashMap<>();
+        ArrayList<CompletionIndex.Completion> initial = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            String text = randomWord(random);
+            int weight = random.nextInt(4);
+            initial.add(completion(text, weight));
+            heaviest.merge(text, weight, Math::max);
+        }
+        CompletionIndex index = new CompletionIndex(initial);
+        for (int i = 0; i < 2 * CompletionIndex.MERGE_AT; i++) {
+            String text = randomWord(random);
+            int weight = random.nextInt(4);
+            index = index.with(text, weight);
+            heaviest.merge(text, weight, Math::max);
+
+            if (i % 97 == 0) {
+                for (String prefix : Arrays.asList("", "a", "ba", "cab")) {
+                    assertEquals(prefix, scan(heaviest, prefix, 7), index.complete(prefix, 7));
+                }
+            }
+        }
+    }
+
+    private static List<String> scan(Map<String, Integer> heaviest, String prefix, int limit) {
+        ArrayList<String> matching = new ArrayList<>();
+        for (String text : heaviest.keySet()) {
+            if (text.startsWith(prefix)) {
+                matching.add(text);
+            }
+        }
+        matching.sort(Comparator.comparing((String text) -> -heaviest.get(text)).thenComparing(text -> text));
+        return matching.subList(0, Math.min(limit, matching.size()));
+    }
+
+    private static String randomWord(Random random) {
+        StringBuilder word = new StringBuilder();
+        int length = 1 + random.nextInt(6);
+        for (int i = 0; i < length; i++) {
+            word.append((char) ('a' + random.nextInt(4)));
+        }
+        return word.toString();
+    }
+}
@@ -7,6 +7,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import org.junit.Before;
@@ -138,6 +139,127 @@ public class CourseListTest {
         courseList.findByName(null);
     }
 
+    // Test finding courses by the start of their name
+
+    @Test
+    public void testFindByPrefix_SortedAndLimited() {
+        courseList.addCourse(course1);
+        courseList.addCourse(course2);
+        Course course3 = new Course(UUID.randomUUID(), "Spanish Verbs", "Verb drills", true, 0.0, false,
+                new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), null);
+        courseList.addCourse(course3);
+
+        ArrayList<Course> found = courseList.findByPrefix("SPANISH", 10);
+        assertEquals(2, found.size());
+        assertEquals(course1, found.get(0));
+        assertEquals(course3, found.get(1));
+
+        assertEquals(1, courseList.findByPrefix("spanish", 1).size());
+        assertEquals(3, courseList.findByPrefix("", 10).size());
+        assertTrue(courseList.findByPrefix("French", 10).isEmpty());
+    }
+
+    // Test finding courses by prefix with null input
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFindByPrefix_NullPrefix() {
+        courseList.findByPrefix(null, 10);
+    }
+
+    // Test that the name index follows removed courses
+
+    @Test
+    public void testFindByName_AfterRemove() {
+        courseList.addCourse(course1);
+        assertEquals(course1, courseList.findByName("SPANISH BASICS"));
+
+        courseList.removeCourse(course1);
+        assertNull(courseList.findByName("Spanish Basics"));
+    }
+
+    // Test that the name index follows renamed courses
+
+    @Test
+    public void testFindByName_AfterRename() {
+        courseList.addCourse(course1);
+        courseList.findByName("Spanish Basics");
+
+        course1.setName("Spanish Starter");
+
+        assertNull(courseList.findByName("Spanish Basics"));
+        assertEquals(course1, courseList.findByName("spanish starter"));
+    }
+
+    // Test that the sorted name index follows renames, and stops following a course once it is removed
+
+    @Test
+    public void testFindByPrefix_AfterRenameAndRemove() {
+        courseList.addCourse(course1);
+        courseList.addCourse(course2);
+        assertEquals(1, courseList.findByPrefix("spanish", 10).size());
+
+        course2.setName("Spanish Intermediate");
+        ArrayList<Course> found = courseList.findByPrefix("spanish", 10);
+        assertEquals(2, found.size());
+        assertEquals(course1, found.get(0));
+        assertEquals(course2, found.get(1));
+
+        courseList.removeCourse(course2);
+        course2.setName("Spanish Advanced");
+        assertEquals(1, courseList.findByPrefix("spanish", 10).size());
+        assertNull(courseList.findByName("Spanish Advanced"));
+    }
+
+    // Test that the UUID index follows a listed course given a new ID
+
+    @Test
+    public void testGetCourseById_AfterIdChange() {
+        courseList.addCourse(course1);
+        UUID oldId = course1.getId();
+        UUID newId = UUID.randomUUID();
+
+        course1.setId(newId);
+
+        assertNull(courseList.getCourseById(oldId));
+        assertEquals(course1, courseList.getCourseById(newId));
+    }
+
+    // Test finding courses by keyword
+
+    @Test
+    public void testFindCoursesByKeyWord() {
+        course1.addKeyWord("Beginner");
+        courseList.addCourse(course1);
+        courseList.addCourse(course2);
+        course2.addKeyWord("beginner");
+
+        assertEquals(2, courseList.findCoursesByKeyWord("BEGINNER").size());
+
+        courseList.removeCourse(course1);
+        ArrayList<Course> found = courseList.findCoursesByKeyWord("beginner");
+        assertEquals(1, found.size());
+        assertEquals(course2, found.get(0));
+
+        courseList.getCourses().clear();
+        assertTrue(courseList.findCoursesByKeyWord("beginner").isEmpty());
+    }
+
+    // Test searching lesson content through the course list
+
+    @Test
+    public void testSearchLessons() {
+        Lesson lesson = new Lesson("Packing", "A trip", "She packs a bag.", "Ella llena la mochila. ¡Adiós!");
+        course1.addLesson(lesson);
+        courseList.addCourse(course1);
+
+        ArrayList<LessonSearchIndex.Hit> hits = courseList.searchLessons("ADIOS mochila");
+        assertEquals(1, hits.size());
+        assertEquals(lesson, hits.get(0).getLesson());
+
+        courseList.removeCourse(course1);
+        assertTrue(courseList.searchLessons("mochila").isEmpty());
+    }
+
     // Test getting a course by valid ID
 
     @Test
@@ -160,8 +282,64 @@ public class CourseListTest {
 
     @Test
     public void testGetCourseById_NullId() {
-        Course foundCourse = courseList.getCourseById(null);
+        Course foundCourse = courseList.getCourseById((String) null);
         assertNull(foundCourse);
+        assertNull(courseList.getCourseById((UUID) null));
+    }
+
+    // Test getting a course by a string that is not a UUID
+
+    @Test
+    public void testGetCourseById_MalformedId() {
+        courseList.addCourse(course1);
+        assertNull(courseList.getCourseById("not-a-uuid"));
+    }
+
+    // Test getting a course by UUID, following adds, removes and reloads
+
+    @Test
+    public void testGetCourseById_Uuid() {
+        courseList.addCourse(course1);
+        courseList.addCourse(course2);
+        assertEquals(course2, courseList.getCourseById(course2.getId()));
+
+        courseList.removeCourse(course2);
+        assertNull(courseList.getCourseById(course2.getId()));
+        assertEquals(course1, courseList.getCourseById(course1.getId()));
+
+        courseList.getCourses().clear();
+        assertNull(courseList.getCourseById(course1.getId()));
+    }
+
+    // Test that getCourses keeps one snapshot until the list changes, and ID lookups follow every add
+
+    @Test
+    public void testGetCourses_SnapshotUntilChanged() {
+        WriteBehindScheduler scheduler = WriteBehindScheduler.getInstance();
+        long delay = scheduler.getDelayMillis();
+        int threshold = scheduler.getFlushThreshold();
+        // keep the adds from starting a background save that could outlive this test
+        scheduler.setDelayMillis(60_000);
+        scheduler.setFlushThreshold(Integer.MAX_VALUE);
+        try {
+            courseList.addCourse(course1);
+            ArrayList<Course> snapshot = courseList.getCourses();
+            assertSame(snapshot, courseList.getCourses());
+
+            for (int i = 0; i < 1000; i++) {
+                Course course = new Course(UUID.randomUUID(), "Bulk " + i, "", false, 0.0, false,
+                        new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), null);
+                courseList.addCourse(course);
+                assertSame(course, courseList.getCourseById(course.getId()));
+            }
+            assertEquals(1, snapshot.size());
+            assertEquals(1001, courseList.getCourses().size());
+        } finally {
+            courseList.getCourses().clear();
+            scheduler.flush(WriteBehindScheduler.COURSES);
+            scheduler.setDelayMillis(delay);
+            scheduler.setFlushThreshold(threshold);
+        }
     }
 
     // Test saving courses
@@ -178,4 +356,54 @@ public class CourseListTest {
             fail("saveCourses() threw an exception: " + e.getMessage());
         }
     }
+
+    @Test
+    public void testReloadCourses_KeepsUnsavedCourses() {
+        WriteBehindScheduler scheduler = WriteBehindScheduler.getInstance();
+        long delay = scheduler.getDelayMillis();
+        int threshold = scheduler.getFlushThreshold();
+        String loaderFile = DataLoader.COURSES_FILE;
+        scheduler.setDelayMillis(60_000);
+        scheduler.setFlushThreshold(Integer.MAX_VALUE);
+        // reload from the file the list saves to
+        DataLoader.COURSES_FILE = DataConstants.COURSES_FILE;
+        try {
+            scheduler.flushAll();
+            courseList.saveCourses();
+            courseList.addCourse(course1);
+
+            ArrayList<Course> external = new ArrayList<>();
+            external.add(course2);
+            assertTrue(DataWriter.saveCourses(external));
+
+            assertTrue(courseList.reloadCourses());
+            assertEquals(2, courseList.getCourses().size());
+            assertNotNull(courseList.getCourseById(course1.getId()));
+            assertNotNull(courseList.getCourseById(course2.getId()));
+            assertTrue(scheduler.isDirty(WriteBehindScheduler.COURSES));
+        } finally {
+            scheduler.flush(WriteBehindScheduler.COURSES);
+            scheduler.setDelayMillis(delay);
+            scheduler.setFlushThreshold(threshold);
+            DataLoader.COURSES_FILE = loaderFile;
+        }
+    }
+
+    @Test
+    public void testRemoveCourse_SchedulesSave() {
+        WriteBehindScheduler scheduler = WriteBehindScheduler.getInstance();
+        long delay = scheduler.getDelayMillis();
+        scheduler.setDelayMillis(60_000);
+        try {
+            courseList.addCourse(course1);
+            courseList.saveCourses();
+            scheduler.flush(WriteBehindScheduler.COURSES);
+
+            courseList.removeCourse(course1);
+            assertTrue(scheduler.isDirty(WriteBehindScheduler.COURSES));
+        } finally {
+            scheduler.flush(WriteBehindScheduler.COURSES);
+            scheduler.setDelayMillis(delay);
+        }
+    }
 }
@@ -303,4 +303,15 @@ public class CourseTest {
         Course courseWithoutProgress = new Course(courseId, "Test Course", "A course for testing", true, 0.0, false, new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), null);
         assertEquals(0.0, courseWithoutProgress.getCourseProgress(), 0.01);
     }
+
+    @Test
+    public void testLessonChange_MakesCourseDirty() {
+        Lesson lesson = new Lesson("Greetings", "Learn greetings", "Hi", "Hola");
+        course.addLesson(lesson);
+        course.markSaved(course.getVersion());
+        assertFalse(course.isDirty());
+
+        lesson.setLessonProgress(100.0);
+        assertTrue(course.isDirty());
+    }
 }
@@ -3,6 +3,7 @@ package com.narration;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
@@ -50,7 +51,7 @@ public class DataLoaderTest {
 
     private void createEmptyJsonArrayFile(String filePath) throws IOException {
         JSONArray emptyArray = new JSONArray();
-        try (FileWriter file = new FileWriter(filePath)) {
+        try (FileWriter file = new FileWriter(filePath, StandardCharsets.UTF_8)) {
             file.write(emptyArray.toJSONString());
         }
     }
@@ -78,7 +79,7 @@ public class DataLoaderTest {
 
         usersArray.add(userJson);
 
-        try (FileWriter file = new FileWriter(TEST_USERS_FILE)) {
+        try (FileWriter file = new FileWriter(TEST_USERS_FILE, StandardCharsets.UTF_8)) {
             file.write(usersArray.toJSONString());
         }
 
@@ -108,7 +109,7 @@ public class DataLoaderTest {
 
         usersArray.add(userJson);
 
-        try (FileWriter file = new FileWriter(TEST_USERS_FILE)) {
+        try (FileWriter file = new FileWriter(TEST_USERS_FILE, StandardCharsets.UTF_8)) {
             file.write(usersArray.toJSONString());
         }
 
@@ -147,7 +148,7 @@ public class DataLoaderTest {
 
         coursesArray.add(courseJson);
 
-        try (FileWriter file = new FileWriter(TEST_COURSES_FILE)) {
+        try (FileWriter file = new FileWriter(TEST_COURSES_FILE, StandardCharsets.UTF_8)) {
             file.write(coursesArray.toJSONString());
         }
 
@@ -182,7 +183,7 @@ public class DataLoaderTest {
 
         coursesArray.add(courseJson);
 
-        try (FileWriter file = new FileWriter(TEST_COURSES_FILE)) {
+        try (FileWriter file = new FileWriter(TEST_COURSES_FILE, StandardCharsets.UTF_8)) {
             file.write(coursesArray.toJSONString());
         }
 
@@ -216,7 +217,7 @@ public class DataLoaderTest {
 
         languagesArray.add(languageJson);
 
-        try (FileWriter file = new FileWriter(TEST_LANGUAGES_FILE)) {
+        try (FileWriter file = new FileWriter(TEST_LANGUAGES_FILE, StandardCharsets.UTF_8)) {
             file.write(languagesArray.toJSONString());
         }
 
@@ -253,7 +254,7 @@ public class DataLoaderTest {
 
         wordsArray.add(wordJson);
 
-        try (FileWriter file = new FileWriter(TEST_WORDS_FILE)) {
+        try (FileWriter file = new FileWriter(TEST_WORDS_FILE, StandardCharsets.UTF_8)) {
             file.write(wordsArray.toJSONString());
         }
 
@@ -283,7 +284,7 @@ public class DataLoaderTest {
 
         wordsArray.add(wordJson);
 
-        try (FileWriter file = new FileWriter(TEST_WORDS_FILE)) {
+        try (FileWriter file = new FileWriter(TEST_WORDS_FILE, StandardCharsets.UTF_8)) {
             file.write(wordsArray.toJSONString());
         }
 
@@ -308,7 +309,7 @@ public class DataLoaderTest {
 
         wordsArray.add(wordJson);
 
-        try (FileWriter file = new FileWriter(TEST_WORDS_FILE)) {
+        try (FileWriter file = new FileWriter(TEST_WORDS_FILE, StandardCharsets.UTF_8)) {
             file.write(wordsArray.toJSONString());
         }
 
@@ -319,6 +320,24 @@ public class DataLoaderTest {
         assertNull(translation);
     }
 
+    @Test
+    public void testGetEnglishTranslation_UsesSharedDictionary() {
+        WordsList wordsList = new WordsList();
+        wordsList.addWord(new Word("Adiós", "Goodbye", "Rudimentary", "Goodbye"));
+        Dictionary dictionary = new Dictionary(wordsList);
+        DataLoader.shareDictionary(dictionary);
+        try {
+            assertEquals("Goodbye", DataLoader.getEnglishTranslation("adios"));
+            assertNull(DataLoader.getEnglishTranslation("Gracias"));
+
+            dictionary.addTranslation(new Word("Gracias", "Thank you", "Rudimentary", "Thank you"));
+            assertEquals("Thank you", DataLoader.getEnglishTranslation("Gracias"));
+            assertNull(DataLoader.getEnglishTranslation(null));
+        } finally {
+            DataLoader.shareDictionary(null);
+        }
+    }
+
     // Test loadPhrases()
 
     @Test
@@ -340,7 +359,7 @@ public class DataLoaderTest {
 
         phrasesArray.add(phraseJson);
 
-        try (FileWriter file = new FileWriter(TEST_PHRASES_FILE)) {
+        try (FileWriter file = new FileWriter(TEST_PHRASES_FILE, StandardCharsets.UTF_8)) {
             file.write(phrasesArray.toJSONString());
         }
 
@@ -369,7 +388,7 @@ public class DataLoaderTest {
 
         usersArray.add(userJson);
 
-        try (FileWriter file = new FileWriter(TEST_USERS_FILE)) {
+        try (FileWriter file = new FileWriter(TEST_USERS_FILE, StandardCharsets.UTF_8)) {
             file.write(usersArray.toJSONString());
         }
 
@@ -394,7 +413,7 @@ public class DataLoaderTest {
 
         usersArray.add(userJson);
 
-        try (FileWriter file = new FileWriter(TEST_USERS_FILE)) {
+        try (FileWriter file = new FileWriter(TEST_USERS_FILE, StandardCharsets.UTF_8)) {
             file.write(usersArray.toJSONString());
         }
 
@@ -426,7 +445,7 @@ public class DataLoaderTest {
 
         wordsArray.add(wordJson);
 
-        try (FileWriter file = new FileWriter(TEST_WORDS_FILE)) {
+        try (FileWriter file = new FileWriter(TEST_WORDS_FILE, StandardCharsets.UTF_8)) {
             file.write(wordsArray.toJSONString());
         }
 
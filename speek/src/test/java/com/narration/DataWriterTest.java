@@ -8,6 +8,7 @@ import java.io.File;
 import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.UUID;
@@ -52,7 +53,7 @@ public class DataWriterTest {
 
     private void createEmptyJsonArrayFile(String filePath) throws IOException {
         JSONArray emptyArray = new JSONArray();
-        try (FileWriter file = new FileWriter(filePath)) {
+        try (FileWriter file = new FileWriter(filePath, StandardCharsets.UTF_8)) {
             file.write(emptyArray.toJSONString());
         }
     }
@@ -282,7 +283,7 @@ public class DataWriterTest {
 
     private JSONArray readJsonArrayFromFile(String filePath) {
         JSONParser parser = new JSONParser();
-        try (FileReader reader = new FileReader(filePath)) {
+        try (FileReader reader = new FileReader(filePath, StandardCharsets.UTF_8)) {
             Object obj = parser.parse(reader);
             return (JSONArray) obj;
         } catch (Exception e) {
@@ -0,0 +1,101 @@
+package com.narration;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * Compares Dictionary.suggest, backed by SpellingIndex, against a linear edit-distance scan of every word.
+ * Also times SpellingIndex.search, which lists every word in range instead of only the closest few.
+ * Run with: java -Xmx4g -cp ... com.narration.DictionarySuggestBenchmark [wordCount ...]
+ * Defaults to 10k, 100k and 500k words.
+ */
+public class DictionarySuggestBenchmark {
+
+    private static final int QUERIES = 200;
+
+    public static void main(String[] args) {
+        int[] sizes = args.length == 0 ? new int[] {10_000, 100_000, 500_000} : new int[args.length];
+        for (int i = 0; i < args.length; i++) {
+            sizes[i] = Integer.parseInt(args[i]);
+        }
+
+        System.out.printf("%10s %10s %12s %14s %14s %14s%n", "words", "distance", "build ms", "suggest us", "search us",
+                "scan us");
+        for (int size : sizes) {
+            Random random = new Random(42);
+            WordsList wordsList = new WordsList();
+            ArrayList<String> spellings = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                String text = randomWord(random);
+                wordsList.addWord(new Word(text, "translation" + i, "Easy", ""));
+                spellings.add(text);
+            }
+            long start = System.nanoTime();
+            Dictionary dictionary = new Dictionary(wordsList);
+            dictionary.suggest("casa", 1, 1);
+            long buildMillis = (System.nanoTime() - start) / 1_000_000;
+            SpellingIndex index = new SpellingIndex(spellings);
+
+            // misspell existing words by changing one character
+            String[] queries = new String[QUERIES];
+            for (int i = 0; i < QUERIES; i++) {
+                char[] word = spellings.get(random.nextInt(size)).toCharArray();
+                word[random.nextInt(word.length)] = (char) ('a' + random.nextInt(26));
+                queries[i] = new String(word);
+            }
+
+            for (int distance = 1; distance <= 2; distance++) {
+                int maxDistance = distance;
+                for (String query : queries) {
+                    dictionary.suggest(query, maxDistance, 5);
+                }
+                start = System.nanoTime();
+                for (String query : queries) {
+                    dictionary.suggest(query, maxDistance, 5);
+                }
+                long suggestMicros = (System.nanoTime() - start) / QUERIES / 1_000;
+
+                start = System.nanoTime();
+                for (String query : queries) {
+                    index.search(query, maxDistance);
+                }
+                long searchMicros = (System.nanoTime() - start) / QUERIES / 1_000;
+
+                int scans = Math.min(QUERIES, 20);
+                start = System.nanoTime();
+                for (int i = 0; i < scans; i++) {
+                    scan(spellings, queries[i], maxDistance);
+                }
+                long scanMicros = (System.nanoTime() - start) / scans / 1_000;
+                System.out.printf("%10d %10d %12d %14d %14d %14d%n", size, maxDistance, buildMillis, suggestMicros,
+                        searchMicros, scanMicros);
+            }
+        }
+    }
+
+    /**
+     * The brute-force alternative: the edit distance to every word in the vocabulary.
+     */
+    private static int scan(ArrayList<String> spellings, String query, int maxDistance) {
+        int found = 0;
+        for (String spelling : spellings) {
+            if (SpellingIndex.distance(query, spelling) <= maxDistance) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Builds a word of 4 to 12 letters drawn with roughly Spanish letter frequencies.
+     */
+    private static String randomWord(Random random) {
+        String letters = "eeeeeeeeeeeeaaaaaaaaaaaaoooooooossssssrrrrrrnnnnnniiiiiddddllllccccttttuuuummmppbgvyqhfzjñxkw";
+        StringBuilder word = new StringBuilder();
+        int length = 4 + random.nextInt(9);
+        for (int i = 0; i < length; i++) {
+            word.append(letters.charAt(random.nextInt(letters.length())));
+        }
+        return word.toString();
+    }
+}
@@ -183,4 +183,104 @@ public class DictionaryTest {
         expected.put("gracias", "thank you");
         assertEquals(expected, translations);
     }
+
+    @Test
+    public void testTranslate_IgnoresAccents() {
+        assertEquals("goodbye", dictionary.translate("adios"));
+        assertEquals("goodbye", dictionary.translate("ADIÓS"));
+    }
+
+    @Test
+    public void testTranslateToSpanish() {
+        assertEquals("adiós", dictionary.translateToSpanish("Goodbye"));
+        assertEquals("hola", dictionary.translateToSpanish("HELLO"));
+        assertEquals("Translation not found!", dictionary.translateToSpanish("Thanks"));
+        assertEquals("Translation not found!", dictionary.translateToSpanish(null));
+    }
+
+    @Test
+    public void testTranslateToSpanish_FollowsAddAndRemove() {
+        dictionary.addTranslation(new Word("Hola", "Hi", "Easy", "Hi"));
+        assertEquals("hola", dictionary.translateToSpanish("hi"));
+        assertEquals("Translation not found!", dictionary.translateToSpanish("hello"));
+
+        dictionary.addTranslation(new Word("Buenas", "Hi", "Easy", "Hi"));
+        dictionary.removeTranslation("Buenas");
+        assertEquals("hola", dictionary.translateToSpanish("hi"));
+
+        dictionary.removeTranslation("adios");
+        assertEquals("Translation not found!", dictionary.translateToSpanish("goodbye"));
+        assertEquals("Translation not found!", dictionary.translate("Adiós"));
+        assertEquals(2, dictionary.getWordCount());
+    }
+
+    @Test
+    public void testTranslateToSpanish_FallsBackToLatestRemainingWord() {
+        dictionary.addTranslation(new Word("Perro", "Dog", "Easy", "Dog"));
+        dictionary.addTranslation(new Word("Can", "Dog", "Easy", "Dog"));
+        dictionary.addTranslation(new Word("Chucho", "Dog", "Easy", "Dog"));
+        assertEquals("chucho", dictionary.translateToSpanish("dog"));
+
+        dictionary.removeTranslation("chucho");
+        assertEquals("can", dictionary.translateToSpanish("dog"));
+        dictionary.removeTranslation("perro");
+        assertEquals("can", dictionary.translateToSpanish("dog"));
+        dictionary.removeTranslation("can");
+        assertEquals("Translation not found!", dictionary.translateToSpanish("dog"));
+    }
+
+    @Test
+    public void testSuggest_RankedByDistance() {
+        dictionary.addTranslation(new Word("Gracias", "Thank you", "Easy", "Thank you"));
+        dictionary.addTranslation(new Word("Gato", "Cat", "Easy", "Cat"));
+        dictionary.addTranslation(new Word("Pato", "Duck", "Easy", "Duck"));
+
+        assertEquals(Arrays.asList("gracias"), dictionary.suggest("gracas", 2, 5));
+        assertEquals(Arrays.asList("gato", "pato"), dictionary.suggest("GATO", 1, 5));
+        assertEquals(Arrays.asList("gato"), dictionary.suggest("gato", 1, 1));
+        assertEquals(Arrays.asList("adiós"), dictionary.suggest("adio", 1, 5));
+        assertTrue(dictionary.suggest("elefante", 2, 5).isEmpty());
+        assertTrue(dictionary.suggest(null, 2, 5).isEmpty());
+    }
+
+    @Test
+    public void testSuggest_SkipsRemovedWords() {
+        dictionary.removeTranslation("Hola");
+        assertTrue(dictionary.suggest("hola", 1, 5).isEmpty());
+
+        dictionary.addTranslation(new Word("Hola", "Hello", "Easy", "Hello"));
+        assertEquals(Arrays.asList("hola"), dictionary.suggest("holla", 1, 5));
+    }
+
+    @Test
+    public void testComplete_WordsAndPhrasesEasiestFirst() {
+        PhraseList phrases = new PhraseList();
+        phrases.addPhrase(new Phrase("Buenos días", "Good morning"));
+        phrases.addPhrase(new Phrase("Buenas noches", "Good night"));
+        dictionary = new Dictionary(wordsList, phrases);
+
+        assertEquals(Arrays.asList("Buenas noches", "Buenos días"), dictionary.complete("bue", 5));
+
+        dictionary.addTranslation(new Word("Bueno", "Good", "Rudimentary", "Good"));
+        dictionary.addTranslation(new Word("Buey", "Ox", "Advanced", "Ox"));
+        assertEquals(Arrays.asList("Bueno", "Buenas noches", "Buenos días", "Buey"), dictionary.complete("BUE", 5));
+        assertEquals(Arrays.asList("Adiós"), dictionary.complete("adi", 5));
+
+        dictionary.removeTranslation("bueno");
+        assertEquals(Arrays.asList("Buenas noches"), dictionary.complete("bue", 1));
+    }
+
+    @Test
+    public void testReload_ReplacesAllTranslations() {
+        Map<String, String> before = dictionary.getAllTranslations();
+        WordsList updated = new WordsList();
+        updated.addWord(new Word("Gracias", "Thank you", "Easy", "Thank you"));
+
+        dictionary.reload(updated);
+
+        assertEquals("thank you", dictionary.translate("Gracias"));
+        assertEquals("Translation not found!", dictionary.translate("Hola"));
+        assertEquals(1, dictionary.getWordCount());
+        assertEquals(2, before.size());
+    }
 }
@@ -0,0 +1,14 @@
+package com.narration;
+
+/**
+ * Test class for the H2Repository class, run against a private in-memory H2 database.
+ */
+public class H2RepositoryTest extends RepositoryContract {
+
+    private static int databaseNumber;
+
+    @Override
+    protected DataRepository createRepository() {
+        return new H2Repository("jdbc:h2:mem:repository" + (databaseNumber++));
+    }
+}
@@ -0,0 +1,12 @@
+package com.narration;
+
+/**
+ * Test class for the InMemoryRepository class.
+ */
+public class InMemoryRepositoryTest extends RepositoryContract {
+
+    @Override
+    protected DataRepository createRepository() {
+        return new InMemoryRepository();
+    }
+}
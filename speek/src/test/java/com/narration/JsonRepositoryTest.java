@@ -0,0 +1,76 @@
+package com.narration;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import org.junit.Test;
+
+/**
+ * Test class for the JsonRepository class.
+ */
+public class JsonRepositoryTest extends RepositoryContract {
+
+    private static final String TEST_DIR = "testData/repository";
+
+    @Override
+    protected DataRepository createRepository() {
+        new File(TEST_DIR).mkdirs();
+        return new JsonRepository(TEST_DIR + "/User.json", TEST_DIR + "/Courses.json", TEST_DIR + "/Languages.json",
+                TEST_DIR + "/words.json", TEST_DIR + "/phrases.json");
+    }
+
+    @Override
+    protected void deleteStorage() {
+        File directory = new File(TEST_DIR);
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    @Test
+    public void testFindUser_ParsesTheFileOnceUntilItChanges() {
+        User jenny = new User(UUID.randomUUID(), "jennyJ", "jenny@example.com", "password");
+        List<User> users = new ArrayList<>();
+        users.add(jenny);
+        repository.saveUsers(users);
+
+        User found = repository.findUser(jenny.getId());
+        assertSame(found, repository.findUser(jenny.getId()));
+
+        // a change made outside the repository is picked up through the file's size and modification time
+        jenny.setEmail("changed-elsewhere@example.com");
+        DataWriter.saveUsers(new ArrayList<>(users), TEST_DIR + "/User.json");
+        AtomicFileWriter.flush(TEST_DIR + "/User.json");
+        new File(TEST_DIR + "/User.json").setLastModified(System.currentTimeMillis() + 5000);
+
+        User reloaded = repository.findUser(jenny.getId());
+        assertNotSame(found, reloaded);
+        assertEquals("changed-elsewhere@example.com", reloaded.getEmail());
+    }
+
+    @Test
+    public void testFindCourse_SkipsCourseWithoutId() {
+        Course spanish = new Course(UUID.randomUUID(), "Spanish 101", "Basics", true, 0.0, false,
+                new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), null);
+        Course draft = new Course(null, "Draft", "Not published yet", true, 0.0, false,
+                new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), null);
+        List<Course> courses = new ArrayList<>();
+        courses.add(draft);
+        courses.add(spanish);
+        repository.saveCourses(courses);
+
+        assertEquals("Spanish 101", repository.findCourse(spanish.getId()).getName());
+        assertNull(repository.findCourse(UUID.randomUUID()));
+        assertNull(repository.findCourse(null));
+    }
+}
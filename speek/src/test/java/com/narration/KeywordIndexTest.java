@@ -0,0 +1,60 @@
+package com.narration;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ * Test class for the KeywordIndex class.
+ */
+public class KeywordIndexTest {
+
+    @Test
+    public void testFind_IgnoresCaseInTaggedOrder() {
+        KeywordIndex<String> index = new KeywordIndex<>();
+        index.add("Travel", "first");
+        index.add("travel", "second");
+        index.add("TRAVEL", "first");
+
+        assertEquals(Arrays.asList("first", "second"), index.find("tRaVeL"));
+    }
+
+    @Test
+    public void testRemove_DropsOnlyThatItem() {
+        KeywordIndex<String> index = new KeywordIndex<>();
+        index.addAll(Arrays.asList("food", "travel"), "spanish");
+        index.add("food", "french");
+
+        index.removeAll(Arrays.asList("FOOD", "travel"), "spanish");
+
+        assertEquals(Arrays.asList("french"), index.find("food"));
+        assertTrue(index.find("travel").isEmpty());
+    }
+
+    @Test
+    public void testAdd_AfterRemoveGoesLast() {
+        KeywordIndex<String> index = new KeywordIndex<>();
+        for (int i = 0; i < 100_000; i++) {
+            index.add("food", "item" + i);
+        }
+        index.remove("food", "item0");
+        index.add("Food", "item0");
+
+        ArrayList<String> found = index.find("food");
+        assertEquals(100_000, found.size());
+        assertEquals("item1", found.get(0));
+        assertEquals("item0", found.get(found.size() - 1));
+    }
+
+    @Test
+    public void testNullKeyWords_Ignored() {
+        KeywordIndex<String> index = new KeywordIndex<>();
+        index.add(null, "spanish");
+        index.addAll(null, "spanish");
+
+        assertTrue(index.find(null).isEmpty());
+    }
+}
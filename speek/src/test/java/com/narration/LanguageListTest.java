@@ -109,6 +109,37 @@ public class LanguageListTest {
         assertEquals("French", result.getName());
     }
 
+    // Test findLanguagesByKeyWord ignores case and follows keywords added after the language
+    @Test
+    public void testFindLanguagesByKeyWord_CaseInsensitive() {
+        spanish.addKeyWord("Romance");
+        languageList.addLanguage(spanish);
+        languageList.addLanguage(french);
+        french.addKeyWord("romance");
+        italian.addKeyWord("Romance");
+
+        ArrayList<Language> result = languageList.findLanguagesByKeyWord("ROMANCE");
+        assertEquals(2, result.size());
+        assertSame(spanish, result.get(0));
+        assertSame(french, result.get(1));
+        assertTrue(languageList.findLanguagesByKeyWord("Germanic").isEmpty());
+    }
+
+    // Test findLanguagesByKeyWord after languages leave the list
+    @Test
+    public void testFindLanguagesByKeyWord_AfterRemove() {
+        spanish.addKeyWord("Romance");
+        french.addKeyWord("Romance");
+        languageList.addLanguage(spanish);
+        languageList.addLanguage(french);
+
+        languageList.removeLanguage(spanish);
+        assertEquals(1, languageList.findLanguagesByKeyWord("romance").size());
+
+        languageList.getLanguages().clear();
+        assertTrue(languageList.findLanguagesByKeyWord("romance").isEmpty());
+    }
+
     // Test singleton instance behavior
     @Test
     public void testSingletonInstance() {
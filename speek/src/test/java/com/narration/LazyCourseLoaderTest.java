@@ -0,0 +1,150 @@
+package com.narration;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test class for the LazyCourseLoader and LazyText classes.
+ */
+public class LazyCourseLoaderTest {
+
+    private static final String TEST_DIR = "testData/lazy";
+    private static final String COURSES_FILE = TEST_DIR + "/Courses.json";
+
+    private UUID courseId;
+    private UUID lessonId;
+
+    @Before
+    public void setUp() throws IOException {
+        deleteTestDirectory();
+        new File(TEST_DIR).mkdirs();
+        courseId = UUID.randomUUID();
+        lessonId = UUID.randomUUID();
+        write("[{\"courseID\":\"" + courseId + "\",\"name\":\"Spanish 101\",\"description\":\"Basics\",\"userAccess\":true,"
+                + "\"completed\":false,\"courseProgress\":25.0,\"lessons\":[{\"lessonName\":\"Greetings\",\"lessonID\":\"" + lessonId
+                + "\",\"description\":\"Saying hello\",\"lessonProgress\":50.0,\"englishContent\":\"One \\\"sunny\\\" morning\\nThe end\","
+                + "\"spanishContent\":\"Una mañana \\u00e9 soleada\"},{\"lessonName\":\"Empty\",\"lessonID\":\"" + UUID.randomUUID()
+                + "\",\"description\":\"No story\",\"lessonProgress\":0,\"englishContent\":null,\"spanishContent\":\"\"}]}]");
+    }
+
+    @After
+    public void tearDown() {
+        deleteTestDirectory();
+    }
+
+    private static void write(String content) throws IOException {
+        Files.write(Paths.get(COURSES_FILE), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void deleteTestDirectory() {
+        File directory = new File(TEST_DIR);
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    @Test
+    public void testLoadCourses_MatchesEagerLoader() {
+        ArrayList<Course> lazy = LazyCourseLoader.loadCourses(COURSES_FILE, true);
+        ArrayList<Course> eager = DataLoader.loadCoursesFromJson(COURSES_FILE);
+
+        assertEquals(1, lazy.size());
+        Course course = lazy.get(0);
+        assertEquals(courseId, course.getId());
+        assertEquals("Spanish 101", course.getName());
+        assertEquals(25.0, course.getCourseProgress(), 0.01);
+        assertTrue(course.getUserAccess());
+        for (int i = 0; i < 2; i++) {
+            Lesson lazyLesson = course.getAllLessons().get(i);
+            Lesson eagerLesson = eager.get(0).getAllLessons().get(i);
+            assertEquals(eagerLesson.getId(), lazyLesson.getId());
+            assertEquals(eagerLesson.getEnglishContent(), lazyLesson.getEnglishContent());
+            assertEquals(eagerLesson.getSpanishContent(), lazyLesson.getSpanishContent());
+        }
+    }
+
+    @Test
+    public void testContent_DecodesEscapesAndUtf8() {
+        Lesson lesson = LazyCourseLoader.loadCourses(COURSES_FILE, false).get(0).getAllLessons().get(0);
+
+        assertEquals("One \"sunny\" morning\nThe end", lesson.getEnglishContent());
+        assertEquals("Una mañana é soleada", lesson.getSpanishContent());
+        assertEquals(lessonId, lesson.getId());
+        assertEquals(50.0, lesson.getLessonProgress(), 0.01);
+        assertFalse(lesson.isDirty());
+    }
+
+    @Test
+    public void testContent_NullAndEmpty() {
+        Lesson lesson = LazyCourseLoader.loadCourses(COURSES_FILE, true).get(0).getAllLessons().get(1);
+
+        assertNull(lesson.getEnglishContent());
+        assertEquals("", lesson.getSpanishContent());
+    }
+
+    @Test
+    public void testLazyText_DecodedOnlyWhenRead() {
+        byte[] bytes = "{\"story\":\"Hola\"}".getBytes(StandardCharsets.UTF_8);
+        LazyText text = new LazyText(ByteBuffer.wrap(bytes), 9, 6, true);
+
+        assertFalse(text.isLoaded());
+        assertEquals("Hola", text.get());
+        assertTrue(text.isLoaded());
+
+        LazyText uncached = new LazyText(ByteBuffer.wrap(bytes), 9, 6, false);
+        assertEquals("Hola", uncached.get());
+        assertFalse(uncached.isLoaded());
+    }
+
+    @Test
+    public void testSetContent_ReplacesLazyContent() {
+        Lesson lesson = LazyCourseLoader.loadCourses(COURSES_FILE, true).get(0).getAllLessons().get(0);
+
+        lesson.setSpanishContent("Buenas noches");
+
+        assertEquals("Buenas noches", lesson.getSpanishContent());
+        assertTrue(lesson.isDirty());
+    }
+
+    @Test
+    public void testReplacedFile_KeepsLoadedContent() throws IOException {
+        Lesson lesson = LazyCourseLoader.loadCourses(COURSES_FILE, false).get(0).getAllLessons().get(0);
+
+        AtomicFileWriter.writeNow(COURSES_FILE, out -> out.write("[]".getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals("Una mañana é soleada", lesson.getSpanishContent());
+    }
+
+    @Test
+    public void testDataLoader_LazyMode() {
+        String originalFile = DataLoader.COURSES_FILE;
+        boolean originalMode = DataLoader.LAZY_LESSON_CONTENT;
+        DataLoader.COURSES_FILE = COURSES_FILE;
+        DataLoader.LAZY_LESSON_CONTENT = true;
+        try {
+            ArrayList<Course> courses = DataLoader.loadCourses();
+            assertEquals("Una mañana é soleada", courses.get(0).getAllLessons().get(0).getSpanishContent());
+        } finally {
+            DataLoader.COURSES_FILE = originalFile;
+            DataLoader.LAZY_LESSON_CONTENT = originalMode;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.narration;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Measures how long LessonSearchIndex takes to index generated lessons and answer word and phrase queries,
+ * against a scan that folds every lesson's content per query.
+ * Run with: java -cp ... com.narration.LessonSearchBenchmark [lessonCount ...]
+ * Defaults to 1k, 10k and 50k lessons.
+ */
+public class LessonSearchBenchmark {
+
+    private static final String[] WORDS = {"mochila", "escuela", "adiós", "buenos", "días", "libro", "perro", "gato",
+            "casa", "playa", "comida", "agua", "niño", "ciudad", "tren", "amigo", "música", "mañana", "noche", "sol"};
+    private static final int LESSONS_PER_COURSE = 10;
+    private static final int QUERIES = 200;
+
+    public static void main(String[] args) {
+        int[] sizes = args.length == 0 ? new int[] {1_000, 10_000, 50_000} : new int[args.length];
+        for (int i = 0; i < args.length; i++) {
+            sizes[i] = Integer.parseInt(args[i]);
+        }
+
+        System.out.printf("%10s %12s %14s %14s %14s%n", "lessons", "index ms", "word us", "phrase us", "scan us");
+        for (int size : sizes) {
+            ArrayList<Course> courses = buildCourses(size);
+
+            long start = System.nanoTime();
+            LessonSearchIndex index = new LessonSearchIndex();
+            for (Course course : courses) {
+                index.addCourse(course);
+            }
+            index.search("warm up");
+            long indexMillis = (System.nanoTime() - start) / 1_000_000;
+
+            for (int round = 0; round < 3; round++) {
+                time(() -> index.search("mochila adios"));
+                time(() -> index.search("\"buenos dias\""));
+            }
+            long word = time(() -> index.search("mochila adios"));
+            long phrase = time(() -> index.search("\"buenos dias\""));
+            long scan = time(() -> scan(courses, "mochila"));
+            System.out.printf("%10d %12d %14d %14d %14d%n", size, indexMillis, word, phrase, scan);
+        }
+    }
+
+    /**
+     * Returns the average microseconds per run over QUERIES runs.
+     */
+    private static long time(Runnable query) {
+        long start = System.nanoTime();
+        for (int i = 0; i < QUERIES; i++) {
+            query.run();
+        }
+        return (System.nanoTime() - start) / QUERIES / 1_000;
+    }
+
+    private static int scan(ArrayList<Course> courses, String word) {
+        int found = 0;
+        for (Course course : courses) {
+            for (Lesson lesson : course.getAllLessons()) {
+                if (TextFolding.fold(lesson.getSpanishContent()).contains(word)) {
+                    found++;
+                }
+            }
+        }
+        return found;
+    }
+
+    private static ArrayList<Course> buildCourses(int lessons) {
+        Random random = new Random(42);
+        ArrayList<Course> courses = new ArrayList<>();
+        for (int c = 0; c * LESSONS_PER_COURSE < lessons; c++) {
+            ArrayList<Lesson> list = new ArrayList<>();
+            for (int l = 0; l < LESSONS_PER_COURSE; l++) {
+                StringBuilder story = new StringBuilder();
+                for (int w = 0; w < 200; w++) {
+                    story.append(WORDS[random.nextInt(WORDS.length)]).append(w % 12 == 11 ? ". " : " ");
+                }
+                list.add(new Lesson("Lesson " + l, "", "", story.toString()));
+            }
+            courses.add(new Course(UUID.randomUUID(), "Course " + c, "", false, 0.0, false, list,
+                    new ArrayList<>(), new ArrayList<>(), null));
+        }
+        return courses;
+    }
+}
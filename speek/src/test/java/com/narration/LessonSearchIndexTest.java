@@ -0,0 +1,147 @@
+package com.narration;
+
+import java.util.ArrayList;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test class for the LessonSearchIndex and TextFolding classes.
+ */
+public class LessonSearchIndexTest {
+
+    private LessonSearchIndex index;
+    private Course course;
+    private Lesson school;
+    private Lesson goodbye;
+
+    @Before
+    public void setUp() {
+        index = new LessonSearchIndex();
+        school = new Lesson("School", UUID.randomUUID(), "First day", 0.0,
+                "Maria packs her backpack for school.", "María pone los libros en su mochila. ¡Buenos días, profesor!");
+        goodbye = new Lesson("Goodbye", UUID.randomUUID(), "Leaving", 0.0,
+                "Good morning and goodbye.", "Días buenos. ¡Adiós, mochila!");
+        course = course("Stories", school, goodbye);
+        index.addCourse(course);
+    }
+
+    private static Course course(String name, Lesson... lessons) {
+        ArrayList<Lesson> list = new ArrayList<>();
+        for (Lesson lesson : lessons) {
+            list.add(lesson);
+        }
+        return new Course(UUID.randomUUID(), name, "", false, 0.0, false, list, new ArrayList<>(), new ArrayList<>(), null);
+    }
+
+    @Test
+    public void testFold_RemovesAccentsAndCase() {
+        assertEquals("adios nino", TextFolding.fold("Adiós NIÑO"));
+        assertEquals("plain", TextFolding.fold("Plain"));
+        assertEquals(3, TextFolding.words("¿Qué tal, amigo?").size());
+    }
+
+    @Test
+    public void testSearch_Word() {
+        ArrayList<LessonSearchIndex.Hit> hits = index.search("mochila");
+
+        assertEquals(2, hits.size());
+        assertSame(school, hits.get(0).getLesson());
+        assertSame(goodbye, hits.get(1).getLesson());
+        assertTrue(hits.get(0).isSpanish());
+        assertSame(course, hits.get(0).getCourse());
+    }
+
+    @Test
+    public void testSearch_IgnoresAccentsAndCase() {
+        assertEquals(1, index.search("adios").size());
+        assertEquals(2, index.search("MARIA").size());
+    }
+
+    @Test
+    public void testSearch_AllWordsMustMatch() {
+        assertEquals(2, index.search("buenos dias").size());
+        assertEquals(1, index.search("mochila profesor").size());
+        assertTrue(index.search("mochila elefante").isEmpty());
+    }
+
+    @Test
+    public void testSearch_PhraseMatchesWordsInOrder() {
+        ArrayList<LessonSearchIndex.Hit> hits = index.search("\"buenos dias\"");
+
+        assertEquals(1, hits.size());
+        assertSame(school, hits.get(0).getLesson());
+        assertEquals(1, index.search("\"dias buenos\" mochila").size());
+        assertTrue(index.search("\"mochila profesor\"").isEmpty());
+    }
+
+    @Test
+    public void testSearch_EnglishContent() {
+        ArrayList<LessonSearchIndex.Hit> hits = index.search("backpack");
+
+        assertEquals(1, hits.size());
+        assertFalse(hits.get(0).isSpanish());
+    }
+
+    @Test
+    public void testRemoveAndUpdateCourse() {
+        index.search("mochila");
+        index.removeCourse(course);
+        assertTrue(index.search("mochila").isEmpty());
+
+        goodbye.setSpanishContent("Hasta luego");
+        index.updateCourse(course);
+        assertEquals(1, index.search("mochila").size());
+        assertEquals(1, index.search("hasta luego").size());
+    }
+
+    @Test
+    public void testRemoveCourse_CompactsRemovedDocuments() {
+        Course second = course("Second", new Lesson("Market", UUID.randomUUID(), "", 0.0, "Apples", "Manzanas rojas"));
+        Course third = course("Third", new Lesson("Park", UUID.randomUUID(), "", 0.0, "Dogs", "Perros y mochila"));
+        Course fourth = course("Fourth", new Lesson("Beach", UUID.randomUUID(), "", 0.0, "Sand", "Arena y sol"));
+        index.addCourse(second);
+        index.addCourse(third);
+        index.addCourse(fourth);
+        index.search("mochila");
+        assertEquals(10, index.documentCount());
+
+        index.removeCourse(second);
+        assertEquals(10, index.documentCount());
+
+        index.removeCourse(course);
+        assertEquals(4, index.documentCount());
+        ArrayList<LessonSearchIndex.Hit> hits = index.search("mochila");
+        assertEquals(1, hits.size());
+        assertSame(third, hits.get(0).getCourse());
+        assertEquals(1, index.search("\"arena y sol\"").size());
+        assertTrue(index.search("manzanas").isEmpty());
+
+        index.removeCourse(third);
+        assertTrue(index.search("mochila").isEmpty());
+        assertSame(fourth, index.search("sol").get(0).getCourse());
+    }
+
+    @Test
+    public void testAddCourse_IndexesBeforeAnySearch() {
+        assertEquals(4, index.documentCount());
+
+        index.addCourse(course("Second", new Lesson("Market", UUID.randomUUID(), "", 0.0, "Apples", "Manzanas")));
+        assertEquals(6, index.documentCount());
+
+        index.addCourse(course);
+        assertEquals(6, index.documentCount());
+    }
+
+    @Test
+    public void testSearch_EmptyQuery() {
+        assertTrue(index.search("").isEmpty());
+        assertTrue(index.search(null).isEmpty());
+        assertTrue(index.search("\"\"").isEmpty());
+    }
+}
@@ -85,4 +85,13 @@ public class LessonTest {
         assertTrue("Lesson should be marked as completed", lesson.isCompleted());
         assertEquals(100.0, lesson.getLessonProgress(), 0.01);
     }
+
+    @Test
+    public void testMarkAsCompleted_MakesLessonDirty() {
+        lesson.markSaved(lesson.getVersion());
+        assertFalse(lesson.isDirty());
+
+        lesson.markAsCompleted();
+        assertTrue(lesson.isDirty());
+    }
 }
@@ -0,0 +1,179 @@
+package com.narration;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test class for the ProgressJournal class.
+ */
+public class ProgressJournalTest {
+
+    private static final String TEST_JOURNAL_FILE = "testData/progress.journal";
+
+    private ProgressJournal journal;
+    private UUID userId;
+    private UUID courseId;
+
+    @Before
+    public void setUp() throws IOException {
+        new File("testData").mkdirs();
+        new File(TEST_JOURNAL_FILE).delete();
+        journal = ProgressJournal.open(TEST_JOURNAL_FILE, Long.MAX_VALUE, 0);
+        userId = UUID.randomUUID();
+        courseId = UUID.randomUUID();
+    }
+
+    @After
+    public void tearDown() {
+        journal.close();
+        new File(TEST_JOURNAL_FILE).delete();
+    }
+
+    private ArrayList<User> snapshot() {
+        ArrayList<User> users = new ArrayList<>();
+        users.add(new User(userId, "jennyJ", "jenny@gmail.com", "password"));
+        return users;
+    }
+
+    @Test
+    public void testOpen_BecomesActive() {
+        assertSame(journal, ProgressJournal.getActive());
+    }
+
+    @Test
+    public void testUserMutators_AreJournaledAndReplayed() {
+        User user = snapshot().get(0);
+        user.updateCourseProgress(courseId, 40.0);
+        user.updateCourseProgress(courseId, 80.0);
+        user.completeCourse(courseId);
+        user.setCurrentCourse(courseId);
+        journal.sync();
+
+        assertEquals(4L * ProgressJournal.RECORD_SIZE, new File(TEST_JOURNAL_FILE).length());
+
+        ArrayList<User> reloaded = snapshot();
+        journal.replay(reloaded);
+        User replayed = reloaded.get(0);
+        assertEquals(80.0, replayed.getCourseProgress(courseId), 0.01);
+        assertTrue(replayed.getCompletedCourses().contains(courseId));
+        assertEquals(courseId, replayed.getCurrentCourse());
+    }
+
+    @Test
+    public void testReplay_DoesNotJournalAgain() {
+        User user = snapshot().get(0);
+        user.updateCourseProgress(courseId, 40.0);
+        user.completeCourse(courseId);
+        user.setCurrentCourse(courseId);
+        journal.sync();
+        long size = new File(TEST_JOURNAL_FILE).length();
+
+        journal.replay(snapshot());
+        journal.replay(snapshot());
+        journal.sync();
+
+        assertEquals(size, new File(TEST_JOURNAL_FILE).length());
+        ArrayList<User> reloaded = snapshot();
+        journal.replay(reloaded);
+        assertEquals(courseId, reloaded.get(0).getCurrentCourse());
+    }
+
+    @Test
+    public void testUnjournaledChanges_StillNeedSaving() {
+        User user = snapshot().get(0);
+        user.markSaved(user.getVersion());
+        user.updateCourseProgress(courseId, 40.0);
+        user.completeCourse(courseId);
+        user.setCurrentCourse(courseId);
+        assertTrue(user.isDirty());
+        assertFalse(user.hasUnjournaledChanges());
+
+        user.setCourseAccess(courseId, true);
+        assertTrue(user.hasUnjournaledChanges());
+        user.markSaved(user.getVersion());
+        assertFalse(user.hasUnjournaledChanges());
+
+        journal.close();
+        user.updateCourseProgress(courseId, 90.0);
+        assertTrue(user.hasUnjournaledChanges());
+    }
+
+    @Test
+    public void testReplay_IgnoresUnknownUsers() {
+        new User(UUID.randomUUID(), "other", "other@example.com", "pass").updateCourseProgress(courseId, 10.0);
+        journal.sync();
+
+        ArrayList<User> reloaded = snapshot();
+        journal.replay(reloaded);
+        assertEquals(0.0, reloaded.get(0).getCourseProgress(courseId), 0.01);
+    }
+
+    @Test
+    public void testReopen_DropsTornTail() throws IOException {
+        snapshot().get(0).updateCourseProgress(courseId, 60.0);
+        journal.sync();
+        journal.close();
+
+        try (FileOutputStream out = new FileOutputStream(TEST_JOURNAL_FILE, true)) {
+            out.write(new byte[] {1, 2, 3, 4, 5});
+        }
+
+        journal = ProgressJournal.open(TEST_JOURNAL_FILE, Long.MAX_VALUE, 0);
+        assertEquals(ProgressJournal.RECORD_SIZE, new File(TEST_JOURNAL_FILE).length());
+        snapshot().get(0).updateCourseProgress(courseId, 90.0);
+        journal.sync();
+
+        ArrayList<User> reloaded = snapshot();
+        journal.replay(reloaded);
+        assertEquals(90.0, reloaded.get(0).getCourseProgress(courseId), 0.01);
+    }
+
+    @Test
+    public void testCompact_SavesTheStoresUsers() throws IOException {
+        UserStore store = UserStore.getInstance();
+        User user = snapshot().get(0);
+        synchronized (store) {
+            store.getUsers().add(user);
+        }
+        try {
+            user.updateCourseProgress(courseId, 40.0);
+            user.setCourseAccess(courseId, true);
+            journal.compact();
+
+            assertFalse(new File(TEST_JOURNAL_FILE + ".sealed").exists());
+            assertTrue(store.getUsers().contains(user));
+            assertTrue(user.hasCourseAccess(courseId));
+            assertFalse(user.isDirty());
+            User saved = null;
+            for (User loaded : DataLoader.getUsers(DataConstants.USERS_FILE)) {
+                if (userId.equals(loaded.getId())) {
+                    saved = loaded;
+                }
+            }
+            assertEquals(40.0, saved.getCourseProgress(courseId), 0.01);
+        } finally {
+            synchronized (store) {
+                store.getUsers().remove(user);
+            }
+            store.save();
+        }
+    }
+
+    @Test
+    public void testClose_DeactivatesJournal() {
+        journal.close();
+        assertNull(ProgressJournal.getActive());
+    }
+}
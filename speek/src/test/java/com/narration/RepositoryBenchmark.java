@@ -0,0 +1,87 @@
+package com.narration;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.UUID;
+
+/**
+ * Compares the storage backends: time to save all users, load them all back, look one up and save one.
+ * Run with: java -cp ... com.narration.RepositoryBenchmark [userCount ...]
+ * Defaults to 1k, 10k and 100k users.
+ */
+public class RepositoryBenchmark {
+
+    private static final String BENCHMARK_DIR = "testData/repositoryBenchmark";
+    private static final String MEMORY = "memory";
+    private static final String JSON = "json";
+    private static final String H2 = "h2";
+
+    public static void main(String[] args) {
+        int[] sizes = args.length == 0 ? new int[] {1_000, 10_000, 100_000} : new int[args.length];
+        for (int i = 0; i < args.length; i++) {
+            sizes[i] = Integer.parseInt(args[i]);
+        }
+        new File(BENCHMARK_DIR).mkdirs();
+
+        System.out.printf("%-8s %10s %12s %12s %12s %12s%n", "backend", "users", "saveAll ms", "loadAll ms", "find ms", "saveOne ms");
+        for (int size : sizes) {
+            ArrayList<User> users = buildUsers(size);
+            for (String backend : new String[] {MEMORY, JSON, H2}) {
+                try (DataRepository repository = open(backend, size)) {
+                    // warm up once so JIT compilation is not part of the measurement
+                    repository.saveUsers(users);
+                    repository.loadUsers();
+
+                    long saveAll = time(() -> repository.saveUsers(users));
+                    long loadAll = time(repository::loadUsers);
+                    UUID target = users.get(size / 2).getId();
+                    long find = time(() -> repository.findUser(target));
+                    long saveOne = time(() -> repository.saveUser(users.get(size / 2)));
+                    System.out.printf("%-8s %10d %12d %12d %12d %12d%n", backend, size, saveAll, loadAll, find, saveOne);
+                }
+            }
+        }
+        deleteBenchmarkDirectory();
+    }
+
+    private static DataRepository open(String backend, int size) {
+        switch (backend) {
+            case JSON:
+                return new JsonRepository(BENCHMARK_DIR + "/User.json", BENCHMARK_DIR + "/Courses.json",
+                        BENCHMARK_DIR + "/Languages.json", BENCHMARK_DIR + "/words.json", BENCHMARK_DIR + "/phrases.json");
+            case H2:
+                return new H2Repository("jdbc:h2:file:./" + BENCHMARK_DIR + "/bench" + size);
+            default:
+                return new InMemoryRepository();
+        }
+    }
+
+    private static long time(Runnable operation) {
+        long start = System.nanoTime();
+        operation.run();
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    private static ArrayList<User> buildUsers(int count) {
+        ArrayList<User> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            User user = new User(UUID.randomUUID(), "user" + i, "user" + i + "@example.com", "password" + i);
+            for (int c = 0; c < 3; c++) {
+                user.updateCourseProgress(UUID.randomUUID(), c * 25.0);
+            }
+            users.add(user);
+        }
+        return users;
+    }
+
+    private static void deleteBenchmarkDirectory() {
+        File directory = new File(BENCHMARK_DIR);
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+}
@@ -0,0 +1,138 @@
+package com.narration;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests every storage backend must pass. Each backend's test class extends this one and supplies the backend.
+ */
+public abstract class RepositoryContract {
+
+    protected DataRepository repository;
+
+    /**
+     * Creates an empty backend for one test.
+     */
+    protected abstract DataRepository createRepository();
+
+    /**
+     * Removes whatever the backend stored.
+     */
+    protected void deleteStorage() {
+    }
+
+    @Before
+    public void setUpRepository() {
+        deleteStorage();
+        repository = createRepository();
+    }
+
+    @After
+    public void tearDownRepository() {
+        repository.close();
+        deleteStorage();
+    }
+
+    private static User user(String username) {
+        return new User(UUID.randomUUID(), username, username + "@example.com", "password");
+    }
+
+    private static Course course(String name) {
+        ArrayList<Lesson> lessons = new ArrayList<>();
+        lessons.add(new Lesson("Greetings", UUID.randomUUID(), "Saying hello", 50.0, "Hello", "Hola"));
+        return new Course(UUID.randomUUID(), name, "About " + name, true, 25.0, false, lessons,
+                new ArrayList<>(), new ArrayList<>(), null);
+    }
+
+    @Test
+    public void testSaveUsers_LoadsThemBack() {
+        UUID courseId = UUID.randomUUID();
+        User jenny = user("jennyJ");
+        jenny.updateCourseProgress(courseId, 40.0);
+        jenny.completeCourse(courseId);
+        jenny.setCurrentCourse(courseId);
+        List<User> users = new ArrayList<>();
+        users.add(jenny);
+        users.add(user("other"));
+
+        repository.saveUsers(users);
+        ArrayList<User> loaded = repository.loadUsers();
+
+        assertEquals(2, loaded.size());
+        assertEquals("jennyJ", loaded.get(0).getUsername());
+        assertEquals(40.0, loaded.get(0).getCourseProgress(courseId), 0.01);
+        assertTrue(loaded.get(0).getCompletedCourses().contains(courseId));
+        assertEquals(courseId, loaded.get(0).getCurrentCourse());
+    }
+
+    @Test
+    public void testSaveUser_ReplacesOrAdds() {
+        User jenny = user("jennyJ");
+        List<User> users = new ArrayList<>();
+        users.add(jenny);
+        repository.saveUsers(users);
+
+        jenny.setEmail("changed@example.com");
+        repository.saveUser(jenny);
+        repository.saveUser(user("newbie"));
+
+        assertEquals(2, repository.loadUsers().size());
+        assertEquals("changed@example.com", repository.findUser(jenny.getId()).getEmail());
+        assertNull(repository.findUser(UUID.randomUUID()));
+    }
+
+    @Test
+    public void testSaveCourses_LoadsThemBack() {
+        Course spanish = course("Spanish 101");
+        List<Course> courses = new ArrayList<>();
+        courses.add(spanish);
+        courses.add(course("Spanish 102"));
+
+        repository.saveCourses(courses);
+
+        assertEquals(2, repository.loadCourses().size());
+        Course found = repository.findCourse(spanish.getId());
+        assertEquals("Spanish 101", found.getName());
+    }
+
+    @Test
+    public void testSaveVocabulary_LoadsItBack() {
+        List<Language> languages = new ArrayList<>();
+        languages.add(new Language(UUID.randomUUID(), "Spanish"));
+        List<Word> words = new ArrayList<>();
+        words.add(new Word("Hola", "A greeting", "Rudimentary", "Hello"));
+        List<Phrase> phrases = new ArrayList<>();
+        phrases.add(new Phrase("Buenos días", "Good morning"));
+
+        repository.saveLanguages(languages);
+        repository.saveWords(words);
+        repository.savePhrases(phrases);
+
+        assertEquals("Spanish", repository.loadLanguages().get(0).getName());
+        Word word = repository.loadWords().get(0);
+        assertEquals("Hola", word.getWordText());
+        assertEquals("A greeting", word.getDefinition());
+        assertEquals("Rudimentary", word.getDifficulty());
+        assertEquals("Hello", word.getTranslation());
+        assertEquals("Good morning", repository.loadPhrases().get(0).getDefinition());
+    }
+
+    @Test
+    public void testAsyncMethods_CompleteWithResults() {
+        List<User> users = new ArrayList<>();
+        users.add(user("jennyJ"));
+
+        repository.saveUsersAsync(users).join();
+
+        assertEquals(1, repository.loadUsersAsync().join().size());
+        assertEquals("jennyJ", repository.findUserAsync(users.get(0).getId()).join().getUsername());
+    }
+}
@@ -0,0 +1,148 @@
+package com.narration;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.UUID;
+
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+
+/**
+ * Compares peak heap and save time of the old json-simple save path against StreamingJsonWriter.
+ * Run with: java -Xmx4g -cp ... com.narration.SaveUsersBenchmark [userCount ...]
+ * Defaults to 10k, 100k and 1M users.
+ */
+public class SaveUsersBenchmark {
+
+    private static final String BENCHMARK_FILE = "testData/BenchmarkUsers.json";
+
+    public static void main(String[] args) throws IOException {
+        int[] sizes = args.length == 0 ? new int[] {10_000, 100_000, 1_000_000} : new int[args.length];
+        for (int i = 0; i < args.length; i++) {
+            sizes[i] = Integer.parseInt(args[i]);
+        }
+        new File("testData").mkdirs();
+
+        System.out.printf("%10s %12s %14s %12s %14s%n", "users", "tree ms", "tree peak MB", "stream ms", "stream peak MB");
+        for (int size : sizes) {
+            ArrayList<User> users = buildUsers(size);
+
+            // warm up both paths once so JIT compilation is not part of the measurement
+            saveWithTree(users);
+            saveWithStream(users);
+
+            long[] tree = measure(() -> saveWithTree(users));
+            long[] stream = measure(() -> saveWithStream(users));
+            System.out.printf("%10d %12d %14d %12d %14d%n", size, tree[0], tree[1], stream[0], stream[1]);
+        }
+        new File(BENCHMARK_FILE).delete();
+    }
+
+    private interface Save {
+        void run() throws IOException;
+    }
+
+    /**
+     * Returns {elapsed millis, peak heap MB above the post-GC baseline} for one save.
+     */
+    private static long[] measure(Save save) throws IOException {
+        System.gc();
+        long baseline = heapUsed();
+        resetPeaks();
+        long start = System.nanoTime();
+        save.run();
+        long elapsed = (System.nanoTime() - start) / 1_000_000;
+        long peak = Math.max(0, heapPeak() - baseline);
+        return new long[] {elapsed, peak / (1024 * 1024)};
+    }
+
+    /**
+     * Streams the users into a plain buffered file, without the temporary file and forced rename DataWriter adds,
+     * so only the serialization differs from saveWithTree.
+     */
+    private static void saveWithStream(ArrayList<User> users) throws IOException {
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(BENCHMARK_FILE), 64 * 1024)) {
+            StreamingJsonWriter.writeUsers(out, users);
+        }
+    }
+
+    /**
+     * The save path DataWriter used before streaming: full JSONArray, one big String, unbuffered FileWriter.
+     */
+    @SuppressWarnings("unchecked")
+    private static void saveWithTree(ArrayList<User> users) throws IOException {
+        JSONArray userList = new JSONArray();
+        for (User user : users) {
+            JSONObject userJSON = new JSONObject();
+            userJSON.put("userId", user.getId().toString());
+            userJSON.put("username", user.getUsername());
+            userJSON.put("email", user.getEmail());
+            userJSON.put("password", user.getPassword());
+            userJSON.put("courses", new JSONArray());
+            JSONObject progressJSON = new JSONObject();
+            for (UUID courseId : user.getProgress().keySet()) {
+                progressJSON.put(courseId.toString(), user.getCourseProgress(courseId));
+            }
+            userJSON.put("progress", progressJSON);
+            JSONArray completedCoursesJSON = new JSONArray();
+            for (UUID courseId : user.getCompletedCourses()) {
+                completedCoursesJSON.add(courseId.toString());
+            }
+            userJSON.put("completedCourses", completedCoursesJSON);
+            userJSON.put("languages", new JSONArray());
+            userJSON.put("currentCourseID", user.getCurrentCourse().toString());
+            userJSON.put("currentLanguageID", user.getCurrentLanguage().toString());
+            userJSON.put("currentLanguageName", user.getCurrentLanguageName());
+            userList.add(userJSON);
+        }
+        try (FileWriter file = new FileWriter(BENCHMARK_FILE)) {
+            file.write(userList.toJSONString());
+            file.flush();
+        }
+    }
+
+    private static ArrayList<User> buildUsers(int count) {
+        UUID courseId = UUID.randomUUID();
+        UUID languageId = UUID.randomUUID();
+        ArrayList<User> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            User user = new User(UUID.randomUUID(), "user" + i, "user" + i + "@example.com", "password");
+            user.updateCourseProgress(courseId, i % 100);
+            user.setCurrentCourse(courseId);
+            user.setCurrentLanguage(languageId);
+            user.setCurrentLanguageName("Spanish");
+            users.add(user);
+        }
+        return users;
+    }
+
+    private static long heapUsed() {
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private static void resetPeaks() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    private static long heapPeak() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+}
@@ -0,0 +1,144 @@
+package com.narration;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test class for the ShardedUserStorage class.
+ */
+public class ShardedUserStorageTest {
+
+    private static final String TEST_SHARD_DIR = "testData/userShards";
+    private static final int SHARD_COUNT = 8;
+
+    private ArrayList<User> users;
+
+    @Before
+    public void setUp() {
+        deleteShardDirectory();
+        users = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            users.add(new User(UUID.randomUUID(), "user" + i, "user" + i + "@example.com", "password"));
+        }
+    }
+
+    @After
+    public void tearDown() {
+        deleteShardDirectory();
+    }
+
+    private void deleteShardDirectory() {
+        File directory = new File(TEST_SHARD_DIR);
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    @Test
+    public void testCreate_WritesManifestAndShards() throws IOException {
+        assertFalse(ShardedUserStorage.exists(TEST_SHARD_DIR));
+
+        ShardedUserStorage.create(TEST_SHARD_DIR, SHARD_COUNT, users);
+
+        assertTrue(ShardedUserStorage.exists(TEST_SHARD_DIR));
+        ShardedUserStorage storage = ShardedUserStorage.open(TEST_SHARD_DIR);
+        assertEquals(SHARD_COUNT, storage.getShardCount());
+        assertEquals(20, storage.loadAll().size());
+    }
+
+    @Test
+    public void testSaveUser_RewritesOnlyItsShard() throws IOException {
+        ShardedUserStorage storage = ShardedUserStorage.create(TEST_SHARD_DIR, SHARD_COUNT, users);
+        long past = System.currentTimeMillis() - 60_000;
+        for (int shard = 0; shard < SHARD_COUNT; shard++) {
+            storage.shardFile(shard).setLastModified(past);
+        }
+
+        User user = users.get(3);
+        UUID courseId = UUID.randomUUID();
+        user.updateCourseProgress(courseId, 75.0);
+        storage.saveUser(user);
+
+        int touchedShard = storage.shardOf(user.getId());
+        for (int shard = 0; shard < SHARD_COUNT; shard++) {
+            boolean touched = storage.shardFile(shard).lastModified() != past;
+            assertEquals("shard " + shard, shard == touchedShard, touched);
+        }
+
+        ArrayList<User> loaded = storage.loadAll();
+        assertEquals(20, loaded.size());
+        for (User loadedUser : loaded) {
+            if (loadedUser.getId().equals(user.getId())) {
+                assertEquals(75.0, loadedUser.getCourseProgress(courseId), 0.01);
+            }
+        }
+    }
+
+    @Test
+    public void testSaveUser_AppendsNewUser() throws IOException {
+        ShardedUserStorage storage = ShardedUserStorage.create(TEST_SHARD_DIR, SHARD_COUNT, users);
+
+        storage.saveUser(new User(UUID.randomUUID(), "newbie", "newbie@example.com", "pass"));
+
+        assertEquals(21, storage.loadAll().size());
+    }
+
+    @Test
+    public void testDataLoader_ReadsShardedLayout() throws IOException {
+        ShardedUserStorage.create(TEST_SHARD_DIR, SHARD_COUNT, users);
+
+        assertEquals(20, DataLoader.getUsersFromShards(TEST_SHARD_DIR).size());
+    }
+
+    @Test
+    public void testUserStore_SavesSingleUserIntoShard() throws IOException {
+        ShardedUserStorage storage = ShardedUserStorage.create(TEST_SHARD_DIR, SHARD_COUNT, users);
+        UserStore store = new UserStore("testData/missing-users.json", TEST_SHARD_DIR);
+
+        User user = store.getUsers().get(0);
+        user.setEmail("changed@example.com");
+        store.saveUser(user);
+
+        assertEquals(20, store.getUsers().size());
+        boolean found = false;
+        for (User loadedUser : storage.loadAll()) {
+            found |= "changed@example.com".equals(loadedUser.getEmail());
+        }
+        assertTrue(found);
+    }
+
+    @Test(expected = IOException.class)
+    public void testOpen_MissingManifest() throws IOException {
+        ShardedUserStorage.open(TEST_SHARD_DIR);
+    }
+
+    @Test
+    public void testSaveChanged_WritesOnlyDirtyShards() throws IOException {
+        ShardedUserStorage.create(TEST_SHARD_DIR, SHARD_COUNT, users);
+        ShardedUserStorage storage = ShardedUserStorage.open(TEST_SHARD_DIR);
+        ArrayList<User> loaded = storage.loadAll();
+
+        assertEquals(0, storage.saveChanged(loaded));
+
+        loaded.get(0).setEmail("changed@example.com");
+        assertEquals(1, storage.saveChanged(loaded));
+        assertFalse(loaded.get(0).isDirty());
+
+        loaded.remove(1);
+        assertEquals(1, storage.saveChanged(loaded));
+        assertEquals(19, ShardedUserStorage.open(TEST_SHARD_DIR).loadAll().size());
+    }
+}
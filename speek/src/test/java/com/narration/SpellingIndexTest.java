@@ -0,0 +1,145 @@
+package com.narration;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ * Test class for the SpellingIndex class.
+ */
+public class SpellingIndexTest {
+
+    @Test
+    public void testDistance() {
+        assertEquals(0, SpellingIndex.distance("casa", "casa"));
+        assertEquals(1, SpellingIndex.distance("casa", "cosa"));
+        assertEquals(1, SpellingIndex.distance("casa", "casas"));
+        assertEquals(3, SpellingIndex.distance("kitten", "sitting"));
+        assertEquals(4, SpellingIndex.distance("", "gato"));
+    }
+
+    @Test
+    public void testWithAndWithout() {
+        SpellingIndex index = new SpellingIndex(Arrays.asList("gato", "casa", "gato", null));
+        assertEquals(2, index.size());
+        assertSame(index, index.with("casa"));
+        assertSame(index, index.without("perro"));
+
+        SpellingIndex added = index.with("cosa");
+        assertEquals(3, added.size());
+        assertEquals(2, index.size());
+        assertEquals(2, added.search("casa", 1).size());
+
+        SpellingIndex removed = added.without("casa");
+        assertEquals(1, removed.search("casa", 1).size());
+        assertEquals("cosa", removed.search("casa", 1).get(0).getWord());
+    }
+
+    @Test
+    public void testSearch_MatchesLinearScan() {
+        Random random = new Random(7);
+        ArrayList<String> words = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            words.add(randomWord(random));
+        }
+        SpellingIndex index = new SpellingIndex(words);
+
+        for (int i = 0; i < 50; i++) {
+            String query = randomWord(random);
+            for (int maxDistance = 0; maxDistance <= 2; maxDistance++) {
+                HashSet<String> expected = new HashSet<>();
+                for (String word : words) {
+                    if (SpellingIndex.distance(query, word) <= maxDistance) {
+                        expected.add(word);
+                    }
+                }
+                HashSet<String> found = new HashSet<>();
+                for (SpellingIndex.Match match : index.search(query, maxDistance)) {
+                    assertEquals(SpellingIndex.distance(query, match.getWord()), match.getDistance());
+                    found.add(match.getWord());
+                }
+                assertEquals(expected, found);
+            }
+        }
+    }
+
+    @Test
+    public void testClosest_MatchesRankedSearch() {
+        Random random = new Random(11);
+        ArrayList<String> words = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            words.add(randomWord(random));
+        }
+        SpellingIndex index = new SpellingIndex(words).with("zzzz").without(words.get(0));
+
+        for (int i = 0; i < 50; i++) {
+            String query = randomWord(random);
+            ArrayList<SpellingIndex.Match> ranked = index.search(query, 2);
+            ranked.sort((a, b) -> a.getDistance() - b.getDistance());
+            for (int limit = 1; limit <= 8; limit++) {
+                ArrayList<SpellingIndex.Match> closest = index.closest(query, 2, limit);
+                assertEquals(Math.min(limit, ranked.size()), closest.size());
+                for (int j = 0; j < closest.size(); j++) {
+                    assertEquals(ranked.get(j).getWord(), closest.get(j).getWord());
+                    assertEquals(ranked.get(j).getDistance(), closest.get(j).getDistance());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testWithAndWithout_AcrossMerge() {
+        Random random = new Random(3);
+        HashSet<String> expected = new HashSet<>();
+        SpellingIndex index = new SpellingIndex(new ArrayList<>());
+        for (int i = 0; i < 3 * SpellingIndex.MERGE_AT; i++) {
+            String word = randomWord(random);
+            if (random.nextInt(3) == 0) {
+                index = index.without(word);
+                expected.remove(word);
+            } else {
+                index = index.with(word);
+                expected.add(word);
+            }
+        }
+        assertEquals(expected.size(), index.size());
+
+        SpellingIndex rebuilt = new SpellingIndex(expected);
+        for (int i = 0; i < 20; i++) {
+            String query = randomWord(random);
+            ArrayList<String> found = new ArrayList<>();
+            for (SpellingIndex.Match match : index.search(query, 2)) {
+                found.add(match.getWord());
+            }
+            ArrayList<String> built = new ArrayList<>();
+            for (SpellingIndex.Match match : rebuilt.search(query, 2)) {
+                built.add(match.getWord());
+            }
+            assertEquals(built, found);
+        }
+    }
+
+    @Test
+    public void testSearch_EmptyInputs() {
+        SpellingIndex index = new SpellingIndex(Arrays.asList("casa"));
+        assertTrue(index.search(null, 1).isEmpty());
+        assertTrue(index.search("casa", -1).isEmpty());
+        assertTrue(new SpellingIndex(new ArrayList<>()).search("casa", 2).isEmpty());
+        assertEquals(1, index.search("", 4).size());
+    }
+
+    private static String randomWord(Random random) {
+        StringBuilder word = new StringBuilder();
+        int length = random.nextInt(7);
+        for (int i = 0; i < length; i++) {
+            word.append((char) ('a' + random.nextInt(6)));
+        }
+        return word.toString();
+    }
+}
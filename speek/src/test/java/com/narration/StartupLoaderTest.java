@@ -0,0 +1,86 @@
+package com.narration;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ * Test class for the StartupLoader class.
+ */
+public class StartupLoaderTest {
+
+    @Test
+    public void testLoad_RunsFilesAtTheSameTime() {
+        // Every task waits until all three have started, which only happens if they run in parallel
+        CountDownLatch started = new CountDownLatch(3);
+        Map<String, Callable<?>> tasks = new LinkedHashMap<>();
+        for (String name : new String[] {"users", "courses", "words"}) {
+            tasks.put(name, () -> {
+                started.countDown();
+                return started.await(5, TimeUnit.SECONDS) ? name : null;
+            });
+        }
+
+        StartupLoader loader = new StartupLoader(3, tasks);
+
+        assertEquals("users", loader.get("users"));
+        assertEquals("courses", loader.get("courses"));
+        assertEquals("words", loader.get("words"));
+    }
+
+    @Test
+    public void testLoad_TakesAboutAsLongAsTheSlowestFile() {
+        Map<String, Callable<?>> tasks = new LinkedHashMap<>();
+        for (int i = 0; i < 4; i++) {
+            tasks.put("file" + i, () -> {
+                Thread.sleep(200);
+                return Boolean.TRUE;
+            });
+        }
+
+        StartupLoader loader = new StartupLoader(4, tasks);
+
+        assertTrue("took " + loader.getTotalMillis() + " ms", loader.getTotalMillis() < 600);
+    }
+
+    @Test
+    public void testTimings_RecordedPerFileInOrder() {
+        Map<String, Callable<?>> tasks = new LinkedHashMap<>();
+        tasks.put(StartupLoader.USERS, () -> {
+            Thread.sleep(100);
+            return "slow";
+        });
+        tasks.put(StartupLoader.PHRASES, () -> "fast");
+
+        StartupLoader loader = new StartupLoader(2, tasks);
+
+        assertArrayEquals(new String[] {StartupLoader.USERS, StartupLoader.PHRASES},
+                loader.getTimings().keySet().toArray(new String[0]));
+        assertTrue(loader.getTimings().get(StartupLoader.USERS) >= 100);
+        assertTrue(loader.getTotalMillis() >= loader.getTimings().get(StartupLoader.USERS));
+        assertTrue(loader.formatTimings().startsWith("users "));
+    }
+
+    @Test
+    public void testFailingFile_OtherFilesStillLoad() {
+        Map<String, Callable<?>> tasks = new LinkedHashMap<>();
+        tasks.put(StartupLoader.COURSES, () -> {
+            throw new IllegalStateException("broken courses file");
+        });
+        tasks.put(StartupLoader.WORDS, WordsList::new);
+
+        StartupLoader loader = new StartupLoader(1, tasks);
+
+        assertNull(loader.getCourseList());
+        assertTrue(loader.getWordsList() != null);
+        assertTrue(loader.getTimings().containsKey(StartupLoader.COURSES));
+    }
+}
@@ -0,0 +1,183 @@
+package com.narration;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test class for the StreamingJsonLoader class.
+ */
+public class StreamingJsonLoaderTest {
+
+    private static final String TEST_STREAM_USERS_FILE = "testData/StreamUsers.json";
+
+    private UUID userId;
+    private UUID courseId;
+    private UUID lessonId;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() throws IOException {
+        new File("testData").mkdirs();
+        userId = UUID.randomUUID();
+        courseId = UUID.randomUUID();
+        lessonId = UUID.randomUUID();
+
+        JSONObject lessonJson = new JSONObject();
+        lessonJson.put("lessonName", "Storytelling");
+        lessonJson.put("lessonID", lessonId.toString());
+        lessonJson.put("description", "Greetings");
+        lessonJson.put("lessonProgress", 25.0);
+        lessonJson.put("englishContent", "One morning");
+        lessonJson.put("spanishContent", "Una mañana");
+        JSONArray lessons = new JSONArray();
+        lessons.add(lessonJson);
+
+        JSONObject courseJson = new JSONObject();
+        courseJson.put("courseID", courseId.toString());
+        courseJson.put("name", "Starting Out");
+        courseJson.put("description", "Beginner course");
+        courseJson.put("userAccess", true);
+        courseJson.put("courseProgress", 40.0);
+        courseJson.put("lessons", lessons);
+        JSONArray courses = new JSONArray();
+        courses.add(courseJson);
+
+        JSONObject progress = new JSONObject();
+        progress.put(courseId.toString(), 40.0);
+        JSONArray completed = new JSONArray();
+        completed.add(courseId.toString());
+
+        JSONObject userJson = new JSONObject();
+        userJson.put("userId", userId.toString());
+        userJson.put("username", "jennyJ");
+        userJson.put("email", "jenny@gmail.com");
+        userJson.put("password", "password");
+        userJson.put("courses", courses);
+        userJson.put("progress", progress);
+        userJson.put("completedCourses", completed);
+        userJson.put("languages", new JSONArray());
+        userJson.put("currentCourseID", courseId.toString());
+        userJson.put("currentLanguageID", null);
+        userJson.put("currentLanguageName", "Spanish");
+
+        JSONObject secondUser = new JSONObject();
+        secondUser.put("userId", UUID.randomUUID().toString());
+        secondUser.put("username", "second");
+
+        JSONArray users = new JSONArray();
+        users.add(userJson);
+        users.add(secondUser);
+        try (FileWriter file = new FileWriter(TEST_STREAM_USERS_FILE, StandardCharsets.UTF_8)) {
+            file.write(users.toJSONString());
+        }
+    }
+
+    @After
+    public void tearDown() {
+        new File(TEST_STREAM_USERS_FILE).delete();
+    }
+
+    @Test
+    public void testForEachUser_BuildsFullUserGraph() throws IOException {
+        List<User> users = new ArrayList<>();
+        StreamingJsonLoader.forEachUser(TEST_STREAM_USERS_FILE, users::add);
+
+        assertEquals(2, users.size());
+        User user = users.get(0);
+        assertEquals(userId, user.getId());
+        assertEquals("jennyJ", user.getUsername());
+        assertEquals("jenny@gmail.com", user.getEmail());
+        assertEquals(40.0, user.getCourseProgress(courseId), 0.01);
+        assertTrue(user.getCompletedCourses().contains(courseId));
+        assertEquals(courseId, user.getCurrentCourse());
+        assertNull(user.getCurrentLanguage());
+        assertEquals("Spanish", user.getCurrentLanguageName());
+
+        Course course = user.getCourses().get(0);
+        assertEquals("Starting Out", course.getName());
+        assertTrue(user.hasCourseAccess(courseId));
+        Lesson lesson = course.getAllLessons().get(0);
+        assertEquals(lessonId, lesson.getId());
+        assertEquals(25.0, user.getLessonProgress(courseId, lessonId), 0.01);
+        assertEquals("Una mañana", lesson.getSpanishContent());
+    }
+
+    @Test
+    public void testForEachUser_UsersShareOneCourseInstance() throws IOException {
+        Course shared = new Course(courseId, "Starting Out", "Beginner course", false, 0.0, false,
+                new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), null);
+        CourseCatalog.publish(Collections.singletonList(shared));
+        List<User> first = new ArrayList<>();
+        List<User> second = new ArrayList<>();
+        StreamingJsonLoader.forEachUser(TEST_STREAM_USERS_FILE, first::add);
+        StreamingJsonLoader.forEachUser(TEST_STREAM_USERS_FILE, second::add);
+
+        assertSame(shared, first.get(0).getCourses().get(0));
+        assertSame(shared, second.get(0).getCourses().get(0));
+        assertTrue(first.get(0).hasCourseAccess(courseId));
+        assertSame(first.get(0).getEnrollment(courseId), first.get(0).getEnrollment(courseId));
+        assertNotSame(first.get(0).getEnrollment(courseId), second.get(0).getEnrollment(courseId));
+    }
+
+    @Test
+    public void testForEachUser_PublishedCourseReplacesLoadedCopy() throws IOException {
+        List<User> users = new ArrayList<>();
+        StreamingJsonLoader.forEachUser(TEST_STREAM_USERS_FILE, users::add);
+        Course published = new Course(courseId, "Starting Out", "Updated course", false, 0.0, false,
+                new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), null);
+
+        CourseCatalog.publish(Collections.singletonList(published));
+        assertNotSame(published, users.get(0).getCourses().get(0));
+        users.get(0).resolveCourses();
+
+        assertSame(published, users.get(0).getCourses().get(0));
+        assertTrue(users.get(0).hasCourseAccess(courseId));
+    }
+
+    @Test
+    public void testStreamUsers_IsLazyAndOrdered() throws IOException {
+        try (Stream<User> users = StreamingJsonLoader.streamUsers(TEST_STREAM_USERS_FILE)) {
+            List<String> names = users.map(User::getUsername).collect(Collectors.toList());
+            assertEquals(2, names.size());
+            assertEquals("jennyJ", names.get(0));
+            assertEquals("second", names.get(1));
+        }
+    }
+
+    @Test
+    public void testStreamUsers_MissingOptionalFields() throws IOException {
+        try (Stream<User> users = StreamingJsonLoader.streamUsers(TEST_STREAM_USERS_FILE)) {
+            User second = users.skip(1).findFirst().get();
+            assertTrue(second.getCourses().isEmpty());
+            assertTrue(second.getProgress().isEmpty());
+            assertNull(second.getCurrentCourse());
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testForEachUser_NotAnArray() throws IOException {
+        try (FileWriter file = new FileWriter(TEST_STREAM_USERS_FILE, StandardCharsets.UTF_8)) {
+            file.write("{}");
+        }
+        StreamingJsonLoader.forEachUser(TEST_STREAM_USERS_FILE, user -> { });
+    }
+}
@@ -0,0 +1,153 @@
+package com.narration;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test class for the StreamingJsonWriter class.
+ */
+public class StreamingJsonWriterTest {
+
+    private static final String TEST_WRITER_USERS_FILE = "testData/WriterUsers.json";
+
+    private User user;
+    private UUID courseId;
+
+    @Before
+    public void setUp() {
+        new File("testData").mkdirs();
+        courseId = UUID.randomUUID();
+        user = new User(UUID.randomUUID(), "jennyJ", "jenny@gmail.com", "password");
+        user.updateCourseProgress(courseId, 55.0);
+        user.completeCourse(courseId);
+        user.setCurrentCourse(courseId);
+        user.setCurrentLanguageName("Spanish");
+    }
+
+    @After
+    public void tearDown() {
+        new File(TEST_WRITER_USERS_FILE).delete();
+    }
+
+    @Test
+    public void testWriteUsers_ProducesJsonArray() throws IOException, ParseException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ArrayList<User> users = new ArrayList<>();
+        users.add(user);
+
+        StreamingJsonWriter.writeUsers(out, users);
+
+        JSONArray parsed = (JSONArray) new JSONParser().parse(out.toString(StandardCharsets.UTF_8.name()));
+        assertEquals(1, parsed.size());
+        JSONObject userJson = (JSONObject) parsed.get(0);
+        assertEquals(user.getId().toString(), userJson.get("userId"));
+        assertEquals("jennyJ", userJson.get("username"));
+        assertEquals(courseId.toString(), userJson.get("currentCourseID"));
+        assertNull(userJson.get("currentLanguageID"));
+        assertEquals(55.0, ((Number) ((JSONObject) userJson.get("progress")).get(courseId.toString())).doubleValue(), 0.01);
+    }
+
+    @Test
+    public void testWriteUsers_RoundTripsThroughStreamingLoader() throws IOException {
+        ArrayList<User> users = new ArrayList<>();
+        users.add(user);
+        users.add(new User(UUID.randomUUID(), "second", "second@example.com", "pass"));
+
+        StreamingJsonWriter.writeUsers(TEST_WRITER_USERS_FILE, users);
+
+        List<User> loaded = new ArrayList<>();
+        StreamingJsonLoader.forEachUser(TEST_WRITER_USERS_FILE, loaded::add);
+        assertEquals(2, loaded.size());
+        assertEquals(user.getId(), loaded.get(0).getId());
+        assertEquals(55.0, loaded.get(0).getCourseProgress(courseId), 0.01);
+        assertTrue(loaded.get(0).getCompletedCourses().contains(courseId));
+        assertEquals("Spanish", loaded.get(0).getCurrentLanguageName());
+        assertEquals("second", loaded.get(1).getUsername());
+    }
+
+    @Test
+    public void testWriteUsers_RoundTripsEnrollment() throws IOException {
+        UUID lessonId = UUID.randomUUID();
+        user.addCourse(new Course(courseId, "Starting Out", "Beginner course", false, 0.0, false,
+                new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), null));
+        user.setCourseAccess(courseId, true);
+        user.updateLessonProgress(courseId, lessonId, 75.0);
+        ArrayList<User> users = new ArrayList<>();
+        users.add(user);
+
+        StreamingJsonWriter.writeUsers(TEST_WRITER_USERS_FILE, users);
+
+        List<User> loaded = new ArrayList<>();
+        StreamingJsonLoader.forEachUser(TEST_WRITER_USERS_FILE, loaded::add);
+        assertTrue(loaded.get(0).hasCourseAccess(courseId));
+        assertEquals(75.0, loaded.get(0).getLessonProgress(courseId, lessonId), 0.01);
+        assertSame(user.getCourses().get(0), loaded.get(0).getCourses().get(0));
+        assertFalse(loaded.get(0).isDirty());
+    }
+
+    @Test
+    public void testWriteUsers_EmptyList() throws IOException {
+        StreamingJsonWriter.writeUsers(TEST_WRITER_USERS_FILE, new ArrayList<>());
+        try (FileReader reader = new FileReader(TEST_WRITER_USERS_FILE, StandardCharsets.UTF_8)) {
+            char[] buffer = new char[8];
+            int read = reader.read(buffer);
+            assertEquals("[]", new String(buffer, 0, read));
+        }
+    }
+
+    @Test
+    public void testWriteUsers_FailedWriteKeepsOldFile() throws IOException {
+        ArrayList<User> users = new ArrayList<>();
+        users.add(user);
+        StreamingJsonWriter.writeUsers(TEST_WRITER_USERS_FILE, users);
+
+        Iterable<User> failing = () -> new Iterator<User>() {
+            private int given;
+
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public User next() {
+                if (given++ > 0) {
+                    throw new IllegalStateException("user list changed");
+                }
+                return user;
+            }
+        };
+        try {
+            StreamingJsonWriter.writeUsers(TEST_WRITER_USERS_FILE, failing);
+            fail("the failing write should throw");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+
+        List<User> loaded = new ArrayList<>();
+        StreamingJsonLoader.forEachUser(TEST_WRITER_USERS_FILE, loaded::add);
+        assertEquals(1, loaded.size());
+        assertEquals("jennyJ", loaded.get(0).getUsername());
+    }
+}
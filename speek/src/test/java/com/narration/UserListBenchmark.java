@@ -0,0 +1,112 @@
+package com.narration;
+
+import java.util.ArrayList;
+import java.util.UUID;
+
+/**
+ * Compares the per-lookup cost of the old linear username scan against the UserList indexes as the user count grows.
+ * Run with: java -Xmx4g -cp ... com.narration.UserListBenchmark [userCount ...]
+ * Defaults to 1k, 10k, 100k and 1M users.
+ */
+public class UserListBenchmark {
+
+    private static final int LOOKUPS = 10_000;
+
+    public static void main(String[] args) {
+        int[] sizes = args.length == 0 ? new int[] {1_000, 10_000, 100_000, 1_000_000} : new int[args.length];
+        for (int i = 0; i < args.length; i++) {
+            sizes[i] = Integer.parseInt(args[i]);
+        }
+
+        System.out.printf("%10s %14s %14s %14s %14s %14s%n", "users", "scan ns", "username ns", "uuid ns", "email ns", "rename ns");
+        for (int size : sizes) {
+            TrackedArrayList<User> users = buildUsers(size);
+            UserList userList = new UserList(users, users);
+            String[] usernames = new String[LOOKUPS];
+            UUID[] ids = new UUID[LOOKUPS];
+            String[] emails = new String[LOOKUPS];
+            for (int i = 0; i < LOOKUPS; i++) {
+                User user = users.get((int) ((i * 2_654_435_761L) % size));
+                usernames[i] = user.getUsername().toUpperCase();
+                ids[i] = user.getId();
+                emails[i] = user.getEmail();
+            }
+
+            // the constructor built the indexes; warm up both paths so JIT compilation is not measured
+            for (int round = 0; round < 2; round++) {
+                scan(users, usernames, 100);
+                lookUp(userList, usernames, ids, emails);
+            }
+
+            // the scan is limited to fewer lookups so large lists finish in reasonable time
+            int scans = Math.max(10, Math.min(LOOKUPS, 10_000_000 / size));
+            long start = System.nanoTime();
+            scan(users, usernames, scans);
+            long scanNanos = (System.nanoTime() - start) / scans;
+            long[] indexed = lookUp(userList, usernames, ids, emails);
+            long renameNanos = rename(users, size);
+            System.out.printf("%10d %14d %14d %14d %14d %14d%n", size, scanNanos, indexed[0], indexed[1], indexed[2], renameNanos);
+        }
+    }
+
+    /**
+     * The username lookup UserList used before indexing.
+     */
+    private static int scan(ArrayList<User> users, String[] usernames, int count) {
+        int found = 0;
+        for (int i = 0; i < count; i++) {
+            for (User user : users) {
+                if (user.getUsername().equalsIgnoreCase(usernames[i])) {
+                    found++;
+                    break;
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Returns the average nanoseconds per lookup by username, UUID and email.
+     */
+    private static long[] lookUp(UserList userList, String[] usernames, UUID[] ids, String[] emails) {
+        long[] nanos = new long[3];
+        long start = System.nanoTime();
+        for (String username : usernames) {
+            userList.getUser(username);
+        }
+        nanos[0] = (System.nanoTime() - start) / LOOKUPS;
+        start = System.nanoTime();
+        for (UUID id : ids) {
+            userList.findUserById(id);
+        }
+        nanos[1] = (System.nanoTime() - start) / LOOKUPS;
+        start = System.nanoTime();
+        for (String email : emails) {
+            userList.findUserByEmail(email);
+        }
+        nanos[2] = (System.nanoTime() - start) / LOOKUPS;
+        return nanos;
+    }
+
+    /**
+     * Returns the average nanoseconds to rename a user and look them up by the new name, which only moves that
+     * user's keys.
+     */
+    private static long rename(ArrayList<User> users, int size) {
+        int renames = Math.min(LOOKUPS, size);
+        long start = System.nanoTime();
+        for (int i = 0; i < renames; i++) {
+            users.get(i).setUsername("renamed" + i);
+        }
+        return (System.nanoTime() - start) / renames;
+    }
+
+    private static TrackedArrayList<User> buildUsers(int count) {
+        TrackedArrayList<User> users = new TrackedArrayList<>();
+        users.ensureCapacity(count);
+        for (int i = 0; i < count; i++) {
+            users.add(new User(UUID.randomUUID(), "user" + i, "user" + i + "@example.com", "password"));
+        }
+        return users;
+    }
+}
@@ -1,11 +1,16 @@
 package com.narration;
 
+import java.util.ArrayList;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.After;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -87,4 +92,174 @@ public void tearDown() {
     }
 
 
+    @Test
+    public void testUserWithoutId_DoesNotBreakLookups() {
+        User noId = new User(null, "noid", "noid@example.com", "password");
+        userList.addUser(noId);
+        User another = new User(UUID.randomUUID(), "user3", "user3@example.com", "password3");
+        userList.addUser(another);
+
+        assertSame(noId, userList.getUser("noid"));
+        assertSame(another, userList.getUser("user3"));
+        assertSame(user1, userList.findUserById(user1.getId()));
+        userList.removeUser(another.getId());
+        assertNull(userList.getUser("user3"));
+        assertSame(noId, userList.getUser("noid"));
+    }
+
+    @Test
+    public void testGetUser_IgnoresCase() {
+        assertSame(user1, userList.getUser("USER1"));
+        assertNull(userList.getUser("user9"));
+        assertNull(userList.getUser(null));
+    }
+
+    @Test
+    public void testFindUserByEmail() {
+        assertSame(user2, userList.findUserByEmail("User2@Example.com"));
+        assertNull(userList.findUserByEmail("nobody@example.com"));
+    }
+
+    @Test
+    public void testRemoveUser_RemovedFromIndexes() {
+        userList.removeUser(user1.getId());
+
+        assertNull(userList.getUser("user1"));
+        assertNull(userList.findUserById(user1.getId()));
+        assertNull(userList.findUserByEmail("user1@example.com"));
+        assertSame(user2, userList.getUser("user2"));
+    }
+
+    @Test
+    public void testRenamedUser_FoundByNewName() {
+        user1.setUsername("renamed");
+        user1.setEmail("renamed@example.com");
+
+        assertSame(user1, userList.getUser("renamed"));
+        assertSame(user1, userList.findUserByEmail("renamed@example.com"));
+        assertNull(userList.getUser("user1"));
+    }
+
+    @Test
+    public void testListChangedDirectly_IndexesFollow() {
+        userList.getUser("user1");
+        User user3 = new User(UUID.randomUUID(), "user3", "user3@example.com", "password3");
+
+        userList.getUsers().add(user3);
+        assertSame(user3, userList.getUser("user3"));
+
+        userList.getUsers().clear();
+        assertNull(userList.findUserById(user1.getId()));
+    }
+
+    @Test
+    public void testDuplicateUsername_FirstUserWins() {
+        User other = new User(UUID.randomUUID(), "USER1", "other@example.com", "password");
+        userList.addUser(other);
+
+        assertSame(user1, userList.getUser("user1"));
+        assertSame(other, userList.findUserById(other.getId()));
+    }
+
+    @Test
+    public void testRemoveUser_NextUserWithKeyTakesOver() {
+        User other = new User(UUID.randomUUID(), "USER1", "user1@example.com", "password");
+        userList.addUser(other);
+
+        userList.removeUser(user1.getId());
+        assertSame(other, userList.getUser("user1"));
+        assertSame(other, userList.findUserByEmail("user1@example.com"));
+        userList.removeUser(other.getId());
+    }
+
+    @Test
+    public void testRenameAfterRemove_NotIndexed() {
+        userList.removeUser(user1.getId());
+        user1.setUsername("ghost");
+        user1.setEmail("ghost@example.com");
+
+        assertNull(userList.getUser("ghost"));
+        assertNull(userList.findUserByEmail("ghost@example.com"));
+    }
+
+    @Test
+    public void testConcurrentAddAndLookup() throws InterruptedException {
+        UserList list = new UserList(new TrackedArrayList<>(), new Object());
+        int threads = 8;
+        int perThread = 500;
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger missed = new AtomicInteger();
+        ArrayList<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            workers.add(new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perThread; i++) {
+                    String name = "user" + thread + "-" + i;
+                    User user = new User(UUID.randomUUID(), name, name + "@example.com", "password");
+                    list.addUser(user);
+                    if (list.getUser(name) != user || list.findUserById(user.getId()) != user) {
+                        missed.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        for (Thread worker : workers) {
+            worker.start();
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        assertEquals(0, missed.get());
+        assertEquals(threads * perThread, list.getTotalUsers());
+        assertTrue(list.findUserByEmail("user7-499@example.com") != null);
+    }
+
+
+    @Test(timeout = 10_000)
+    public void testLookupDuringRebuild_DoesNotWait() throws InterruptedException {
+        Object lock = new Object();
+        TrackedArrayList<User> users = new TrackedArrayList<>();
+        UserList list = new UserList(users, lock);
+        User alice = new User(UUID.randomUUID(), "alice", "alice@example.com", "password");
+        User bob = new User(UUID.randomUUID(), "bob", "bob@example.com", "password");
+        list.addUser(alice);
+        users.add(bob);
+
+        CountDownLatch held = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread writer = new Thread(() -> {
+            synchronized (lock) {
+                held.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        writer.start();
+        held.await();
+        User[] rebuilt = new User[1];
+        Thread rebuilder = new Thread(() -> rebuilt[0] = list.getUser("bob"));
+        rebuilder.start();
+        while (rebuilder.getState() != Thread.State.BLOCKED) {
+            Thread.sleep(1);
+        }
+
+        // the rebuilder is waiting for the lock, so this lookup must answer from the current index
+        assertEquals(alice, list.getUser("alice"));
+
+        release.countDown();
+        rebuilder.join();
+        writer.join();
+        assertEquals(bob, rebuilt[0]);
+    }
+
 }
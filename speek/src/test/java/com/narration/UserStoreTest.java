@@ -0,0 +1,124 @@
+package com.narration;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test class for the UserStore class.
+ */
+public class UserStoreTest {
+
+    private static final String TEST_STORE_USERS_FILE = "testData/StoreUsers.json";
+
+    private UserStore store;
+
+    @Before
+    public void setUp() throws IOException {
+        new File("testData").mkdirs();
+        ArrayList<User> users = new ArrayList<>();
+        users.add(new User(UUID.randomUUID(), "jennyJ", "jenny@gmail.com", "password"));
+        StreamingJsonWriter.writeUsers(TEST_STORE_USERS_FILE, users);
+        store = new UserStore(TEST_STORE_USERS_FILE);
+    }
+
+    @After
+    public void tearDown() {
+        new File(TEST_STORE_USERS_FILE).delete();
+    }
+
+    @Test
+    public void testGetUsers_LoadsOnce() {
+        ArrayList<User> first = store.getUsers();
+        User jenny = first.get(0);
+
+        ArrayList<User> second = store.getUsers();
+        assertSame(first, second);
+        assertSame(jenny, second.get(0));
+    }
+
+    @Test
+    public void testGetUsers_ReloadsWhenFileChanges() throws IOException {
+        User jenny = store.getUsers().get(0);
+
+        ArrayList<User> changed = new ArrayList<>();
+        changed.add(new User(UUID.randomUUID(), "other", "other@example.com", "secret"));
+        changed.add(new User(UUID.randomUUID(), "third", "third@example.com", "secret"));
+        StreamingJsonWriter.writeUsers(TEST_STORE_USERS_FILE, changed);
+        new File(TEST_STORE_USERS_FILE).setLastModified(System.currentTimeMillis() + 5000);
+
+        ArrayList<User> reloaded = store.getUsers();
+        assertEquals(2, reloaded.size());
+        assertEquals("other", reloaded.get(0).getUsername());
+        assertNotSame(jenny, reloaded.get(0));
+    }
+
+    @Test
+    public void testOnReplace_RunsAfterEachReload() throws IOException {
+        AtomicInteger replaced = new AtomicInteger();
+        store.onReplace(replaced::incrementAndGet);
+
+        store.getUsers();
+        store.getUsers();
+        assertEquals(1, replaced.get());
+
+        ArrayList<User> changed = new ArrayList<>();
+        changed.add(new User(UUID.randomUUID(), "other", "other@example.com", "secret"));
+        StreamingJsonWriter.writeUsers(TEST_STORE_USERS_FILE, changed);
+        new File(TEST_STORE_USERS_FILE).setLastModified(System.currentTimeMillis() + 5000);
+        store.getUsers();
+        assertEquals(2, replaced.get());
+    }
+
+    @Test
+    public void testGetUsers_SameContentNewTimestampKeepsObjects() {
+        User jenny = store.getUsers().get(0);
+        new File(TEST_STORE_USERS_FILE).setLastModified(System.currentTimeMillis() + 5000);
+
+        assertSame(jenny, store.getUsers().get(0));
+    }
+
+    @Test
+    public void testSave_DoesNotTriggerReload() {
+        User jenny = store.getUsers().get(0);
+        store.getUsers().add(new User(UUID.randomUUID(), "newbie", "newbie@example.com", "pass"));
+
+        store.save();
+
+        assertEquals(2, store.getUsers().size());
+        assertSame(jenny, store.getUsers().get(0));
+        assertEquals(2, DataLoader.getUsers(TEST_STORE_USERS_FILE).size());
+    }
+
+    @Test
+    public void testConfirmUser() {
+        assertTrue(store.confirmUser("jennyJ", "password"));
+        assertFalse(store.confirmUser("jennyJ", "wrong"));
+    }
+
+    @Test
+    public void testSave_SkipsWriteWhenNothingChanged() {
+        store.getUsers();
+        File file = new File(TEST_STORE_USERS_FILE);
+        file.setLastModified(1000);
+
+        store.save();
+        assertEquals(1000, file.lastModified());
+
+        store.getUsers().get(0).setEmail("changed@example.com");
+        store.save();
+        assertFalse(file.lastModified() == 1000);
+        assertFalse(store.getUsers().get(0).isDirty());
+    }
+}
@@ -4,9 +4,11 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.UUID;
 
 import org.junit.After;
@@ -180,4 +182,109 @@ public class UserTest {
         user.completeCourse(invalidCourseId);
         assertTrue(user.getCompletedCourses().contains(invalidCourseId));
     }
+
+    // Test cases for change tracking
+
+    @Test
+    public void testNewUser_IsDirty() {
+        assertTrue(user.isDirty());
+    }
+
+    @Test
+    public void testMarkSaved_ThenMutatorMakesDirty() {
+        user.markSaved(user.getVersion());
+        assertFalse(user.isDirty());
+
+        user.updateCourseProgress(courseId1, 50.0);
+        assertTrue(user.isDirty());
+    }
+
+    @Test
+    public void testMarkSaved_OlderVersionStaysDirty() {
+        long version = user.getVersion();
+        user.setEmail("changed@example.com");
+        user.markSaved(version);
+        assertTrue(user.isDirty());
+    }
+
+    @Test
+    public void testConstructor_MovesPerUserStateToEnrollment() {
+        UUID lessonId = UUID.randomUUID();
+        ArrayList<Lesson> lessons = new ArrayList<>();
+        lessons.add(new Lesson("Greetings", lessonId, "Saying hello", 30.0, "Hello", "Hola"));
+        ArrayList<Course> courses = new ArrayList<>();
+        courses.add(new Course(courseId1, "Course 1", "Description of Course 1", true, 60.0, true,
+                lessons, new ArrayList<>(), new ArrayList<>(), null));
+
+        User loaded = new User(UUID.randomUUID(), "loaded", "loaded@example.com", "password", courses, new HashMap<>(),
+                new ArrayList<>(), null, new ArrayList<>(), null, "English");
+
+        assertTrue(loaded.hasCourseAccess(courseId1));
+        assertEquals(60.0, loaded.getCourseProgress(courseId1), 0.01);
+        assertTrue(loaded.getCompletedCourses().contains(courseId1));
+        assertEquals(30.0, loaded.getLessonProgress(courseId1, lessonId), 0.01);
+    }
+
+    @Test
+    public void testAddCourse_SharesCourseBetweenUsers() {
+        User other = new User(UUID.randomUUID(), "other", "other@example.com", "password");
+        user.addCourse(course1);
+        other.addCourse(new Course(courseId1, "Course 1", "Copy of Course 1", false, 0.0, false,
+                new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), null));
+
+        assertSame(user.getCourses().get(0), other.getCourses().get(0));
+    }
+
+    @Test
+    public void testCourseAccess_IsPerUser() {
+        User other = new User(UUID.randomUUID(), "other", "other@example.com", "password");
+        user.addCourse(course2);
+        other.addCourse(course2);
+
+        user.setCourseAccess(courseId2, true);
+        user.updateLessonProgress(courseId2, courseId1, 40.0);
+
+        assertTrue(user.hasCourseAccess(courseId2));
+        assertFalse(other.hasCourseAccess(courseId2));
+        assertEquals(0.0, other.getLessonProgress(courseId2, courseId1), 0.01);
+        assertNotNull(other.getEnrollment(courseId2));
+    }
+
+    @Test
+    public void testConstructor_DoesNotShareTheRecordsCopy() {
+        ArrayList<Course> courses = new ArrayList<>();
+        courses.add(course1);
+        User loaded = new User(UUID.randomUUID(), "loaded", "loaded@example.com", "password", courses, new HashMap<>(),
+                new ArrayList<>(), null, new ArrayList<>(), null, "English");
+
+        assertNull(CourseCatalog.find(courseId1));
+        assertSame(course1, loaded.getCourses().get(0));
+        assertTrue(loaded.hasCourseAccess(courseId1));
+    }
+
+    @Test
+    public void testCompleteLesson_IsPerUser() {
+        Lesson first = new Lesson("First", UUID.randomUUID(), "", 0.0, "One", "Uno");
+        Lesson second = new Lesson("Second", UUID.randomUUID(), "", 0.0, "Two", "Dos");
+        ArrayList<Lesson> lessons = new ArrayList<>();
+        lessons.add(first);
+        lessons.add(second);
+        Course course = new Course(UUID.randomUUID(), "Numbers", "", false, 0.0, false,
+                lessons, new ArrayList<>(), new ArrayList<>(), null);
+        User other = new User(UUID.randomUUID(), "other", "other@example.com", "password");
+        user.addCourse(course);
+        other.addCourse(course);
+
+        assertEquals(50.0, user.completeLesson(course, first), 0.01);
+        assertEquals(100.0, user.getLessonProgress(course.getId(), first.getId()), 0.01);
+        assertEquals(50.0, user.getCourseProgress(course.getId()), 0.01);
+        assertFalse(user.getCompletedCourses().contains(course.getId()));
+        assertEquals(100.0, user.completeLesson(course, second), 0.01);
+        assertTrue(user.getCompletedCourses().contains(course.getId()));
+
+        assertFalse(first.isCompleted());
+        assertEquals(0.0, course.getCourseProgress(), 0.01);
+        assertEquals(0.0, other.getLessonProgress(course.getId(), first.getId()), 0.01);
+        assertEquals(0.0, other.getCourseProgress(course.getId()), 0.01);
+    }
 }
@@ -5,6 +5,7 @@ import java.util.UUID;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import org.junit.Before;
 import org.junit.Test;
@@ -99,6 +100,26 @@ public class WordTest {
         assertEquals("Difficulty should be 'easy'", "easy", word.getDifficulty());
     }
 
+    @Test
+    public void testGetLevel() {
+        assertNull("'easy' is not a difficulty level", word.getLevel());
+        word.setDifficulty("Intermediate");
+        assertEquals(Difficulty.INTERMEDIATE, word.getLevel());
+        assertEquals("Intermediate", word.getDifficulty());
+    }
+
+    // Test that a recognized difficulty is reported the way the data files write it
+    @Test
+    public void testGetDifficulty_DerivedFromLevel() {
+        word.setDifficulty(" ADVANCED ");
+        assertEquals(Difficulty.ADVANCED, word.getLevel());
+        assertEquals("Advanced", word.getDifficulty());
+
+        word.setDifficulty(null);
+        assertNull(word.getLevel());
+        assertNull(word.getDifficulty());
+    }
+
     // Test setDifficulty
     @Test
     public void testSetDifficulty() {
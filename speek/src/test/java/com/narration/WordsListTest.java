@@ -3,6 +3,7 @@ package com.narration;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
@@ -76,4 +77,84 @@ public class WordsListTest {
         assertTrue("Words list should contain word1", allWords.contains(word1));
         assertTrue("Words list should contain word2", allWords.contains(word2));
     }
+
+    // Test removeWord and removeWords
+    @Test
+    public void testRemoveWord_MovesLastWordIntoPlace() {
+        Word word3 = new Word("adiós", "a farewell", "Rudimentary", "goodbye");
+        wordsList.addWord(word1);
+        wordsList.addWord(word2);
+        wordsList.addWord(word3);
+
+        assertTrue(wordsList.removeWord(word1));
+        assertFalse(wordsList.removeWord(word1));
+        assertEquals(2, wordsList.getAllWords().size());
+        assertTrue(wordsList.getAllWords().contains(word2));
+        assertTrue(wordsList.getAllWords().contains(word3));
+
+        assertEquals(1, wordsList.removeWords("ADIOS"));
+        assertEquals(0, wordsList.removeWords("adios"));
+        assertEquals(1, wordsList.getAllWords().size());
+        assertTrue(wordsList.getAllWords(Difficulty.RUDIMENTARY).isEmpty());
+    }
+
+    @Test
+    public void testRemoveWords_RemovesEveryWordWithTheText() {
+        Word again = new Word("Hello", "another greeting", "easy", "hola");
+        wordsList.addWord(word1);
+        wordsList.addWord(word2);
+        wordsList.addWord(again);
+
+        assertEquals(2, wordsList.removeWords("hello"));
+        assertEquals(1, wordsList.getAllWords().size());
+        assertEquals(word2, wordsList.getAllWords().get(0));
+    }
+
+    // Test getRandomWord(Difficulty) and getAllWords(Difficulty)
+    @Test
+    public void testWordsByDifficulty() {
+        Word rudimentary = new Word("hola", "a greeting", "Rudimentary", "hello");
+        Word advanced = new Word("desafortunadamente", "unfortunately", "ADVANCED", "unfortunately");
+        wordsList.addWord(word1);
+        wordsList.addWord(rudimentary);
+        wordsList.addWord(advanced);
+
+        assertEquals(1, wordsList.getAllWords(Difficulty.RUDIMENTARY).size());
+        assertEquals(rudimentary, wordsList.getRandomWord(Difficulty.RUDIMENTARY));
+        assertEquals(advanced, wordsList.getRandomWord(Difficulty.ADVANCED));
+        assertNull(wordsList.getRandomWord(Difficulty.INTERMEDIATE));
+        assertTrue(wordsList.getAllWords(Difficulty.INTERMEDIATE).isEmpty());
+        assertTrue(wordsList.getAllWords(null).isEmpty());
+
+        wordsList.removeWord(rudimentary);
+        assertNull(wordsList.getRandomWord(Difficulty.RUDIMENTARY));
+        assertEquals(advanced, wordsList.getRandomWord(Difficulty.ADVANCED));
+    }
+
+    // Test that a word moves between difficulty buckets when its difficulty changes
+    @Test
+    public void testSetDifficulty_MovesWordToItsNewBucket() {
+        Word rudimentary = new Word("hola", "a greeting", "Rudimentary", "hello");
+        Word other = new Word("adios", "a farewell", "Rudimentary", "goodbye");
+        wordsList.addWord(word1);
+        wordsList.addWord(rudimentary);
+        wordsList.addWord(other);
+
+        rudimentary.setDifficulty("Advanced");
+        assertEquals(1, wordsList.getAllWords(Difficulty.RUDIMENTARY).size());
+        assertEquals(other, wordsList.getRandomWord(Difficulty.RUDIMENTARY));
+        assertEquals(rudimentary, wordsList.getRandomWord(Difficulty.ADVANCED));
+
+        word1.setDifficulty("intermediate");
+        assertEquals(word1, wordsList.getRandomWord(Difficulty.INTERMEDIATE));
+
+        rudimentary.setDifficulty("unknown");
+        assertTrue(wordsList.getAllWords(Difficulty.ADVANCED).isEmpty());
+
+        // a word that left the list no longer changes it
+        wordsList.removeWord(other);
+        other.setDifficulty("Advanced");
+        assertTrue(wordsList.getAllWords(Difficulty.ADVANCED).isEmpty());
+        assertTrue(wordsList.getAllWords(Difficulty.RUDIMENTARY).isEmpty());
+    }
 }
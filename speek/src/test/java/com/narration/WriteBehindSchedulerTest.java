@@ -0,0 +1,80 @@
+package com.narration;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test class for the WriteBehindScheduler class.
+ */
+public class WriteBehindSchedulerTest {
+
+    private WriteBehindScheduler scheduler;
+    private AtomicInteger saves;
+
+    @Before
+    public void setUp() {
+        scheduler = new WriteBehindScheduler(60_000, 1_000);
+        saves = new AtomicInteger();
+    }
+
+    @Test
+    public void testMarkDirty_ManyChangesSaveOnce() {
+        for (int i = 0; i < 100; i++) {
+            scheduler.markDirty("courses", saves::incrementAndGet);
+        }
+        assertEquals(0, saves.get());
+        assertTrue(scheduler.isDirty("courses"));
+
+        scheduler.flushAll();
+        assertEquals(1, saves.get());
+        assertFalse(scheduler.isDirty("courses"));
+    }
+
+    @Test
+    public void testMarkDirty_NoDelaySavesRightAway() {
+        scheduler.setDelayMillis(0);
+        scheduler.markDirty("users", saves::incrementAndGet);
+        scheduler.markDirty("users", saves::incrementAndGet);
+        assertEquals(2, saves.get());
+    }
+
+    @Test
+    public void testMarkDirty_DelayedSaveRunsInBackground() throws InterruptedException {
+        CountDownLatch saved = new CountDownLatch(1);
+        scheduler.setDelayMillis(20);
+        scheduler.markDirty("courses", saved::countDown);
+        assertTrue(saved.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testMarkDirty_ThresholdSavesBeforeDelay() throws InterruptedException {
+        CountDownLatch saved = new CountDownLatch(1);
+        scheduler.setFlushThreshold(3);
+        scheduler.markDirty("courses", saves::incrementAndGet);
+        scheduler.markDirty("courses", saves::incrementAndGet);
+        scheduler.markDirty("courses", saved::countDown);
+        assertTrue(saved.await(5, TimeUnit.SECONDS));
+        assertEquals("only the newest save action runs", 0, saves.get());
+    }
+
+    @Test
+    public void testFlush_OnlySavesRequestedKey() {
+        AtomicInteger userSaves = new AtomicInteger();
+        scheduler.markDirty("courses", saves::incrementAndGet);
+        scheduler.markDirty("users", userSaves::incrementAndGet);
+
+        scheduler.flush("users");
+        assertEquals(1, userSaves.get());
+        assertEquals(0, saves.get());
+        assertTrue(scheduler.isDirty("courses"));
+        scheduler.flushAll();
+        assertEquals(1, saves.get());
+    }
+}